@@ -0,0 +1,272 @@
+/**
+ * Import BufferedImage, ByteArrayInputStream, IOException, OutputStream, UncheckedIOException,
+ * StandardCharsets, Channels, SplittableRandom and Supplier packages.
+ */
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * This class builds the workloads measured by the JMH benchmarks in the benchmarks package. JMH
+ * does not accept benchmark classes in the default package, and classes in a named package
+ * cannot refer to the classes of this project, so each workload is built here, with its input
+ * data generated up front, and handed to the benchmark as a Supplier whose result the benchmark
+ * consumes. The data is generated with fixed seeds in the shape of the course data files:
+ * linedata points scattered around a line over x from -400 to 400, and clusterdata points in
+ * round groups.
+ */
+public class BenchmarkWorkloads {
+
+  /**
+   * Private constructor since this class only has static methods.
+   */
+  private BenchmarkWorkloads() {
+  }
+
+  /**
+   * Public static method that generates n points shaped like the linedata files: x evenly
+   * spread from -400 to 400 and y on the line y = 0.65x + 12 with normal noise.
+   *
+   * @param n    the number of points.
+   * @param seed the seed of the noise.
+   * @return the x coordinates in the first array and the y coordinates in the second.
+   */
+  public static double[][] linePoints(int n, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    double[][] points = new double[2][n];
+    for (int i = 0; i < n; i++) {
+      double x = -400 + 800.0 * i / Math.max(1, n - 1);
+      points[0][i] = x;
+      points[1][i] = 0.65 * x + 12 + 25 * gaussian(random);
+    }
+    return points;
+  }
+
+  /**
+   * Public static method that generates n points shaped like the clusterdata files: k round
+   * groups of about the same size with centers from -150 to 450 on both axes.
+   *
+   * @param n    the number of points.
+   * @param k    the number of groups.
+   * @param seed the seed of the centers and the points.
+   * @return the x coordinates in the first array and the y coordinates in the second.
+   */
+  public static double[][] clusterPoints(int n, int k, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    double[] centersX = new double[k];
+    double[] centersY = new double[k];
+    for (int j = 0; j < k; j++) {
+      centersX[j] = -150 + 600 * random.nextDouble();
+      centersY[j] = -150 + 600 * random.nextDouble();
+    }
+    double[][] points = new double[2][n];
+    for (int i = 0; i < n; i++) {
+      int j = random.nextInt(k);
+      points[0][i] = centersX[j] + 35 * gaussian(random);
+      points[1][i] = centersY[j] + 35 * gaussian(random);
+    }
+    return points;
+  }
+
+  /**
+   * Public static method that writes points as the text of a data file, with two decimals as in
+   * the course data files.
+   *
+   * @param points the x coordinates in the first array and the y coordinates in the second.
+   * @return the text of the data file as ASCII bytes.
+   */
+  public static byte[] dataFile(double[][] points) {
+    StringBuilder text = new StringBuilder(points[0].length * 16);
+    for (int i = 0; i < points[0].length; i++) {
+      text.append(String.format("%.2f %.2f%n", points[0][i], points[1][i]));
+    }
+    return text.toString().getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Public static method that returns the workload that adds n linedata points one at a time to
+   * a new DataAnalysis.
+   *
+   * @param n the number of points.
+   * @return the workload, which returns the DataAnalysis.
+   */
+  public static Supplier<Object> addData(int n) {
+    double[][] points = linePoints(n, 1);
+    return () -> {
+      DataAnalysis data = new DataAnalysis();
+      for (int i = 0; i < n; i++) {
+        data.addData(points[0][i], points[1][i]);
+      }
+      return data;
+    };
+  }
+
+  /**
+   * Public static method that returns the workload that fits a line to n linedata points.
+   *
+   * @param n the number of points.
+   * @return the workload, which returns the line as a String.
+   */
+  public static Supplier<Object> fitLine(int n) {
+    double[][] points = linePoints(n, 2);
+    DataAnalysis data = new DataAnalysis();
+    data.addAll(points[0], points[1]);
+    return data::fitLine;
+  }
+
+  /**
+   * Public static method that returns the workload that clusters n clusterdata points into k
+   * clusters with seeded k-means, with the default 10 restarts.
+   *
+   * @param n           the number of points.
+   * @param k           the number of clusters, which is also the number of groups generated.
+   * @param accelerated true to use the Hamerly assignment step.
+   * @param parallel    true to run the restarts in parallel.
+   * @param storage     how the points are kept: "double", "float" or "fixed" with 2 decimal
+   *                    places.
+   * @return the workload, which returns the cluster of each point.
+   */
+  public static Supplier<Object> kmeans(int n, int k, boolean accelerated, boolean parallel,
+                                        String storage) {
+    double[][] points = clusterPoints(n, k, 3);
+    DataAnalysis data = new DataAnalysis(columns(storage));
+    data.addAll(points[0], points[1]);
+    KMeansOptions options = new KMeansOptions();
+    options.setSeed(4);
+    options.setAccelerated(accelerated);
+    options.setParallel(parallel);
+    return () -> data.kmeans(k, options);
+  }
+
+  /**
+   * Public static method that returns empty columns of the storage mode given.
+   *
+   * @param storage "double", "float" or "fixed" with 2 decimal places.
+   * @return the empty columns.
+   * @throws IllegalArgumentException if the storage mode is not one of the three.
+   */
+  public static PointColumns columns(String storage) throws IllegalArgumentException {
+    switch (storage) {
+      case "double":
+        return new DoublePointColumns();
+      case "float":
+        return new FloatPointColumns();
+      case "fixed":
+        return new FixedPointColumns(2);
+      default:
+        throw new IllegalArgumentException("Unknown storage: " + storage);
+    }
+  }
+
+  /**
+   * Public static method that returns the workload that parses a clusterdata file of n points
+   * held in memory with DataSetLoader.
+   *
+   * @param n the number of points.
+   * @return the workload, which returns the number of points read.
+   */
+  public static Supplier<Object> parse(int n) {
+    byte[] file = dataFile(clusterPoints(n, 4, 5));
+    double[] sum = new double[1];
+    return () -> {
+      try {
+        long read = DataSetLoader.read(Channels.newChannel(new ByteArrayInputStream(file)),
+                (x, y) -> sum[0] += x + y);
+        return read + sum[0];
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    };
+  }
+
+  /**
+   * Public static method that returns the workload that plots n clusterdata points in 4 colors
+   * on a 600 by 600 image and encodes it as a PNG into a stream that discards it.
+   *
+   * @param n         the number of points.
+   * @param imageType the type of the encoded image: "argb", "rgb" or "indexed".
+   * @return the workload, which returns the number of bytes encoded.
+   */
+  public static Supplier<Object> plot(int n, String imageType) {
+    double[][] points = clusterPoints(n, 4, 6);
+    int[] colors = {0xFFFF0000, 0xFF0000FF, 0xFF00FF00, 0xFFFF00FF};
+    ImagePlotter plotter = new ImagePlotter();
+    plotter.setWidth(600);
+    plotter.setHeight(600);
+    plotter.setDimensions(-300, 600, -300, 600);
+    for (int i = 0; i < n; i++) {
+      plotter.addPoint((int) Math.round(points[0][i]), (int) Math.round(points[1][i]),
+              colors[i % colors.length]);
+    }
+    plotter.setImageType(imageType(imageType));
+    return () -> {
+      CountingStream out = new CountingStream();
+      try {
+        plotter.write(out, "png");
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return out.count;
+    };
+  }
+
+  /**
+   * Private helper method that returns the BufferedImage type named by the text given.
+   *
+   * @param name "argb", "rgb" or "indexed".
+   * @return the image type as a BufferedImage type constant.
+   * @throws IllegalArgumentException if the name is not one of the three.
+   */
+  private static int imageType(String name) throws IllegalArgumentException {
+    switch (name) {
+      case "argb":
+        return BufferedImage.TYPE_INT_ARGB;
+      case "rgb":
+        return BufferedImage.TYPE_INT_RGB;
+      case "indexed":
+        return BufferedImage.TYPE_BYTE_INDEXED;
+      default:
+        throw new IllegalArgumentException("Unknown image type: " + name);
+    }
+  }
+
+  /**
+   * Private helper method that returns a normally distributed value with the Box-Muller
+   * transform.
+   *
+   * @param random the random number generator.
+   * @return the value, with mean 0 and standard deviation 1.
+   */
+  private static double gaussian(SplittableRandom random) {
+    return Math.sqrt(-2 * Math.log(1 - random.nextDouble()))
+            * Math.cos(2 * Math.PI * random.nextDouble());
+  }
+
+  /**
+   * This class is an output stream that counts the bytes written to it and discards them.
+   */
+  private static final class CountingStream extends OutputStream {
+
+    /**
+     * The number of bytes written.
+     */
+    private long count;
+
+    @Override
+    public void write(int b) {
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      count += len;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures adding linedata points one at a time to a DataAnalysis with addData.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class AddDataBenchmark {
+
+  /**
+   * The number of points added.
+   */
+  @Param({"1000", "100000", "1000000"})
+  public int n;
+
+  /**
+   * The workload being measured.
+   */
+  private Supplier<Object> workload;
+
+  /**
+   * Builds the workload and its input data before it is measured.
+   */
+  @Setup
+  public void setUp() {
+    workload = Workloads.get("addData", n);
+  }
+
+  /**
+   * Runs the workload once.
+   *
+   * @return the result of the workload, which JMH consumes.
+   */
+  @Benchmark
+  public Object run() {
+    return workload.get();
+  }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures fitLine on a DataAnalysis holding linedata points.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class FitLineBenchmark {
+
+  /**
+   * The number of points.
+   */
+  @Param({"400", "100000", "1000000"})
+  public int n;
+
+  /**
+   * The workload being measured.
+   */
+  private Supplier<Object> workload;
+
+  /**
+   * Builds the workload and its input data before it is measured.
+   */
+  @Setup
+  public void setUp() {
+    workload = Workloads.get("fitLine", n);
+  }
+
+  /**
+   * Runs the workload once.
+   *
+   * @return the result of the workload, which JMH consumes.
+   */
+  @Benchmark
+  public Object run() {
+    return workload.get();
+  }
+}
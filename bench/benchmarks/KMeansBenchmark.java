@@ -0,0 +1,83 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures seeded k-means with 10 restarts on clusterdata points at several sizes and numbers of
+ * clusters, with the plain or the accelerated assignment step, sequential or parallel restarts, and
+ * the points kept as doubles, floats or fixed-point ints.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class KMeansBenchmark {
+
+  /**
+   * The number of points.
+   */
+  @Param({"1000", "20000", "200000"})
+  public int n;
+
+  /**
+   * The number of clusters, which is also the number of groups generated.
+   */
+  @Param({"2", "6", "32"})
+  public int k;
+
+  /**
+   * Whether the Hamerly assignment step is used.
+   */
+  @Param({"false", "true"})
+  public boolean accelerated;
+
+  /**
+   * Whether the restarts run in parallel.
+   */
+  @Param({"false", "true"})
+  public boolean parallel;
+
+  /**
+   * How the points are kept: as doubles, floats or fixed-point ints with 2 decimal places.
+   */
+  @Param({"double", "float", "fixed"})
+  public String storage;
+
+  /**
+   * The workload being measured.
+   */
+  private Supplier<Object> workload;
+
+  /**
+   * Builds the workload and its input data before it is measured.
+   */
+  @Setup
+  public void setUp() {
+    workload = Workloads.get("kmeans", n, k, accelerated, parallel, storage);
+  }
+
+  /**
+   * Runs the workload once.
+   *
+   * @return the result of the workload, which JMH consumes.
+   */
+  @Benchmark
+  public Object run() {
+    return workload.get();
+  }
+}
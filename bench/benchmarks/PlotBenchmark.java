@@ -0,0 +1,64 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures plotting clusterdata points in 4 colors with ImagePlotter and encoding the 600 by 600
+ * image as a PNG, for each image type.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class PlotBenchmark {
+
+  /**
+   * The number of points plotted.
+   */
+  @Param({"2000", "100000", "2000000"})
+  public int n;
+
+  /**
+   * The type of the encoded image.
+   */
+  @Param({"argb", "rgb", "indexed"})
+  public String imageType;
+
+  /**
+   * The workload being measured.
+   */
+  private Supplier<Object> workload;
+
+  /**
+   * Builds the workload and its input data before it is measured.
+   */
+  @Setup
+  public void setUp() {
+    workload = Workloads.get("plot", n, imageType);
+  }
+
+  /**
+   * Runs the workload once.
+   *
+   * @return the result of the workload, which JMH consumes.
+   */
+  @Benchmark
+  public Object run() {
+    return workload.get();
+  }
+}
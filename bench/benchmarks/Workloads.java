@@ -0,0 +1,46 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+/**
+ * This class looks up the workloads built by BenchmarkWorkloads. JMH only accepts benchmark
+ * classes in a named package, and a named package cannot refer to the classes of this project,
+ * which are in the default package, so the workloads are found by reflection once, when a
+ * benchmark is set up. The measured call is then a plain call to Supplier.get.
+ */
+final class Workloads {
+
+  /**
+   * Private constructor since this class only has static methods.
+   */
+  private Workloads() {
+  }
+
+  /**
+   * Builds the workload with the name given by calling the method of BenchmarkWorkloads with
+   * that name.
+   *
+   * @param name the name of the workload method.
+   * @param args the arguments of the workload method.
+   * @return the workload.
+   * @throws IllegalStateException if the workload cannot be built.
+   */
+  @SuppressWarnings("unchecked")
+  static Supplier<Object> get(String name, Object... args) throws IllegalStateException {
+    try {
+      Class<?> workloads = Class.forName("BenchmarkWorkloads");
+      for (Method method : workloads.getMethods()) {
+        if (method.getName().equals(name) && method.getParameterCount() == args.length) {
+          return (Supplier<Object>) method.invoke(null, args);
+        }
+      }
+      throw new IllegalStateException("No workload named " + name);
+    } catch (ClassNotFoundException | IllegalAccessException e) {
+      throw new IllegalStateException("Cannot build the workload " + name, e);
+    } catch (InvocationTargetException e) {
+      throw new IllegalStateException("Cannot build the workload " + name, e.getCause());
+    }
+  }
+}
@@ -0,0 +1,742 @@
+/**
+ * Import ManagementFactory, ArrayDeque, ArrayList, Arrays, Deque, LinkedHashMap, List, Locale and
+ * Map packages.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This class collects the metrics of analysis runs when they are asked for. It is given to a
+ * DataSet, a KMeans object or a BatchRunner with setMetrics, and nothing is measured while no
+ * metrics object is set, so the only cost of the metrics when they are off is one null check per
+ * call. For each stage (parse, fit, cluster, render and encode) it keeps the number of calls, the
+ * total and largest time, and the bytes allocated by the calling thread when the Java runtime can
+ * count them. Only the calling thread is counted, so the bytes of a stage that hands work to a
+ * ForkJoinPool, such as parallel k-means restarts, the k-means sweep, DBSCAN and RANSAC, leave out
+ * what the pool threads allocate. For each k-means run it keeps the iterations, distance
+ * evaluations, final error and error of every iteration of each restart, and whether the restart
+ * stopped because it reached the largest number of iterations instead of converging. Only the most
+ * recent k-means runs are kept in full; the totals cover every run. The metrics can be exported as
+ * JSON or in the Prometheus text format. All methods are thread-safe.
+ */
+public class AnalysisMetrics {
+
+  /**
+   * The stage that parses data files.
+   */
+  public static final String PARSE = "parse";
+
+  /**
+   * The stage that fits lines.
+   */
+  public static final String FIT = "fit";
+
+  /**
+   * The stage that clusters points.
+   */
+  public static final String CLUSTER = "cluster";
+
+  /**
+   * The stage that renders images.
+   */
+  public static final String RENDER = "render";
+
+  /**
+   * The stage that encodes and writes images.
+   */
+  public static final String ENCODE = "encode";
+
+  /**
+   * The number of the most recent k-means runs kept in full by default.
+   */
+  public static final int DEFAULT_RUN_HISTORY = 32;
+
+  /**
+   * The bean that counts the bytes allocated by each thread, or null if the Java runtime cannot.
+   */
+  private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationBean();
+
+  /**
+   * The statistics of each stage, in the order the stages were first recorded.
+   */
+  private final Map<String, StageStats> stages;
+
+  /**
+   * The most recent k-means runs, oldest first.
+   */
+  private final Deque<KMeansRun> runs;
+
+  /**
+   * The number of the most recent k-means runs kept in full.
+   */
+  private final int runHistory;
+
+  /**
+   * The number of k-means runs recorded.
+   */
+  private long kmeansRuns;
+
+  /**
+   * The number of k-means restarts recorded.
+   */
+  private long kmeansRestarts;
+
+  /**
+   * The number of k-means iterations recorded, over every restart.
+   */
+  private long kmeansIterations;
+
+  /**
+   * The number of distance evaluations recorded, over every restart.
+   */
+  private long distanceEvaluations;
+
+  /**
+   * The number of restarts that reached the largest number of iterations without converging.
+   */
+  private long iterationCapHits;
+
+  /**
+   * Constructs the AnalysisMetrics object that keeps the default number of k-means runs in full.
+   */
+  public AnalysisMetrics() {
+    this(DEFAULT_RUN_HISTORY);
+  }
+
+  /**
+   * Constructs the AnalysisMetrics object that keeps the number of most recent k-means runs given
+   * in full.
+   *
+   * @param runHistory the number of k-means runs kept, or 0 to keep only the totals.
+   * @throws IllegalArgumentException if runHistory is negative.
+   */
+  public AnalysisMetrics(int runHistory) throws IllegalArgumentException {
+    if (runHistory < 0) {
+      throw new IllegalArgumentException("runHistory cannot be negative.");
+    }
+    this.runHistory = runHistory;
+    stages = new LinkedHashMap<>();
+    runs = new ArrayDeque<>();
+  }
+
+  /**
+   * Public method that starts timing a call of the stage given on the calling thread. The call is
+   * recorded when stop is called on the returned timer, which must be on the same thread for the
+   * allocated bytes to be counted. Only the bytes allocated by the calling thread are counted, not
+   * those allocated by pool threads the call hands work to.
+   *
+   * @param stage the name of the stage, such as FIT.
+   * @return the timer of the call as a Timer object.
+   */
+  public Timer start(String stage) {
+    return new Timer(stage);
+  }
+
+  /**
+   * Public method that records one call of the stage given.
+   *
+   * @param stage          the name of the stage, such as FIT.
+   * @param nanos          the time the call took in nanoseconds.
+   * @param allocatedBytes the bytes allocated by the call on the calling thread, or a negative
+   *                       number if not known. Bytes allocated by pool threads the call handed
+   *                       work to are not part of it.
+   */
+  public synchronized void recordTime(String stage, long nanos, long allocatedBytes) {
+    StageStats stats = stages.get(stage);
+    if (stats == null) {
+      stats = new StageStats();
+      stages.put(stage, stats);
+    }
+    stats.count++;
+    stats.totalNanos += nanos;
+    stats.maxNanos = Math.max(stats.maxNanos, nanos);
+    if (allocatedBytes >= 0) {
+      stats.allocatedBytes += allocatedBytes;
+    }
+  }
+
+  /**
+   * Public method that records a k-means run, adding it to the totals and to the most recent
+   * runs.
+   *
+   * @param run the k-means run.
+   */
+  public synchronized void recordKMeans(KMeansRun run) {
+    kmeansRuns++;
+    kmeansRestarts += run.getRestarts();
+    for (int a = 0; a < run.getRestarts(); a++) {
+      kmeansIterations += run.iterations[a];
+      distanceEvaluations += run.distances[a];
+      if (run.capped[a]) {
+        iterationCapHits++;
+      }
+    }
+    if (runHistory > 0) {
+      if (runs.size() == runHistory) {
+        runs.removeFirst();
+      }
+      runs.addLast(run);
+    }
+  }
+
+  /**
+   * Public method that forgets everything that was recorded.
+   */
+  public synchronized void reset() {
+    stages.clear();
+    runs.clear();
+    kmeansRuns = 0;
+    kmeansRestarts = 0;
+    kmeansIterations = 0;
+    distanceEvaluations = 0;
+    iterationCapHits = 0;
+  }
+
+  /**
+   * Public getter method that returns the names of the stages that were recorded.
+   *
+   * @return the stage names in the order they were first recorded.
+   */
+  public synchronized List<String> getStages() {
+    return new ArrayList<>(stages.keySet());
+  }
+
+  /**
+   * Public getter method that returns the number of calls recorded for the stage given.
+   *
+   * @param stage the name of the stage.
+   * @return the number of calls, or 0 if the stage was not recorded.
+   */
+  public synchronized long getCount(String stage) {
+    StageStats stats = stages.get(stage);
+    return stats == null ? 0 : stats.count;
+  }
+
+  /**
+   * Public getter method that returns the total time of the calls of the stage given.
+   *
+   * @param stage the name of the stage.
+   * @return the total time in nanoseconds, or 0 if the stage was not recorded.
+   */
+  public synchronized long getTotalNanos(String stage) {
+    StageStats stats = stages.get(stage);
+    return stats == null ? 0 : stats.totalNanos;
+  }
+
+  /**
+   * Public getter method that returns the time of the slowest call of the stage given.
+   *
+   * @param stage the name of the stage.
+   * @return the largest time in nanoseconds, or 0 if the stage was not recorded.
+   */
+  public synchronized long getMaxNanos(String stage) {
+    StageStats stats = stages.get(stage);
+    return stats == null ? 0 : stats.maxNanos;
+  }
+
+  /**
+   * Public getter method that returns the bytes allocated by the calls of the stage given on the
+   * threads that made them. Work a call hands to other threads, such as parallel restarts, is not
+   * counted.
+   *
+   * @param stage the name of the stage.
+   * @return the allocated bytes, or 0 if the stage was not recorded or they cannot be counted.
+   */
+  public synchronized long getAllocatedBytes(String stage) {
+    StageStats stats = stages.get(stage);
+    return stats == null ? 0 : stats.allocatedBytes;
+  }
+
+  /**
+   * Public getter method that returns the most recent k-means runs.
+   *
+   * @return the runs, oldest first, as a new list.
+   */
+  public synchronized List<KMeansRun> getKMeansRuns() {
+    return new ArrayList<>(runs);
+  }
+
+  /**
+   * Public getter method that returns the number of k-means runs recorded.
+   *
+   * @return the number of runs as a long.
+   */
+  public synchronized long getKMeansRunCount() {
+    return kmeansRuns;
+  }
+
+  /**
+   * Public getter method that returns the number of restarts, over every k-means run recorded,
+   * that reached the largest number of iterations without converging.
+   *
+   * @return the number of restarts as a long.
+   */
+  public synchronized long getIterationCapHits() {
+    return iterationCapHits;
+  }
+
+  /**
+   * Public method that returns the metrics as a JSON object with a "stages" object holding the
+   * statistics of each stage and a "kmeans" object holding the totals and the most recent runs.
+   * The "allocatedBytes" of a stage only counts the threads that made its calls, not the pool
+   * threads they handed work to. Numbers that are not finite are written as null.
+   *
+   * @return the metrics as a JSON String.
+   */
+  public synchronized String toJson() {
+    StringBuilder json = new StringBuilder(256);
+    json.append("{\"stages\":{");
+    boolean first = true;
+    for (Map.Entry<String, StageStats> entry : stages.entrySet()) {
+      StageStats stats = entry.getValue();
+      if (!first) {
+        json.append(',');
+      }
+      first = false;
+      appendString(json, entry.getKey());
+      json.append(":{\"count\":").append(stats.count)
+              .append(",\"totalNanos\":").append(stats.totalNanos)
+              .append(",\"maxNanos\":").append(stats.maxNanos)
+              .append(",\"allocatedBytes\":").append(stats.allocatedBytes).append('}');
+    }
+    json.append("},\"kmeans\":{\"runs\":").append(kmeansRuns)
+            .append(",\"restarts\":").append(kmeansRestarts)
+            .append(",\"iterations\":").append(kmeansIterations)
+            .append(",\"distanceEvaluations\":").append(distanceEvaluations)
+            .append(",\"iterationCapHits\":").append(iterationCapHits)
+            .append(",\"recent\":[");
+    first = true;
+    for (KMeansRun run : runs) {
+      if (!first) {
+        json.append(',');
+      }
+      first = false;
+      run.appendJson(json);
+    }
+    return json.append("]}}").toString();
+  }
+
+  /**
+   * Public method that returns the metrics in the Prometheus text exposition format. The stage
+   * times are written as a summary in seconds labelled with the stage, and the k-means totals as
+   * counters; the most recent runs are not included. The allocated bytes of a stage only count
+   * the threads that made its calls, as their help text says.
+   *
+   * @return the metrics as a String of Prometheus text lines.
+   */
+  public synchronized String toPrometheus() {
+    StringBuilder text = new StringBuilder(512);
+    text.append("# HELP analysis_stage_seconds Time spent in each analysis stage.\n")
+            .append("# TYPE analysis_stage_seconds summary\n");
+    for (Map.Entry<String, StageStats> entry : stages.entrySet()) {
+      String label = "{stage=\"" + entry.getKey() + "\"}";
+      text.append("analysis_stage_seconds_count").append(label).append(' ')
+              .append(entry.getValue().count).append('\n');
+      text.append("analysis_stage_seconds_sum").append(label).append(' ')
+              .append(seconds(entry.getValue().totalNanos)).append('\n');
+    }
+    text.append("# HELP analysis_stage_max_seconds Time of the slowest call of each stage.\n")
+            .append("# TYPE analysis_stage_max_seconds gauge\n");
+    for (Map.Entry<String, StageStats> entry : stages.entrySet()) {
+      text.append("analysis_stage_max_seconds{stage=\"").append(entry.getKey()).append("\"} ")
+              .append(seconds(entry.getValue().maxNanos)).append('\n');
+    }
+    text.append("# HELP analysis_stage_allocated_bytes_total Bytes allocated by each stage on"
+            + " its calling threads; work run on pool threads is not counted.\n")
+            .append("# TYPE analysis_stage_allocated_bytes_total counter\n");
+    for (Map.Entry<String, StageStats> entry : stages.entrySet()) {
+      text.append("analysis_stage_allocated_bytes_total{stage=\"").append(entry.getKey())
+              .append("\"} ").append(entry.getValue().allocatedBytes).append('\n');
+    }
+    appendCounter(text, "analysis_kmeans_runs_total", "K-means runs.", kmeansRuns);
+    appendCounter(text, "analysis_kmeans_restarts_total", "K-means restarts.", kmeansRestarts);
+    appendCounter(text, "analysis_kmeans_iterations_total", "K-means iterations.",
+            kmeansIterations);
+    appendCounter(text, "analysis_kmeans_distance_evaluations_total",
+            "Distances computed by k-means.", distanceEvaluations);
+    appendCounter(text, "analysis_kmeans_iteration_cap_hits_total",
+            "K-means restarts that reached the iteration limit without converging.",
+            iterationCapHits);
+    return text.toString();
+  }
+
+  /**
+   * Public static method that returns the bytes allocated so far by the calling thread.
+   *
+   * @return the allocated bytes, or -1 if the Java runtime cannot count them.
+   */
+  public static long allocatedBytes() {
+    if (ALLOCATIONS == null) {
+      return -1;
+    }
+    return ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * Private helper method that returns the bean that counts allocated bytes, if the Java runtime
+   * has one and it is turned on.
+   *
+   * @return the bean, or null if allocations cannot be counted.
+   */
+  private static com.sun.management.ThreadMXBean allocationBean() {
+    try {
+      if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+          return bean;
+        }
+      }
+    } catch (LinkageError | RuntimeException e) {
+      return null;
+    }
+    return null;
+  }
+
+  /**
+   * Private helper method that writes a Prometheus counter with its help and type lines.
+   *
+   * @param text  the text the counter is added to.
+   * @param name  the name of the counter.
+   * @param help  the description of the counter.
+   * @param value the value of the counter.
+   */
+  private static void appendCounter(StringBuilder text, String name, String help, long value) {
+    text.append("# HELP ").append(name).append(' ').append(help).append('\n')
+            .append("# TYPE ").append(name).append(" counter\n")
+            .append(name).append(' ').append(value).append('\n');
+  }
+
+  /**
+   * Private helper method that converts nanoseconds to seconds written without an exponent.
+   *
+   * @param nanos the time in nanoseconds.
+   * @return the time in seconds as a String.
+   */
+  private static String seconds(long nanos) {
+    return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+  }
+
+  /**
+   * Private helper method that writes a String as a JSON string.
+   *
+   * @param json  the text the string is added to.
+   * @param value the String.
+   */
+  private static void appendString(StringBuilder json, String value) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        json.append('\\').append(c);
+      } else if (c < 0x20) {
+        json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+      } else {
+        json.append(c);
+      }
+    }
+    json.append('"');
+  }
+
+  /**
+   * Private helper method that writes a double as a JSON number, or null if it is not finite.
+   *
+   * @param json  the text the number is added to.
+   * @param value the double.
+   */
+  private static void appendNumber(StringBuilder json, double value) {
+    if (Double.isFinite(value)) {
+      json.append(value);
+    } else {
+      json.append("null");
+    }
+  }
+
+  /**
+   * This class holds the statistics of one stage.
+   */
+  private static final class StageStats {
+
+    /**
+     * The number of calls.
+     */
+    private long count;
+
+    /**
+     * The total time of the calls in nanoseconds.
+     */
+    private long totalNanos;
+
+    /**
+     * The time of the slowest call in nanoseconds.
+     */
+    private long maxNanos;
+
+    /**
+     * The bytes allocated by the calls.
+     */
+    private long allocatedBytes;
+  }
+
+  /**
+   * This class times one call of a stage, from when it is created until stop is called.
+   */
+  public final class Timer {
+
+    /**
+     * The name of the stage.
+     */
+    private final String stage;
+
+    /**
+     * The time the call started, from System.nanoTime.
+     */
+    private final long start;
+
+    /**
+     * The bytes the thread had allocated when the call started, or -1 if not known.
+     */
+    private final long startAllocated;
+
+    /**
+     * Constructs the Timer object that starts timing a call of the stage given.
+     *
+     * @param stage the name of the stage.
+     */
+    private Timer(String stage) {
+      this.stage = stage;
+      startAllocated = allocatedBytes();
+      start = System.nanoTime();
+    }
+
+    /**
+     * Public method that stops the timer and records the call.
+     *
+     * @return the time the call took in nanoseconds.
+     */
+    public long stop() {
+      long nanos = System.nanoTime() - start;
+      long allocated = startAllocated < 0 ? -1 : allocatedBytes() - startAllocated;
+      recordTime(stage, nanos, allocated);
+      return nanos;
+    }
+  }
+
+  /**
+   * This class holds the metrics of one k-means run: for each restart, the iterations it ran,
+   * the distances it computed, its final error and the error after each of its iterations.
+   */
+  public static final class KMeansRun {
+
+    /**
+     * The number of points that were clustered.
+     */
+    private final int n;
+
+    /**
+     * The number of clusters.
+     */
+    private final int k;
+
+    /**
+     * The time the run took in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * The restart whose result was returned.
+     */
+    private final int bestRestart;
+
+    /**
+     * The number of iterations of each restart.
+     */
+    private final int[] iterations;
+
+    /**
+     * The number of distance evaluations of each restart.
+     */
+    private final long[] distances;
+
+    /**
+     * The final error of each restart.
+     */
+    private final double[] errors;
+
+    /**
+     * Whether each restart reached the largest number of iterations without converging.
+     */
+    private final boolean[] capped;
+
+    /**
+     * The error after each iteration of each restart; empty for mini-batch restarts.
+     */
+    private final double[][] traces;
+
+    /**
+     * Constructs the KMeansRun object. The arrays are kept, not copied.
+     *
+     * @param n            the number of points that were clustered.
+     * @param k            the number of clusters.
+     * @param elapsedNanos the time the run took in nanoseconds.
+     * @param bestRestart  the restart whose result was returned.
+     * @param iterations   the number of iterations of each restart.
+     * @param distances    the number of distance evaluations of each restart.
+     * @param errors       the final error of each restart.
+     * @param capped       whether each restart reached the iteration limit without converging.
+     * @param traces       the error after each iteration of each restart.
+     * @throws IllegalArgumentException if the arrays are not all the same length.
+     */
+    public KMeansRun(int n, int k, long elapsedNanos, int bestRestart, int[] iterations,
+                     long[] distances, double[] errors, boolean[] capped, double[][] traces)
+            throws IllegalArgumentException {
+      int restarts = iterations.length;
+      if (distances.length != restarts || errors.length != restarts
+              || capped.length != restarts || traces.length != restarts) {
+        throw new IllegalArgumentException("Every array must have one entry per restart.");
+      }
+      this.n = n;
+      this.k = k;
+      this.elapsedNanos = elapsedNanos;
+      this.bestRestart = bestRestart;
+      this.iterations = iterations;
+      this.distances = distances;
+      this.errors = errors;
+      this.capped = capped;
+      this.traces = traces;
+    }
+
+    /**
+     * Public getter method that returns the number of points that were clustered.
+     *
+     * @return the number of points as an integer.
+     */
+    public int getN() {
+      return n;
+    }
+
+    /**
+     * Public getter method that returns the number of clusters.
+     *
+     * @return k as an integer.
+     */
+    public int getK() {
+      return k;
+    }
+
+    /**
+     * Public getter method that returns the time the run took.
+     *
+     * @return the time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * Public getter method that returns the restart whose result was returned.
+     *
+     * @return the index of the restart.
+     */
+    public int getBestRestart() {
+      return bestRestart;
+    }
+
+    /**
+     * Public getter method that returns the number of restarts of the run.
+     *
+     * @return the number of restarts as an integer.
+     */
+    public int getRestarts() {
+      return iterations.length;
+    }
+
+    /**
+     * Public getter method that returns the number of iterations of a restart.
+     *
+     * @param restart the index of the restart.
+     * @return the number of iterations as an integer.
+     */
+    public int getIterations(int restart) {
+      return iterations[restart];
+    }
+
+    /**
+     * Public getter method that returns the number of distance evaluations of a restart.
+     *
+     * @param restart the index of the restart.
+     * @return the number of distance evaluations as a long.
+     */
+    public long getDistanceEvaluations(int restart) {
+      return distances[restart];
+    }
+
+    /**
+     * Public getter method that returns the final error of a restart.
+     *
+     * @param restart the index of the restart.
+     * @return the average distance from each point to its center.
+     */
+    public double getError(int restart) {
+      return errors[restart];
+    }
+
+    /**
+     * Public method that returns whether a restart reached the largest number of iterations
+     * without converging.
+     *
+     * @param restart the index of the restart.
+     * @return true if the restart was stopped by the iteration limit.
+     */
+    public boolean hitIterationCap(int restart) {
+      return capped[restart];
+    }
+
+    /**
+     * Public getter method that returns the error after each iteration of a restart.
+     *
+     * @param restart the index of the restart.
+     * @return a copy of the errors, empty for a mini-batch restart.
+     */
+    public double[] getTrace(int restart) {
+      return Arrays.copyOf(traces[restart], traces[restart].length);
+    }
+
+    /**
+     * Private helper method that writes the run as a JSON object.
+     *
+     * @param json the text the object is added to.
+     */
+    private void appendJson(StringBuilder json) {
+      json.append("{\"n\":").append(n).append(",\"k\":").append(k)
+              .append(",\"elapsedNanos\":").append(elapsedNanos)
+              .append(",\"bestRestart\":").append(bestRestart).append(",\"restarts\":[");
+      for (int a = 0; a < iterations.length; a++) {
+        if (a > 0) {
+          json.append(',');
+        }
+        json.append("{\"iterations\":").append(iterations[a])
+                .append(",\"distanceEvaluations\":").append(distances[a])
+                .append(",\"error\":");
+        appendNumber(json, errors[a]);
+        json.append(",\"hitIterationCap\":").append(capped[a]).append(",\"trace\":[");
+        for (int i = 0; i < traces[a].length; i++) {
+          if (i > 0) {
+            json.append(',');
+          }
+          appendNumber(json, traces[a][i]);
+        }
+        json.append("]}");
+      }
+      json.append("]}");
+    }
+  }
+}
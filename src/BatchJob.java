@@ -0,0 +1,200 @@
+/**
+ * Import IOException, StandardCharsets, Files, Path, ArrayList and List packages.
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents one entry of a batch manifest: a data file, the analysis that is run on
+ * it and the image the result is plotted to. A manifest is a text file with one entry per line,
+ * written as the data file followed by either "line" for a best-fit line or "kmeans" and the
+ * number of clusters, and optionally the path of the image. Blank lines and lines starting with
+ * '#' are skipped, and the image defaults to the data file with "_Graph.png" in place of its
+ * extension.
+ */
+public class BatchJob {
+
+  /**
+   * The analyses that can be run on a data file.
+   */
+  public enum Analysis {
+
+    /**
+     * Fit a line to the points with least-squares linear regression.
+     */
+    LINE,
+
+    /**
+     * Cluster the points with k-means.
+     */
+    KMEANS
+  }
+
+  /**
+   * The path of the data file.
+   */
+  private final String input;
+
+  /**
+   * The analysis that is run on the data file.
+   */
+  private final Analysis analysis;
+
+  /**
+   * The number of clusters, used by k-means.
+   */
+  private final int k;
+
+  /**
+   * The path of the image the result is plotted to.
+   */
+  private final String output;
+
+  /**
+   * Constructs the BatchJob object with the values given as parameters.
+   *
+   * @param input    the path of the data file.
+   * @param analysis the analysis that is run on the data file.
+   * @param k        the number of clusters, ignored unless the analysis is k-means.
+   * @param output   the path of the image, or null to derive it from the data file.
+   * @throws IllegalArgumentException if the analysis is k-means and k is not positive.
+   */
+  public BatchJob(String input, Analysis analysis, int k, String output)
+          throws IllegalArgumentException {
+    if (analysis == Analysis.KMEANS && k <= 0) {
+      throw new IllegalArgumentException("k must be positive.");
+    }
+    this.input = input;
+    this.analysis = analysis;
+    this.k = analysis == Analysis.KMEANS ? k : 0;
+    this.output = output != null ? output : defaultOutput(input);
+  }
+
+  /**
+   * Public static method that reads the entries of the manifest at the path given.
+   *
+   * @param manifest the path of the manifest.
+   * @return the entries of the manifest as a List data type.
+   * @throws IOException if the manifest cannot be read.
+   * @throws IllegalArgumentException if a line of the manifest is not a valid entry.
+   */
+  public static List<BatchJob> readManifest(Path manifest)
+          throws IOException, IllegalArgumentException {
+    List<BatchJob> jobs = new ArrayList<>();
+    int lineNumber = 0;
+    for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+      lineNumber++;
+      String trimmed = line.trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+        continue;
+      }
+      try {
+        jobs.add(parse(trimmed));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+      }
+    }
+    return jobs;
+  }
+
+  /**
+   * Public static method that reads one entry written in the format of a manifest line.
+   *
+   * @param line the entry, such as "clusterdata-2.txt kmeans 2".
+   * @return the entry as a BatchJob object.
+   * @throws IllegalArgumentException if the line is not a valid entry.
+   */
+  public static BatchJob parse(String line) throws IllegalArgumentException {
+    String[] fields = line.trim().split("\\s+");
+    if (fields.length < 2) {
+      throw new IllegalArgumentException("Expected a data file and an analysis: " + line);
+    }
+    String analysis = fields[1].toLowerCase();
+    if (analysis.equals("line")) {
+      if (fields.length > 3) {
+        throw new IllegalArgumentException("Too many fields: " + line);
+      }
+      return new BatchJob(fields[0], Analysis.LINE, 0, fields.length == 3 ? fields[2] : null);
+    }
+    if (analysis.equals("kmeans")) {
+      if (fields.length < 3 || fields.length > 4) {
+        throw new IllegalArgumentException("Expected the number of clusters: " + line);
+      }
+      int k;
+      try {
+        k = Integer.parseInt(fields[2]);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid number of clusters: " + fields[2]);
+      }
+      return new BatchJob(fields[0], Analysis.KMEANS, k, fields.length == 4 ? fields[3] : null);
+    }
+    throw new IllegalArgumentException("Unknown analysis: " + fields[1]);
+  }
+
+  /**
+   * Private helper method that returns the default image path of a data file, the path of the
+   * data file with "_Graph.png" in place of its extension.
+   *
+   * @param input the path of the data file.
+   * @return the path of the image as a String.
+   */
+  private static String defaultOutput(String input) {
+    int dot = input.lastIndexOf('.');
+    int separator = Math.max(input.lastIndexOf('/'), input.lastIndexOf('\\'));
+    String base = dot > separator ? input.substring(0, dot) : input;
+    return base + "_Graph.png";
+  }
+
+  /**
+   * Public getter method that returns the path of the data file.
+   *
+   * @return the path of the data file as a String.
+   */
+  public String getInput() {
+    return input;
+  }
+
+  /**
+   * Public getter method that returns the analysis that is run on the data file.
+   *
+   * @return the analysis as an Analysis value.
+   */
+  public Analysis getAnalysis() {
+    return analysis;
+  }
+
+  /**
+   * Public getter method that returns the number of clusters, or 0 if the analysis is not
+   * k-means.
+   *
+   * @return the number of clusters as an integer.
+   */
+  public int getK() {
+    return k;
+  }
+
+  /**
+   * Public getter method that returns the path of the image the result is plotted to.
+   *
+   * @return the path of the image as a String.
+   */
+  public String getOutput() {
+    return output;
+  }
+
+  /**
+   * Public method that returns the entry in the format of a manifest line.
+   *
+   * @return the entry as a String.
+   */
+  @Override
+  public String toString() {
+    String analysisText = analysis == Analysis.LINE ? "line" : "kmeans " + k;
+    return input + " " + analysisText + " " + output;
+  }
+}
@@ -0,0 +1,71 @@
+/**
+ * This class represents the outcome of one entry of a batch run by BatchRunner: the entry, the
+ * error that stopped it if there was one, and how long it took from reading the data file to
+ * writing the image.
+ */
+public class BatchResult {
+
+  /**
+   * The entry that was run.
+   */
+  private final BatchJob job;
+
+  /**
+   * The error that stopped the entry, or null if the image was written.
+   */
+  private final Throwable error;
+
+  /**
+   * The time the entry took in nanoseconds.
+   */
+  private final long elapsedNanos;
+
+  /**
+   * Constructs the BatchResult object with the values given as parameters.
+   *
+   * @param job          the entry that was run.
+   * @param error        the error that stopped the entry, or null if it succeeded.
+   * @param elapsedNanos the time the entry took in nanoseconds.
+   */
+  public BatchResult(BatchJob job, Throwable error, long elapsedNanos) {
+    this.job = job;
+    this.error = error;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Public getter method that returns the entry that was run.
+   *
+   * @return the entry as a BatchJob object.
+   */
+  public BatchJob getJob() {
+    return job;
+  }
+
+  /**
+   * Public getter method that returns the error that stopped the entry.
+   *
+   * @return the error as a Throwable, or null if the image was written.
+   */
+  public Throwable getError() {
+    return error;
+  }
+
+  /**
+   * Public getter method that returns if the image of the entry was written.
+   *
+   * @return true if the entry succeeded.
+   */
+  public boolean isSuccessful() {
+    return error == null;
+  }
+
+  /**
+   * Public getter method that returns the time the entry took.
+   *
+   * @return the time in nanoseconds as a long data type.
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+}
@@ -0,0 +1,342 @@
+/**
+ * Import Color, BufferedImage, IOException, UncheckedIOException, Paths, ArrayList, List,
+ * CompletableFuture, CompletionException, ExecutorService, Executors, Semaphore, ThreadFactory
+ * and TimeUnit packages.
+ */
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class runs the entries of a batch manifest concurrently. Each entry goes through four
+ * stages: the data file is parsed, the analysis is run, the result is rendered to an image and
+ * the image is encoded and written. Parsing and writing wait on the disk, so they run on an I/O
+ * executor that uses virtual threads when the Java runtime has them; analysis and rendering run on
+ * a pool with one thread per processor. The stages of different entries overlap, and a semaphore
+ * bounds the number of entries in progress so a manifest of thousands of files does not hold
+ * thousands of data sets in memory at once.
+ */
+public class BatchRunner implements AutoCloseable {
+
+  /**
+   * The colors of the clusters, reused in order when there are more clusters than colors.
+   */
+  private static final Color[] CLUSTER_COLORS = {Color.RED, Color.BLUE, Color.GREEN,
+                                                 Color.MAGENTA, Color.ORANGE, Color.CYAN};
+
+  /**
+   * The width and height of the images in pixels.
+   */
+  private static final int IMAGE_SIZE = 600;
+
+  /**
+   * The executor that parses the data files and writes the images.
+   */
+  private final ExecutorService ioExecutor;
+
+  /**
+   * The executor that runs the analyses and renders the images.
+   */
+  private final ExecutorService cpuExecutor;
+
+  /**
+   * The permits for the entries in progress.
+   */
+  private final Semaphore inFlight;
+
+  /**
+   * The options used for k-means.
+   */
+  private final KMeansOptions kmeansOptions;
+
+  /**
+   * The encoder that writes the images.
+   */
+  private final ImageEncoder encoder;
+
+  /**
+   * The metrics the stages of the entries are recorded in, or null if they are not recorded.
+   */
+  private volatile AnalysisMetrics metrics;
+
+  /**
+   * Constructs the BatchRunner object with one analysis thread per processor and at most two
+   * entries in progress per processor.
+   */
+  public BatchRunner() {
+    this(Runtime.getRuntime().availableProcessors(),
+            2 * Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructs the BatchRunner object with the number of analysis threads and the bound on the
+   * entries in progress given.
+   *
+   * @param threads     the number of threads that run the analyses and render the images.
+   * @param maxInFlight the largest number of entries in progress at once.
+   * @throws IllegalArgumentException if threads or maxInFlight is not positive.
+   */
+  public BatchRunner(int threads, int maxInFlight) throws IllegalArgumentException {
+    if (threads <= 0 || maxInFlight <= 0) {
+      throw new IllegalArgumentException("threads and maxInFlight must be positive.");
+    }
+    ioExecutor = newIoExecutor();
+    cpuExecutor = Executors.newFixedThreadPool(threads, daemonThreads("batch-analysis"));
+    inFlight = new Semaphore(maxInFlight);
+    kmeansOptions = new KMeansOptions();
+    encoder = new ImageEncoder();
+    encoder.setImageType(BufferedImage.TYPE_BYTE_INDEXED);
+  }
+
+  /**
+   * Public method that runs every entry given and waits for all of them to finish. An entry that
+   * fails does not stop the others; its error is returned in its result.
+   *
+   * @param jobs the entries that are run.
+   * @return the result of each entry, in the order of the entries.
+   * @throws InterruptedException if the thread is interrupted while waiting.
+   */
+  public List<BatchResult> run(List<BatchJob> jobs) throws InterruptedException {
+    List<CompletableFuture<BatchResult>> futures = new ArrayList<>(jobs.size());
+    for (BatchJob job : jobs) {
+      futures.add(submit(job));
+    }
+    List<BatchResult> results = new ArrayList<>(jobs.size());
+    for (CompletableFuture<BatchResult> future : futures) {
+      results.add(future.join());
+    }
+    return results;
+  }
+
+  /**
+   * Public method that starts the entry given and returns a future of its result. If as many
+   * entries as allowed are already in progress, this method waits until one of them finishes.
+   * The future always completes normally; an error is returned in the result.
+   *
+   * @param job the entry that is run.
+   * @return the future of the result of the entry.
+   * @throws InterruptedException if the thread is interrupted while waiting.
+   */
+  public CompletableFuture<BatchResult> submit(BatchJob job) throws InterruptedException {
+    inFlight.acquire();
+    long start = System.nanoTime();
+    try {
+      return CompletableFuture.supplyAsync(() -> load(job), ioExecutor)
+              .thenApplyAsync(data -> analyze(job, data), cpuExecutor)
+              .thenApplyAsync(this::render, cpuExecutor)
+              .thenAcceptAsync(image -> write(job, image), ioExecutor)
+              .handle((ignored, error) -> {
+                inFlight.release();
+                return new BatchResult(job, unwrap(error), System.nanoTime() - start);
+              });
+    } catch (RuntimeException e) {
+      inFlight.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Public getter method that returns the options used for k-means, which can be changed before
+   * the entries are submitted.
+   *
+   * @return the k-means options as a KMeansOptions object.
+   */
+  public KMeansOptions getKMeansOptions() {
+    return kmeansOptions;
+  }
+
+  /**
+   * Public getter method that returns the encoder that writes the images, which can be changed
+   * before the entries are submitted. Images are written as palette images by default, since
+   * the plots only use a few colors.
+   *
+   * @return the encoder as an ImageEncoder object.
+   */
+  public ImageEncoder getImageEncoder() {
+    return encoder;
+  }
+
+  /**
+   * Public getter method that returns the metrics the stages of the entries are recorded in.
+   *
+   * @return the metrics as an AnalysisMetrics object, or null if they are not recorded.
+   */
+  public AnalysisMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Public setter method that sets the metrics the stages of the entries are recorded in while
+   * they are set: the parse, fit or cluster, render and encode stage of every entry, and the
+   * restarts of every k-means run.
+   *
+   * @param metrics the metrics, or null to stop recording.
+   */
+  public void setMetrics(AnalysisMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Public method that stops the executors of the runner once the entries in progress finish.
+   */
+  @Override
+  public void close() {
+    cpuExecutor.shutdown();
+    ioExecutor.shutdown();
+    try {
+      cpuExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+      ioExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Private helper method that parses the data file of an entry.
+   *
+   * @param job the entry whose data file is parsed.
+   * @return the points of the data file as a DataAnalysis object.
+   * @throws UncheckedIOException if the data file cannot be read.
+   */
+  private DataAnalysis load(BatchJob job) throws UncheckedIOException {
+    try {
+      DataAnalysis data = new DataAnalysis();
+      data.setMetrics(metrics);
+      DataSetLoader.loadInto(Paths.get(job.getInput()), data);
+      return data;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Private helper method that runs the analysis of an entry and adds the points and the result
+   * to a plotter. Line fits are plotted over -450 to 450 on both axes and clusters over 0 to 450
+   * on the x axis, as in the course data files.
+   *
+   * @param job  the entry whose analysis is run.
+   * @param data the points of the data file.
+   * @return the plotter holding the points and the result.
+   */
+  private ImagePlotter analyze(BatchJob job, DataAnalysis data) {
+    ImagePlotter plotter = new ImagePlotter();
+    plotter.setWidth(IMAGE_SIZE);
+    plotter.setHeight(IMAGE_SIZE);
+    List<Point2D> points = data.getData();
+    if (job.getAnalysis() == BatchJob.Analysis.LINE) {
+      plotter.setDimensions(-450, 450, -450, 450);
+      for (Point2D point : points) {
+        plotter.addPoint((int) Math.round(point.getX()), (int) Math.round(point.getY()));
+      }
+      FittedLine line = data.fitLineModel();
+      plotter.addLine(-450, (int) Math.round(line.getYAt(-450)), 450,
+              (int) Math.round(line.getYAt(450)), Color.RED);
+    } else {
+      plotter.setDimensions(0, 450, -450, 450);
+      List<Integer> clusters = data.kmeans(job.getK(), kmeansOptions);
+      for (int i = 0; i < points.size(); i++) {
+        Point2D point = points.get(i);
+        plotter.addPoint((int) Math.round(point.getX()), (int) Math.round(point.getY()),
+                CLUSTER_COLORS[clusters.get(i) % CLUSTER_COLORS.length]);
+      }
+    }
+    return plotter;
+  }
+
+  /**
+   * Private helper method that renders the points and the result held by a plotter.
+   *
+   * @param plotter the plotter of an entry.
+   * @return the rendered image.
+   */
+  private BufferedImage render(ImagePlotter plotter) {
+    AnalysisMetrics current = metrics;
+    if (current == null) {
+      return plotter.render();
+    }
+    AnalysisMetrics.Timer timer = current.start(AnalysisMetrics.RENDER);
+    BufferedImage image = plotter.render();
+    timer.stop();
+    return image;
+  }
+
+  /**
+   * Private helper method that encodes and writes the image of an entry.
+   *
+   * @param job   the entry whose image is written.
+   * @param image the rendered image.
+   * @throws UncheckedIOException if the image cannot be written.
+   */
+  private void write(BatchJob job, BufferedImage image) throws UncheckedIOException {
+    AnalysisMetrics current = metrics;
+    AnalysisMetrics.Timer timer = current == null ? null : current.start(AnalysisMetrics.ENCODE);
+    try {
+      encoder.write(image, Paths.get(job.getOutput()));
+      if (timer != null) {
+        timer.stop();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Private helper method that returns the error that caused a stage to fail, without the
+   * wrappers added by CompletableFuture and the stages.
+   *
+   * @param error the error given to the last stage, or null.
+   * @return the cause of the error, or null if there was no error.
+   */
+  private static Throwable unwrap(Throwable error) {
+    while ((error instanceof CompletionException || error instanceof UncheckedIOException)
+            && error.getCause() != null) {
+      error = error.getCause();
+    }
+    return error;
+  }
+
+  /**
+   * Private helper method that creates the I/O executor: a virtual thread per task when the
+   * Java runtime supports it, and a cached pool of daemon threads otherwise. The number of tasks
+   * is bounded by the entries in progress either way.
+   *
+   * @return the I/O executor as an ExecutorService.
+   */
+  private static ExecutorService newIoExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+              .invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return Executors.newCachedThreadPool(daemonThreads("batch-io"));
+    }
+  }
+
+  /**
+   * Private helper method that creates a factory of named daemon threads, so the pools do not
+   * keep the program running.
+   *
+   * @param name the prefix of the thread names.
+   * @return the thread factory as a ThreadFactory.
+   */
+  private static ThreadFactory daemonThreads(String name) {
+    ThreadFactory defaults = Executors.defaultThreadFactory();
+    return task -> {
+      Thread thread = defaults.newThread(task);
+      thread.setName(name + "-" + thread.getName());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
@@ -0,0 +1,379 @@
+/**
+ * Import Arrays package.
+ */
+
+import java.util.Arrays;
+
+/**
+ * This class keeps the result of clustering a data set with k-means up to date as points are
+ * added. It remembers the centers and the cluster of every point, and a point that is added is
+ * assigned to its closest center straight away, which takes O(k) time and does not move the
+ * centers. The sum and count of the points of each cluster are kept as well, so the centers can be
+ * moved to the means of their points in O(k) time. When the data has changed enough, recluster
+ * runs Lloyd iterations again starting from the current centers instead of from new random ones,
+ * which for data that is mostly appended to converges in a few iterations instead of a full run
+ * with restarts. Points that have weights pull the centers in proportion to their weight. The
+ * oldest point can also be removed in O(1) time, for columns that drop their oldest point, such as
+ * the RingPointColumns of a SlidingWindowDataSet. This class is not thread-safe.
+ */
+public class ClusterModel {
+
+  /**
+   * The points that are being clustered. The model reads them but does not change them.
+   */
+  private final PointColumns data;
+
+  /**
+   * The number of clusters.
+   */
+  private final int k;
+
+  /**
+   * The settings the model was clustered with, used again when it is reclustered.
+   */
+  private final KMeansOptions options;
+
+  /**
+   * The x coordinates of the cluster centers.
+   */
+  private final double[] centersX;
+
+  /**
+   * The y coordinates of the cluster centers.
+   */
+  private final double[] centersY;
+
+  /**
+   * The weighted sum of the x coordinates of the points of each cluster.
+   */
+  private final double[] sumsX;
+
+  /**
+   * The weighted sum of the y coordinates of the points of each cluster.
+   */
+  private final double[] sumsY;
+
+  /**
+   * The sum of the weights of the points of each cluster.
+   */
+  private final double[] weights;
+
+  /**
+   * The number of points in each cluster.
+   */
+  private final long[] counts;
+
+  /**
+   * The cluster of each point; only the size entries from first on are used.
+   */
+  private int[] assignments;
+
+  /**
+   * The position in assignments of the cluster of the oldest point.
+   */
+  private int first;
+
+  /**
+   * The number of points that have been assigned.
+   */
+  private int size;
+
+  /**
+   * The number of points that were added since the model was last clustered.
+   */
+  private int addedSinceClustering;
+
+  /**
+   * The metrics the reclusterings are recorded in, or null if they are not recorded.
+   */
+  private AnalysisMetrics metrics;
+
+  /**
+   * Constructs the ClusterModel object from the result of clustering the points given. The
+   * result must be a clustering of every point in the columns. The arrays of the result are
+   * copied.
+   *
+   * @param data    the points that were clustered.
+   * @param result  the result of clustering the points.
+   * @param options the settings the points were clustered with.
+   * @throws IllegalArgumentException if the result does not have one cluster per point.
+   */
+  public ClusterModel(PointColumns data, KMeansResult result, KMeansOptions options)
+          throws IllegalArgumentException {
+    if (result.getAssignments().length != data.size()) {
+      throw new IllegalArgumentException("The result must have one cluster per point.");
+    }
+    this.data = data;
+    this.options = options;
+    k = result.getK();
+    centersX = Arrays.copyOf(result.getCentersX(), k);
+    centersY = Arrays.copyOf(result.getCentersY(), k);
+    sumsX = new double[k];
+    sumsY = new double[k];
+    weights = new double[k];
+    counts = new long[k];
+    assignments = new int[0];
+    setAssignments(result.getAssignments());
+  }
+
+  /**
+   * Public static method that clusters the points given with k-means and returns a model of the
+   * result.
+   *
+   * @param data    the points that are clustered.
+   * @param k       the number of clusters as an integer.
+   * @param options the settings of the k-means algorithm.
+   * @param metrics the metrics the run is recorded in, or null.
+   * @return the model of the clusters as a ClusterModel object.
+   * @throws IllegalArgumentException if k given is not a positive integer or if k is greater than
+   *                                  the number of data points.
+   */
+  public static ClusterModel cluster(PointColumns data, int k, KMeansOptions options,
+                                     AnalysisMetrics metrics) throws IllegalArgumentException {
+    KMeans kmeans = new KMeans(data, k, options);
+    kmeans.setMetrics(metrics);
+    ClusterModel model = new ClusterModel(data, kmeans.run(), options);
+    model.metrics = metrics;
+    return model;
+  }
+
+  /**
+   * Public method that assigns a point that was added to the columns to its closest center. The
+   * center is not moved.
+   *
+   * @param x the x coordinate of the data point as a double data type.
+   * @param y the y coordinate of the data point as a double data type.
+   * @return the cluster the point was assigned to.
+   */
+  public int add(double x, double y) {
+    return add(x, y, 1);
+  }
+
+  /**
+   * Public method that assigns a point that was added to the columns with the weight given to
+   * its closest center. The center is not moved.
+   *
+   * @param x      the x coordinate of the data point as a double data type.
+   * @param y      the y coordinate of the data point as a double data type.
+   * @param weight the weight of the data point as a double data type.
+   * @return the cluster the point was assigned to.
+   */
+  public int add(double x, double y, double weight) {
+    int cluster = closest(x, y);
+    if (first + size == assignments.length) {
+      if (first > 0) {
+        System.arraycopy(assignments, first, assignments, 0, size);
+        first = 0;
+      }
+      if (size == assignments.length) {
+        assignments = Arrays.copyOf(assignments, Math.max(16, size + (size >> 1)));
+      }
+    }
+    assignments[first + size++] = cluster;
+    sumsX[cluster] += weight * x;
+    sumsY[cluster] += weight * y;
+    weights[cluster] += weight;
+    counts[cluster]++;
+    addedSinceClustering++;
+    return cluster;
+  }
+
+  /**
+   * Public method that removes the oldest point from its cluster. It must be called while the
+   * point is still the first point of the columns, just before the columns drop it, so its
+   * coordinates and weight can be read. The center is not moved.
+   *
+   * @return the cluster the point was in.
+   * @throws IllegalStateException if the model has no points.
+   */
+  public int removeOldest() throws IllegalStateException {
+    if (size == 0) {
+      throw new IllegalStateException("There are no points to remove.");
+    }
+    int cluster = assignments[first];
+    double weight = data.getWeight(0);
+    sumsX[cluster] -= weight * data.getX(0);
+    sumsY[cluster] -= weight * data.getY(0);
+    weights[cluster] -= weight;
+    counts[cluster]--;
+    if (counts[cluster] == 0) {
+      sumsX[cluster] = 0;
+      sumsY[cluster] = 0;
+      weights[cluster] = 0;
+    }
+    first++;
+    size--;
+    return cluster;
+  }
+
+  /**
+   * Public method that returns the cluster whose center is closest to the point given, without
+   * adding the point.
+   *
+   * @param x the x coordinate of the point as a double data type.
+   * @param y the y coordinate of the point as a double data type.
+   * @return the closest cluster as an integer.
+   */
+  public int closest(double x, double y) {
+    int best = 0;
+    double bestDistance = Double.MAX_VALUE;
+    for (int j = 0; j < k; j++) {
+      double dx = x - centersX[j];
+      double dy = y - centersY[j];
+      double distance = dx * dx + dy * dy;
+      if (distance < bestDistance) {
+        bestDistance = distance;
+        best = j;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Public method that moves every center that has points to the weighted mean of its points,
+   * without assigning the points again. This takes O(k) time.
+   */
+  public void updateCenters() {
+    for (int j = 0; j < k; j++) {
+      if (weights[j] > 0) {
+        centersX[j] = sumsX[j] / weights[j];
+        centersY[j] = sumsY[j] / weights[j];
+      }
+    }
+  }
+
+  /**
+   * Public method that clusters the points again with Lloyd iterations that start from the
+   * current centers, with one restart and the iteration limit and tolerance of the options the
+   * model was made with. Every point in the columns is assigned again, including points added to
+   * the columns without being given to add.
+   *
+   * @return the result of the iterations as a KMeansResult object.
+   * @throws IllegalArgumentException if the columns hold fewer than k points.
+   */
+  public KMeansResult recluster() throws IllegalArgumentException {
+    KMeans kmeans = new KMeans(data, k, options.warmStart(centersX, centersY));
+    kmeans.setMetrics(metrics);
+    KMeansResult result = kmeans.run();
+    System.arraycopy(result.getCentersX(), 0, centersX, 0, k);
+    System.arraycopy(result.getCentersY(), 0, centersY, 0, k);
+    setAssignments(result.getAssignments());
+    return result;
+  }
+
+  /**
+   * Private helper method that replaces the assignments with the ones given and finds the sums
+   * and counts of the clusters again.
+   *
+   * @param clusters the cluster of each point in the columns.
+   */
+  private void setAssignments(int[] clusters) {
+    size = clusters.length;
+    first = 0;
+    if (assignments.length < size) {
+      assignments = new int[size + (size >> 3)];
+    }
+    System.arraycopy(clusters, 0, assignments, 0, size);
+    Arrays.fill(sumsX, 0);
+    Arrays.fill(sumsY, 0);
+    Arrays.fill(weights, 0);
+    Arrays.fill(counts, 0);
+    for (int i = 0; i < size; i++) {
+      int cluster = clusters[i];
+      double weight = data.getWeight(i);
+      sumsX[cluster] += weight * data.getX(i);
+      sumsY[cluster] += weight * data.getY(i);
+      weights[cluster] += weight;
+      counts[cluster]++;
+    }
+    addedSinceClustering = 0;
+  }
+
+  /**
+   * Public getter method that returns the number of clusters.
+   *
+   * @return k as an integer.
+   */
+  public int getK() {
+    return k;
+  }
+
+  /**
+   * Public getter method that returns the number of points that have been assigned.
+   *
+   * @return the number of points as an integer.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Public getter method that returns the cluster of a point.
+   *
+   * @param index the index of the point, in the order the points were added.
+   * @return the cluster of the point as an integer.
+   * @throws IndexOutOfBoundsException if the index is not less than the number of points.
+   */
+  public int getCluster(int index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return assignments[first + index];
+  }
+
+  /**
+   * Public getter method that returns the cluster of every point.
+   *
+   * @return a copy of the clusters, in the order the points were added.
+   */
+  public int[] getAssignments() {
+    return Arrays.copyOfRange(assignments, first, first + size);
+  }
+
+  /**
+   * Public getter method that returns the x coordinates of the cluster centers.
+   *
+   * @return a copy of the x coordinates.
+   */
+  public double[] getCentersX() {
+    return centersX.clone();
+  }
+
+  /**
+   * Public getter method that returns the y coordinates of the cluster centers.
+   *
+   * @return a copy of the y coordinates.
+   */
+  public double[] getCentersY() {
+    return centersY.clone();
+  }
+
+  /**
+   * Public getter method that returns the number of points in a cluster.
+   *
+   * @param cluster the cluster.
+   * @return the number of points as a long.
+   */
+  public long getCount(int cluster) {
+    return counts[cluster];
+  }
+
+  /**
+   * Public getter method that returns the number of points that were added since the model was
+   * last clustered, which can be used to decide when to recluster.
+   *
+   * @return the number of points as an integer.
+   */
+  public int getAddedSinceClustering() {
+    return addedSinceClustering;
+  }
+
+  /**
+   * Public setter method that sets the metrics the reclusterings are recorded in.
+   *
+   * @param metrics the metrics, or null to stop recording.
+   */
+  public void setMetrics(AnalysisMetrics metrics) {
+    this.metrics = metrics;
+  }
+}
@@ -0,0 +1,278 @@
+/**
+ * This class compresses the points of a PointColumns object into a small set of weighted
+ * representatives that k-means and the least-squares line fit can run on instead of the points.
+ * The points are put into the cells of a square grid, and every cell that has points becomes one
+ * representative at the weighted mean of its points with their total weight. Duplicate points,
+ * which are common in data that is rounded to a few decimals, always end up in the same
+ * representative.
+ *
+ * <p>The grid starts fine and its cells are doubled in size until there are no more
+ * representatives than asked for. Doubling merges four cells into one, so only the first grid
+ * reads the points; the later ones merge the cells of the grid before. Each cell keeps its weight,
+ * its mean and the weighted sum of the squared distances from its points to the mean, which are
+ * merged exactly. Because every representative is the mean of its points, clustering the points
+ * with the cluster of their representative costs exactly the cost of the representatives plus
+ * getError(), whatever the centers are, and no point is farther than one cell diagonal from its
+ * representative.
+ */
+public class Coreset {
+
+  /**
+   * The number of cells across the first grid, as a multiple of the square root of the largest
+   * number of representatives.
+   */
+  private static final int FINE_CELLS = 8;
+
+  /**
+   * The representatives, each with the total weight of the points of its cell.
+   */
+  private final DoublePointColumns points;
+
+  /**
+   * The width and height of the cells the representatives were made from.
+   */
+  private final double cellSize;
+
+  /**
+   * The weighted sum of the squared distances from each point to its representative.
+   */
+  private final double error;
+
+  /**
+   * Constructs the Coreset object that compresses the points given into at most maxSize
+   * representatives.
+   *
+   * @param data    the points that are compressed.
+   * @param maxSize the largest number of representatives.
+   * @throws IllegalArgumentException if maxSize is not positive.
+   */
+  public Coreset(PointColumns data, int maxSize) throws IllegalArgumentException {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be positive.");
+    }
+    int n = data.size();
+    double minX = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < n; i++) {
+      minX = Math.min(minX, data.getX(i));
+      maxX = Math.max(maxX, data.getX(i));
+      minY = Math.min(minY, data.getY(i));
+      maxY = Math.max(maxY, data.getY(i));
+    }
+    double span = Math.max(maxX - minX, maxY - minY);
+    double size = span > 0 ? span / (FINE_CELLS * Math.ceil(Math.sqrt(maxSize))) : 1;
+    Cells cells = new Cells((int) Math.min(n, 4L * maxSize));
+    for (int i = 0; i < n; i++) {
+      double x = data.getX(i);
+      double y = data.getY(i);
+      long cellX = (long) ((x - minX) / size);
+      long cellY = (long) ((y - minY) / size);
+      cells.add(cellX << 32 | cellY, data.getWeight(i), x, y, 0);
+    }
+    while (cells.size > maxSize) {
+      cells = cells.coarsen();
+      size *= 2;
+    }
+    points = new DoublePointColumns(cells.size);
+    double total = 0;
+    for (int slot = 0; slot < cells.keys.length; slot++) {
+      if (cells.weights[slot] > 0) {
+        points.add(cells.meansX[slot], cells.meansY[slot], cells.weights[slot]);
+        total += cells.errors[slot];
+      }
+    }
+    cellSize = size;
+    error = total;
+  }
+
+  /**
+   * Public getter method that returns the representatives as weighted points, which can be given
+   * to a DataAnalysis or to KMeans.
+   *
+   * @return the representatives as a PointColumns object.
+   */
+  public PointColumns getPoints() {
+    return points;
+  }
+
+  /**
+   * Public method that returns the number of representatives.
+   *
+   * @return the number of representatives as an integer.
+   */
+  public int size() {
+    return points.size();
+  }
+
+  /**
+   * Public getter method that returns the width and height of the cells the representatives were
+   * made from.
+   *
+   * @return the cell size as a double data type.
+   */
+  public double getCellSize() {
+    return cellSize;
+  }
+
+  /**
+   * Public getter method that returns the weighted sum of the squared distances from each point to
+   * its representative, which is how much more it costs to cluster the points than the
+   * representatives with the same centers.
+   *
+   * @return the error as a double data type.
+   */
+  public double getError() {
+    return error;
+  }
+
+  /**
+   * This class is a hash table from the key of a grid cell to the weight, the mean and the error
+   * of the points in the cell, with open addressing over primitive arrays so no object is created
+   * per cell. A slot whose weight is 0 is empty.
+   */
+  private static final class Cells {
+
+    /**
+     * The key of the cell in each slot, made of its column in the high 32 bits and its row in the
+     * low 32 bits.
+     */
+    private long[] keys;
+
+    /**
+     * The total weight of the points of the cell in each slot.
+     */
+    private double[] weights;
+
+    /**
+     * The weighted mean x coordinate of the points of the cell in each slot.
+     */
+    private double[] meansX;
+
+    /**
+     * The weighted mean y coordinate of the points of the cell in each slot.
+     */
+    private double[] meansY;
+
+    /**
+     * The weighted sum of the squared distances from the points of the cell in each slot to their
+     * mean.
+     */
+    private double[] errors;
+
+    /**
+     * The number of cells in the table.
+     */
+    private int size;
+
+    /**
+     * Constructs the Cells object with room for the number of cells given before it grows.
+     *
+     * @param expected the number of cells expected.
+     */
+    Cells(int expected) {
+      int capacity = Integer.highestOneBit(Math.max(16, expected) * 2 - 1) * 2;
+      keys = new long[capacity];
+      weights = new double[capacity];
+      meansX = new double[capacity];
+      meansY = new double[capacity];
+      errors = new double[capacity];
+    }
+
+    /**
+     * Adds points with the weight, mean and error given to the cell with the key given. The
+     * statistics are merged with the pairwise formulas for the mean and the sum of squares, so
+     * adding the points of a cell one at a time or as merged cells gives the same cell up to
+     * rounding.
+     *
+     * @param key    the key of the cell.
+     * @param weight the total weight of the points.
+     * @param x      the weighted mean x coordinate of the points.
+     * @param y      the weighted mean y coordinate of the points.
+     * @param spread the weighted sum of the squared distances from the points to their mean.
+     */
+    void add(long key, double weight, double x, double y, double spread) {
+      int slot = find(key);
+      if (weights[slot] == 0) {
+        keys[slot] = key;
+        weights[slot] = weight;
+        meansX[slot] = x;
+        meansY[slot] = y;
+        errors[slot] = spread;
+        if (++size * 2 > keys.length) {
+          grow();
+        }
+        return;
+      }
+      double total = weights[slot] + weight;
+      double dx = x - meansX[slot];
+      double dy = y - meansY[slot];
+      errors[slot] += spread + (dx * dx + dy * dy) * weights[slot] * weight / total;
+      meansX[slot] += dx * weight / total;
+      meansY[slot] += dy * weight / total;
+      weights[slot] = total;
+    }
+
+    /**
+     * Returns a table of cells twice as wide and high, with each cell holding the points of the
+     * four cells of this table it covers.
+     *
+     * @return the coarser cells as a Cells object.
+     */
+    Cells coarsen() {
+      Cells coarser = new Cells(size / 2);
+      for (int slot = 0; slot < keys.length; slot++) {
+        if (weights[slot] > 0) {
+          long key = keys[slot];
+          long coarseKey = (key >>> 33) << 32 | (key & 0xFFFFFFFFL) >>> 1;
+          coarser.add(coarseKey, weights[slot], meansX[slot], meansY[slot], errors[slot]);
+        }
+      }
+      return coarser;
+    }
+
+    /**
+     * Returns the slot of the cell with the key given, or the empty slot it would go in.
+     *
+     * @param key the key of the cell.
+     * @return the slot as an integer.
+     */
+    private int find(long key) {
+      int mask = keys.length - 1;
+      long hash = key * 0x9E3779B97F4A7C15L;
+      int slot = (int) (hash ^ hash >>> 32) & mask;
+      while (weights[slot] != 0 && keys[slot] != key) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    /**
+     * Doubles the number of slots and puts every cell back in.
+     */
+    private void grow() {
+      long[] oldKeys = keys;
+      double[] oldWeights = weights;
+      double[] oldMeansX = meansX;
+      double[] oldMeansY = meansY;
+      double[] oldErrors = errors;
+      int capacity = oldKeys.length * 2;
+      keys = new long[capacity];
+      weights = new double[capacity];
+      meansX = new double[capacity];
+      meansY = new double[capacity];
+      errors = new double[capacity];
+      for (int slot = 0; slot < oldKeys.length; slot++) {
+        if (oldWeights[slot] > 0) {
+          int target = find(oldKeys[slot]);
+          keys[target] = oldKeys[slot];
+          weights[target] = oldWeights[slot];
+          meansX[target] = oldMeansX[slot];
+          meansY[target] = oldMeansY[slot];
+          errors[target] = oldErrors[slot];
+        }
+      }
+    }
+  }
+}
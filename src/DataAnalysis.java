@@ -1,193 +1,230 @@
 /**
- * Import Collections, LinkedList, and List packages.
+ * Import ArrayList and List packages.
  */
 
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
- * This class represents a single DataAnalysis that contains a list of Point2D objects.
- * Methods that can be performed on this class are adding new data points, returning data from the
- * list, finding the best-fit line using linear regression and clustering the data using
- * kmeans and RANSAC. This class implements the DataSet Interface.
+ * This class represents a single DataAnalysis that contains a set of data points. The points are
+ * stored as primitive x and y columns in a PointColumns object and are only turned into Point2D
+ * objects when they are read through getData. Methods that can be performed on this class are
+ * adding new data points, returning data from the list, finding the best-fit line using linear
+ * regression and clustering the data using kmeans and RANSAC. This class implements the DataSet
+ * Interface.
  */
 public class DataAnalysis implements DataSet {
 
   /**
-   * List containing Point2D objects that have x and y coordinates.
+   * Columns containing the x and y coordinates of the data points.
    */
-  private List<Point2D> dataList;
+  private PointColumns data;
 
   /**
-   * Constructs the DataAnalysis object that takes in no parameters and initializes it with an empty
-   * list.
+   * Running least-squares statistics of the data points, updated every time a point is added.
    */
-  public DataAnalysis() {
-    dataList = new LinkedList<>();
-  }
+  private LineFitAccumulator lineFit;
 
   /**
-   * Public method that adds a Point2D object to the list that takes in an x and y coordinate
-   * that are given as parameters.
-   *
-   * @param x the x coordinate of the data point as a double data type.
-   * @param y the y coordinate of the data point as a double data type.
+   * The metrics the fits and clusterings are recorded in, or null if they are not recorded.
    */
-  public void addData(double x, double y) {
-    dataList.add(new Point2D(x, y));
+  private AnalysisMetrics metrics;
+
+  /**
+   * The model of the last clustering made with cluster, which is given every point that is added
+   * after it, or null if there is none.
+   */
+  private ClusterModel clusterModel;
+
+  /**
+   * The grid index over the data points, or null if none was asked for.
+   */
+  private SpatialIndex spatialIndex;
+
+  /**
+   * Constructs the DataAnalysis object that takes in no parameters and initializes it with empty
+   * columns.
+   */
+  public DataAnalysis() {
+    data = new DoublePointColumns();
+    lineFit = new LineFitAccumulator();
   }
 
   /**
-   * Public getter method that returns the data list.
+   * Constructs the DataAnalysis object over the columns given, such as the columns of a point
+   * file, or empty FloatPointColumns or FixedPointColumns to keep the points in less memory. The
+   * columns are not copied, and the least-squares statistics are found in one pass over them.
+   * Columns that round the coordinates give the statistics of the rounded values, so the fitted
+   * line agrees with the points the other analyses read.
    *
-   * @return the data list as a List data type.
+   * @param data the columns containing the data points.
    */
-  public List<Point2D> getData() {
-    return dataList;
+  public DataAnalysis(PointColumns data) {
+    this.data = data;
+    lineFit = new LineFitAccumulator();
+    for (int i = 0; i < data.size(); i++) {
+      lineFit.add(data.getX(i), data.getY(i), data.getWeight(i));
+    }
   }
 
   /**
-   * Public method that returns a best-fit line based off the lists of data points. This is
-   * done by using the least-squares line fitting that will find the line that minimizes the
-   * distance between the data points and the line.
+   * Constructs the DataAnalysis object over the columns given with least-squares statistics that
+   * were found before, so the columns do not have to be read to fit a line. The statistics must
+   * be the statistics of the points in the columns.
    *
-   * @return the best-fit line in the string format: ax + by + c = 0.
+   * @param data    the columns containing the data points.
+   * @param lineFit the least-squares statistics of the data points.
    */
-  public String fitLine() {
-    List listX = getListCoordinate('x');
-    double sumX = findSum(listX);
-    double averageX = findAverage(sumX, listX.size());
-    double sxx = findSumSquares(listX, listX, averageX, averageX);
-    List listY = getListCoordinate('y');
-    double sumY = findSum(listY);
-    double averageY = findAverage(sumY, listY.size());
-    double syy = findSumSquares(listY, listY, averageY, averageY);
-    double sxy = findSumSquares(listX, listY, averageX, averageY);
-    double distance = (2 * sxy) / (sxx - syy);
-    double theta = Math.toDegrees(Math.atan(distance));
-    theta = findFT(theta, sxx, syy, sxy);
-    double a = Math.cos(Math.toRadians(theta) / 2);
-    double b = Math.sin(Math.toRadians(theta) / 2);
-    double c = (-a * averageX) - (b * averageY);
-    return round2Deci(a) + "x" + signValStr(b) + "y" + signValStr(c) + " = 0";
+  public DataAnalysis(PointColumns data, LineFitAccumulator lineFit) {
+    this.data = data;
+    this.lineFit = lineFit;
   }
 
   /**
-   * Private helper method that taken in a number as a double and returns the correct string based
-   * on if the number is negative or not rounded to 2 decimal points.
+   * Public method that adds a data point to the columns that takes in an x and y coordinate
+   * that are given as parameters.
    *
-   * @param v the number rounded as a double that is being returned as a string.
-   * @return the correctly formatted String of the number rounded in the parameter.
+   * @param x the x coordinate of the data point as a double data type.
+   * @param y the y coordinate of the data point as a double data type.
    */
-  private String signValStr(double v) {
-    if (v > 0) {
-      return " + " + round2Deci(v);
+  public void addData(double x, double y) {
+    data.add(x, y);
+    int index = data.size() - 1;
+    if (data instanceof DoublePointColumns) {
+      lineFit.add(x, y);
     } else {
-      return " - " + round2Deci(Math.abs(v));
+      lineFit.add(data.getX(index), data.getY(index));
+    }
+    if (clusterModel != null) {
+      clusterModel.add(data.getX(index), data.getY(index));
+    }
+    if (spatialIndex != null) {
+      spatialIndex.update();
     }
   }
 
   /**
-   * Private helper method that rounded the number given as a parameter and returns it rounded to 2
-   * decimal places.
+   * Public method that adds a data point with a weight to the columns, which counts as that many
+   * points with the same coordinates in the line fit and in k-means.
    *
-   * @param d the number as a double that is being rounded
-   * @return the number given as a double in the parameter rounded to 2 decimal places.
+   * @param x      the x coordinate of the data point as a double data type.
+   * @param y      the y coordinate of the data point as a double data type.
+   * @param weight the weight of the data point as a double data type.
+   * @throws IllegalArgumentException if the weight is not a positive number.
    */
-  private double round2Deci(double d) {
-    return (double) Math.round(d * 100) / 100;
+  public void addData(double x, double y, double weight) throws IllegalArgumentException {
+    data.add(x, y, weight);
+    int index = data.size() - 1;
+    lineFit.add(data.getX(index), data.getY(index), weight);
+    if (clusterModel != null) {
+      clusterModel.add(data.getX(index), data.getY(index), weight);
+    }
+    if (spatialIndex != null) {
+      spatialIndex.update();
+    }
   }
 
   /**
-   * Private helper getter method that takes in a character of 'x' or 'y' and returns a new
-   * list that contains only the x or y coordinates of the datalist containing Point2D objects.
+   * Public method that adds every data point given by the two arrays to the columns at once. The
+   * data point at position i is (xs[i], ys[i]).
    *
-   * @param symbol the character that determines if the new list will contain 'x' or 'y'
-   *               coordinates.
-   * @return a list containing 'x' or 'y' coordinates based off the data list.
+   * @param xs the x coordinates of the data points as an array of doubles.
+   * @param ys the y coordinates of the data points as an array of doubles.
+   * @throws IllegalArgumentException if the two arrays are not the same length.
    */
-  private List getListCoordinate(char symbol) {
-    List<Double> listCoordinate = new LinkedList<>();
-    for (int i = 0; i < dataList.size(); i++) {
-      if (symbol == 'x') {
-        listCoordinate.add(dataList.get(i).getX());
-      } else {
-        listCoordinate.add(dataList.get(i).getY());
+  public void addAll(double[] xs, double[] ys) throws IllegalArgumentException {
+    int start = data.size();
+    data.addAll(xs, ys);
+    if (data instanceof DoublePointColumns) {
+      for (int i = 0; i < xs.length; i++) {
+        lineFit.add(xs[i], ys[i]);
+      }
+    } else {
+      for (int i = start; i < data.size(); i++) {
+        lineFit.add(data.getX(i), data.getY(i));
+      }
+    }
+    if (clusterModel != null) {
+      for (int i = start; i < data.size(); i++) {
+        clusterModel.add(data.getX(i), data.getY(i));
       }
     }
-    return listCoordinate;
+    if (spatialIndex != null) {
+      spatialIndex.update();
+    }
   }
 
   /**
-   * Private helper method that takes in a list of doubles and returns the sum of all the
-   * numbers in the list.
+   * Public getter method that returns the data list. The list is a read-only view of the columns
+   * that creates the Point2D objects as they are read.
    *
-   * @param listCoor the list containing the doubles that are being summed up.
-   * @return the sum of all the numbers being taken as a double data type.
+   * @return the data list as a List data type.
    */
-  private double findSum(List<Double> listCoor) {
-    double sum = 0;
-    for (int i = 0; i < listCoor.size(); i++) {
-      sum += listCoor.get(i);
-    }
-    return sum;
+  public List<Point2D> getData() {
+    return data.asList();
   }
 
   /**
-   * Private helper method that is finding the average based off a sum of numbers and the number of
-   * numbers that were summed together.
+   * Public method that returns a best-fit line based off the lists of data points. This is
+   * done by using the least-squares line fitting that will find the line that minimizes the
+   * distance between the data points and the line.
    *
-   * @param sumOfData the sum of the numbers we are taking the average of as a double data type.
-   * @param num       the number of numbers that we are taking the average of as a double data
-   *                  type.
-   * @return the average as a double data type.
+   * @return the best-fit line in the string format: ax + by + c = 0.
    */
-  private double findAverage(double sumOfData, int num) {
-    return sumOfData / num;
+  public String fitLine() {
+    return fitLineModel().toString();
   }
 
   /**
-   * Private helper method that is finding the sum of squares, which is the sum of the squared
-   * deviations of the predicted values from the mean value, from the two lists containing numbers.
+   * Public method that returns the best-fit line of the data points as a FittedLine object that
+   * keeps the coefficients at full precision. The sums that are needed are kept up to date by a
+   * LineFitAccumulator as the points are added, so the data points are not read again.
    *
-   * @param list1    first list containing numbers as doubles.
-   * @param list2    second list containing numbers as doubles.
-   * @param average1 average value of the first data list of numbers as a double.
-   * @param average2 average value of the second data list of numbers as a double.
-   * @return the sum of squares as a double data type.
+   * @return the best-fit line as a FittedLine object.
    */
-  private double findSumSquares(List<Double> list1, List<Double> list2,
-                                double average1, double average2) {
-    double sumSquare = 0;
-
-    for (int i = 0; i < list1.size(); i++) {
-      sumSquare += ((list1.get(i) - average1) * (list2.get(i) - average2));
+  public FittedLine fitLineModel() {
+    if (metrics == null) {
+      return FittedLine.fromStatistics(lineFit);
     }
-    return sumSquare;
+    AnalysisMetrics.Timer timer = metrics.start(AnalysisMetrics.FIT);
+    FittedLine line = FittedLine.fromStatistics(lineFit);
+    timer.stop();
+    return line;
   }
 
   /**
-   * Private helper method that finds the theta that makes the f(t) positive. It will return theta
-   * in the parameter if the fT found is positive
+   * Public method that returns a best-fit line of the data points that is not pulled away by
+   * outliers. The line is found with RANSAC by a RansacLineFitter with its default settings that
+   * scores the hypotheses in parallel, and refit by least squares to the points within the
+   * threshold of it.
    *
-   * @param theta the angle in degrees of the distance as a double data type.
-   * @param sxx   the sum of the squares of the difference between each 𝑥 and the mean 𝑥 value as
-   *              a double data type.
-   * @param syy   the sum of the squares of the difference between each y and the mean y value as a
-   *              double data type.
-   * @param sxy   sum of the product of the difference between 𝑥 and its means and the difference
-   *              between 𝑦 and its mean.
-   * @return the correct theta (theta or theta + 180) as a double data type.
+   * @param threshold the distance from the line within which a point is an inlier.
+   * @return the best-fit line of the inliers as a FittedLine object.
+   * @throws IllegalArgumentException if threshold is not positive or there are fewer than two
+   *                                  data points.
    */
-  private double findFT(double theta, double sxx, double syy, double sxy) {
-    double fT = (syy - sxx) * Math.cos(Math.toRadians(theta))
-            - (2 * sxy * Math.sin(Math.toRadians(theta)));
-    if (fT > 0) {
-      return theta;
-    } else {
-      return theta + 180;
+  public FittedLine fitLineRobust(double threshold) throws IllegalArgumentException {
+    RansacLineFitter fitter = new RansacLineFitter(threshold);
+    fitter.setParallel(true);
+    return fitLineRobust(fitter).getLine();
+  }
+
+  /**
+   * Public method that fits a line to the data points with the RansacLineFitter given, which sets
+   * the threshold, the confidence, the time budget and whether the work is parallel.
+   *
+   * @param fitter the fitter that finds the line.
+   * @return the line, its inliers and the number of hypotheses scored as a RansacResult object.
+   * @throws IllegalArgumentException if there are fewer than two data points.
+   */
+  public RansacResult fitLineRobust(RansacLineFitter fitter) throws IllegalArgumentException {
+    if (metrics == null) {
+      return fitter.fit(data);
     }
+    AnalysisMetrics.Timer timer = metrics.start(AnalysisMetrics.FIT);
+    RansacResult result = fitter.fit(data);
+    timer.stop();
+    return result;
   }
 
   /**
@@ -203,117 +240,172 @@ public class DataAnalysis implements DataSet {
    *                                  the number of data points.
    */
   public List kmeans(int k) throws IllegalArgumentException {
-    if (k <= 0) {
-      throw new IllegalArgumentException("k must be positive.");
+    return kmeans(k, new KMeansOptions());
+  }
+
+  /**
+   * Public method that performs k-means clustering on the data with the settings given and returns
+   * a list of integers of the assigned clusters of each data point. The options set the number of
+   * restarts and iterations, and can ask for the restarts to run in parallel on a ForkJoinPool.
+   *
+   * @param k       the number of clusters as a integer that will result when implementing kmeans.
+   * @param options the settings of the k-means algorithm.
+   * @return a list of integers of the clusters as a list data structure.
+   * @throws IllegalArgumentException if k given is not a positive integer or if k is greater than
+   *                                  the number of data points.
+   */
+  public List<Integer> kmeans(int k, KMeansOptions options) throws IllegalArgumentException {
+    AnalysisMetrics.Timer timer = metrics == null ? null : metrics.start(AnalysisMetrics.CLUSTER);
+    KMeans kmeans = new KMeans(data, k, options);
+    kmeans.setMetrics(metrics);
+    KMeansResult result = kmeans.run();
+    if (timer != null) {
+      timer.stop();
     }
-    if (k > dataList.size()) {
-      throw new IllegalArgumentException("k cannot be greater than number of data points.");
+    int[] assignments = result.getAssignments();
+    List<Integer> clusters = new ArrayList<>(assignments.length);
+    for (int i = 0; i < assignments.length; i++) {
+      clusters.add(assignments[i]);
     }
-    Double bestError = Double.MAX_VALUE;
-    List<Integer> bestCluster = new LinkedList<>();
-    for (int a = 0; a < 10; a++) {
-      List<Point2D> centers = getCenters(dataList, k);
-      List<Integer> clusters = new LinkedList<>();
-      double error = Double.MAX_VALUE;
-      double distance;
-      double temp_distance;
-      int index = -1;
-      double percentError = Double.MAX_VALUE;
-      int counter = 0;
-      while (percentError > 0.01 && counter < 100) {
-        clusters.clear();
-        counter++;
-        for (int i = 0; i < dataList.size(); i++) {
-          distance = Double.MAX_VALUE;
-          for (int j = 0; j < centers.size(); j++) {
-            temp_distance = findEDistance(dataList.get(i), centers.get(j));
-            if (temp_distance < distance) {
-              distance = temp_distance;
-              index = j;
-            }
-          }
-          clusters.add(index);
-        }
-        double averageX;
-        double averageY;
-        double sumX;
-        double sumY;
-        int xCounter;
-        int yCounter;
-        for (int i = 0; i < k; i++) {
-          sumX = 0;
-          sumY = 0;
-          xCounter = 0;
-          yCounter = 0;
-          for (int j = 0; j < dataList.size(); j++) {
-            if (clusters.get(j) == i) {
-              xCounter++;
-              yCounter++;
-              sumX += dataList.get(j).getX();
-              sumY += dataList.get(j).getY();
-            }
-          }
-          averageX = findAverage(sumX, xCounter);
-          averageY = findAverage(sumY, yCounter);
-          centers.set(i, new Point2D(averageX, averageY));
-        }
-        double totalError = 0;
-        for (int i = 0; i < dataList.size(); i++) {
-          totalError += findEDistance(dataList.get(i), centers.get(clusters.get(i)));
-        }
-        double newError = findAverage(totalError, dataList.size());
-        percentError = Math.abs(newError - error) / error;
-        error = newError;
-      }
-      if (percentError < bestError) {
-        bestError = percentError;
-        bestCluster.clear();
-        for (int b = 0; b < clusters.size(); b++) {
-          bestCluster.add(clusters.get(b));
-        }
-      }
+    return clusters;
+  }
+
+  /**
+   * Public method that clusters the data with k-means for every k from minK to maxK and scores
+   * each k by the elbow of the inertia, the silhouette of a sample of the points and the gap
+   * statistic, so the number of clusters can be chosen from the data. Every k after the first is
+   * started from the centers of k - 1, and when the options ask for parallel work the scoring
+   * runs in parallel on the ForkJoinPool of the options.
+   *
+   * @param minK    the smallest number of clusters.
+   * @param maxK    the largest number of clusters.
+   * @param options the settings of the k-means algorithm.
+   * @return the clustering and scores of every k as a KMeansSweepResult object.
+   * @throws IllegalArgumentException if minK is not positive, maxK is less than minK or maxK is
+   *                                  greater than the number of data points.
+   */
+  public KMeansSweepResult kmeansSweep(int minK, int maxK, KMeansOptions options)
+          throws IllegalArgumentException {
+    KMeansSweep sweep = new KMeansSweep(data, minK, maxK, options);
+    sweep.setMetrics(metrics);
+    AnalysisMetrics.Timer timer = metrics == null ? null : metrics.start(AnalysisMetrics.CLUSTER);
+    KMeansSweepResult result = sweep.run();
+    if (timer != null) {
+      timer.stop();
     }
-    return bestCluster;
+    return result;
   }
 
   /**
-   * Private helper method that randomizes and selects a k number of centers from a list of
-   * Point2D objects. The method creates a new list with the shuffled indexes of all the data
-   * points in the data list given as a parameter and returns a list with the k number of
-   * Point2D objects that were selected to be centers. This method was created to ensure the cluster
-   * centers were randomized and unique in every instance.
+   * Public method that clusters the data with DBSCAN, which finds the clusters as dense regions
+   * without being given their number, and returns a list of integers of the assigned clusters of
+   * each data point. The clusters are numbered from 0 and points that are in no cluster are given
+   * Dbscan.NOISE.
    *
-   * @param data the list that the centers are being pulled from randomly.
-   * @param k    the number of centers that are being pulled from the data set given.
-   * @return the list of Point2D objects that were selected to be centers.
+   * @param eps       the largest distance between two points that are neighbors.
+   * @param minPoints the number of points, the point itself included, within eps of a core point.
+   * @return a list of integers of the clusters as a list data structure.
+   * @throws IllegalArgumentException if eps or minPoints is not positive.
    */
-  private List getCenters(List<Point2D> data, int k) {
-    List<Integer> randomNums = new LinkedList<>();
-    for (int i = 0; i < data.size(); i++) {
-      randomNums.add(i);
+  public List<Integer> dbscan(double eps, int minPoints) throws IllegalArgumentException {
+    Dbscan dbscan = new Dbscan(data, eps, minPoints);
+    dbscan.setParallel(true);
+    AnalysisMetrics.Timer timer = metrics == null ? null : metrics.start(AnalysisMetrics.CLUSTER);
+    int[] labels = dbscan.run();
+    if (timer != null) {
+      timer.stop();
+    }
+    List<Integer> clusters = new ArrayList<>(labels.length);
+    for (int i = 0; i < labels.length; i++) {
+      clusters.add(labels[i]);
     }
-    Collections.shuffle(randomNums);
-    List<Integer> kIndexes = new LinkedList<>();
-    for (int i = 0; i < k; i++) {
-      kIndexes.add(randomNums.get(i));
+    return clusters;
+  }
+
+  /**
+   * Public method that clusters the data with k-means and keeps a model of the result. Every
+   * data point added after this is assigned to its closest center by the model as it is added,
+   * and the model can recluster the data starting from its current centers. The model replaces
+   * the model of an earlier call.
+   *
+   * @param k       the number of clusters as a integer that will result when implementing kmeans.
+   * @param options the settings of the k-means algorithm.
+   * @return the model of the clusters as a ClusterModel object.
+   * @throws IllegalArgumentException if k given is not a positive integer or if k is greater than
+   *                                  the number of data points.
+   */
+  public ClusterModel cluster(int k, KMeansOptions options) throws IllegalArgumentException {
+    AnalysisMetrics.Timer timer = metrics == null ? null : metrics.start(AnalysisMetrics.CLUSTER);
+    clusterModel = ClusterModel.cluster(data, k, options, metrics);
+    if (timer != null) {
+      timer.stop();
     }
-    List<Point2D> centers = new LinkedList<>();
-    for (int i = 0; i < kIndexes.size(); i++) {
-      centers.add(data.get(kIndexes.get(i)));
+    return clusterModel;
+  }
+
+  /**
+   * Public method that compresses the data into at most maxSize weighted representatives with a
+   * Coreset and returns a new DataAnalysis over them, so kmeans, cluster and kmeansSweep read
+   * thousands of representatives instead of every data point. The new DataAnalysis is given a
+   * copy of the least-squares statistics of this one, so its fitted line is the line of the
+   * original data points, and it records in the same metrics.
+   *
+   * @param maxSize the largest number of representatives.
+   * @return the compressed data as a DataAnalysis object.
+   * @throws IllegalArgumentException if maxSize is not positive.
+   */
+  public DataAnalysis compress(int maxSize) throws IllegalArgumentException {
+    Coreset coreset = new Coreset(data, maxSize);
+    LineFitAccumulator statistics = new LineFitAccumulator();
+    statistics.merge(lineFit);
+    DataAnalysis summary = new DataAnalysis(coreset.getPoints(), statistics);
+    summary.setMetrics(metrics);
+    return summary;
+  }
+
+  /**
+   * Public getter method that returns the model of the last clustering made with cluster.
+   *
+   * @return the model as a ClusterModel object, or null if cluster was not called.
+   */
+  public ClusterModel getClusterModel() {
+    return clusterModel;
+  }
+
+  /**
+   * Public getter method that returns a grid index over the data points for box, distance and
+   * nearest-neighbor queries. The index is built the first time it is asked for, and every data
+   * point added after that is inserted into it as it is added.
+   *
+   * @return the index as a SpatialIndex object.
+   */
+  public SpatialIndex getSpatialIndex() {
+    if (spatialIndex == null) {
+      spatialIndex = new SpatialIndex(data);
     }
-    return centers;
+    return spatialIndex;
   }
 
   /**
-   * Private helper method that finds the Euclidean distance of the points given in the parameter
-   * and returns that value.
+   * Public getter method that returns the metrics the fits and clusterings are recorded in.
    *
-   * @param point1 the first Point2D object that is being used to find the Euclidean distance.
-   * @param point2 the second Point2D object that is being used to find the Euclidean distance.
-   * @return the Euclidean distance between the two points as a double data type.
+   * @return the metrics as an AnalysisMetrics object, or null if they are not recorded.
    */
-  private double findEDistance(Point2D point1, Point2D point2) {
-    return Math.pow(Math.pow(point1.getX() - point2.getX(), 2)
-            + Math.pow(point1.getY() - point2.getY(), 2), 0.5);
+  public AnalysisMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Public setter method that sets the metrics the fits and clusterings are recorded in. Each
+   * call of fitLine, fitLineModel, fitLineRobust and kmeans is then timed, and every k-means
+   * run records its restarts. Adding points is never timed, since it is called once per point.
+   *
+   * @param metrics the metrics, or null to stop recording.
+   */
+  public void setMetrics(AnalysisMetrics metrics) {
+    this.metrics = metrics;
+    if (clusterModel != null) {
+      clusterModel.setMetrics(metrics);
+    }
   }
 }
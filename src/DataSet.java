@@ -5,7 +5,8 @@ import java.util.List;
 
 /**
  * This interface contains all operations that all DataSet classes should contain. It should contain
- * these methods: addData, getData, fitLine, and kmeans.
+ * these methods: addData, addAll, getData, fitLine, fitLineModel, fitLineRobust, kmeans,
+ * kmeansSweep, compress, dbscan, cluster, getSpatialIndex, getMetrics and setMetrics.
  */
 public interface DataSet {
 
@@ -19,7 +20,28 @@ public interface DataSet {
   void addData(double x, double y);
 
   /**
-   * Getter method that returns the data list.
+   * Method that adds a data point with a weight, which counts as that many data points with the
+   * same coordinates in the line fit and in k-means.
+   *
+   * @param x      the x coordinate of the data point as a double data type.
+   * @param y      the y coordinate of the data point as a double data type.
+   * @param weight the weight of the data point as a double data type.
+   * @throws IllegalArgumentException if the weight is not a positive number.
+   */
+  void addData(double x, double y, double weight) throws IllegalArgumentException;
+
+  /**
+   * Method that adds every data point given by the two arrays at once. The data point at position
+   * i is (xs[i], ys[i]).
+   *
+   * @param xs the x coordinates of the data points as an array of doubles.
+   * @param ys the y coordinates of the data points as an array of doubles.
+   * @throws IllegalArgumentException if the two arrays are not the same length.
+   */
+  void addAll(double[] xs, double[] ys) throws IllegalArgumentException;
+
+  /**
+   * Getter method that returns the data list. The list that is returned is read-only.
    *
    * @return the data list as a List data type.
    */
@@ -34,6 +56,26 @@ public interface DataSet {
    */
   String fitLine();
 
+  /**
+   * Method that returns the best-fit line of the data points as a FittedLine object that keeps
+   * the coefficients, the angle, the centroid and the residual statistics at full precision.
+   *
+   * @return the best-fit line as a FittedLine object.
+   */
+  FittedLine fitLineModel();
+
+  /**
+   * Method that returns a best-fit line of the data points that is not pulled away by outliers.
+   * The line is found with RANSAC and refit by least squares to the points within the threshold
+   * of it.
+   *
+   * @param threshold the distance from the line within which a point is an inlier.
+   * @return the best-fit line of the inliers as a FittedLine object.
+   * @throws IllegalArgumentException if threshold is not positive or there are fewer than two
+   *                                  data points.
+   */
+  FittedLine fitLineRobust(double threshold) throws IllegalArgumentException;
+
   /**
    * Method that takes an integer 'k' and performs k-means clustering on the data and returns a
    * lists of integers of the assigned clusters of each data point. The parameter taken in is
@@ -47,4 +89,86 @@ public interface DataSet {
    */
   List kmeans(int k) throws IllegalArgumentException;
 
+  /**
+   * Method that performs k-means clustering on the data with the settings given and returns a
+   * list of integers of the assigned clusters of each data point.
+   *
+   * @param k       the number of clusters as a integer that will result when implementing kmeans.
+   * @param options the settings of the k-means algorithm.
+   * @return a list of integers of the clusters as a list data structure.
+   * @throws IllegalArgumentException if k given is not a positive integer.
+   */
+  List<Integer> kmeans(int k, KMeansOptions options) throws IllegalArgumentException;
+
+  /**
+   * Method that compresses the data into at most maxSize weighted representatives and returns a
+   * new DataSet over them that clusters the representatives and fits the line of the original
+   * data points.
+   *
+   * @param maxSize the largest number of representatives.
+   * @return the compressed data as a DataSet.
+   * @throws IllegalArgumentException if maxSize is not positive.
+   */
+  DataSet compress(int maxSize) throws IllegalArgumentException;
+
+  /**
+   * Method that clusters the data with k-means for every k from minK to maxK and scores each k by
+   * the elbow of the inertia, the silhouette of a sample of the points and the gap statistic.
+   *
+   * @param minK    the smallest number of clusters.
+   * @param maxK    the largest number of clusters.
+   * @param options the settings of the k-means algorithm.
+   * @return the clustering and scores of every k as a KMeansSweepResult object.
+   * @throws IllegalArgumentException if the range of k is empty or not positive.
+   */
+  KMeansSweepResult kmeansSweep(int minK, int maxK, KMeansOptions options)
+          throws IllegalArgumentException;
+
+  /**
+   * Method that clusters the data with DBSCAN, which finds the clusters as dense regions without
+   * being given their number, and returns a list of integers of the assigned clusters of each
+   * data point, with Dbscan.NOISE for points that are in no cluster.
+   *
+   * @param eps       the largest distance between two points that are neighbors.
+   * @param minPoints the number of points, the point itself included, within eps of a core point.
+   * @return a list of integers of the clusters as a list data structure.
+   * @throws IllegalArgumentException if eps or minPoints is not positive.
+   */
+  List<Integer> dbscan(double eps, int minPoints) throws IllegalArgumentException;
+
+  /**
+   * Method that clusters the data with k-means and keeps a model of the result that assigns every
+   * data point added after it to its closest center, and that can recluster the data starting
+   * from its current centers.
+   *
+   * @param k       the number of clusters as a integer that will result when implementing kmeans.
+   * @param options the settings of the k-means algorithm.
+   * @return the model of the clusters as a ClusterModel object.
+   * @throws IllegalArgumentException if k given is not a positive integer.
+   */
+  ClusterModel cluster(int k, KMeansOptions options) throws IllegalArgumentException;
+
+  /**
+   * Getter method that returns an index over the data points for box, distance and
+   * nearest-neighbor queries, which is kept up to date as data points are added.
+   *
+   * @return the index as a SpatialIndex object.
+   */
+  SpatialIndex getSpatialIndex();
+
+  /**
+   * Getter method that returns the metrics the calls of this DataSet are recorded in.
+   *
+   * @return the metrics as an AnalysisMetrics object, or null if they are not recorded.
+   */
+  AnalysisMetrics getMetrics();
+
+  /**
+   * Setter method that sets the metrics the calls of this DataSet are recorded in. Nothing is
+   * measured while no metrics are set.
+   *
+   * @param metrics the metrics, or null to stop recording.
+   */
+  void setMetrics(AnalysisMetrics metrics);
+
 }
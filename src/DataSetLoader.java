@@ -0,0 +1,405 @@
+/**
+ * Import IOException, ByteBuffer, FileChannel, ReadableByteChannel, StandardCharsets, Files,
+ * Path, Paths and StandardOpenOption packages.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class reads data files, where every line holds the x and y coordinates of one point
+ * separated by whitespace, and adds the points to a DataSet. The file is read through a
+ * FileChannel into a reused buffer, or memory-mapped if it is large, and the numbers are parsed
+ * straight from the bytes by a hand-written parser instead of through Scanner, String.split and
+ * Double.parseDouble, so no objects are created for the lines or numbers of the file.
+ */
+public class DataSetLoader {
+
+  /**
+   * This interface contains the operation that is given every point read by the loader.
+   */
+  public interface PointConsumer {
+
+    /**
+     * Method that takes in a point read by the loader.
+     *
+     * @param x the x coordinate of the point as a double data type.
+     * @param y the y coordinate of the point as a double data type.
+     */
+    void accept(double x, double y);
+  }
+
+  /**
+   * The size in bytes of the buffer a file is read into.
+   */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * The size in bytes of a file from which on it is memory-mapped instead of read.
+   */
+  private static final long MAP_THRESHOLD = 1L << 26;
+
+  /**
+   * The largest number of bytes that are mapped at once.
+   */
+  private static final long MAP_SEGMENT = 1L << 30;
+
+  /**
+   * The powers of ten that can be represented exactly as a double.
+   */
+  private static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+    1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  /**
+   * Private constructor since this class only has static methods.
+   */
+  private DataSetLoader() {
+  }
+
+  /**
+   * Public static method that reads the data file at the path given into a new DataAnalysis.
+   *
+   * @param path the path of the data file.
+   * @return a DataAnalysis holding the points of the file.
+   * @throws IOException if the file cannot be read.
+   * @throws NumberFormatException if a line does not hold two numbers.
+   */
+  public static DataAnalysis load(String path) throws IOException {
+    DataAnalysis dataSet = new DataAnalysis();
+    loadInto(Paths.get(path), dataSet);
+    return dataSet;
+  }
+
+  /**
+   * Public static method that reads the data file at the path given into a new DataAnalysis that
+   * keeps its points in the columns given, such as FixedPointColumns with the number of decimal
+   * places of the file.
+   *
+   * @param path    the path of the data file.
+   * @param columns the empty columns the points are kept in.
+   * @return a DataAnalysis holding the points of the file.
+   * @throws IOException if the file cannot be read.
+   * @throws NumberFormatException if a line does not hold two numbers.
+   */
+  public static DataAnalysis load(String path, PointColumns columns) throws IOException {
+    DataAnalysis dataSet = new DataAnalysis(columns);
+    loadInto(Paths.get(path), dataSet);
+    return dataSet;
+  }
+
+  /**
+   * Public static method that reads the data file at the path given and adds its points to the
+   * DataSet given. If the DataSet has metrics, the time taken to read the file is recorded as a
+   * call of the parse stage.
+   *
+   * @param path    the path of the data file.
+   * @param dataSet the DataSet the points are added to.
+   * @return the number of points read as a long data type.
+   * @throws IOException if the file cannot be read.
+   * @throws NumberFormatException if a line does not hold two numbers.
+   */
+  public static long loadInto(Path path, DataSet dataSet) throws IOException {
+    AnalysisMetrics metrics = dataSet.getMetrics();
+    if (metrics == null) {
+      return read(path, dataSet::addData);
+    }
+    AnalysisMetrics.Timer timer = metrics.start(AnalysisMetrics.PARSE);
+    long count = read(path, dataSet::addData);
+    timer.stop();
+    return count;
+  }
+
+  /**
+   * Public static method that reads the data file at the path given and gives every point to
+   * the consumer. Files from 64 MB on are memory-mapped, smaller files are read into a buffer.
+   *
+   * @param path     the path of the data file.
+   * @param consumer the consumer every point is given to, in the order of the file.
+   * @return the number of points read as a long data type.
+   * @throws IOException if the file cannot be read.
+   * @throws NumberFormatException if a line does not hold two numbers.
+   */
+  public static long read(Path path, PointConsumer consumer) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() >= MAP_THRESHOLD) {
+        return readMapped(channel, consumer);
+      }
+      return read(channel, consumer);
+    }
+  }
+
+  /**
+   * Public static method that reads points from the channel given until it ends and gives every
+   * point to the consumer. The channel is not closed.
+   *
+   * @param channel  the channel the points are read from.
+   * @param consumer the consumer every point is given to, in the order of the channel.
+   * @return the number of points read as a long data type.
+   * @throws IOException if the channel cannot be read.
+   * @throws NumberFormatException if a line does not hold two numbers.
+   */
+  public static long read(ReadableByteChannel channel, PointConsumer consumer)
+          throws IOException {
+    Parser parser = new Parser(consumer);
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    while (channel.read(buffer) != -1) {
+      buffer.flip();
+      parser.parse(buffer);
+      buffer.clear();
+    }
+    parser.finish();
+    return parser.count;
+  }
+
+  /**
+   * Public static method that memory-maps the file of the channel given, one segment of at most
+   * 1 GB at a time, and gives every point to the consumer. The channel is not closed.
+   *
+   * @param channel  the channel of the file the points are read from.
+   * @param consumer the consumer every point is given to, in the order of the file.
+   * @return the number of points read as a long data type.
+   * @throws IOException if the file cannot be mapped.
+   * @throws NumberFormatException if a line does not hold two numbers.
+   */
+  public static long readMapped(FileChannel channel, PointConsumer consumer) throws IOException {
+    Parser parser = new Parser(consumer);
+    long size = channel.size();
+    for (long position = 0; position < size; position += MAP_SEGMENT) {
+      long length = Math.min(MAP_SEGMENT, size - position);
+      parser.parse(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+    }
+    parser.finish();
+    return parser.count;
+  }
+
+  /**
+   * Public static method that parses the number written in the bytes given, in the formats
+   * accepted by Double.parseDouble. Numbers with at most 15 significant digits and small
+   * exponents, such as the numbers in the data files, are parsed without creating any objects.
+   *
+   * @param bytes  the bytes holding the number as ASCII characters.
+   * @param length the number of bytes of the number, read from the start of the array.
+   * @return the number as a double data type.
+   * @throws NumberFormatException if the bytes are not a number.
+   */
+  public static double parseDouble(byte[] bytes, int length) throws NumberFormatException {
+    int i = 0;
+    boolean negative = false;
+    if (i < length && (bytes[i] == '-' || bytes[i] == '+')) {
+      negative = bytes[i] == '-';
+      i++;
+    }
+    long mantissa = 0;
+    int digits = 0;
+    int exponent = 0;
+    boolean anyDigit = false;
+    while (i < length && bytes[i] >= '0' && bytes[i] <= '9') {
+      anyDigit = true;
+      if (mantissa != 0 || bytes[i] != '0') {
+        if (digits < 18) {
+          mantissa = mantissa * 10 + (bytes[i] - '0');
+          digits++;
+        } else {
+          return slowParse(bytes, length);
+        }
+      }
+      i++;
+    }
+    if (i < length && bytes[i] == '.') {
+      i++;
+      while (i < length && bytes[i] >= '0' && bytes[i] <= '9') {
+        anyDigit = true;
+        if (mantissa != 0 || bytes[i] != '0') {
+          if (digits < 18) {
+            mantissa = mantissa * 10 + (bytes[i] - '0');
+            digits++;
+          } else {
+            return slowParse(bytes, length);
+          }
+        }
+        exponent--;
+        i++;
+      }
+    }
+    if (!anyDigit) {
+      return slowParse(bytes, length);
+    }
+    if (i < length && (bytes[i] == 'e' || bytes[i] == 'E')) {
+      i++;
+      boolean negativeExponent = false;
+      if (i < length && (bytes[i] == '-' || bytes[i] == '+')) {
+        negativeExponent = bytes[i] == '-';
+        i++;
+      }
+      if (i == length) {
+        return slowParse(bytes, length);
+      }
+      int value = 0;
+      while (i < length && bytes[i] >= '0' && bytes[i] <= '9') {
+        if (value > 10000) {
+          return slowParse(bytes, length);
+        }
+        value = value * 10 + (bytes[i] - '0');
+        i++;
+      }
+      exponent += negativeExponent ? -value : value;
+    }
+    if (i != length || mantissa >= (1L << 53) || exponent < -22 || exponent > 22) {
+      return slowParse(bytes, length);
+    }
+    double result = mantissa;
+    if (exponent < 0) {
+      result /= POWERS_OF_TEN[-exponent];
+    } else {
+      result *= POWERS_OF_TEN[exponent];
+    }
+    return negative ? -result : result;
+  }
+
+  /**
+   * Private helper method that parses the bytes given with Double.parseDouble, for the numbers
+   * the fast path cannot parse exactly.
+   *
+   * @param bytes  the bytes holding the number as ASCII characters.
+   * @param length the number of bytes of the number.
+   * @return the number as a double data type.
+   * @throws NumberFormatException if the bytes are not a number.
+   */
+  private static double slowParse(byte[] bytes, int length) throws NumberFormatException {
+    return Double.parseDouble(new String(bytes, 0, length, StandardCharsets.ISO_8859_1));
+  }
+
+  /**
+   * This class splits the bytes of a data file into numbers and lines. It keeps its state between
+   * buffers, so a number or line can be split over two reads or two mapped segments.
+   */
+  private static final class Parser {
+
+    /**
+     * The consumer every point is given to.
+     */
+    private final PointConsumer consumer;
+
+    /**
+     * The bytes of the number being read, reused for every number.
+     */
+    private byte[] token;
+
+    /**
+     * The number of bytes of the number being read.
+     */
+    private int tokenLength;
+
+    /**
+     * The number of numbers read on the current line.
+     */
+    private int numbersInLine;
+
+    /**
+     * The first number of the current line.
+     */
+    private double x;
+
+    /**
+     * The number of the current line, starting from 1.
+     */
+    private long line;
+
+    /**
+     * The number of points read.
+     */
+    private long count;
+
+    /**
+     * Constructs the Parser object that gives every point to the consumer given.
+     *
+     * @param consumer the consumer every point is given to.
+     */
+    Parser(PointConsumer consumer) {
+      this.consumer = consumer;
+      token = new byte[64];
+      tokenLength = 0;
+      numbersInLine = 0;
+      line = 1;
+      count = 0;
+    }
+
+    /**
+     * Parses every byte left in the buffer given.
+     *
+     * @param buffer the buffer holding the next bytes of the file.
+     */
+    void parse(ByteBuffer buffer) {
+      int end = buffer.limit();
+      for (int i = buffer.position(); i < end; i++) {
+        byte b = buffer.get(i);
+        if (b == '\n') {
+          endNumber();
+          endLine();
+        } else if (b == ' ' || b == '\t' || b == '\r' || b == ',') {
+          endNumber();
+        } else {
+          if (tokenLength == token.length) {
+            byte[] larger = new byte[token.length * 2];
+            System.arraycopy(token, 0, larger, 0, tokenLength);
+            token = larger;
+          }
+          token[tokenLength++] = b;
+        }
+      }
+      buffer.position(end);
+    }
+
+    /**
+     * Finishes the last line once every byte has been parsed.
+     */
+    void finish() {
+      endNumber();
+      endLine();
+    }
+
+    /**
+     * Parses the number that was just read, if there is one.
+     */
+    private void endNumber() {
+      if (tokenLength == 0) {
+        return;
+      }
+      double value;
+      try {
+        value = parseDouble(token, tokenLength);
+      } catch (NumberFormatException e) {
+        throw new NumberFormatException("Line " + line + ": " + e.getMessage());
+      }
+      tokenLength = 0;
+      numbersInLine++;
+      if (numbersInLine == 1) {
+        x = value;
+      } else if (numbersInLine == 2) {
+        consumer.accept(x, value);
+        count++;
+      } else {
+        throw new NumberFormatException("Line " + line + ": expected two numbers.");
+      }
+    }
+
+    /**
+     * Checks that the line that just ended held either no numbers or exactly two.
+     */
+    private void endLine() {
+      if (numbersInLine == 1) {
+        throw new NumberFormatException("Line " + line + ": expected two numbers.");
+      }
+      numbersInLine = 0;
+      line++;
+    }
+  }
+}
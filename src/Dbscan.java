@@ -0,0 +1,233 @@
+/**
+ * Import Arrays, ForkJoinPool and RecursiveAction packages.
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class clusters the points of a PointColumns object with DBSCAN, which finds clusters as
+ * regions where points are dense instead of needing the number of clusters up front. A point is a
+ * core point if at least minPoints points, itself included, lie within eps of it. Core points
+ * within eps of each other are in the same cluster, a point that is not a core point joins the
+ * cluster of the first core point within eps of it, and a point with no core point within eps of
+ * it is noise.
+ *
+ * <p>The neighbors of a point are found with a SpatialIndex whose cells are eps wide, so a
+ * neighborhood query reads only the cells around the point and the whole run costs close to
+ * linear time when the neighborhoods are small. Finding the core points only reads the index, so
+ * when parallel work is asked for, it is split into chunks of points that run in parallel on a
+ * ForkJoinPool. The clusters are then grown from the core points in the order of the points, so
+ * the labels are the same whether or not the run is parallel.
+ */
+public class Dbscan {
+
+  /**
+   * The label of the points that are not in any cluster.
+   */
+  public static final int NOISE = -1;
+
+  /**
+   * The number of points one parallel task checks for being a core point.
+   */
+  private static final int CHUNK_SIZE = 4096;
+
+  /**
+   * The points that are being clustered.
+   */
+  private final PointColumns data;
+
+  /**
+   * The largest distance between two points that are neighbors.
+   */
+  private final double eps;
+
+  /**
+   * The number of points, the point itself included, within eps of a core point.
+   */
+  private final int minPoints;
+
+  /**
+   * Whether the core points are found in parallel.
+   */
+  private boolean parallel;
+
+  /**
+   * The pool that the parallel work is run on, or null to use the common pool.
+   */
+  private ForkJoinPool pool;
+
+  /**
+   * The number of clusters found by the last run.
+   */
+  private int clusterCount;
+
+  /**
+   * Constructs the Dbscan object that clusters the points given.
+   *
+   * @param data      the points that are clustered.
+   * @param eps       the largest distance between two points that are neighbors.
+   * @param minPoints the number of points, the point itself included, within eps of a core point.
+   * @throws IllegalArgumentException if eps is not a positive number or minPoints is not
+   *                                  positive.
+   */
+  public Dbscan(PointColumns data, double eps, int minPoints) throws IllegalArgumentException {
+    if (!(eps > 0) || Double.isInfinite(eps)) {
+      throw new IllegalArgumentException("eps must be a positive number.");
+    }
+    if (minPoints <= 0) {
+      throw new IllegalArgumentException("minPoints must be positive.");
+    }
+    this.data = data;
+    this.eps = eps;
+    this.minPoints = minPoints;
+  }
+
+  /**
+   * Public method that clusters the points. The clusters are numbered from 0 in the order of
+   * their first core point.
+   *
+   * @return the cluster of each point, or NOISE, in the order of the points.
+   */
+  public int[] run() {
+    int n = data.size();
+    SpatialIndex index = new SpatialIndex(data, eps);
+    boolean[] core = new boolean[n];
+    CoreTask all = new CoreTask(index, core, 0, n);
+    if (parallel && n > CHUNK_SIZE) {
+      (pool == null ? ForkJoinPool.commonPool() : pool).invoke(all);
+    } else {
+      all.findCores();
+    }
+    int[] labels = new int[n];
+    Arrays.fill(labels, NOISE);
+    int[] queue = new int[n];
+    int clusters = 0;
+    for (int i = 0; i < n; i++) {
+      if (!core[i] || labels[i] != NOISE) {
+        continue;
+      }
+      int cluster = clusters++;
+      labels[i] = cluster;
+      queue[0] = i;
+      int head = 0;
+      int tail = 1;
+      while (head < tail) {
+        int point = queue[head++];
+        for (int neighbor : index.radiusQuery(data.getX(point), data.getY(point), eps)) {
+          if (labels[neighbor] != NOISE) {
+            continue;
+          }
+          labels[neighbor] = cluster;
+          if (core[neighbor]) {
+            queue[tail++] = neighbor;
+          }
+        }
+      }
+    }
+    clusterCount = clusters;
+    return labels;
+  }
+
+  /**
+   * Public getter method that returns the number of clusters found by the last run.
+   *
+   * @return the number of clusters as an integer, not counting noise.
+   */
+  public int getClusterCount() {
+    return clusterCount;
+  }
+
+  /**
+   * Public method that returns whether the core points are found in parallel.
+   *
+   * @return true if the core points are found in parallel.
+   */
+  public boolean isParallel() {
+    return parallel;
+  }
+
+  /**
+   * Public setter method that sets whether the core points are found in parallel.
+   *
+   * @param parallel true to find the core points in parallel.
+   */
+  public void setParallel(boolean parallel) {
+    this.parallel = parallel;
+  }
+
+  /**
+   * Public setter method that sets the pool that the parallel work is run on.
+   *
+   * @param pool the pool, or null to use the common pool.
+   */
+  public void setPool(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * This class finds which points of a range are core points, splitting the range in half until
+   * it is no larger than one chunk.
+   */
+  private final class CoreTask extends RecursiveAction {
+
+    /**
+     * The index the neighbors are counted with.
+     */
+    private final SpatialIndex index;
+
+    /**
+     * Whether each point is a core point, set by the task for the points of its range.
+     */
+    private final boolean[] core;
+
+    /**
+     * The first point of the range.
+     */
+    private final int start;
+
+    /**
+     * The point after the last point of the range.
+     */
+    private final int end;
+
+    /**
+     * Constructs the CoreTask object for the range of points given.
+     *
+     * @param index the index the neighbors are counted with.
+     * @param core  the array the core points are marked in.
+     * @param start the first point of the range.
+     * @param end   the point after the last point of the range.
+     */
+    CoreTask(SpatialIndex index, boolean[] core, int start, int end) {
+      this.index = index;
+      this.core = core;
+      this.start = start;
+      this.end = end;
+    }
+
+    /**
+     * Marks the core points of the range, splitting it into two tasks if it is larger than a
+     * chunk.
+     */
+    @Override
+    protected void compute() {
+      if (end - start <= CHUNK_SIZE) {
+        findCores();
+        return;
+      }
+      int middle = (start + end) >>> 1;
+      invokeAll(new CoreTask(index, core, start, middle), new CoreTask(index, core, middle, end));
+    }
+
+    /**
+     * Marks the core points of the range on the calling thread.
+     */
+    void findCores() {
+      for (int i = start; i < end; i++) {
+        core[i] = index.countWithin(data.getX(i), data.getY(i), eps, minPoints) >= minPoints;
+      }
+    }
+  }
+}
@@ -0,0 +1,434 @@
+/**
+ * Import RecursiveTask package.
+ */
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class bins points into the pixels of an image for density rendering. Each pixel keeps the
+ * number of points that fell into it and the majority color of those points, found with the
+ * Boyer-Moore majority vote so only one candidate color and one vote count are kept per pixel.
+ * Memory is bounded by the size of the image, not by the number of points, and grids built over
+ * separate parts of the points can be merged, so a grid can be built in parallel.
+ *
+ * <p>When painted, the counts are mapped through a logarithmic scale, so pixels with a handful of
+ * points stay visible next to pixels with thousands. If the points all have the same color the
+ * pixels are colored with a heat ramp; otherwise each pixel has its majority color, darker where
+ * there are more points.
+ */
+public class DensityGrid {
+
+  /**
+   * The colors of the heat ramp, from the lowest to the highest density.
+   */
+  private static final int[] RAMP = {0xFFFFFFB2, 0xFFFECC5C, 0xFFFD8D3C, 0xFFE31A1C,
+                                     0xFF800026};
+
+  /**
+   * The smallest number of points a task of the parallel build bins by itself.
+   */
+  private static final int MIN_CHUNK = 1 << 16;
+
+  /**
+   * The width of the grid in pixels.
+   */
+  private final int width;
+
+  /**
+   * The height of the grid in pixels.
+   */
+  private final int height;
+
+  /**
+   * The number of points in each pixel, row by row from the top.
+   */
+  private final int[] counts;
+
+  /**
+   * The candidate for the majority color of each pixel, as a packed ARGB integer.
+   */
+  private final int[] candidates;
+
+  /**
+   * The votes of the candidate color of each pixel.
+   */
+  private final int[] votes;
+
+  /**
+   * The color of the first point added, as a packed ARGB integer.
+   */
+  private int firstColor;
+
+  /**
+   * Whether points of more than one color have been added.
+   */
+  private boolean multiColor;
+
+  /**
+   * The number of points added to the grid.
+   */
+  private long total;
+
+  /**
+   * Constructs the DensityGrid object with the size given and no points.
+   *
+   * @param width  the width of the grid in pixels.
+   * @param height the height of the grid in pixels.
+   * @throws IllegalArgumentException if the width or height is not positive.
+   */
+  public DensityGrid(int width, int height) throws IllegalArgumentException {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("width and height must be positive.");
+    }
+    this.width = width;
+    this.height = height;
+    counts = new int[width * height];
+    candidates = new int[width * height];
+    votes = new int[width * height];
+    total = 0;
+  }
+
+  /**
+   * Public static method that bins the points given into a new grid. The points are mapped to
+   * pixels with px = (x - xmin) * scaleX and py = height - (y - ymin) * scaleY, the mapping of
+   * ImagePlotter, and points outside the grid are skipped. Large point sets are split between
+   * the threads of the common fork/join pool, each binning into its own grid, and the grids are
+   * merged.
+   *
+   * @param xy     the coordinates of the points, x and y of each point one after the other.
+   * @param colors the color of each point as a packed ARGB integer.
+   * @param n      the number of points.
+   * @param width  the width of the grid in pixels.
+   * @param height the height of the grid in pixels.
+   * @param xmin   the x coordinate of the left edge of the grid.
+   * @param ymin   the y coordinate of the bottom edge of the grid.
+   * @param scaleX the number of pixels per unit of x.
+   * @param scaleY the number of pixels per unit of y.
+   * @return the grid holding the points.
+   */
+  public static DensityGrid build(int[] xy, int[] colors, int n, int width, int height,
+                                  double xmin, double ymin, double scaleX, double scaleY) {
+    Mapping mapping = new Mapping(xy, colors, width, height, xmin, ymin, scaleX, scaleY);
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    int chunk = Math.max(MIN_CHUNK, n / (4 * parallelism) + 1);
+    if (n <= chunk) {
+      return mapping.bin(0, n);
+    }
+    return new BuildTask(mapping, 0, n, chunk).invoke();
+  }
+
+  /**
+   * Public method that adds a point to the pixel given. Points outside the grid are skipped.
+   *
+   * @param px   the column of the pixel, from the left edge.
+   * @param py   the row of the pixel, from the top edge.
+   * @param argb the color of the point as a packed ARGB integer.
+   */
+  public void add(int px, int py, int argb) {
+    if (px < 0 || px >= width || py < 0 || py >= height) {
+      return;
+    }
+    if (total == 0) {
+      firstColor = argb;
+    } else if (argb != firstColor) {
+      multiColor = true;
+    }
+    total++;
+    int i = py * width + px;
+    counts[i]++;
+    if (votes[i] == 0) {
+      candidates[i] = argb;
+      votes[i] = 1;
+    } else if (candidates[i] == argb) {
+      votes[i]++;
+    } else {
+      votes[i]--;
+    }
+  }
+
+  /**
+   * Public method that adds the points of another grid of the same size to this grid. The
+   * majority votes are merged so that a color held by more than half of the points of a pixel
+   * is still its candidate.
+   *
+   * @param other the grid that is merged into this grid.
+   * @throws IllegalArgumentException if the grids are not the same size.
+   */
+  public void merge(DensityGrid other) throws IllegalArgumentException {
+    if (other.width != width || other.height != height) {
+      throw new IllegalArgumentException("The grids must be the same size.");
+    }
+    if (other.total == 0) {
+      return;
+    }
+    if (total == 0) {
+      firstColor = other.firstColor;
+    }
+    multiColor |= other.multiColor || other.firstColor != firstColor;
+    total += other.total;
+    for (int i = 0; i < counts.length; i++) {
+      if (other.counts[i] == 0) {
+        continue;
+      }
+      counts[i] += other.counts[i];
+      if (candidates[i] == other.candidates[i]) {
+        votes[i] += other.votes[i];
+      } else if (votes[i] >= other.votes[i]) {
+        votes[i] -= other.votes[i];
+      } else {
+        candidates[i] = other.candidates[i];
+        votes[i] = other.votes[i] - votes[i];
+      }
+    }
+  }
+
+  /**
+   * Public method that paints the pixels holding points into the image given. Pixels without
+   * points are left as they are.
+   *
+   * @param pixels the pixels of the image as packed ARGB integers, row by row from the top, with
+   *               the size of the grid.
+   * @throws IllegalArgumentException if the image is not the size of the grid.
+   */
+  public void paint(int[] pixels) throws IllegalArgumentException {
+    if (pixels.length != counts.length) {
+      throw new IllegalArgumentException("The image must be the size of the grid.");
+    }
+    int max = getMaxCount();
+    if (max == 0) {
+      return;
+    }
+    double scale = 1 / Math.log1p(max);
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] == 0) {
+        continue;
+      }
+      double t = Math.log1p(counts[i]) * scale;
+      if (multiColor) {
+        pixels[i] = mix(0xFFFFFFFF, candidates[i], 0.35 + 0.65 * t);
+      } else {
+        pixels[i] = ramp(t);
+      }
+    }
+  }
+
+  /**
+   * Public getter method that returns the number of points in the pixel given.
+   *
+   * @param px the column of the pixel, from the left edge.
+   * @param py the row of the pixel, from the top edge.
+   * @return the number of points as an integer.
+   */
+  public int getCount(int px, int py) {
+    return counts[py * width + px];
+  }
+
+  /**
+   * Public getter method that returns the majority color of the pixel given. If no color is held
+   * by more than half of the points of the pixel, the result is one of their colors.
+   *
+   * @param px the column of the pixel, from the left edge.
+   * @param py the row of the pixel, from the top edge.
+   * @return the color as a packed ARGB integer, or 0 if the pixel has no points.
+   */
+  public int getMajorityColor(int px, int py) {
+    int i = py * width + px;
+    return counts[i] == 0 ? 0 : candidates[i];
+  }
+
+  /**
+   * Public getter method that returns the largest number of points in one pixel.
+   *
+   * @return the largest count as an integer.
+   */
+  public int getMaxCount() {
+    int max = 0;
+    for (int count : counts) {
+      max = Math.max(max, count);
+    }
+    return max;
+  }
+
+  /**
+   * Public getter method that returns the number of points added to the grid.
+   *
+   * @return the number of points as a long data type.
+   */
+  public long getTotal() {
+    return total;
+  }
+
+  /**
+   * Private helper method that returns the color of the heat ramp at the position given.
+   *
+   * @param t the position on the ramp, from 0 for the lowest to 1 for the highest density.
+   * @return the color as a packed ARGB integer.
+   */
+  private static int ramp(double t) {
+    double position = Math.min(1, Math.max(0, t)) * (RAMP.length - 1);
+    int stop = Math.min(RAMP.length - 2, (int) position);
+    return mix(RAMP[stop], RAMP[stop + 1], position - stop);
+  }
+
+  /**
+   * Private helper method that mixes two opaque colors.
+   *
+   * @param from the color at a weight of 0, as a packed ARGB integer.
+   * @param to   the color at a weight of 1, as a packed ARGB integer.
+   * @param t    the weight of the second color, from 0 to 1.
+   * @return the mixed color as an opaque packed ARGB integer.
+   */
+  private static int mix(int from, int to, double t) {
+    int color = 0xFF000000;
+    for (int shift = 0; shift <= 16; shift += 8) {
+      int a = (from >>> shift) & 0xFF;
+      int b = (to >>> shift) & 0xFF;
+      color |= ((int) Math.round(a + (b - a) * t) & 0xFF) << shift;
+    }
+    return color;
+  }
+
+  /**
+   * This class holds the points being binned and the mapping from their coordinates to pixels.
+   */
+  private static final class Mapping {
+
+    /**
+     * The coordinates of the points, x and y of each point one after the other.
+     */
+    private final int[] xy;
+
+    /**
+     * The color of each point as a packed ARGB integer.
+     */
+    private final int[] colors;
+
+    /**
+     * The width of the grid in pixels.
+     */
+    private final int width;
+
+    /**
+     * The height of the grid in pixels.
+     */
+    private final int height;
+
+    /**
+     * The x coordinate of the left edge of the grid.
+     */
+    private final double xmin;
+
+    /**
+     * The y coordinate of the bottom edge of the grid.
+     */
+    private final double ymin;
+
+    /**
+     * The number of pixels per unit of x.
+     */
+    private final double scaleX;
+
+    /**
+     * The number of pixels per unit of y.
+     */
+    private final double scaleY;
+
+    /**
+     * Constructs the Mapping object with the values given as parameters.
+     *
+     * @param xy     the coordinates of the points.
+     * @param colors the color of each point.
+     * @param width  the width of the grid in pixels.
+     * @param height the height of the grid in pixels.
+     * @param xmin   the x coordinate of the left edge of the grid.
+     * @param ymin   the y coordinate of the bottom edge of the grid.
+     * @param scaleX the number of pixels per unit of x.
+     * @param scaleY the number of pixels per unit of y.
+     */
+    Mapping(int[] xy, int[] colors, int width, int height, double xmin, double ymin,
+            double scaleX, double scaleY) {
+      this.xy = xy;
+      this.colors = colors;
+      this.width = width;
+      this.height = height;
+      this.xmin = xmin;
+      this.ymin = ymin;
+      this.scaleX = scaleX;
+      this.scaleY = scaleY;
+    }
+
+    /**
+     * Bins the points in the range given into a new grid.
+     *
+     * @param start the index of the first point.
+     * @param end   the index after the last point.
+     * @return the grid holding the points.
+     */
+    DensityGrid bin(int start, int end) {
+      DensityGrid grid = new DensityGrid(width, height);
+      for (int i = start; i < end; i++) {
+        double px = (xy[2 * i] - xmin) * scaleX;
+        double py = height - (xy[2 * i + 1] - ymin) * scaleY;
+        if (px >= 0 && px < width && py >= 0 && py < height) {
+          grid.add((int) px, (int) py, colors[i]);
+        }
+      }
+      return grid;
+    }
+  }
+
+  /**
+   * This class is the fork/join task of the parallel build. It splits its range of points in
+   * halves until a range is small enough to bin by itself, and merges the grids of the halves.
+   */
+  private static final class BuildTask extends RecursiveTask<DensityGrid> {
+
+    /**
+     * The points being binned and their mapping to pixels.
+     */
+    private final Mapping mapping;
+
+    /**
+     * The index of the first point of the range.
+     */
+    private final int start;
+
+    /**
+     * The index after the last point of the range.
+     */
+    private final int end;
+
+    /**
+     * The largest number of points binned by one task.
+     */
+    private final int chunk;
+
+    /**
+     * Constructs the BuildTask object for the range of points given.
+     *
+     * @param mapping the points being binned and their mapping to pixels.
+     * @param start   the index of the first point of the range.
+     * @param end     the index after the last point of the range.
+     * @param chunk   the largest number of points binned by one task.
+     */
+    BuildTask(Mapping mapping, int start, int end, int chunk) {
+      this.mapping = mapping;
+      this.start = start;
+      this.end = end;
+      this.chunk = chunk;
+    }
+
+    @Override
+    protected DensityGrid compute() {
+      if (end - start <= chunk) {
+        return mapping.bin(start, end);
+      }
+      int middle = (start + end) >>> 1;
+      BuildTask right = new BuildTask(mapping, middle, end, chunk);
+      right.fork();
+      DensityGrid grid = new BuildTask(mapping, start, middle, chunk).compute();
+      grid.merge(right.join());
+      return grid;
+    }
+  }
+}
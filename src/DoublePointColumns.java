@@ -0,0 +1,127 @@
+/**
+ * Import Arrays package.
+ */
+
+import java.util.Arrays;
+
+/**
+ * This class stores the points of a DataSet in two growable arrays of doubles, one for the x
+ * coordinates and one for the y coordinates. The arrays double in size when they are full so
+ * adding a point is constant time on average, and no object is created for each point.
+ */
+public class DoublePointColumns extends PointColumns {
+
+  /**
+   * The capacity given to the arrays when no capacity is asked for.
+   */
+  private static final int DEFAULT_CAPACITY = 16;
+
+  /**
+   * Array containing the x coordinates of the points in the order they were added.
+   */
+  private double[] xs;
+
+  /**
+   * Array containing the y coordinates of the points in the order they were added.
+   */
+  private double[] ys;
+
+  /**
+   * The number of points that are stored in the arrays.
+   */
+  private int size;
+
+  /**
+   * Constructs the DoublePointColumns object that takes in no parameters and initializes it with
+   * empty columns.
+   */
+  public DoublePointColumns() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructs the DoublePointColumns object with empty columns that can hold the number of points
+   * given before they have to grow.
+   *
+   * @param capacity the number of points the columns can hold before growing.
+   * @throws IllegalArgumentException if the capacity is negative.
+   */
+  public DoublePointColumns(int capacity) throws IllegalArgumentException {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity cannot be negative.");
+    }
+    xs = new double[capacity];
+    ys = new double[capacity];
+    size = 0;
+  }
+
+  @Override
+  public void add(double x, double y) {
+    if (size == xs.length) {
+      grow(size + 1);
+    }
+    xs[size] = x;
+    ys[size] = y;
+    size++;
+  }
+
+  @Override
+  public void addAll(double[] xs, double[] ys) throws IllegalArgumentException {
+    if (xs.length != ys.length) {
+      throw new IllegalArgumentException("x and y arrays must be the same length.");
+    }
+    if (size + xs.length > this.xs.length) {
+      grow(size + xs.length);
+    }
+    System.arraycopy(xs, 0, this.xs, size, xs.length);
+    System.arraycopy(ys, 0, this.ys, size, ys.length);
+    size += xs.length;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public double getX(int index) {
+    checkIndex(index);
+    return xs[index];
+  }
+
+  @Override
+  public double getY(int index) {
+    checkIndex(index);
+    return ys[index];
+  }
+
+  /**
+   * Private helper method that grows both arrays so they can hold at least the number of points
+   * given. The arrays at least double in size so appending stays constant time on average.
+   *
+   * @param minCapacity the number of points the arrays need to be able to hold.
+   */
+  private void grow(int minCapacity) {
+    if (minCapacity < 0) {
+      throw new OutOfMemoryError("Too many points for the columns.");
+    }
+    int newCapacity = Math.max(minCapacity, Math.max(DEFAULT_CAPACITY, xs.length * 2));
+    if (newCapacity < 0) {
+      newCapacity = Integer.MAX_VALUE - 8;
+    }
+    xs = Arrays.copyOf(xs, newCapacity);
+    ys = Arrays.copyOf(ys, newCapacity);
+  }
+
+  /**
+   * Private helper method that checks if the index given is the index of a stored point.
+   *
+   * @param index the index that is being checked.
+   * @throws IndexOutOfBoundsException if the index is not between 0 and size() - 1.
+   */
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+}
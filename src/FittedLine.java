@@ -0,0 +1,315 @@
+/**
+ * This class represents a best-fit line found by least-squares line fitting. The line is kept in
+ * the form ax + by + c = 0 where (a, b) is the unit normal of the line, together with the angle of
+ * the normal, the centroid of the data points the line was fit to and statistics about the
+ * perpendicular distances (residuals) from the points to the line. The numbers are kept at full
+ * precision; they are only rounded to 2 decimal places by toString.
+ */
+public class FittedLine {
+
+  /**
+   * The coefficient of x in the line equation ax + by + c = 0.
+   */
+  private final double a;
+
+  /**
+   * The coefficient of y in the line equation ax + by + c = 0.
+   */
+  private final double b;
+
+  /**
+   * The constant in the line equation ax + by + c = 0.
+   */
+  private final double c;
+
+  /**
+   * The angle in degrees between the x axis and the normal (a, b) of the line.
+   */
+  private final double theta;
+
+  /**
+   * The mean x value of the data points, which lies on the line.
+   */
+  private final double centroidX;
+
+  /**
+   * The mean y value of the data points, which lies on the line.
+   */
+  private final double centroidY;
+
+  /**
+   * The number of data points the line was fit to.
+   */
+  private final long count;
+
+  /**
+   * The sum of the weights of the data points the line was fit to, which is the number of points
+   * if none of them has a weight.
+   */
+  private final double weight;
+
+  /**
+   * The sum of the squared perpendicular distances from the data points to the line.
+   */
+  private final double sumSquaredResiduals;
+
+  /**
+   * Constructs the FittedLine object with the values given as parameters.
+   *
+   * @param a                   the coefficient of x in the line equation ax + by + c = 0.
+   * @param b                   the coefficient of y in the line equation ax + by + c = 0.
+   * @param c                   the constant in the line equation ax + by + c = 0.
+   * @param theta               the angle in degrees between the x axis and the normal (a, b).
+   * @param centroidX           the mean x value of the data points.
+   * @param centroidY           the mean y value of the data points.
+   * @param count               the number of data points the line was fit to.
+   * @param sumSquaredResiduals the sum of the squared perpendicular distances from the data
+   *                            points to the line.
+   */
+  public FittedLine(double a, double b, double c, double theta, double centroidX,
+                    double centroidY, long count, double sumSquaredResiduals) {
+    this(a, b, c, theta, centroidX, centroidY, count, count, sumSquaredResiduals);
+  }
+
+  /**
+   * Constructs the FittedLine object with the values given as parameters for data points that
+   * have weights, in which case the residuals are weighted as well.
+   *
+   * @param a                   the coefficient of x in the line equation ax + by + c = 0.
+   * @param b                   the coefficient of y in the line equation ax + by + c = 0.
+   * @param c                   the constant in the line equation ax + by + c = 0.
+   * @param theta               the angle in degrees between the x axis and the normal (a, b).
+   * @param centroidX           the weighted mean x value of the data points.
+   * @param centroidY           the weighted mean y value of the data points.
+   * @param count               the number of data points the line was fit to.
+   * @param weight              the sum of the weights of the data points.
+   * @param sumSquaredResiduals the weighted sum of the squared perpendicular distances from the
+   *                            data points to the line.
+   */
+  public FittedLine(double a, double b, double c, double theta, double centroidX,
+                    double centroidY, long count, double weight, double sumSquaredResiduals) {
+    this.a = a;
+    this.b = b;
+    this.c = c;
+    this.theta = theta;
+    this.centroidX = centroidX;
+    this.centroidY = centroidY;
+    this.count = count;
+    this.weight = weight;
+    this.sumSquaredResiduals = sumSquaredResiduals;
+  }
+
+  /**
+   * Public static method that returns the best-fit line of the points whose statistics are kept
+   * by the accumulator given. This is done by using the least-squares line fitting that will find
+   * the line that minimizes the distance between the data points and the line.
+   *
+   * @param statistics the running statistics of the data points.
+   * @return the best-fit line as a FittedLine object.
+   */
+  public static FittedLine fromStatistics(LineFitAccumulator statistics) {
+    double averageX = statistics.getMeanX();
+    double averageY = statistics.getMeanY();
+    double sxx = statistics.getSxx();
+    double syy = statistics.getSyy();
+    double sxy = statistics.getSxy();
+    double distance = (2 * sxy) / (sxx - syy);
+    double theta = Math.toDegrees(Math.atan(distance));
+    theta = findFT(theta, sxx, syy, sxy);
+    double a = Math.cos(Math.toRadians(theta) / 2);
+    double b = Math.sin(Math.toRadians(theta) / 2);
+    double c = (-a * averageX) - (b * averageY);
+    double residuals = Math.max(0, a * a * sxx + 2 * a * b * sxy + b * b * syy);
+    return new FittedLine(a, b, c, theta / 2, averageX, averageY, statistics.getCount(),
+            statistics.getWeight(), residuals);
+  }
+
+  /**
+   * Private helper method that finds the theta that makes the f(t) positive. It will return theta
+   * in the parameter if the fT found is positive
+   *
+   * @param theta the angle in degrees of the distance as a double data type.
+   * @param sxx   the sum of the squares of the difference between each x and the mean x value as
+   *              a double data type.
+   * @param syy   the sum of the squares of the difference between each y and the mean y value as a
+   *              double data type.
+   * @param sxy   sum of the product of the difference between x and its means and the difference
+   *              between y and its mean.
+   * @return the correct theta (theta or theta + 180) as a double data type.
+   */
+  private static double findFT(double theta, double sxx, double syy, double sxy) {
+    double fT = (syy - sxx) * Math.cos(Math.toRadians(theta))
+            - (2 * sxy * Math.sin(Math.toRadians(theta)));
+    if (fT > 0) {
+      return theta;
+    } else {
+      return theta + 180;
+    }
+  }
+
+  /**
+   * Public getter method that returns the coefficient of x in the line equation ax + by + c = 0.
+   *
+   * @return a as a double data type.
+   */
+  public double getA() {
+    return a;
+  }
+
+  /**
+   * Public getter method that returns the coefficient of y in the line equation ax + by + c = 0.
+   *
+   * @return b as a double data type.
+   */
+  public double getB() {
+    return b;
+  }
+
+  /**
+   * Public getter method that returns the constant in the line equation ax + by + c = 0.
+   *
+   * @return c as a double data type.
+   */
+  public double getC() {
+    return c;
+  }
+
+  /**
+   * Public getter method that returns the angle in degrees between the x axis and the normal
+   * (a, b) of the line.
+   *
+   * @return the angle of the normal in degrees as a double data type.
+   */
+  public double getTheta() {
+    return theta;
+  }
+
+  /**
+   * Public getter method that returns the mean x value of the data points.
+   *
+   * @return the x coordinate of the centroid as a double data type.
+   */
+  public double getCentroidX() {
+    return centroidX;
+  }
+
+  /**
+   * Public getter method that returns the mean y value of the data points.
+   *
+   * @return the y coordinate of the centroid as a double data type.
+   */
+  public double getCentroidY() {
+    return centroidY;
+  }
+
+  /**
+   * Public getter method that returns the number of data points the line was fit to.
+   *
+   * @return the number of data points as a long data type.
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Public getter method that returns the sum of the weights of the data points the line was fit
+   * to.
+   *
+   * @return the total weight as a double data type, which is the number of data points if none
+   *         of them has a weight.
+   */
+  public double getWeight() {
+    return weight;
+  }
+
+  /**
+   * Public getter method that returns the sum of the squared perpendicular distances from the
+   * data points to the line.
+   *
+   * @return the sum of squared residuals as a double data type.
+   */
+  public double getSumSquaredResiduals() {
+    return sumSquaredResiduals;
+  }
+
+  /**
+   * Public getter method that returns the root mean square of the perpendicular distances from
+   * the data points to the line, with each point counted by its weight.
+   *
+   * @return the RMS residual as a double data type.
+   */
+  public double getRmsResidual() {
+    return Math.sqrt(sumSquaredResiduals / weight);
+  }
+
+  /**
+   * Public method that returns the y value of the line at the x value given. The result is
+   * infinite or NaN if the line is vertical.
+   *
+   * @param x the x value as a double data type.
+   * @return the y value of the line at x as a double data type.
+   */
+  public double getYAt(double x) {
+    return (-a * x - c) / b;
+  }
+
+  /**
+   * Public method that returns the x value of the line at the y value given. The result is
+   * infinite or NaN if the line is horizontal.
+   *
+   * @param y the y value as a double data type.
+   * @return the x value of the line at y as a double data type.
+   */
+  public double getXAt(double y) {
+    return (-b * y - c) / a;
+  }
+
+  /**
+   * Public method that returns the perpendicular distance from the point given to the line. The
+   * distance is signed: it is positive on the side of the line the normal (a, b) points to.
+   *
+   * @param x the x coordinate of the point as a double data type.
+   * @param y the y coordinate of the point as a double data type.
+   * @return the signed distance from the point to the line as a double data type.
+   */
+  public double distanceTo(double x, double y) {
+    return a * x + b * y + c;
+  }
+
+  /**
+   * Returns the line in the string format: ax + by + c = 0, with every number rounded to 2
+   * decimal places.
+   *
+   * @return the line equation as a String.
+   */
+  @Override
+  public String toString() {
+    return round2Deci(a) + "x" + signValStr(b) + "y" + signValStr(c) + " = 0";
+  }
+
+  /**
+   * Private helper method that taken in a number as a double and returns the correct string based
+   * on if the number is negative or not rounded to 2 decimal points.
+   *
+   * @param v the number rounded as a double that is being returned as a string.
+   * @return the correctly formatted String of the number rounded in the parameter.
+   */
+  private static String signValStr(double v) {
+    if (v > 0) {
+      return " + " + round2Deci(v);
+    } else {
+      return " - " + round2Deci(Math.abs(v));
+    }
+  }
+
+  /**
+   * Private helper method that rounded the number given as a parameter and returns it rounded to 2
+   * decimal places.
+   *
+   * @param d the number as a double that is being rounded
+   * @return the number given as a double in the parameter rounded to 2 decimal places.
+   */
+  private static double round2Deci(double d) {
+    return (double) Math.round(d * 100) / 100;
+  }
+}
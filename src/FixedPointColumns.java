@@ -0,0 +1,200 @@
+/**
+ * Import Arrays package.
+ */
+
+import java.util.Arrays;
+
+/**
+ * This class stores the points of a DataSet as fixed-point numbers: each coordinate is multiplied
+ * by 10 to the power of the number of decimal places given, rounded and kept in a growable array of
+ * ints. A point takes 8 bytes instead of the 16 bytes of DoublePointColumns, and unlike
+ * FloatPointColumns every coordinate with at most that many decimal places is kept exactly, as
+ * long as the scaled value fits in an int. The course data files have two decimal places, so with
+ * a precision of 2 they are kept exactly for coordinates up to about 21 million. Coordinates with
+ * more decimal places are rounded to the precision. The arrays double in size when they are full
+ * so adding a point is constant time on average.
+ */
+public class FixedPointColumns extends PointColumns {
+
+  /**
+   * The capacity given to the arrays when no capacity is asked for.
+   */
+  private static final int DEFAULT_CAPACITY = 16;
+
+  /**
+   * The largest number of decimal places that can be kept.
+   */
+  public static final int MAX_PRECISION = 9;
+
+  /**
+   * The number of decimal places that are kept.
+   */
+  private final int precision;
+
+  /**
+   * The number the coordinates are multiplied by before they are rounded, and the stored values
+   * are divided by when they are read: 10 to the power of the precision. Dividing, instead of
+   * multiplying by the inverse, gives the closest double to the decimal number.
+   */
+  private final double scale;
+
+  /**
+   * Array containing the scaled x coordinates of the points in the order they were added.
+   */
+  private int[] xs;
+
+  /**
+   * Array containing the scaled y coordinates of the points in the order they were added.
+   */
+  private int[] ys;
+
+  /**
+   * The number of points that are stored in the arrays.
+   */
+  private int size;
+
+  /**
+   * Constructs the FixedPointColumns object with empty columns that keep the number of decimal
+   * places given.
+   *
+   * @param precision the number of decimal places that are kept, from 0 to 9.
+   * @throws IllegalArgumentException if the precision is not from 0 to 9.
+   */
+  public FixedPointColumns(int precision) throws IllegalArgumentException {
+    this(precision, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructs the FixedPointColumns object with empty columns that keep the number of decimal
+   * places given and can hold the number of points given before they have to grow.
+   *
+   * @param precision the number of decimal places that are kept, from 0 to 9.
+   * @param capacity  the number of points the columns can hold before growing.
+   * @throws IllegalArgumentException if the precision is not from 0 to 9 or the capacity is
+   *                                  negative.
+   */
+  public FixedPointColumns(int precision, int capacity) throws IllegalArgumentException {
+    if (precision < 0 || precision > MAX_PRECISION) {
+      throw new IllegalArgumentException("precision must be from 0 to " + MAX_PRECISION + ".");
+    }
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity cannot be negative.");
+    }
+    this.precision = precision;
+    scale = Math.pow(10, precision);
+    xs = new int[capacity];
+    ys = new int[capacity];
+    size = 0;
+  }
+
+  /**
+   * Public method that appends a point to the end of the columns, rounding its coordinates to the
+   * precision of the columns.
+   *
+   * @param x the x coordinate of the data point as a double data type.
+   * @param y the y coordinate of the data point as a double data type.
+   * @throws IllegalArgumentException if a scaled coordinate does not fit in an int.
+   */
+  @Override
+  public void add(double x, double y) throws IllegalArgumentException {
+    int scaledX = toFixed(x);
+    int scaledY = toFixed(y);
+    if (size == xs.length) {
+      grow(size + 1);
+    }
+    xs[size] = scaledX;
+    ys[size] = scaledY;
+    size++;
+  }
+
+  @Override
+  public void addAll(double[] xs, double[] ys) throws IllegalArgumentException {
+    if (xs.length != ys.length) {
+      throw new IllegalArgumentException("x and y arrays must be the same length.");
+    }
+    int[] scaledX = new int[xs.length];
+    int[] scaledY = new int[ys.length];
+    for (int i = 0; i < xs.length; i++) {
+      scaledX[i] = toFixed(xs[i]);
+      scaledY[i] = toFixed(ys[i]);
+    }
+    if (size + xs.length > this.xs.length) {
+      grow(size + xs.length);
+    }
+    System.arraycopy(scaledX, 0, this.xs, size, scaledX.length);
+    System.arraycopy(scaledY, 0, this.ys, size, scaledY.length);
+    size += xs.length;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public double getX(int index) {
+    checkIndex(index);
+    return xs[index] / scale;
+  }
+
+  @Override
+  public double getY(int index) {
+    checkIndex(index);
+    return ys[index] / scale;
+  }
+
+  /**
+   * Public getter method that returns the number of decimal places that are kept.
+   *
+   * @return the precision as an integer.
+   */
+  public int getPrecision() {
+    return precision;
+  }
+
+  /**
+   * Private helper method that scales and rounds a coordinate.
+   *
+   * @param value the coordinate.
+   * @return the scaled coordinate as an int.
+   * @throws IllegalArgumentException if the scaled coordinate does not fit in an int.
+   */
+  private int toFixed(double value) throws IllegalArgumentException {
+    double scaled = Math.rint(value * scale);
+    if (!(scaled >= Integer.MIN_VALUE && scaled <= Integer.MAX_VALUE)) {
+      throw new IllegalArgumentException("The coordinate " + value + " does not fit in "
+              + precision + " decimal places.");
+    }
+    return (int) scaled;
+  }
+
+  /**
+   * Private helper method that grows both arrays so they can hold at least the number of points
+   * given. The arrays at least double in size so appending stays constant time on average.
+   *
+   * @param minCapacity the number of points the arrays need to be able to hold.
+   */
+  private void grow(int minCapacity) {
+    if (minCapacity < 0) {
+      throw new OutOfMemoryError("Too many points for the columns.");
+    }
+    int newCapacity = Math.max(minCapacity, Math.max(DEFAULT_CAPACITY, xs.length * 2));
+    if (newCapacity < 0) {
+      newCapacity = Integer.MAX_VALUE - 8;
+    }
+    xs = Arrays.copyOf(xs, newCapacity);
+    ys = Arrays.copyOf(ys, newCapacity);
+  }
+
+  /**
+   * Private helper method that checks if the index given is the index of a stored point.
+   *
+   * @param index the index that is being checked.
+   * @throws IndexOutOfBoundsException if the index is not between 0 and size() - 1.
+   */
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+}
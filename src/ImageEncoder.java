@@ -0,0 +1,261 @@
+/**
+ * Import BufferedImage, DataBuffer, DataBufferInt, IndexColorModel, WritableRaster,
+ * BufferedOutputStream, ByteArrayOutputStream, IOException, OutputStream, ByteBuffer, Files,
+ * Path, Iterator, IIOImage, ImageIO, ImageWriteParam, ImageWriter and
+ * MemoryCacheImageOutputStream packages.
+ */
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.awt.image.WritableRaster;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ * This class encodes rendered images to a file, an OutputStream or a ByteBuffer. Before an image
+ * is encoded it can be converted from ARGB to RGB, which drops the alpha channel, or to an
+ * indexed palette image, which stores 1, 2, 4 or 8 bits per pixel instead of 32; plots only use a
+ * handful of colors, so their palette images are smaller and faster to compress. The Deflate
+ * level of PNG images can be chosen. Images are written through a buffered stream that is always
+ * closed, and the encoder is buffered in memory instead of in a temporary file.
+ */
+public class ImageEncoder {
+
+  /**
+   * The largest number of colors of a palette image.
+   */
+  private static final int MAX_PALETTE_SIZE = 256;
+
+  /**
+   * The type of the images that are encoded: TYPE_INT_ARGB, TYPE_INT_RGB or TYPE_BYTE_INDEXED.
+   */
+  private int imageType;
+
+  /**
+   * The Deflate level used for PNG images from 0 to 9, or -1 for the default of the writer.
+   */
+  private int compressionLevel;
+
+  /**
+   * Constructs the ImageEncoder object that encodes ARGB images with the default compression.
+   */
+  public ImageEncoder() {
+    imageType = BufferedImage.TYPE_INT_ARGB;
+    compressionLevel = -1;
+  }
+
+  /**
+   * Public method that writes the image given to the path given, in the format given by the
+   * extension of the path, or PNG if the path has no extension.
+   *
+   * @param image the image being written.
+   * @param path  the path of the file, which is replaced if it exists.
+   * @throws IOException if the file cannot be written or there is no writer for the format.
+   */
+  public void write(BufferedImage image, Path path) throws IOException {
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+      write(image, out, formatOf(path.toString()));
+    }
+  }
+
+  /**
+   * Public method that encodes the image given into the stream given. The stream is not closed.
+   *
+   * @param image  the image being encoded.
+   * @param out    the stream the encoded image is written to.
+   * @param format the informal name of the format, such as "png".
+   * @throws IOException if the stream cannot be written or there is no writer for the format.
+   */
+  public void write(BufferedImage image, OutputStream out, String format) throws IOException {
+    Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+    if (!writers.hasNext()) {
+      throw new IOException("No image writer for the format: " + format);
+    }
+    ImageWriter writer = writers.next();
+    try {
+      ImageWriteParam param = writer.getDefaultWriteParam();
+      if (compressionLevel >= 0 && param.canWriteCompressed()) {
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        if (param.getCompressionType() == null) {
+          param.setCompressionType(param.getCompressionTypes()[0]);
+        }
+        param.setCompressionQuality(1 - compressionLevel / 9f);
+      }
+      MemoryCacheImageOutputStream stream = new MemoryCacheImageOutputStream(out);
+      try {
+        writer.setOutput(stream);
+        writer.write(null, new IIOImage(convert(image), null, null), param);
+      } finally {
+        stream.close();
+      }
+    } finally {
+      writer.dispose();
+    }
+  }
+
+  /**
+   * Public method that encodes the image given into a new ByteBuffer, without touching the disk.
+   *
+   * @param image  the image being encoded.
+   * @param format the informal name of the format, such as "png".
+   * @return the encoded image as a ByteBuffer positioned at its start.
+   * @throws IOException if there is no writer for the format.
+   */
+  public ByteBuffer encode(BufferedImage image, String format) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 14);
+    write(image, out, format);
+    return ByteBuffer.wrap(out.toByteArray());
+  }
+
+  /**
+   * Public method that converts the image given to the image type of the encoder. An image that
+   * has more colors than a palette can hold is converted to RGB instead of an indexed image.
+   *
+   * @param image the image being converted, of type TYPE_INT_ARGB.
+   * @return the converted image, or the image given if no conversion is needed.
+   */
+  public BufferedImage convert(BufferedImage image) {
+    if (imageType == BufferedImage.TYPE_INT_ARGB
+            || image.getType() != BufferedImage.TYPE_INT_ARGB) {
+      return image;
+    }
+    int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    if (imageType == BufferedImage.TYPE_BYTE_INDEXED) {
+      BufferedImage indexed = toIndexed(pixels, image.getWidth(), image.getHeight());
+      if (indexed != null) {
+        return indexed;
+      }
+    }
+    BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(),
+            BufferedImage.TYPE_INT_RGB);
+    int[] rgbPixels = ((DataBufferInt) rgb.getRaster().getDataBuffer()).getData();
+    for (int i = 0; i < pixels.length; i++) {
+      rgbPixels[i] = pixels[i] & 0xFFFFFF;
+    }
+    return rgb;
+  }
+
+  /**
+   * Public static method that returns the format given by the extension of a path, the text
+   * after its last dot, or "png" if the file name has no extension.
+   *
+   * @param path the path of the file.
+   * @return the informal name of the format as a String.
+   */
+  public static String formatOf(String path) {
+    int dot = path.lastIndexOf('.');
+    int separator = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\'));
+    if (dot <= separator + 1 || dot == path.length() - 1) {
+      return "png";
+    }
+    return path.substring(dot + 1).toLowerCase();
+  }
+
+  /**
+   * Private helper method that converts ARGB pixels to a palette image with the fewest bits per
+   * pixel that hold all of their colors.
+   *
+   * @param pixels the pixels as packed ARGB integers, row by row from the top.
+   * @param width  the width of the image.
+   * @param height the height of the image.
+   * @return the palette image, or null if the pixels have more than 256 colors.
+   */
+  private static BufferedImage toIndexed(int[] pixels, int width, int height) {
+    int[] palette = new int[MAX_PALETTE_SIZE];
+    int size = 0;
+    int[] indices = new int[pixels.length];
+    int lastColor = 0;
+    int lastIndex = -1;
+    for (int i = 0; i < pixels.length; i++) {
+      int color = pixels[i];
+      if (lastIndex < 0 || color != lastColor) {
+        lastIndex = -1;
+        for (int j = 0; j < size; j++) {
+          if (palette[j] == color) {
+            lastIndex = j;
+            break;
+          }
+        }
+        if (lastIndex < 0) {
+          if (size == MAX_PALETTE_SIZE) {
+            return null;
+          }
+          palette[size] = color;
+          lastIndex = size++;
+        }
+        lastColor = color;
+      }
+      indices[i] = lastIndex;
+    }
+    int bits = size <= 2 ? 1 : size <= 4 ? 2 : size <= 16 ? 4 : 8;
+    IndexColorModel model = new IndexColorModel(bits, size, palette, 0, true, -1,
+            DataBuffer.TYPE_BYTE);
+    BufferedImage indexed = new BufferedImage(width, height,
+            bits == 8 ? BufferedImage.TYPE_BYTE_INDEXED : BufferedImage.TYPE_BYTE_BINARY, model);
+    WritableRaster raster = indexed.getRaster();
+    raster.setSamples(0, 0, width, height, 0, indices);
+    return indexed;
+  }
+
+  /**
+   * Public getter method that returns the type of the images that are encoded.
+   *
+   * @return the image type as a BufferedImage type constant.
+   */
+  public int getImageType() {
+    return imageType;
+  }
+
+  /**
+   * Public setter method that sets the type of the images that are encoded.
+   *
+   * @param imageType BufferedImage.TYPE_INT_ARGB, TYPE_INT_RGB or TYPE_BYTE_INDEXED.
+   * @throws IllegalArgumentException if the type is not one of the three.
+   */
+  public void setImageType(int imageType) throws IllegalArgumentException {
+    if (imageType != BufferedImage.TYPE_INT_ARGB && imageType != BufferedImage.TYPE_INT_RGB
+            && imageType != BufferedImage.TYPE_BYTE_INDEXED) {
+      throw new IllegalArgumentException("imageType must be TYPE_INT_ARGB, TYPE_INT_RGB or "
+              + "TYPE_BYTE_INDEXED.");
+    }
+    this.imageType = imageType;
+  }
+
+  /**
+   * Public getter method that returns the Deflate level used for PNG images.
+   *
+   * @return the compression level from 0 to 9, or -1 for the default of the writer.
+   */
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  /**
+   * Public setter method that sets the Deflate level used for PNG images. Lower levels encode
+   * faster and higher levels give smaller files.
+   *
+   * @param compressionLevel the compression level from 0 to 9, or -1 for the default of the
+   *                         writer.
+   * @throws IllegalArgumentException if the level is not from -1 to 9.
+   */
+  public void setCompressionLevel(int compressionLevel) throws IllegalArgumentException {
+    if (compressionLevel < -1 || compressionLevel > 9) {
+      throw new IllegalArgumentException("compressionLevel must be from -1 to 9.");
+    }
+    this.compressionLevel = compressionLevel;
+  }
+}
@@ -1,12 +1,12 @@
 import java.awt.*;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
-import java.io.FileOutputStream;
+import java.awt.image.DataBufferInt;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-
-import javax.imageio.ImageIO;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 /**
  * This class is a plotter of data onto an image.
@@ -16,14 +16,38 @@ import javax.imageio.ImageIO;
  * It is also possible to set the size of the image to
  * be created, along with the range of the data that
  * is provided to it.
+ *
+ * The shapes are kept in primitive arrays, with colors
+ * packed as ARGB integers. When many points are added they
+ * are drawn as sprites straight into the pixels of the
+ * image instead of one oval at a time through Graphics2D.
+ * When there are so many points that they hide each other,
+ * they are binned into a DensityGrid and drawn as a heatmap
+ * of the number of points in each pixel instead.
  */
 public class ImagePlotter {
-  private List<Integer> points;
-  private List<Color> pointColors;
-  private List<Integer> lines;
-  private List<Color> lineColors;
-  private List<Integer> circles;
-  private List<Color> circleColors;
+  /**
+   * The number of points from which on they are drawn as sprites
+   */
+  public static final int DEFAULT_SPRITE_THRESHOLD = 10000;
+
+  /**
+   * The number of points from which on they are drawn as a heatmap
+   */
+  public static final int DEFAULT_DENSITY_THRESHOLD = 250000;
+
+  private int[] points;
+  private int[] pointColors;
+  private int numPoints;
+  private int[] lines;
+  private int[] lineColors;
+  private int numLines;
+  private int[] circles;
+  private int[] circleColors;
+  private int numCircles;
+  private int spriteThreshold;
+  private int densityThreshold;
+  private final ImageEncoder encoder;
   private int xmin;
   private int xmax;
   private int ymin;
@@ -36,6 +60,9 @@ public class ImagePlotter {
     reset();
     pointSize = 3;
     width = height = 500;
+    spriteThreshold = DEFAULT_SPRITE_THRESHOLD;
+    densityThreshold = DEFAULT_DENSITY_THRESHOLD;
+    encoder = new ImageEncoder();
   }
 
   /**
@@ -44,9 +71,7 @@ public class ImagePlotter {
    * @param y
    */
   public void addPoint(int x, int y) {
-    points.add(x);
-    points.add(y);
-    pointColors.add(Color.BLACK);
+    addPoint(x, y, Color.BLACK);
   }
 
   /**
@@ -56,9 +81,24 @@ public class ImagePlotter {
    * @param col
    */
   public void addPoint(int x, int y,Color col) {
-    points.add(x);
-    points.add(y);
-    pointColors.add(col);
+    addPoint(x, y, col.getRGB());
+  }
+
+  /**
+   * Add a point to be drawn on the image with the specific color
+   * packed as an ARGB integer
+   * @param x
+   * @param y
+   * @param argb
+   */
+  public void addPoint(int x, int y, int argb) {
+    if (numPoints == pointColors.length) {
+      points = Arrays.copyOf(points, 2 * points.length);
+      pointColors = Arrays.copyOf(pointColors, 2 * pointColors.length);
+    }
+    points[2 * numPoints] = x;
+    points[2 * numPoints + 1] = y;
+    pointColors[numPoints++] = argb;
   }
 
   /**
@@ -69,11 +109,7 @@ public class ImagePlotter {
    * @param y2
    */
   public void addLine(int x1, int y1, int x2, int y2) {
-    lines.add(x1);
-    lines.add(y1);
-    lines.add(x2);
-    lines.add(y2);
-    lineColors.add(Color.RED);
+    addLine(x1, y1, x2, y2, Color.RED);
   }
 
   /**
@@ -85,11 +121,15 @@ public class ImagePlotter {
    * @param col
    */
   public void addLine(int x1, int y1, int x2, int y2,Color col) {
-    lines.add(x1);
-    lines.add(y1);
-    lines.add(x2);
-    lines.add(y2);
-    lineColors.add(col);
+    if (numLines == lineColors.length) {
+      lines = Arrays.copyOf(lines, 2 * lines.length);
+      lineColors = Arrays.copyOf(lineColors, 2 * lineColors.length);
+    }
+    lines[4 * numLines] = x1;
+    lines[4 * numLines + 1] = y1;
+    lines[4 * numLines + 2] = x2;
+    lines[4 * numLines + 3] = y2;
+    lineColors[numLines++] = col.getRGB();
   }
 
   /**
@@ -99,10 +139,7 @@ public class ImagePlotter {
    * @param radius
    */
   public void addCircle(int x, int y, int radius) {
-    circles.add(x);
-    circles.add(y);
-    circles.add(radius);
-    circleColors.add(Color.GREEN);
+    addCircle(x, y, radius, Color.GREEN);
   }
 
   /**
@@ -113,10 +150,14 @@ public class ImagePlotter {
    * @param col
    */
   public void addCircle(int x, int y, int radius,Color col) {
-    circles.add(x);
-    circles.add(y);
-    circles.add(radius);
-    circleColors.add(col);
+    if (numCircles == circleColors.length) {
+      circles = Arrays.copyOf(circles, 2 * circles.length);
+      circleColors = Arrays.copyOf(circleColors, 2 * circleColors.length);
+    }
+    circles[3 * numCircles] = x;
+    circles[3 * numCircles + 1] = y;
+    circles[3 * numCircles + 2] = radius;
+    circleColors[numCircles++] = col.getRGB();
   }
 
   /**
@@ -157,6 +198,36 @@ public class ImagePlotter {
    * @throws IOException
    */
   public void write(String path) throws IOException {
+    encoder.write(render(), Paths.get(path));
+  }
+
+  /**
+   * Draw all the shapes added thus far to an image and encode it into
+   * the specific stream, which is not closed
+   * @param out
+   * @param format the informal name of the format, such as "png"
+   * @throws IOException
+   */
+  public void write(OutputStream out, String format) throws IOException {
+    encoder.write(render(), out, format);
+  }
+
+  /**
+   * Draw all the shapes added thus far to an image and encode it into
+   * a new buffer without touching the disk
+   * @param format the informal name of the format, such as "png"
+   * @return the encoded image
+   * @throws IOException
+   */
+  public ByteBuffer encode(String format) throws IOException {
+    return encoder.encode(render(), format);
+  }
+
+  /**
+   * Draw all the shapes added thus far to a new image without saving it
+   * @return the image
+   */
+  public BufferedImage render() {
     BufferedImage image = new BufferedImage(width,height,BufferedImage
             .TYPE_INT_ARGB);
 
@@ -178,43 +249,149 @@ public class ImagePlotter {
 
     g2d.setTransform(mat);
 
-    for (int i = 0; i < points.size(); i += 2) {
-      g2d.setColor(pointColors.get(i/2));
-      g2d.fillOval(points.get(i) - pointSize, points.get(i + 1) - pointSize,
-              2 * pointSize, 2 * pointSize);
+    if (numPoints >= densityThreshold) {
+      drawDensity(image);
+    } else if (numPoints >= spriteThreshold) {
+      drawPointSprites(image);
+    } else {
+      for (int i = 0; i < numPoints; i++) {
+        if (i == 0 || pointColors[i] != pointColors[i - 1]) {
+          g2d.setColor(new Color(pointColors[i], true));
+        }
+        g2d.fillOval(points[2 * i] - pointSize, points[2 * i + 1] - pointSize,
+                2 * pointSize, 2 * pointSize);
+      }
     }
 
 
-    for (int i = 0; i < lines.size(); i += 4) {
-      g2d.setColor(lineColors.get(i/4));
-      g2d.drawLine(lines.get(i), lines.get(i + 1), lines.get(i + 2), lines.get(i + 3));
+    for (int i = 0; i < numLines; i++) {
+      g2d.setColor(new Color(lineColors[i], true));
+      g2d.drawLine(lines[4 * i], lines[4 * i + 1], lines[4 * i + 2], lines[4 * i + 3]);
     }
 
 
-    for (int i = 0; i < circles.size(); i += 3) {
-      int size = circles.get(i + 2);
-      g2d.setColor(circleColors.get(i/3));
-      g2d.drawOval(circles.get(i) - size, circles.get(i + 1) - size, 2 * size,
+    for (int i = 0; i < numCircles; i++) {
+      int size = circles[3 * i + 2];
+      g2d.setColor(new Color(circleColors[i], true));
+      g2d.drawOval(circles[3 * i] - size, circles[3 * i + 1] - size, 2 * size,
               2 * size);
     }
 
-    String imageformat = path.substring(path.indexOf(".")+1);
-    ImageIO.write(
-            image,
-            imageformat,
-            new FileOutputStream(path));
+    g2d.dispose();
+    return image;
+  }
+
+  /**
+   * Draw the points as sprites straight into the pixels of the image,
+   * using the same mapping from data to pixels as the transform
+   * @param image an image of type TYPE_INT_ARGB
+   */
+  private void drawPointSprites(BufferedImage image) {
+    int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    double scaleX = (double) width / (xmax - xmin);
+    double scaleY = (double) height / (ymax - ymin);
+    PointSprite sprite = new PointSprite(pointSize * scaleX, pointSize * scaleY);
+    for (int i = 0; i < numPoints; i++) {
+      double px = (points[2 * i] - xmin) * scaleX;
+      double py = height - (points[2 * i + 1] - ymin) * scaleY;
+      sprite.draw(pixels, width, height, px, py, pointColors[i]);
+    }
+  }
+
+  /**
+   * Draw the points as a heatmap of the number of points in each pixel,
+   * colored by the majority color of the points in the pixel if the
+   * points have more than one color
+   * @param image an image of type TYPE_INT_ARGB
+   */
+  private void drawDensity(BufferedImage image) {
+    int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    DensityGrid grid = DensityGrid.build(points, pointColors, numPoints, width, height,
+            xmin, ymin, (double) width / (xmax - xmin), (double) height / (ymax - ymin));
+    grid.paint(pixels);
+  }
+
+  /**
+   * Write the shapes added thus far as a pyramid of 256 by 256 PNG
+   * tiles, with zoom levels 0 to maxZoom, to the specific directory.
+   * Only the tiles that changed since the pyramid was last written
+   * there are rendered again.
+   * @param directory
+   * @param maxZoom
+   * @return the number of tiles rendered
+   * @throws IOException
+   */
+  public int writeTiles(String directory, int maxZoom) throws IOException {
+    TilePyramid pyramid = new TilePyramid(xmin, xmax, ymin, ymax);
+    pyramid.setPoints(points, pointColors, numPoints);
+    pyramid.setLines(lines, lineColors, numLines);
+    pyramid.setCircles(circles, circleColors, numCircles);
+    pyramid.setDensityThreshold(densityThreshold);
+    return pyramid.write(Paths.get(directory), maxZoom);
+  }
+
+  /**
+   * Save an image drawn by render to the specific path, in the format
+   * given by the extension of the path
+   * @param image
+   * @param path
+   * @throws IOException
+   */
+  public static void writeImage(BufferedImage image, String path) throws IOException {
+    new ImageEncoder().write(image, Paths.get(path));
   }
 
   /**
    * Reset this plotter. All shapes are deleted as a result of resetting.
    */
   public void reset() {
-    points = new ArrayList<Integer>();
-    lines = new ArrayList<Integer>();
-    circles = new ArrayList<Integer>();
-    pointColors = new ArrayList<Color>();
-    lineColors = new ArrayList<Color>();
-    circleColors = new ArrayList<Color>();
+    points = new int[32];
+    pointColors = new int[16];
+    numPoints = 0;
+    lines = new int[16];
+    lineColors = new int[4];
+    numLines = 0;
+    circles = new int[12];
+    circleColors = new int[4];
+    numCircles = 0;
+  }
+
+  /**
+   * Set the number of points from which on they are drawn as sprites
+   * straight into the pixels of the image. Below it each point is drawn
+   * as an oval through Graphics2D.
+   * @param threshold
+   */
+  public void setSpriteThreshold(int threshold) {
+    spriteThreshold = threshold;
+  }
+
+  /**
+   * Set the number of points from which on they are drawn as a heatmap
+   * of the number of points in each pixel instead of one by one.
+   * @param threshold
+   */
+  public void setDensityThreshold(int threshold) {
+    densityThreshold = threshold;
+  }
+
+  /**
+   * Set the type of the images written by this plotter:
+   * BufferedImage.TYPE_INT_ARGB, TYPE_INT_RGB, or TYPE_BYTE_INDEXED for
+   * a palette image, which is smaller when there are few colors
+   * @param imageType
+   */
+  public void setImageType(int imageType) {
+    encoder.setImageType(imageType);
+  }
+
+  /**
+   * Set the Deflate level from 0 to 9 of the PNG images written by this
+   * plotter, or -1 for the default
+   * @param level
+   */
+  public void setCompressionLevel(int level) {
+    encoder.setCompressionLevel(level);
   }
 
   /**
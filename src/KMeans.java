@@ -0,0 +1,724 @@
+/**
+ * Import ArrayList, Arrays, List, SplittableRandom, ForkJoinPool, ForkJoinTask and RecursiveAction
+ * packages.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class clusters the points of a PointColumns object with the k-means algorithm. RANSAC is
+ * implemented by restarting the algorithm from new starting centers a number of times and keeping
+ * the restart with the lowest percentage error. The starting centers are chosen by the
+ * KMeansInitializer of the options. The restarts do not depend on each other, so when
+ * the options ask for it they are run in parallel on a ForkJoinPool, and for large data sets the
+ * assignment step of each iteration is also split into chunks of points that run in parallel.
+ * Each iteration works on primitive arrays that are allocated once per restart. The options can
+ * also ask for Hamerly's accelerated algorithm, which gives the same result while skipping most of
+ * the distance computations. When metrics are set, each run records the iterations, distance
+ * evaluations and error trace of every restart. Points that have weights pull the centers and
+ * count towards the error in proportion to their weight, so a weighted summary of the data, such
+ * as a Coreset, is clustered as if it were the points it stands for.
+ */
+public class KMeans {
+
+  /**
+   * The points that are being clustered.
+   */
+  private final PointColumns data;
+
+  /**
+   * The number of clusters.
+   */
+  private final int k;
+
+  /**
+   * The settings of the algorithm.
+   */
+  private final KMeansOptions options;
+
+  /**
+   * The metrics the runs are recorded in, or null if they are not recorded.
+   */
+  private AnalysisMetrics metrics;
+
+  /**
+   * Constructs the KMeans object that clusters the points given into k clusters.
+   *
+   * @param data    the points that are being clustered.
+   * @param k       the number of clusters as an integer.
+   * @param options the settings of the algorithm.
+   * @throws IllegalArgumentException if k given is not a positive integer or if k is greater than
+   *                                  the number of data points.
+   */
+  public KMeans(PointColumns data, int k, KMeansOptions options)
+          throws IllegalArgumentException {
+    if (k <= 0) {
+      throw new IllegalArgumentException("k must be positive.");
+    }
+    if (k > data.size()) {
+      throw new IllegalArgumentException("k cannot be greater than number of data points.");
+    }
+    this.data = data;
+    this.k = k;
+    this.options = options;
+  }
+
+  /**
+   * Public method that runs every restart of the algorithm and returns the result of the restart
+   * with the lowest percentage error, or with the lowest error when mini-batches are used. If two
+   * restarts are equal the one that was started first is returned, so the choice does not depend
+   * on the order parallel restarts finish in.
+   *
+   * @return the best result of the restarts as a KMeansResult object.
+   */
+  public KMeansResult run() {
+    long start = System.nanoTime();
+    int restarts = options.getRestarts();
+    SplittableRandom[] randoms = new SplittableRandom[restarts];
+    SplittableRandom random = options.isSeeded()
+            ? new SplittableRandom(options.getSeed()) : new SplittableRandom();
+    for (int a = 0; a < restarts; a++) {
+      randoms[a] = random.split();
+    }
+    KMeansResult[] results = new KMeansResult[restarts];
+    double[][] traces = metrics == null ? null : new double[restarts][];
+    if (options.isParallel() && restarts > 1) {
+      ForkJoinPool pool = options.getPool();
+      List<ForkJoinTask<KMeansResult>> tasks = new ArrayList<>(restarts);
+      for (int a = 0; a < restarts; a++) {
+        SplittableRandom restartRandom = randoms[a];
+        int restart = a;
+        tasks.add(pool.submit(() -> runRestart(restartRandom, traces, restart)));
+      }
+      for (int a = 0; a < restarts; a++) {
+        results[a] = tasks.get(a).join();
+      }
+    } else {
+      for (int a = 0; a < restarts; a++) {
+        results[a] = runRestart(randoms[a], traces, a);
+      }
+    }
+    boolean miniBatch = options.getBatchSize() > 0;
+    int best = 0;
+    for (int a = 1; a < restarts; a++) {
+      if (miniBatch ? results[a].getError() < results[best].getError()
+              : results[a].getPercentError() < results[best].getPercentError()) {
+        best = a;
+      }
+    }
+    if (metrics != null) {
+      record(results, traces, best, System.nanoTime() - start);
+    }
+    return results[best];
+  }
+
+  /**
+   * Public getter method that returns the metrics the runs are recorded in.
+   *
+   * @return the metrics as an AnalysisMetrics object, or null if they are not recorded.
+   */
+  public AnalysisMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Public setter method that sets the metrics the runs are recorded in. While no metrics are
+   * set, the restarts do not keep the error of each iteration and nothing is recorded.
+   *
+   * @param metrics the metrics, or null to stop recording.
+   */
+  public void setMetrics(AnalysisMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Private helper method that records the iterations, distance evaluations, errors and error
+   * traces of the restarts of a run in the metrics.
+   *
+   * @param results the result of each restart.
+   * @param traces  the error after each iteration of each restart.
+   * @param best    the restart whose result is returned.
+   * @param nanos   the time the run took in nanoseconds.
+   */
+  private void record(KMeansResult[] results, double[][] traces, int best, long nanos) {
+    int restarts = results.length;
+    int[] iterations = new int[restarts];
+    long[] distances = new long[restarts];
+    double[] errors = new double[restarts];
+    boolean[] capped = new boolean[restarts];
+    for (int a = 0; a < restarts; a++) {
+      iterations[a] = results[a].getIterations();
+      distances[a] = results[a].getDistanceEvaluations();
+      errors[a] = results[a].getError();
+      capped[a] = options.getBatchSize() == 0
+              && results[a].getIterations() >= options.getMaxIterations()
+              && results[a].getPercentError() > options.getTolerance();
+    }
+    metrics.recordKMeans(new AnalysisMetrics.KMeansRun(data.size(), k, nanos, best, iterations,
+            distances, errors, capped, traces));
+  }
+
+  /**
+   * Private helper method that runs the k-means algorithm once from new starting centers until
+   * the error changes by less than the tolerance or the largest number of iterations is reached.
+   * Each restart is given its own random number generator, split from the seeded one before any
+   * restart runs, so seeded runs give the same result in any order.
+   *
+   * @param random  the random number generator of this restart.
+   * @param traces  the arrays the error traces of the restarts are stored in, or null if they
+   *                are not kept.
+   * @param restart the index of this restart.
+   * @return the result of the restart as a KMeansResult object.
+   */
+  private KMeansResult runRestart(SplittableRandom random, double[][] traces, int restart) {
+    double[][] centers = options.getInitializer().initialize(data, k, random);
+    if (options.getBatchSize() > 0) {
+      if (traces != null) {
+        traces[restart] = new double[0];
+      }
+      return runMiniBatch(centers, random);
+    }
+    double[] trace = traces == null ? null : new double[options.getMaxIterations()];
+    KMeansResult result = new Restart(centers).run(trace);
+    if (traces != null) {
+      traces[restart] = Arrays.copyOf(trace, result.getIterations());
+    }
+    return result;
+  }
+
+  /**
+   * Private helper method that runs mini-batch k-means once from the centers given. Every
+   * iteration draws a random sample of points and moves the centers towards them with a
+   * StreamingKMeans model, then every point is assigned to the final centers. Points that have
+   * weights are drawn in proportion to their weight.
+   *
+   * @param centers the x and y coordinates of the starting centers.
+   * @param random  the random number generator used to draw the samples.
+   * @return the result of the restart as a KMeansResult object.
+   */
+  private KMeansResult runMiniBatch(double[][] centers, SplittableRandom random) {
+    int n = data.size();
+    int batchSize = Math.min(options.getBatchSize(), n);
+    StreamingKMeans model = new StreamingKMeans(centers[0], centers[1]);
+    double[] xs = new double[batchSize];
+    double[] ys = new double[batchSize];
+    double[] cumulative = null;
+    if (data.isWeighted()) {
+      cumulative = new double[n];
+      double total = 0;
+      for (int i = 0; i < n; i++) {
+        total += data.getWeight(i);
+        cumulative[i] = total;
+      }
+    }
+    for (int t = 0; t < options.getMaxIterations(); t++) {
+      for (int b = 0; b < batchSize; b++) {
+        int index = cumulative == null ? random.nextInt(n) : draw(cumulative, random);
+        xs[b] = data.getX(index);
+        ys[b] = data.getY(index);
+      }
+      model.update(xs, ys, batchSize, random);
+    }
+    double[][] finalCenters = {model.getCentersX(), model.getCentersY()};
+    return new Restart(finalCenters).assignOnly(options.getMaxIterations(),
+            (long) options.getMaxIterations() * batchSize * k);
+  }
+
+  /**
+   * Private helper method that draws the index of a point with a probability proportional to its
+   * weight.
+   *
+   * @param cumulative the sum of the weights of the points up to and including each point.
+   * @param random     the random number generator.
+   * @return the index of the point that was drawn.
+   */
+  private static int draw(double[] cumulative, SplittableRandom random) {
+    double target = random.nextDouble() * cumulative[cumulative.length - 1];
+    int index = Arrays.binarySearch(cumulative, target);
+    index = index < 0 ? -index - 1 : index + 1;
+    return Math.min(index, cumulative.length - 1);
+  }
+
+  /**
+   * This class holds the state of one restart of the algorithm. Everything an iteration needs is
+   * allocated when the restart is created: the centers are kept as arrays of coordinates, the
+   * clusters as an array of integers, and the sums used to move the centers are kept per chunk of
+   * points. An iteration then assigns the points and sums up the new centers in the same pass,
+   * compares squared distances so no square root is taken while assigning, and creates no objects.
+   *
+   * <p>When the options ask for the accelerated algorithm, the restart also keeps Hamerly's
+   * bounds: an upper bound on the distance from each point to its own center, a lower bound on the
+   * distance to every other center, and half the distance from each center to its closest other
+   * center. A point whose upper bound is below either of the other two cannot have a closer center,
+   * so the distances to the other centers are not computed. The upper bound is made exact again by
+   * the error step, which computes that distance anyway, so the iterations, the centers and the
+   * assignments are the same as the plain algorithm.
+   */
+  private final class Restart {
+
+    /**
+     * The x coordinates of the current cluster centers.
+     */
+    private final double[] centersX;
+
+    /**
+     * The y coordinates of the current cluster centers.
+     */
+    private final double[] centersY;
+
+    /**
+     * The cluster each data point is currently assigned to.
+     */
+    private final int[] clusters;
+
+    /**
+     * The sum of the weights of the points, which is the number of points if none of them has a
+     * weight.
+     */
+    private final double totalWeight;
+
+    /**
+     * The chunks of points an iteration is split into. There is only one chunk unless the
+     * options ask for parallel work and there are more points than one chunk holds.
+     */
+    private final Chunk[] chunks;
+
+    /**
+     * The task that runs all the chunks in parallel when the restart is not already running on
+     * a ForkJoinPool thread.
+     */
+    private final RecursiveAction step;
+
+    /**
+     * Whether Hamerly's bounds are used to skip distance computations.
+     */
+    private final boolean accelerated;
+
+    /**
+     * The upper bound on the distance from each point to the center of its cluster, or null if
+     * the restart is not accelerated.
+     */
+    private final double[] upper;
+
+    /**
+     * The lower bound on the distance from each point to every center other than its own, or
+     * null if the restart is not accelerated.
+     */
+    private final double[] lower;
+
+    /**
+     * Half the distance from each center to its closest other center, or null if the restart is
+     * not accelerated.
+     */
+    private final double[] halfGap;
+
+    /**
+     * The x coordinates of the centers before they were last moved, or null if the restart is
+     * not accelerated.
+     */
+    private final double[] previousX;
+
+    /**
+     * The y coordinates of the centers before they were last moved, or null if the restart is
+     * not accelerated.
+     */
+    private final double[] previousY;
+
+    /**
+     * Whether the bounds hold values from an earlier iteration.
+     */
+    private boolean boundsReady;
+
+    /**
+     * The cluster whose center moved the most in the last iteration.
+     */
+    private int maxMoveCluster;
+
+    /**
+     * The largest distance a center moved in the last iteration.
+     */
+    private double maxMove;
+
+    /**
+     * The largest distance a center other than the one that moved the most moved in the last
+     * iteration.
+     */
+    private double secondMaxMove;
+
+    /**
+     * The number of distances computed between centers.
+     */
+    private long centerDistances;
+
+    /**
+     * Constructs the Restart object that starts from the centers given.
+     *
+     * @param centers the x and y coordinates of the starting centers, as returned by the
+     *                initializer.
+     */
+    Restart(double[][] centers) {
+      int n = data.size();
+      centersX = centers[0];
+      centersY = centers[1];
+      clusters = new int[n];
+      totalWeight = data.getTotalWeight();
+      accelerated = options.isAccelerated();
+      if (accelerated) {
+        upper = new double[n];
+        lower = new double[n];
+        halfGap = new double[k];
+        previousX = new double[k];
+        previousY = new double[k];
+      } else {
+        upper = null;
+        lower = null;
+        halfGap = null;
+        previousX = null;
+        previousY = null;
+      }
+      boundsReady = false;
+      int chunkSize = n;
+      if (options.isParallel() && n > options.getChunkSize()) {
+        chunkSize = options.getChunkSize();
+      }
+      int numChunks = (n + chunkSize - 1) / chunkSize;
+      chunks = new Chunk[numChunks];
+      for (int i = 0; i < numChunks; i++) {
+        chunks[i] = new Chunk(this, i * chunkSize, Math.min(n, (i + 1) * chunkSize));
+      }
+      step = new RecursiveAction() {
+        @Override
+        protected void compute() {
+          invokeAll(chunks);
+        }
+      };
+    }
+
+    /**
+     * Runs the restart until the error changes by less than the tolerance or the largest number
+     * of iterations is reached.
+     *
+     * @param trace the array the error after each iteration is stored in, or null if it is not
+     *              kept.
+     * @return the result of the restart as a KMeansResult object.
+     */
+    KMeansResult run(double[] trace) {
+      double error = Double.MAX_VALUE;
+      double percentError = Double.MAX_VALUE;
+      int counter = 0;
+      while (percentError > options.getTolerance() && counter < options.getMaxIterations()) {
+        counter++;
+        if (accelerated && boundsReady) {
+          findHalfGaps();
+        }
+        runChunks(true);
+        if (accelerated) {
+          System.arraycopy(centersX, 0, previousX, 0, k);
+          System.arraycopy(centersY, 0, previousY, 0, k);
+        }
+        for (int j = 0; j < k; j++) {
+          double sumX = 0;
+          double sumY = 0;
+          double weight = 0;
+          for (Chunk chunk : chunks) {
+            sumX += chunk.sumX[j];
+            sumY += chunk.sumY[j];
+            weight += chunk.weights[j];
+          }
+          if (weight > 0) {
+            centersX[j] = sumX / weight;
+            centersY[j] = sumY / weight;
+          }
+        }
+        if (accelerated) {
+          findMoves();
+        }
+        runChunks(false);
+        boundsReady = true;
+        double totalError = 0;
+        for (Chunk chunk : chunks) {
+          totalError += chunk.error;
+        }
+        double newError = totalError / totalWeight;
+        percentError = Math.abs(newError - error) / error;
+        error = newError;
+        if (trace != null) {
+          trace[counter - 1] = error;
+        }
+      }
+      long distances = centerDistances;
+      for (Chunk chunk : chunks) {
+        distances += chunk.distances;
+      }
+      return new KMeansResult(clusters, centersX, centersY, error, percentError, counter,
+              distances);
+    }
+
+    /**
+     * Assigns every point to its closest center and finds the error once, without moving the
+     * centers. This is used to finish a mini-batch restart.
+     *
+     * @param iterations the number of iterations that found the centers.
+     * @param distances  the number of distances computed to find the centers.
+     * @return the result of the restart as a KMeansResult object, with a percentage error that is
+     *         not a number since the centers were not found by this restart.
+     */
+    KMeansResult assignOnly(int iterations, long distances) {
+      runChunks(true);
+      runChunks(false);
+      double totalError = 0;
+      for (Chunk chunk : chunks) {
+        totalError += chunk.error;
+        distances += chunk.distances;
+      }
+      return new KMeansResult(clusters, centersX, centersY, totalError / totalWeight, Double.NaN,
+              iterations, distances);
+    }
+
+    /**
+     * Finds half the distance from each center to its closest other center.
+     */
+    private void findHalfGaps() {
+      for (int j = 0; j < k; j++) {
+        halfGap[j] = Double.MAX_VALUE;
+      }
+      for (int j = 0; j < k; j++) {
+        for (int m = j + 1; m < k; m++) {
+          double dx = centersX[j] - centersX[m];
+          double dy = centersY[j] - centersY[m];
+          double gap = 0.5 * Math.sqrt(dx * dx + dy * dy);
+          if (gap < halfGap[j]) {
+            halfGap[j] = gap;
+          }
+          if (gap < halfGap[m]) {
+            halfGap[m] = gap;
+          }
+        }
+      }
+      centerDistances += (long) k * (k - 1) / 2;
+    }
+
+    /**
+     * Finds the two largest distances the centers moved in the last iteration, and the cluster
+     * whose center moved the most.
+     */
+    private void findMoves() {
+      maxMove = 0;
+      secondMaxMove = 0;
+      maxMoveCluster = -1;
+      for (int j = 0; j < k; j++) {
+        double dx = centersX[j] - previousX[j];
+        double dy = centersY[j] - previousY[j];
+        double move = Math.sqrt(dx * dx + dy * dy);
+        if (move > maxMove) {
+          secondMaxMove = maxMove;
+          maxMove = move;
+          maxMoveCluster = j;
+        } else if (move > secondMaxMove) {
+          secondMaxMove = move;
+        }
+      }
+    }
+
+    /**
+     * Runs one step on every chunk, in parallel if there is more than one chunk.
+     *
+     * @param assignStep true to assign the points and sum up the centers, false to sum up the
+     *                   distances from the points to their centers.
+     */
+    private void runChunks(boolean assignStep) {
+      if (chunks.length == 1) {
+        chunks[0].runStep(assignStep);
+        return;
+      }
+      for (Chunk chunk : chunks) {
+        chunk.assignStep = assignStep;
+        chunk.reinitialize();
+      }
+      if (ForkJoinTask.inForkJoinPool()) {
+        ForkJoinTask.invokeAll(chunks);
+      } else {
+        step.reinitialize();
+        options.getPool().invoke(step);
+      }
+    }
+  }
+
+  /**
+   * This class is one chunk of the points of a restart. It keeps its own sums of the points
+   * assigned to each cluster, so chunks can run in parallel without sharing anything they write
+   * to. The task is reinitialized and run again every iteration.
+   */
+  private final class Chunk extends RecursiveAction {
+
+    /**
+     * The restart this chunk belongs to.
+     */
+    private final Restart restart;
+
+    /**
+     * The index of the first data point of the chunk.
+     */
+    private final int start;
+
+    /**
+     * The index after the last data point of the chunk.
+     */
+    private final int end;
+
+    /**
+     * The weighted sum of the x coordinates of the points of this chunk in each cluster.
+     */
+    private final double[] sumX;
+
+    /**
+     * The weighted sum of the y coordinates of the points of this chunk in each cluster.
+     */
+    private final double[] sumY;
+
+    /**
+     * The sum of the weights of the points of this chunk in each cluster, which is the number of
+     * points if none of them has a weight.
+     */
+    private final double[] weights;
+
+    /**
+     * The weighted sum of the distances from the points of this chunk to their centers.
+     */
+    private double error;
+
+    /**
+     * The number of distances from points of this chunk to centers that have been computed.
+     */
+    private long distances;
+
+    /**
+     * Whether the next run assigns the points (true) or sums up the distances (false).
+     */
+    private boolean assignStep;
+
+    /**
+     * Constructs the Chunk object for the range of data points given.
+     *
+     * @param restart the restart this chunk belongs to.
+     * @param start   the index of the first data point of the chunk.
+     * @param end     the index after the last data point of the chunk.
+     */
+    Chunk(Restart restart, int start, int end) {
+      this.restart = restart;
+      this.start = start;
+      this.end = end;
+      sumX = new double[k];
+      sumY = new double[k];
+      weights = new double[k];
+    }
+
+    @Override
+    protected void compute() {
+      runStep(assignStep);
+    }
+
+    /**
+     * Runs one step on the points of this chunk.
+     *
+     * @param assign true to assign the points and sum up the centers, false to sum up the
+     *               distances from the points to their centers.
+     */
+    void runStep(boolean assign) {
+      if (assign) {
+        assignPoints();
+      } else {
+        error = sumDistances();
+      }
+    }
+
+    /**
+     * Assigns every point of the chunk to its closest center, comparing squared distances, and
+     * adds the point to the sums of its cluster. In an accelerated restart, points whose bounds
+     * show that their center is still the closest keep it without any distance being computed.
+     */
+    private void assignPoints() {
+      double[] centersX = restart.centersX;
+      double[] centersY = restart.centersY;
+      int[] clusters = restart.clusters;
+      boolean useBounds = restart.accelerated && restart.boundsReady;
+      boolean weighted = data.isWeighted();
+      for (int j = 0; j < k; j++) {
+        sumX[j] = 0;
+        sumY[j] = 0;
+        weights[j] = 0;
+      }
+      for (int i = start; i < end; i++) {
+        double x = data.getX(i);
+        double y = data.getY(i);
+        double weight = weighted ? data.getWeight(i) : 1;
+        int index;
+        if (useBounds && restart.upper[i]
+                < Math.max(restart.halfGap[clusters[i]], restart.lower[i])) {
+          index = clusters[i];
+        } else {
+          double distance = Double.MAX_VALUE;
+          double secondDistance = Double.MAX_VALUE;
+          index = 0;
+          for (int j = 0; j < k; j++) {
+            double dx = x - centersX[j];
+            double dy = y - centersY[j];
+            double tempDistance = dx * dx + dy * dy;
+            if (tempDistance < distance) {
+              secondDistance = distance;
+              distance = tempDistance;
+              index = j;
+            } else if (tempDistance < secondDistance) {
+              secondDistance = tempDistance;
+            }
+          }
+          distances += k;
+          if (restart.accelerated) {
+            restart.upper[i] = Math.sqrt(distance);
+            restart.lower[i] = secondDistance == Double.MAX_VALUE
+                    ? Double.MAX_VALUE : Math.sqrt(secondDistance);
+          }
+        }
+        clusters[i] = index;
+        sumX[index] += weight * x;
+        sumY[index] += weight * y;
+        weights[index] += weight;
+      }
+    }
+
+    /**
+     * Returns the sum of the Euclidean distances from the points of the chunk to the centers of
+     * their clusters, each multiplied by the weight of its point. In an accelerated restart each
+     * distance becomes the exact upper bound of its point, and the lower bound is lowered by the
+     * most any other center moved.
+     *
+     * @return the sum of the distances as a double data type.
+     */
+    private double sumDistances() {
+      double[] centersX = restart.centersX;
+      double[] centersY = restart.centersY;
+      int[] clusters = restart.clusters;
+      boolean weighted = data.isWeighted();
+      double total = 0;
+      for (int i = start; i < end; i++) {
+        double dx = data.getX(i) - centersX[clusters[i]];
+        double dy = data.getY(i) - centersY[clusters[i]];
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        total += weighted ? data.getWeight(i) * distance : distance;
+        if (restart.accelerated) {
+          restart.upper[i] = distance;
+          restart.lower[i] -= clusters[i] == restart.maxMoveCluster
+                  ? restart.secondMaxMove : restart.maxMove;
+        }
+      }
+      distances += end - start;
+      return total;
+    }
+  }
+}
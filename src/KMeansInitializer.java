@@ -0,0 +1,26 @@
+/**
+ * Import SplittableRandom package.
+ */
+
+import java.util.SplittableRandom;
+
+/**
+ * This interface contains the operation that all strategies for choosing the starting centers of
+ * the k-means algorithm should contain. A strategy is given the data points, the number of centers
+ * to choose and the random number generator of the restart, so runs given the same seed choose the
+ * same centers.
+ */
+public interface KMeansInitializer {
+
+  /**
+   * Method that chooses k starting centers for the k-means algorithm from the data points given.
+   * The arrays that are returned are new, so the algorithm is free to change them.
+   *
+   * @param data   the points that are being clustered.
+   * @param k      the number of centers to choose, from 1 to the number of points.
+   * @param random the random number generator used to make the choices.
+   * @return the x coordinates (index 0) and y coordinates (index 1) of the chosen centers.
+   */
+  double[][] initialize(PointColumns data, int k, SplittableRandom random);
+
+}
@@ -0,0 +1,351 @@
+/**
+ * Import ForkJoinPool package.
+ */
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class holds the settings used by DataAnalysis when clustering the data with kmeans. The
+ * defaults are the settings kmeans(k) has always used: 10 restarts of at most 100 iterations each
+ * that stop when the error changes by less than 1 percent, all run on the calling thread. The
+ * restarts can also be run in parallel on a ForkJoinPool, in which case large data sets also have
+ * the assignment step of every iteration split into chunks of points that run in parallel. The
+ * starting centers are chosen by a KMeansInitializer, and setting a seed makes the choices, and so
+ * the result, the same on every run.
+ */
+public class KMeansOptions {
+
+  /**
+   * The number of times the k-means algorithm is restarted from new starting centers.
+   */
+  private int restarts;
+
+  /**
+   * The largest number of iterations one restart of the algorithm is allowed to run for.
+   */
+  private int maxIterations;
+
+  /**
+   * The change in error, as a fraction of the error, below which a restart has converged.
+   */
+  private double tolerance;
+
+  /**
+   * Whether the restarts and the assignment steps are run in parallel.
+   */
+  private boolean parallel;
+
+  /**
+   * The pool that the parallel work is run on, or null to use the common pool.
+   */
+  private ForkJoinPool pool;
+
+  /**
+   * The number of points one parallel assignment task is given.
+   */
+  private int chunkSize;
+
+  /**
+   * Whether Hamerly's bounds are used to skip distance computations.
+   */
+  private boolean accelerated;
+
+  /**
+   * The number of points in each mini-batch, or 0 to use every point in every iteration.
+   */
+  private int batchSize;
+
+  /**
+   * The strategy used to choose the starting centers of each restart.
+   */
+  private KMeansInitializer initializer;
+
+  /**
+   * Whether a seed was set for the random number generator.
+   */
+  private boolean seeded;
+
+  /**
+   * The seed of the random number generator, used if seeded is true.
+   */
+  private long seed;
+
+  /**
+   * Constructs the KMeansOptions object that takes in no parameters and initializes it with the
+   * default settings.
+   */
+  public KMeansOptions() {
+    restarts = 10;
+    maxIterations = 100;
+    tolerance = 0.01;
+    parallel = false;
+    pool = null;
+    chunkSize = 65536;
+    accelerated = false;
+    batchSize = 0;
+    initializer = new RandomInitializer();
+    seeded = false;
+    seed = 0;
+  }
+
+  /**
+   * Public getter method that returns the number of restarts.
+   *
+   * @return the number of restarts as an integer.
+   */
+  public int getRestarts() {
+    return restarts;
+  }
+
+  /**
+   * Public setter method that sets the number of times the algorithm is restarted from new
+   * centers. The best of the restarts is returned.
+   *
+   * @param restarts the number of restarts as an integer.
+   * @throws IllegalArgumentException if the number of restarts is not positive.
+   */
+  public void setRestarts(int restarts) throws IllegalArgumentException {
+    if (restarts <= 0) {
+      throw new IllegalArgumentException("restarts must be positive.");
+    }
+    this.restarts = restarts;
+  }
+
+  /**
+   * Public getter method that returns the largest number of iterations of one restart.
+   *
+   * @return the largest number of iterations as an integer.
+   */
+  public int getMaxIterations() {
+    return maxIterations;
+  }
+
+  /**
+   * Public setter method that sets the largest number of iterations one restart can run for.
+   *
+   * @param maxIterations the largest number of iterations as an integer.
+   * @throws IllegalArgumentException if the number of iterations is not positive.
+   */
+  public void setMaxIterations(int maxIterations) throws IllegalArgumentException {
+    if (maxIterations <= 0) {
+      throw new IllegalArgumentException("maxIterations must be positive.");
+    }
+    this.maxIterations = maxIterations;
+  }
+
+  /**
+   * Public getter method that returns the convergence tolerance.
+   *
+   * @return the tolerance as a double data type.
+   */
+  public double getTolerance() {
+    return tolerance;
+  }
+
+  /**
+   * Public setter method that sets the change in error, as a fraction of the error, below which
+   * a restart stops iterating.
+   *
+   * @param tolerance the tolerance as a double data type.
+   * @throws IllegalArgumentException if the tolerance is negative or not a number.
+   */
+  public void setTolerance(double tolerance) throws IllegalArgumentException {
+    if (!(tolerance >= 0)) {
+      throw new IllegalArgumentException("tolerance cannot be negative.");
+    }
+    this.tolerance = tolerance;
+  }
+
+  /**
+   * Public getter method that returns if the work is run in parallel.
+   *
+   * @return true if the restarts and assignment steps run in parallel.
+   */
+  public boolean isParallel() {
+    return parallel;
+  }
+
+  /**
+   * Public setter method that sets if the restarts, and the assignment step of large data sets,
+   * are run in parallel.
+   *
+   * @param parallel true to run the work in parallel.
+   */
+  public void setParallel(boolean parallel) {
+    this.parallel = parallel;
+  }
+
+  /**
+   * Public getter method that returns the pool the parallel work runs on. The common pool is
+   * returned if no pool was set.
+   *
+   * @return the pool as a ForkJoinPool.
+   */
+  public ForkJoinPool getPool() {
+    if (pool == null) {
+      return ForkJoinPool.commonPool();
+    }
+    return pool;
+  }
+
+  /**
+   * Public setter method that sets the pool the parallel work runs on.
+   *
+   * @param pool the pool as a ForkJoinPool, or null to use the common pool.
+   */
+  public void setPool(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Public getter method that returns the number of points one parallel assignment task is given.
+   *
+   * @return the chunk size as an integer.
+   */
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * Public setter method that sets the number of points one parallel assignment task is given.
+   * Data sets with no more points than this are assigned on one thread.
+   *
+   * @param chunkSize the chunk size as an integer.
+   * @throws IllegalArgumentException if the chunk size is not positive.
+   */
+  public void setChunkSize(int chunkSize) throws IllegalArgumentException {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize must be positive.");
+    }
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Public getter method that returns if Hamerly's accelerated algorithm is used.
+   *
+   * @return true if the accelerated algorithm is used.
+   */
+  public boolean isAccelerated() {
+    return accelerated;
+  }
+
+  /**
+   * Public setter method that sets if Hamerly's accelerated algorithm is used. It keeps bounds on
+   * the distances from every point to the centers so that most distances do not have to be
+   * computed, and returns the same clusters as the plain algorithm started from the same centers.
+   *
+   * @param accelerated true to use the accelerated algorithm.
+   */
+  public void setAccelerated(boolean accelerated) {
+    this.accelerated = accelerated;
+  }
+
+  /**
+   * Public getter method that returns the number of points in each mini-batch.
+   *
+   * @return the batch size as an integer, or 0 if mini-batches are not used.
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Public setter method that sets the number of points in each mini-batch. With a batch size
+   * above 0, each iteration of a restart moves the centers towards a random sample of that many
+   * points instead of assigning every point, for the largest number of iterations. Every point is
+   * then assigned to the final centers once, and the restart with the lowest error is returned.
+   *
+   * @param batchSize the batch size as an integer, or 0 to use every point in every iteration.
+   * @throws IllegalArgumentException if the batch size is negative.
+   */
+  public void setBatchSize(int batchSize) throws IllegalArgumentException {
+    if (batchSize < 0) {
+      throw new IllegalArgumentException("batchSize cannot be negative.");
+    }
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Public getter method that returns the strategy used to choose the starting centers.
+   *
+   * @return the initializer as a KMeansInitializer.
+   */
+  public KMeansInitializer getInitializer() {
+    return initializer;
+  }
+
+  /**
+   * Public setter method that sets the strategy used to choose the starting centers of each
+   * restart, such as RandomInitializer, KMeansPlusPlusInitializer or KMeansParallelInitializer.
+   *
+   * @param initializer the initializer as a KMeansInitializer.
+   * @throws IllegalArgumentException if the initializer is null.
+   */
+  public void setInitializer(KMeansInitializer initializer) throws IllegalArgumentException {
+    if (initializer == null) {
+      throw new IllegalArgumentException("initializer cannot be null.");
+    }
+    this.initializer = initializer;
+  }
+
+  /**
+   * Public getter method that returns if a seed was set.
+   *
+   * @return true if a seed was set for the random number generator.
+   */
+  public boolean isSeeded() {
+    return seeded;
+  }
+
+  /**
+   * Public getter method that returns the seed of the random number generator.
+   *
+   * @return the seed as a long data type.
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Public setter method that sets the seed of the random number generator. Runs with the same
+   * seed, data and settings return the same clusters, whether or not they run in parallel.
+   *
+   * @param seed the seed as a long data type.
+   */
+  public void setSeed(long seed) {
+    this.seed = seed;
+    this.seeded = true;
+  }
+
+  /**
+   * Public method that removes the seed, so every run uses new random numbers.
+   */
+  public void clearSeed() {
+    this.seeded = false;
+  }
+
+  /**
+   * Public method that returns options for one restart of Lloyd iterations that starts from the
+   * centers given instead of from centers chosen by the initializer. The iteration limit,
+   * tolerance, acceleration and parallel settings are the ones of these options. The arrays are
+   * copied.
+   *
+   * @param centersX the x coordinates of the starting centers.
+   * @param centersY the y coordinates of the starting centers.
+   * @return the new options as a KMeansOptions object.
+   */
+  public KMeansOptions warmStart(double[] centersX, double[] centersY) {
+    KMeansOptions warmStart = new KMeansOptions();
+    warmStart.restarts = 1;
+    warmStart.maxIterations = maxIterations;
+    warmStart.tolerance = tolerance;
+    warmStart.parallel = parallel;
+    warmStart.pool = pool;
+    warmStart.chunkSize = chunkSize;
+    warmStart.accelerated = accelerated;
+    double[] startX = centersX.clone();
+    double[] startY = centersY.clone();
+    warmStart.initializer = (data, k, random) -> new double[][]{startX.clone(), startY.clone()};
+    return warmStart;
+  }
+}
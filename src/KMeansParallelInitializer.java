@@ -0,0 +1,122 @@
+/**
+ * Import SplittableRandom package.
+ */
+
+import java.util.SplittableRandom;
+
+/**
+ * This class chooses the starting centers of the k-means algorithm with scalable k-means++
+ * (k-means||). Instead of making k passes over the data like k-means++, it makes a few passes that
+ * each oversample many candidate centers at once, picking every data point independently with a
+ * probability proportional to its squared distance from the closest candidate so far. Each
+ * candidate is then weighted by the number of data points closest to it, and the k centers are
+ * chosen from the small weighted set of candidates with k-means++. Points that have weights are
+ * picked and counted in proportion to their weight.
+ */
+public class KMeansParallelInitializer implements KMeansInitializer {
+
+  /**
+   * The number of candidates expected to be picked in each pass, as a multiple of k.
+   */
+  private final double oversampling;
+
+  /**
+   * The number of passes made over the data.
+   */
+  private final int rounds;
+
+  /**
+   * Constructs the KMeansParallelInitializer object that takes in no parameters and initializes it
+   * to pick about 2k candidates in each of 5 passes.
+   */
+  public KMeansParallelInitializer() {
+    this(2, 5);
+  }
+
+  /**
+   * Constructs the KMeansParallelInitializer object with the oversampling factor and the number of
+   * passes given.
+   *
+   * @param oversampling the number of candidates expected in each pass, as a multiple of k.
+   * @param rounds       the number of passes made over the data.
+   * @throws IllegalArgumentException if the oversampling factor or the number of passes is not
+   *                                  positive.
+   */
+  public KMeansParallelInitializer(double oversampling, int rounds)
+          throws IllegalArgumentException {
+    if (!(oversampling > 0)) {
+      throw new IllegalArgumentException("oversampling must be positive.");
+    }
+    if (rounds <= 0) {
+      throw new IllegalArgumentException("rounds must be positive.");
+    }
+    this.oversampling = oversampling;
+    this.rounds = rounds;
+  }
+
+  @Override
+  public double[][] initialize(PointColumns data, int k, SplittableRandom random) {
+    int n = data.size();
+    DoublePointColumns candidates = new DoublePointColumns();
+    int first = random.nextInt(n);
+    candidates.add(data.getX(first), data.getY(first));
+    double[] distances = new double[n];
+    int[] nearest = new int[n];
+    for (int i = 0; i < n; i++) {
+      distances[i] = Double.MAX_VALUE;
+    }
+    double cost = updateDistances(data, candidates, 0, distances, nearest);
+    double expected = oversampling * k;
+    for (int r = 0; r < rounds && cost > 0; r++) {
+      int before = candidates.size();
+      for (int i = 0; i < n; i++) {
+        if (random.nextDouble() * cost < expected * data.getWeight(i) * distances[i]) {
+          candidates.add(data.getX(i), data.getY(i));
+        }
+      }
+      if (candidates.size() > before) {
+        cost = updateDistances(data, candidates, before, distances, nearest);
+      }
+    }
+    if (candidates.size() < k) {
+      return KMeansPlusPlusInitializer.seed(data, data.getWeights(), k, random);
+    }
+    double[] weights = new double[candidates.size()];
+    for (int i = 0; i < n; i++) {
+      weights[nearest[i]] += data.getWeight(i);
+    }
+    return KMeansPlusPlusInitializer.seed(candidates, weights, k, random);
+  }
+
+  /**
+   * Private helper method that updates the squared distance from every data point to its closest
+   * candidate with the candidates added since the last update, and returns the total cost, with
+   * each distance counted by the weight of its point.
+   *
+   * @param data       the points that are being clustered.
+   * @param candidates the candidate centers picked so far.
+   * @param from       the index of the first candidate that was not part of the last update.
+   * @param distances  the squared distance of each point to its closest candidate.
+   * @param nearest    the index of the closest candidate of each point.
+   * @return the sum of the squared distances as a double data type.
+   */
+  private double updateDistances(PointColumns data, PointColumns candidates, int from,
+                                 double[] distances, int[] nearest) {
+    double cost = 0;
+    for (int i = 0; i < data.size(); i++) {
+      double x = data.getX(i);
+      double y = data.getY(i);
+      for (int c = from; c < candidates.size(); c++) {
+        double dx = x - candidates.getX(c);
+        double dy = y - candidates.getY(c);
+        double distance = dx * dx + dy * dy;
+        if (distance < distances[i]) {
+          distances[i] = distance;
+          nearest[i] = c;
+        }
+      }
+      cost += data.getWeight(i) * distances[i];
+    }
+    return cost;
+  }
+}
@@ -0,0 +1,120 @@
+/**
+ * Import Arrays and SplittableRandom packages.
+ */
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * This class chooses the starting centers of the k-means algorithm with k-means++. The first
+ * center is a data point picked uniformly at random, and every next center is a data point picked
+ * with a probability proportional to its squared distance from the closest center chosen so far.
+ * The centers end up spread out over the data, so each restart starts close to a good clustering
+ * and needs fewer iterations, and fewer restarts are needed to find a good result. Points that
+ * have weights are picked in proportion to their weight as well.
+ */
+public class KMeansPlusPlusInitializer implements KMeansInitializer {
+
+  @Override
+  public double[][] initialize(PointColumns data, int k, SplittableRandom random) {
+    return seed(data, data.getWeights(), k, random);
+  }
+
+  /**
+   * Public static method that chooses k centers from the points given with k-means++, where each
+   * point can have a weight. A point is picked with a probability proportional to its weight times
+   * its squared distance from the closest center chosen so far. If every point is already on a
+   * center, the next center is picked in proportion to the weights alone.
+   *
+   * @param points  the points the centers are chosen from.
+   * @param weights the weight of each point, or null if every point has a weight of 1.
+   * @param k       the number of centers to choose, from 1 to the number of points.
+   * @param random  the random number generator used to make the choices.
+   * @return the x coordinates (index 0) and y coordinates (index 1) of the chosen centers.
+   */
+  public static double[][] seed(PointColumns points, double[] weights, int k,
+                                SplittableRandom random) {
+    int n = points.size();
+    double[][] centers = new double[2][k];
+    double[] distances = new double[n];
+    Arrays.fill(distances, Double.MAX_VALUE);
+    int index = pick(null, weights, n, random);
+    for (int c = 0; c < k; c++) {
+      if (c > 0) {
+        index = pick(distances, weights, n, random);
+      }
+      double centerX = points.getX(index);
+      double centerY = points.getY(index);
+      centers[0][c] = centerX;
+      centers[1][c] = centerY;
+      for (int i = 0; i < n; i++) {
+        double dx = points.getX(i) - centerX;
+        double dy = points.getY(i) - centerY;
+        double distance = dx * dx + dy * dy;
+        if (distance < distances[i]) {
+          distances[i] = distance;
+        }
+      }
+    }
+    return centers;
+  }
+
+  /**
+   * Private helper method that picks the index of a point with a probability proportional to its
+   * weight times its squared distance. If the distances are null or all zero, the index is picked
+   * in proportion to the weights alone.
+   *
+   * @param distances the squared distance of each point to its closest center, or null.
+   * @param weights   the weight of each point, or null if every point has a weight of 1.
+   * @param n         the number of points.
+   * @param random    the random number generator used to make the choice.
+   * @return the index of the picked point.
+   */
+  private static int pick(double[] distances, double[] weights, int n, SplittableRandom random) {
+    double total = 0;
+    if (distances != null) {
+      for (int i = 0; i < n; i++) {
+        total += score(distances, weights, i);
+      }
+      if (total == 0) {
+        distances = null;
+      }
+    }
+    if (distances == null) {
+      if (weights == null) {
+        return random.nextInt(n);
+      }
+      for (int i = 0; i < n; i++) {
+        total += weights[i];
+      }
+    }
+    double target = random.nextDouble() * total;
+    int last = 0;
+    for (int i = 0; i < n; i++) {
+      double score = distances == null ? weights[i] : score(distances, weights, i);
+      if (score > 0) {
+        last = i;
+        target -= score;
+        if (target < 0) {
+          return i;
+        }
+      }
+    }
+    return last;
+  }
+
+  /**
+   * Private helper method that returns the weight of a point times its squared distance.
+   *
+   * @param distances the squared distance of each point to its closest center.
+   * @param weights   the weight of each point, or null if every point has a weight of 1.
+   * @param i         the index of the point.
+   * @return the score of the point as a double data type.
+   */
+  private static double score(double[] distances, double[] weights, int i) {
+    if (weights == null) {
+      return distances[i];
+    }
+    return weights[i] * distances[i];
+  }
+}
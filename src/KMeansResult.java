@@ -0,0 +1,144 @@
+/**
+ * This class represents the result of clustering a data set with k-means. It contains the cluster
+ * each data point was assigned to, the centers of the clusters, and the error that was used to
+ * decide when the algorithm had converged.
+ */
+public class KMeansResult {
+
+  /**
+   * The cluster each data point was assigned to, in the order the data points were added.
+   */
+  private final int[] assignments;
+
+  /**
+   * The x coordinates of the cluster centers.
+   */
+  private final double[] centersX;
+
+  /**
+   * The y coordinates of the cluster centers.
+   */
+  private final double[] centersY;
+
+  /**
+   * The average Euclidean distance between each data point and the center of its cluster.
+   */
+  private final double error;
+
+  /**
+   * The change in error in the last iteration as a fraction of the error before it.
+   */
+  private final double percentError;
+
+  /**
+   * The number of iterations the algorithm ran for.
+   */
+  private final int iterations;
+
+  /**
+   * The number of distances between a data point or center and a center that were computed.
+   */
+  private final long distanceEvaluations;
+
+  /**
+   * Constructs the KMeansResult object with the values given as parameters. The arrays are kept,
+   * not copied.
+   *
+   * @param assignments         the cluster each data point was assigned to.
+   * @param centersX            the x coordinates of the cluster centers.
+   * @param centersY            the y coordinates of the cluster centers.
+   * @param error               the average distance between each data point and its center.
+   * @param percentError        the change in error in the last iteration as a fraction of the
+   *                            error.
+   * @param iterations          the number of iterations the algorithm ran for.
+   * @param distanceEvaluations the number of distances to centers that were computed.
+   */
+  public KMeansResult(int[] assignments, double[] centersX, double[] centersY, double error,
+                      double percentError, int iterations, long distanceEvaluations) {
+    this.assignments = assignments;
+    this.centersX = centersX;
+    this.centersY = centersY;
+    this.error = error;
+    this.percentError = percentError;
+    this.iterations = iterations;
+    this.distanceEvaluations = distanceEvaluations;
+  }
+
+  /**
+   * Public getter method that returns the cluster each data point was assigned to. The array is
+   * the one held by this result, not a copy.
+   *
+   * @return the clusters of the data points as an array of integers.
+   */
+  public int[] getAssignments() {
+    return assignments;
+  }
+
+  /**
+   * Public getter method that returns the x coordinates of the cluster centers. The array is the
+   * one held by this result, not a copy.
+   *
+   * @return the x coordinates of the centers as an array of doubles.
+   */
+  public double[] getCentersX() {
+    return centersX;
+  }
+
+  /**
+   * Public getter method that returns the y coordinates of the cluster centers. The array is the
+   * one held by this result, not a copy.
+   *
+   * @return the y coordinates of the centers as an array of doubles.
+   */
+  public double[] getCentersY() {
+    return centersY;
+  }
+
+  /**
+   * Public getter method that returns the number of clusters.
+   *
+   * @return the number of clusters as an integer.
+   */
+  public int getK() {
+    return centersX.length;
+  }
+
+  /**
+   * Public getter method that returns the average Euclidean distance between each data point and
+   * the center of its cluster.
+   *
+   * @return the error as a double data type.
+   */
+  public double getError() {
+    return error;
+  }
+
+  /**
+   * Public getter method that returns the change in error in the last iteration as a fraction of
+   * the error before it.
+   *
+   * @return the percentage error as a double data type.
+   */
+  public double getPercentError() {
+    return percentError;
+  }
+
+  /**
+   * Public getter method that returns the number of iterations the algorithm ran for.
+   *
+   * @return the number of iterations as an integer.
+   */
+  public int getIterations() {
+    return iterations;
+  }
+
+  /**
+   * Public getter method that returns the number of distances between a data point or center and
+   * a center that were computed.
+   *
+   * @return the number of distance evaluations as a long data type.
+   */
+  public long getDistanceEvaluations() {
+    return distanceEvaluations;
+  }
+}
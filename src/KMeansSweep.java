@@ -0,0 +1,520 @@
+/**
+ * Import ArrayList, Arrays, List, SplittableRandom, Callable, ForkJoinPool and ForkJoinTask
+ * packages.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * This class clusters the points of a PointColumns object with k-means for every k in a range and
+ * scores each k, so the number of clusters does not have to be chosen by hand. The points are read
+ * from the columns they are already in; nothing is copied except a sample.
+ *
+ * <p>Only the smallest k is clustered from scratch, with the restarts of the options. Every larger
+ * k starts one restart of Lloyd iterations from the centers found for k - 1 with the cluster that
+ * has the largest squared error split in two, so the sweep costs little more than a single full
+ * run. For each k the sweep finds the inertia, the mean silhouette of a random sample of the
+ * points, and the gap statistic against reference data sets the size of the sample drawn uniformly
+ * from the bounding box of the points, each swept the same way. When the options ask for parallel
+ * work, the sweep of the data, the sweeps of the reference data sets and the silhouettes of the
+ * different k all run at the same time on the ForkJoinPool of the options. Setting a seed in the
+ * options makes the result the same on every run, whether or not it runs in parallel. Points that
+ * have weights count by their weight in the inertia, the splits and the gap statistic, while the
+ * silhouette sample is drawn from the points without regard to their weight.
+ */
+public class KMeansSweep {
+
+  /**
+   * The default number of points in the sample the silhouettes are found on and in each
+   * reference data set.
+   */
+  public static final int DEFAULT_SAMPLE_SIZE = 1000;
+
+  /**
+   * The default number of reference data sets of the gap statistic.
+   */
+  public static final int DEFAULT_REFERENCES = 5;
+
+  /**
+   * The points that are being clustered.
+   */
+  private final PointColumns data;
+
+  /**
+   * The smallest k of the sweep.
+   */
+  private final int minK;
+
+  /**
+   * The largest k of the sweep.
+   */
+  private final int maxK;
+
+  /**
+   * The settings of the k-means algorithm.
+   */
+  private final KMeansOptions options;
+
+  /**
+   * The number of points in the sample and in each reference data set.
+   */
+  private int sampleSize;
+
+  /**
+   * The number of reference data sets, or 0 to skip the gap statistic.
+   */
+  private int references;
+
+  /**
+   * The metrics the k-means runs on the data are recorded in, or null if they are not recorded.
+   */
+  private AnalysisMetrics metrics;
+
+  /**
+   * Constructs the KMeansSweep object that clusters the points given for every k from minK to
+   * maxK.
+   *
+   * @param data    the points that are clustered.
+   * @param minK    the smallest number of clusters.
+   * @param maxK    the largest number of clusters.
+   * @param options the settings of the k-means algorithm.
+   * @throws IllegalArgumentException if minK is not positive, maxK is less than minK or maxK is
+   *                                  greater than the number of points.
+   */
+  public KMeansSweep(PointColumns data, int minK, int maxK, KMeansOptions options)
+          throws IllegalArgumentException {
+    if (minK <= 0) {
+      throw new IllegalArgumentException("minK must be positive.");
+    }
+    if (maxK < minK) {
+      throw new IllegalArgumentException("maxK cannot be less than minK.");
+    }
+    if (maxK > data.size()) {
+      throw new IllegalArgumentException("maxK cannot be greater than number of data points.");
+    }
+    this.data = data;
+    this.minK = minK;
+    this.maxK = maxK;
+    this.options = options;
+    sampleSize = DEFAULT_SAMPLE_SIZE;
+    references = DEFAULT_REFERENCES;
+  }
+
+  /**
+   * Public method that runs the sweep.
+   *
+   * @return the clustering and the scores of every k as a KMeansSweepResult object.
+   */
+  public KMeansSweepResult run() {
+    int n = data.size();
+    double totalWeight = data.getTotalWeight();
+    int ks = maxK - minK + 1;
+    SplittableRandom random = options.isSeeded()
+            ? new SplittableRandom(options.getSeed()) : new SplittableRandom();
+    SplittableRandom dataRandom = random.split();
+    SplittableRandom sampleRandom = random.split();
+    SplittableRandom[] referenceRandoms = new SplittableRandom[references];
+    for (int b = 0; b < references; b++) {
+      referenceRandoms[b] = random.split();
+    }
+    int[] sample = sample(Math.min(sampleSize, n), sampleRandom);
+    double[] box = boundingBox();
+
+    List<Callable<double[]>> referenceSweeps = new ArrayList<>(references);
+    for (int b = 0; b < references; b++) {
+      SplittableRandom referenceRandom = referenceRandoms[b];
+      referenceSweeps.add(() -> referenceDispersion(box, sample.length, referenceRandom));
+    }
+    KMeansResult[] results;
+    double[][] referenceLogs = new double[references][];
+    if (options.isParallel()) {
+      ForkJoinPool pool = options.getPool();
+      List<ForkJoinTask<double[]>> tasks = new ArrayList<>(references);
+      for (Callable<double[]> sweep : referenceSweeps) {
+        tasks.add(pool.submit(sweep));
+      }
+      results = sweep(data, dataRandom, metrics);
+      for (int b = 0; b < references; b++) {
+        referenceLogs[b] = tasks.get(b).join();
+      }
+    } else {
+      results = sweep(data, dataRandom, metrics);
+      for (int b = 0; b < references; b++) {
+        referenceLogs[b] = referenceDispersion(box, sample.length, referenceRandoms[b]);
+      }
+    }
+
+    double[] inertia = new double[ks];
+    for (int i = 0; i < ks; i++) {
+      inertia[i] = inertia(data, results[i]);
+    }
+    double[] silhouette = silhouettes(sample, results);
+    double[] gap = new double[ks];
+    double[] gapError = new double[ks];
+    for (int i = 0; i < ks; i++) {
+      if (references == 0) {
+        gap[i] = Double.NaN;
+        gapError[i] = Double.NaN;
+        continue;
+      }
+      double mean = 0;
+      for (int b = 0; b < references; b++) {
+        mean += referenceLogs[b][i];
+      }
+      mean /= references;
+      double variance = 0;
+      for (int b = 0; b < references; b++) {
+        variance += (referenceLogs[b][i] - mean) * (referenceLogs[b][i] - mean);
+      }
+      variance /= references;
+      gap[i] = mean - Math.log(inertia[i] / totalWeight);
+      gapError[i] = Math.sqrt(variance) * Math.sqrt(1 + 1.0 / references);
+    }
+    return new KMeansSweepResult(minK, results, inertia, silhouette, gap, gapError);
+  }
+
+  /**
+   * Private helper method that clusters the points given for every k of the sweep. The smallest
+   * k is clustered with the options, and every larger k is warm-started from the centers of
+   * k - 1 with the cluster that has the largest squared error split in two.
+   *
+   * @param points  the points that are clustered.
+   * @param random  the random number generator a new center is drawn with when no cluster can be
+   *                split.
+   * @param metrics the metrics the runs are recorded in, or null.
+   * @return the clustering of each k, starting from minK.
+   */
+  private KMeansResult[] sweep(PointColumns points, SplittableRandom random,
+                               AnalysisMetrics metrics) {
+    KMeansResult[] results = new KMeansResult[maxK - minK + 1];
+    KMeans first = new KMeans(points, minK, options);
+    first.setMetrics(metrics);
+    results[0] = first.run();
+    for (int k = minK + 1; k <= maxK; k++) {
+      KMeansResult previous = results[k - 1 - minK];
+      double[] centersX = Arrays.copyOf(previous.getCentersX(), k);
+      double[] centersY = Arrays.copyOf(previous.getCentersY(), k);
+      split(points, previous, centersX, centersY, random);
+      KMeans kmeans = new KMeans(points, k, options.warmStart(centersX, centersY));
+      kmeans.setMetrics(metrics);
+      results[k - minK] = kmeans.run();
+    }
+    return results;
+  }
+
+  /**
+   * Private helper method that splits the cluster with the largest squared error in two, as
+   * G-means does: its center is moved along the main axis of its points by the mean distance of
+   * the points from the center along that axis, and the new last center is put the same distance
+   * the other way. Splitting instead of adding a center at a random point keeps Lloyd iterations
+   * from settling on clusters that straddle groups when the groups are placed symmetrically. If
+   * every point is at its center, a random point becomes the new center.
+   *
+   * @param points   the points.
+   * @param result   the clustering of the points with one cluster fewer.
+   * @param centersX the x coordinates of the centers, with the last one to be set.
+   * @param centersY the y coordinates of the centers, with the last one to be set.
+   * @param random   the random number generator.
+   */
+  private static void split(PointColumns points, KMeansResult result, double[] centersX,
+                            double[] centersY, SplittableRandom random) {
+    int n = points.size();
+    int k = result.getK();
+    int[] assignments = result.getAssignments();
+    double[] errors = new double[k];
+    for (int i = 0; i < n; i++) {
+      int cluster = assignments[i];
+      double dx = points.getX(i) - centersX[cluster];
+      double dy = points.getY(i) - centersY[cluster];
+      errors[cluster] += points.getWeight(i) * (dx * dx + dy * dy);
+    }
+    int worst = 0;
+    for (int j = 1; j < k; j++) {
+      if (errors[j] > errors[worst]) {
+        worst = j;
+      }
+    }
+    if (!(errors[worst] > 0)) {
+      int point = random.nextInt(n);
+      centersX[k] = points.getX(point);
+      centersY[k] = points.getY(point);
+      return;
+    }
+    double xx = 0;
+    double xy = 0;
+    double yy = 0;
+    double weight = 0;
+    for (int i = 0; i < n; i++) {
+      if (assignments[i] == worst) {
+        double pointWeight = points.getWeight(i);
+        double dx = points.getX(i) - centersX[worst];
+        double dy = points.getY(i) - centersY[worst];
+        xx += pointWeight * dx * dx;
+        xy += pointWeight * dx * dy;
+        yy += pointWeight * dy * dy;
+        weight += pointWeight;
+      }
+    }
+    xx /= weight;
+    xy /= weight;
+    yy /= weight;
+    double half = (xx - yy) / 2;
+    double eigenvalue = (xx + yy) / 2 + Math.sqrt(half * half + xy * xy);
+    double axisX;
+    double axisY;
+    if (xy != 0) {
+      axisX = eigenvalue - yy;
+      axisY = xy;
+    } else {
+      axisX = xx >= yy ? 1 : 0;
+      axisY = xx >= yy ? 0 : 1;
+    }
+    double offset = Math.sqrt(2 * eigenvalue / Math.PI) / Math.hypot(axisX, axisY);
+    centersX[k] = centersX[worst] + axisX * offset;
+    centersY[k] = centersY[worst] + axisY * offset;
+    centersX[worst] -= axisX * offset;
+    centersY[worst] -= axisY * offset;
+  }
+
+  /**
+   * Private helper method that draws a reference data set uniformly from the box given, sweeps
+   * it, and returns the log of the mean squared distance from a point to its center for each k.
+   *
+   * @param box    the smallest x, largest x, smallest y and largest y of the box.
+   * @param size   the number of points in the reference data set.
+   * @param random the random number generator the points are drawn with.
+   * @return the log dispersion of each k, starting from minK.
+   */
+  private double[] referenceDispersion(double[] box, int size, SplittableRandom random) {
+    PointColumns reference = new DoublePointColumns(size);
+    for (int i = 0; i < size; i++) {
+      reference.add(box[0] + random.nextDouble() * (box[1] - box[0]),
+              box[2] + random.nextDouble() * (box[3] - box[2]));
+    }
+    KMeansResult[] results = sweep(reference, random, null);
+    double[] logs = new double[results.length];
+    for (int i = 0; i < results.length; i++) {
+      logs[i] = Math.log(inertia(reference, results[i]) / size);
+    }
+    return logs;
+  }
+
+  /**
+   * Private helper method that finds the mean silhouette of the sample for each k, at the same
+   * time for the different k when the options ask for parallel work.
+   *
+   * @param sample  the indexes of the points of the sample.
+   * @param results the clustering of each k.
+   * @return the mean silhouette of each k, or NaN for k = 1.
+   */
+  private double[] silhouettes(int[] sample, KMeansResult[] results) {
+    int m = sample.length;
+    double[] xs = new double[m];
+    double[] ys = new double[m];
+    for (int s = 0; s < m; s++) {
+      xs[s] = data.getX(sample[s]);
+      ys[s] = data.getY(sample[s]);
+    }
+    double[][] distances = new double[m][];
+    for (int s = 0; s < m; s++) {
+      distances[s] = new double[s];
+      for (int t = 0; t < s; t++) {
+        double dx = xs[s] - xs[t];
+        double dy = ys[s] - ys[t];
+        distances[s][t] = Math.sqrt(dx * dx + dy * dy);
+      }
+    }
+    double[] silhouette = new double[results.length];
+    if (options.isParallel() && results.length > 1) {
+      List<ForkJoinTask<Double>> tasks = new ArrayList<>(results.length);
+      for (KMeansResult result : results) {
+        tasks.add(options.getPool().submit(() -> silhouette(sample, distances, result)));
+      }
+      for (int i = 0; i < results.length; i++) {
+        silhouette[i] = tasks.get(i).join();
+      }
+    } else {
+      for (int i = 0; i < results.length; i++) {
+        silhouette[i] = silhouette(sample, distances, results[i]);
+      }
+    }
+    return silhouette;
+  }
+
+  /**
+   * Private helper method that finds the mean silhouette of the sample for one clustering. The
+   * silhouette of a point is (b - a) / max(a, b), where a is its mean distance to the other
+   * sample points of its cluster and b is the smallest mean distance to the sample points of
+   * another cluster; a point that is alone in its cluster has a silhouette of 0.
+   *
+   * @param sample    the indexes of the points of the sample.
+   * @param distances the distances between the sample points, with distances[s][t] for t < s.
+   * @param result    the clustering.
+   * @return the mean silhouette, or NaN if there is only one cluster.
+   */
+  private static double silhouette(int[] sample, double[][] distances, KMeansResult result) {
+    int k = result.getK();
+    if (k < 2) {
+      return Double.NaN;
+    }
+    int m = sample.length;
+    int[] assignments = result.getAssignments();
+    int[] clusters = new int[m];
+    int[] counts = new int[k];
+    for (int s = 0; s < m; s++) {
+      clusters[s] = assignments[sample[s]];
+      counts[clusters[s]]++;
+    }
+    double[] sums = new double[k];
+    double total = 0;
+    for (int s = 0; s < m; s++) {
+      Arrays.fill(sums, 0);
+      for (int t = 0; t < m; t++) {
+        if (t != s) {
+          sums[clusters[t]] += t < s ? distances[s][t] : distances[t][s];
+        }
+      }
+      int own = clusters[s];
+      if (counts[own] < 2) {
+        continue;
+      }
+      double a = sums[own] / (counts[own] - 1);
+      double b = Double.MAX_VALUE;
+      for (int j = 0; j < k; j++) {
+        if (j != own && counts[j] > 0) {
+          b = Math.min(b, sums[j] / counts[j]);
+        }
+      }
+      if (b == Double.MAX_VALUE) {
+        continue;
+      }
+      double larger = Math.max(a, b);
+      total += larger > 0 ? (b - a) / larger : 0;
+    }
+    return total / m;
+  }
+
+  /**
+   * Private helper method that returns the sum of the squared distances from each point to the
+   * center of its cluster, each multiplied by the weight of its point.
+   *
+   * @param points the points.
+   * @param result the clustering of the points.
+   * @return the inertia as a double data type.
+   */
+  private static double inertia(PointColumns points, KMeansResult result) {
+    int[] assignments = result.getAssignments();
+    double[] centersX = result.getCentersX();
+    double[] centersY = result.getCentersY();
+    double total = 0;
+    for (int i = 0; i < points.size(); i++) {
+      double dx = points.getX(i) - centersX[assignments[i]];
+      double dy = points.getY(i) - centersY[assignments[i]];
+      total += points.getWeight(i) * (dx * dx + dy * dy);
+    }
+    return total;
+  }
+
+  /**
+   * Private helper method that draws a sample of distinct points, or every point if the sample
+   * is as large as the data.
+   *
+   * @param size   the number of points in the sample.
+   * @param random the random number generator.
+   * @return the indexes of the points of the sample.
+   */
+  private int[] sample(int size, SplittableRandom random) {
+    int n = data.size();
+    int[] indexes = new int[n];
+    for (int i = 0; i < n; i++) {
+      indexes[i] = i;
+    }
+    for (int i = 0; i < size && size < n; i++) {
+      int j = i + random.nextInt(n - i);
+      int swap = indexes[i];
+      indexes[i] = indexes[j];
+      indexes[j] = swap;
+    }
+    return Arrays.copyOf(indexes, size);
+  }
+
+  /**
+   * Private helper method that returns the bounding box of the points.
+   *
+   * @return the smallest x, largest x, smallest y and largest y of the points.
+   */
+  private double[] boundingBox() {
+    double[] box = {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                    Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+    for (int i = 0; i < data.size(); i++) {
+      box[0] = Math.min(box[0], data.getX(i));
+      box[1] = Math.max(box[1], data.getX(i));
+      box[2] = Math.min(box[2], data.getY(i));
+      box[3] = Math.max(box[3], data.getY(i));
+    }
+    return box;
+  }
+
+  /**
+   * Public getter method that returns the number of points in the sample and in each reference
+   * data set.
+   *
+   * @return the sample size as an integer.
+   */
+  public int getSampleSize() {
+    return sampleSize;
+  }
+
+  /**
+   * Public setter method that sets the number of points in the sample the silhouettes are found
+   * on and in each reference data set. The silhouettes take time that grows with the square of
+   * the sample size.
+   *
+   * @param sampleSize the sample size.
+   * @throws IllegalArgumentException if sampleSize is less than 2.
+   */
+  public void setSampleSize(int sampleSize) throws IllegalArgumentException {
+    if (sampleSize < 2) {
+      throw new IllegalArgumentException("sampleSize must be at least 2.");
+    }
+    this.sampleSize = sampleSize;
+  }
+
+  /**
+   * Public getter method that returns the number of reference data sets of the gap statistic.
+   *
+   * @return the number of reference data sets as an integer.
+   */
+  public int getReferences() {
+    return references;
+  }
+
+  /**
+   * Public setter method that sets the number of reference data sets of the gap statistic.
+   *
+   * @param references the number of reference data sets, or 0 to skip the gap statistic.
+   * @throws IllegalArgumentException if references is negative.
+   */
+  public void setReferences(int references) throws IllegalArgumentException {
+    if (references < 0) {
+      throw new IllegalArgumentException("references cannot be negative.");
+    }
+    this.references = references;
+  }
+
+  /**
+   * Public setter method that sets the metrics the k-means runs on the data are recorded in. The
+   * runs on the reference data sets are not recorded.
+   *
+   * @param metrics the metrics, or null to stop recording.
+   */
+  public void setMetrics(AnalysisMetrics metrics) {
+    this.metrics = metrics;
+  }
+}
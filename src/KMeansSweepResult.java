@@ -0,0 +1,220 @@
+/**
+ * This class represents the result of a KMeansSweep: the clustering found for each k of the
+ * sweep together with the three scores that are used to choose k. The inertia is the sum of the
+ * squared distances from each point to its center, and k is chosen at the elbow of its curve. The
+ * silhouette is the mean silhouette of a sample of the points, from -1 to 1, and k is chosen where
+ * it is highest. The gap statistic compares the log of the inertia with its mean over reference
+ * data sets drawn uniformly from the bounding box of the points, and k is chosen as the smallest k
+ * whose gap is at least the gap of k + 1 minus its standard error.
+ */
+public class KMeansSweepResult {
+
+  /**
+   * The smallest k of the sweep.
+   */
+  private final int minK;
+
+  /**
+   * The clustering found for each k, starting from minK.
+   */
+  private final KMeansResult[] results;
+
+  /**
+   * The sum of the squared distances from each point to its center for each k.
+   */
+  private final double[] inertia;
+
+  /**
+   * The mean silhouette of the sample for each k, or NaN for k = 1.
+   */
+  private final double[] silhouette;
+
+  /**
+   * The gap statistic for each k, or NaN if it was not computed.
+   */
+  private final double[] gap;
+
+  /**
+   * The standard error of the gap statistic for each k, or NaN if it was not computed.
+   */
+  private final double[] gapError;
+
+  /**
+   * Constructs the KMeansSweepResult object with the values given as parameters. The arrays,
+   * which have one entry per k starting from minK, are kept, not copied.
+   *
+   * @param minK       the smallest k of the sweep.
+   * @param results    the clustering found for each k.
+   * @param inertia    the sum of the squared distances from each point to its center for each k.
+   * @param silhouette the mean silhouette of the sample for each k.
+   * @param gap        the gap statistic for each k.
+   * @param gapError   the standard error of the gap statistic for each k.
+   */
+  public KMeansSweepResult(int minK, KMeansResult[] results, double[] inertia,
+                           double[] silhouette, double[] gap, double[] gapError) {
+    this.minK = minK;
+    this.results = results;
+    this.inertia = inertia;
+    this.silhouette = silhouette;
+    this.gap = gap;
+    this.gapError = gapError;
+  }
+
+  /**
+   * Public getter method that returns the smallest k of the sweep.
+   *
+   * @return the smallest k as an integer.
+   */
+  public int getMinK() {
+    return minK;
+  }
+
+  /**
+   * Public getter method that returns the largest k of the sweep.
+   *
+   * @return the largest k as an integer.
+   */
+  public int getMaxK() {
+    return minK + results.length - 1;
+  }
+
+  /**
+   * Public getter method that returns the clustering found for a k of the sweep.
+   *
+   * @param k the number of clusters.
+   * @return the clustering as a KMeansResult object.
+   * @throws IllegalArgumentException if k is not in the sweep.
+   */
+  public KMeansResult getResult(int k) throws IllegalArgumentException {
+    return results[position(k)];
+  }
+
+  /**
+   * Public getter method that returns the sum of the squared distances from each point to its
+   * center for a k of the sweep.
+   *
+   * @param k the number of clusters.
+   * @return the inertia as a double data type.
+   * @throws IllegalArgumentException if k is not in the sweep.
+   */
+  public double getInertia(int k) throws IllegalArgumentException {
+    return inertia[position(k)];
+  }
+
+  /**
+   * Public getter method that returns the mean silhouette of the sample for a k of the sweep.
+   *
+   * @param k the number of clusters.
+   * @return the silhouette from -1 to 1, or NaN for k = 1.
+   * @throws IllegalArgumentException if k is not in the sweep.
+   */
+  public double getSilhouette(int k) throws IllegalArgumentException {
+    return silhouette[position(k)];
+  }
+
+  /**
+   * Public getter method that returns the gap statistic for a k of the sweep.
+   *
+   * @param k the number of clusters.
+   * @return the gap, or NaN if it was not computed.
+   * @throws IllegalArgumentException if k is not in the sweep.
+   */
+  public double getGap(int k) throws IllegalArgumentException {
+    return gap[position(k)];
+  }
+
+  /**
+   * Public getter method that returns the standard error of the gap statistic for a k of the
+   * sweep.
+   *
+   * @param k the number of clusters.
+   * @return the standard error, or NaN if it was not computed.
+   * @throws IllegalArgumentException if k is not in the sweep.
+   */
+  public double getGapError(int k) throws IllegalArgumentException {
+    return gapError[position(k)];
+  }
+
+  /**
+   * Public method that returns the k at the elbow of the inertia curve: the k whose inertia is
+   * farthest below the straight line from the inertia of the smallest k to that of the largest.
+   *
+   * @return the chosen k, or the smallest k if the sweep has fewer than three values of k.
+   */
+  public int getElbowK() {
+    int last = results.length - 1;
+    if (last < 2) {
+      return minK;
+    }
+    int best = 0;
+    double bestDrop = 0;
+    for (int i = 1; i < last; i++) {
+      double line = inertia[0] + (inertia[last] - inertia[0]) * i / last;
+      double drop = line - inertia[i];
+      if (drop > bestDrop) {
+        bestDrop = drop;
+        best = i;
+      }
+    }
+    return minK + best;
+  }
+
+  /**
+   * Public method that returns the k with the highest mean silhouette.
+   *
+   * @return the chosen k, or the smallest k if no k has a silhouette.
+   */
+  public int getSilhouetteK() {
+    int best = -1;
+    for (int i = 0; i < results.length; i++) {
+      if (!Double.isNaN(silhouette[i]) && (best < 0 || silhouette[i] > silhouette[best])) {
+        best = i;
+      }
+    }
+    return minK + Math.max(best, 0);
+  }
+
+  /**
+   * Public method that returns the smallest k whose gap is at least the gap of k + 1 minus the
+   * standard error of that gap.
+   *
+   * @return the chosen k, the largest k if no k qualifies, or -1 if the gap statistic was not
+   *         computed.
+   */
+  public int getGapK() {
+    if (Double.isNaN(gap[0])) {
+      return -1;
+    }
+    for (int i = 0; i + 1 < results.length; i++) {
+      if (gap[i] >= gap[i + 1] - gapError[i + 1]) {
+        return minK + i;
+      }
+    }
+    return getMaxK();
+  }
+
+  /**
+   * Public method that returns the k chosen by the gap statistic, or by the silhouette if the gap
+   * statistic was not computed.
+   *
+   * @return the chosen k as an integer.
+   */
+  public int getBestK() {
+    int gapK = getGapK();
+    return gapK >= 0 ? gapK : getSilhouetteK();
+  }
+
+  /**
+   * Private helper method that returns the position of a k in the arrays.
+   *
+   * @param k the number of clusters.
+   * @return the position as an integer.
+   * @throws IllegalArgumentException if k is not in the sweep.
+   */
+  private int position(int k) throws IllegalArgumentException {
+    if (k < minK || k > getMaxK()) {
+      throw new IllegalArgumentException("k must be from " + minK + " to " + getMaxK() + ".");
+    }
+    return k - minK;
+  }
+}
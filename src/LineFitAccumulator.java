@@ -0,0 +1,293 @@
+/**
+ * This class keeps the running statistics that the least-squares line fit needs: the number of
+ * points, the mean x and y values, and the sums of squares sxx, syy and sxy around the means. The
+ * statistics are updated one point at a time with Welford's method, so the fit can be found at any
+ * time without going back over the points and the points never have to be kept in memory.
+ * Accumulators built over separate parts of the data can be merged, and points can be removed
+ * again to keep the statistics of a sliding window. A point can be given a weight, in which case
+ * it counts as that many points with the same coordinates.
+ */
+public class LineFitAccumulator {
+
+  /**
+   * The number of points that have been added to the accumulator.
+   */
+  private long count;
+
+  /**
+   * The sum of the weights of the points that have been added, which is the number of points if
+   * none of them has a weight.
+   */
+  private double weight;
+
+  /**
+   * The mean of the x coordinates of the points added.
+   */
+  private double meanX;
+
+  /**
+   * The mean of the y coordinates of the points added.
+   */
+  private double meanY;
+
+  /**
+   * The sum of the squares of the difference between each x and the mean x value.
+   */
+  private double sxx;
+
+  /**
+   * The sum of the squares of the difference between each y and the mean y value.
+   */
+  private double syy;
+
+  /**
+   * The sum of the product of the difference between x and its mean and the difference between y
+   * and its mean.
+   */
+  private double sxy;
+
+  /**
+   * Constructs the LineFitAccumulator object that takes in no parameters and initializes it with
+   * no points.
+   */
+  public LineFitAccumulator() {
+    clear();
+  }
+
+  /**
+   * Constructs the LineFitAccumulator object that takes in statistics that were found before,
+   * such as the statistics stored in the header of a point file.
+   *
+   * @param count the number of points as a long data type.
+   * @param meanX the mean of the x coordinates of the points.
+   * @param meanY the mean of the y coordinates of the points.
+   * @param sxx   the sum of the squares of the difference between each x and the mean x value.
+   * @param syy   the sum of the squares of the difference between each y and the mean y value.
+   * @param sxy   the sum of the product of the differences between x and y and their means.
+   * @throws IllegalArgumentException if count, sxx or syy is negative.
+   */
+  public LineFitAccumulator(long count, double meanX, double meanY, double sxx, double syy,
+                            double sxy) throws IllegalArgumentException {
+    this(count, count, meanX, meanY, sxx, syy, sxy);
+  }
+
+  /**
+   * Constructs the LineFitAccumulator object that takes in statistics of weighted points that
+   * were found before, such as the statistics stored in the header of a weighted point file.
+   *
+   * @param count  the number of points as a long data type.
+   * @param weight the sum of the weights of the points.
+   * @param meanX  the weighted mean of the x coordinates of the points.
+   * @param meanY  the weighted mean of the y coordinates of the points.
+   * @param sxx    the weighted sum of the squares of the difference between each x and the mean.
+   * @param syy    the weighted sum of the squares of the difference between each y and the mean.
+   * @param sxy    the weighted sum of the product of the differences between x and y and their
+   *               means.
+   * @throws IllegalArgumentException if count, weight, sxx or syy is negative, or weight is 0
+   *                                  while count is not.
+   */
+  public LineFitAccumulator(long count, double weight, double meanX, double meanY, double sxx,
+                            double syy, double sxy) throws IllegalArgumentException {
+    if (count < 0 || sxx < 0 || syy < 0) {
+      throw new IllegalArgumentException("count, sxx and syy must not be negative.");
+    }
+    if (!(weight >= 0) || (count > 0 && weight == 0)) {
+      throw new IllegalArgumentException("weight must be positive when there are points.");
+    }
+    this.count = count;
+    this.weight = count == 0 ? 0 : weight;
+    this.meanX = count == 0 ? 0 : meanX;
+    this.meanY = count == 0 ? 0 : meanY;
+    this.sxx = count == 0 ? 0 : sxx;
+    this.syy = count == 0 ? 0 : syy;
+    this.sxy = count == 0 ? 0 : sxy;
+  }
+
+  /**
+   * Public method that adds a point to the statistics that takes in an x and y coordinate that
+   * are given as parameters.
+   *
+   * @param x the x coordinate of the data point as a double data type.
+   * @param y the y coordinate of the data point as a double data type.
+   */
+  public void add(double x, double y) {
+    add(x, y, 1);
+  }
+
+  /**
+   * Public method that adds a point with the weight given to the statistics, as if the point had
+   * been added that many times.
+   *
+   * @param x           the x coordinate of the data point as a double data type.
+   * @param y           the y coordinate of the data point as a double data type.
+   * @param pointWeight the weight of the data point as a double data type.
+   */
+  public void add(double x, double y, double pointWeight) {
+    count++;
+    weight += pointWeight;
+    double dx = x - meanX;
+    double dy = y - meanY;
+    meanX += dx * pointWeight / weight;
+    meanY += dy * pointWeight / weight;
+    sxx += pointWeight * dx * (x - meanX);
+    syy += pointWeight * dy * (y - meanY);
+    sxy += pointWeight * dx * (y - meanY);
+  }
+
+  /**
+   * Public method that removes a point that was added before from the statistics. This undoes
+   * the update made by add, so it must only be called with a point that is part of the
+   * statistics.
+   *
+   * @param x the x coordinate of the data point as a double data type.
+   * @param y the y coordinate of the data point as a double data type.
+   * @throws IllegalStateException if there are no points in the accumulator.
+   */
+  public void remove(double x, double y) throws IllegalStateException {
+    remove(x, y, 1);
+  }
+
+  /**
+   * Public method that removes a point that was added before with the weight given from the
+   * statistics. This undoes the update made by add, so it must only be called with a point and
+   * weight that are part of the statistics.
+   *
+   * @param x           the x coordinate of the data point as a double data type.
+   * @param y           the y coordinate of the data point as a double data type.
+   * @param pointWeight the weight the data point was added with.
+   * @throws IllegalStateException if there are no points in the accumulator.
+   */
+  public void remove(double x, double y, double pointWeight) throws IllegalStateException {
+    if (count == 0) {
+      throw new IllegalStateException("There are no points to remove.");
+    }
+    double remaining = weight - pointWeight;
+    if (count == 1 || !(remaining > 0)) {
+      clear();
+      return;
+    }
+    double oldMeanX = meanX - (x - meanX) * pointWeight / remaining;
+    double oldMeanY = meanY - (y - meanY) * pointWeight / remaining;
+    sxx = Math.max(0, sxx - pointWeight * (x - oldMeanX) * (x - meanX));
+    syy = Math.max(0, syy - pointWeight * (y - oldMeanY) * (y - meanY));
+    sxy -= pointWeight * (x - oldMeanX) * (y - meanY);
+    meanX = oldMeanX;
+    meanY = oldMeanY;
+    weight = remaining;
+    count--;
+  }
+
+  /**
+   * Public method that adds all the points of another accumulator to this one. The result is the
+   * same as if every point of the other accumulator had been added to this one, so statistics
+   * built on separate parts of the data can be combined. The other accumulator is not changed.
+   *
+   * @param other the accumulator whose points are being added to this one.
+   */
+  public void merge(LineFitAccumulator other) {
+    if (other.count == 0) {
+      return;
+    }
+    if (count == 0) {
+      count = other.count;
+      weight = other.weight;
+      meanX = other.meanX;
+      meanY = other.meanY;
+      sxx = other.sxx;
+      syy = other.syy;
+      sxy = other.sxy;
+      return;
+    }
+    double total = weight + other.weight;
+    double dx = other.meanX - meanX;
+    double dy = other.meanY - meanY;
+    double factor = weight * other.weight / total;
+    sxx += other.sxx + dx * dx * factor;
+    syy += other.syy + dy * dy * factor;
+    sxy += other.sxy + dx * dy * factor;
+    meanX += dx * other.weight / total;
+    meanY += dy * other.weight / total;
+    count += other.count;
+    weight = total;
+  }
+
+  /**
+   * Public method that removes every point from the statistics.
+   */
+  public void clear() {
+    count = 0;
+    weight = 0;
+    meanX = 0;
+    meanY = 0;
+    sxx = 0;
+    syy = 0;
+    sxy = 0;
+  }
+
+  /**
+   * Public getter method that returns the number of points in the statistics.
+   *
+   * @return the number of points as a long data type.
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Public getter method that returns the sum of the weights of the points in the statistics,
+   * which is the number of points if none of them has a weight.
+   *
+   * @return the total weight as a double data type.
+   */
+  public double getWeight() {
+    return weight;
+  }
+
+  /**
+   * Public getter method that returns the mean of the x coordinates.
+   *
+   * @return the mean x value as a double data type.
+   */
+  public double getMeanX() {
+    return meanX;
+  }
+
+  /**
+   * Public getter method that returns the mean of the y coordinates.
+   *
+   * @return the mean y value as a double data type.
+   */
+  public double getMeanY() {
+    return meanY;
+  }
+
+  /**
+   * Public getter method that returns the sum of the squares of the difference between each x and
+   * the mean x value.
+   *
+   * @return sxx as a double data type.
+   */
+  public double getSxx() {
+    return sxx;
+  }
+
+  /**
+   * Public getter method that returns the sum of the squares of the difference between each y and
+   * the mean y value.
+   *
+   * @return syy as a double data type.
+   */
+  public double getSyy() {
+    return syy;
+  }
+
+  /**
+   * Public getter method that returns the sum of the product of the difference between x and its
+   * mean and the difference between y and its mean.
+   *
+   * @return sxy as a double data type.
+   */
+  public double getSxy() {
+    return sxy;
+  }
+}
@@ -0,0 +1,247 @@
+/**
+ * Import ByteBuffer package.
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class reads the points of a DataSet straight from the memory-mapped columns of a point
+ * file written by PointFile, without copying them. Each column is mapped in segments of at most
+ * 2^27 values so files larger than one mapping can be read, and the values are stored either as
+ * little-endian doubles or as float32 values. A weighted point file also has a weight column,
+ * which is always stored as doubles. The mapping is read-only, so the first point that is added
+ * copies the columns into a DoublePointColumns object in memory, and from then on the columns are
+ * read from and added to the copy. The file is never changed.
+ */
+public class MappedPointColumns extends PointColumns {
+
+  /**
+   * The base 2 logarithm of the number of values in one segment.
+   */
+  static final int SEGMENT_SHIFT = 27;
+
+  /**
+   * The mask that gives the index of a value within its segment.
+   */
+  private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+  /**
+   * The segments of the x column, in little-endian order.
+   */
+  private final ByteBuffer[] xSegments;
+
+  /**
+   * The segments of the y column, in little-endian order.
+   */
+  private final ByteBuffer[] ySegments;
+
+  /**
+   * The segments of the weight column as little-endian doubles, or null if every point has a
+   * weight of 1.
+   */
+  private final ByteBuffer[] weightSegments;
+
+  /**
+   * The number of points in the columns.
+   */
+  private final int size;
+
+  /**
+   * Whether the values are stored as float32 instead of doubles.
+   */
+  private final boolean float32;
+
+  /**
+   * The copy of the columns made when the first point was added, or null while the columns are
+   * read from the mapping.
+   */
+  private DoublePointColumns copy;
+
+  /**
+   * Constructs the MappedPointColumns object over the segments given. Every segment but the last
+   * holds 2^27 values.
+   *
+   * @param xSegments the segments of the x column, in little-endian order.
+   * @param ySegments the segments of the y column, in little-endian order.
+   * @param size      the number of points in the columns.
+   * @param float32   true if the values are stored as float32, false if they are doubles.
+   */
+  public MappedPointColumns(ByteBuffer[] xSegments, ByteBuffer[] ySegments, int size,
+                            boolean float32) {
+    this(xSegments, ySegments, null, size, float32);
+  }
+
+  /**
+   * Constructs the MappedPointColumns object over the segments given, with a weight column. Every
+   * segment but the last holds 2^27 values.
+   *
+   * @param xSegments      the segments of the x column, in little-endian order.
+   * @param ySegments      the segments of the y column, in little-endian order.
+   * @param weightSegments the segments of the weight column as little-endian doubles, or null if
+   *                       every point has a weight of 1.
+   * @param size           the number of points in the columns.
+   * @param float32        true if the coordinates are stored as float32, false if they are
+   *                       doubles.
+   */
+  public MappedPointColumns(ByteBuffer[] xSegments, ByteBuffer[] ySegments,
+                            ByteBuffer[] weightSegments, int size, boolean float32) {
+    this.xSegments = xSegments;
+    this.ySegments = ySegments;
+    this.weightSegments = weightSegments;
+    this.size = size;
+    this.float32 = float32;
+  }
+
+  /**
+   * Public method that appends a point to the end of the columns, copying the mapped columns into
+   * memory first if this is the first point added.
+   *
+   * @param x the x coordinate of the data point as a double data type.
+   * @param y the y coordinate of the data point as a double data type.
+   */
+  @Override
+  public void add(double x, double y) {
+    copy().add(x, y);
+  }
+
+  /**
+   * Public method that appends a point with the weight given to the end of the columns, copying
+   * the mapped columns into memory first if this is the first point added.
+   *
+   * @param x      the x coordinate of the data point as a double data type.
+   * @param y      the y coordinate of the data point as a double data type.
+   * @param weight the weight of the data point as a double data type.
+   * @throws IllegalArgumentException if the weight is not a positive number.
+   */
+  @Override
+  public void add(double x, double y, double weight) throws IllegalArgumentException {
+    if (!(weight > 0) || Double.isInfinite(weight)) {
+      throw new IllegalArgumentException("weight must be a positive number.");
+    }
+    copy().add(x, y, weight);
+  }
+
+  /**
+   * Public method that returns whether the columns are still read from the mapping, which is true
+   * until the first point is added.
+   *
+   * @return true if no point has been added.
+   */
+  public boolean isMapped() {
+    return copy == null;
+  }
+
+  @Override
+  public int size() {
+    return copy == null ? size : copy.size();
+  }
+
+  @Override
+  public double getX(int index) {
+    return copy == null ? get(xSegments, index) : copy.getX(index);
+  }
+
+  @Override
+  public double getY(int index) {
+    return copy == null ? get(ySegments, index) : copy.getY(index);
+  }
+
+  @Override
+  public double getWeight(int index) {
+    if (copy != null) {
+      return copy.getWeight(index);
+    }
+    if (weightSegments == null) {
+      return 1;
+    }
+    checkIndex(index);
+    return weightSegments[index >>> SEGMENT_SHIFT].getDouble((index & SEGMENT_MASK) << 3);
+  }
+
+  @Override
+  public boolean isWeighted() {
+    return copy == null ? weightSegments != null : copy.isWeighted();
+  }
+
+  @Override
+  public double[] getWeights() {
+    if (copy != null) {
+      return copy.getWeights();
+    }
+    if (weightSegments == null) {
+      return null;
+    }
+    double[] all = new double[size];
+    for (int i = 0; i < size; i++) {
+      all[i] = getWeight(i);
+    }
+    return all;
+  }
+
+  @Override
+  public double getTotalWeight() {
+    if (copy != null) {
+      return copy.getTotalWeight();
+    }
+    if (weightSegments == null) {
+      return size;
+    }
+    double total = 0;
+    for (int i = 0; i < size; i++) {
+      total += getWeight(i);
+    }
+    return total;
+  }
+
+  /**
+   * Private helper method that returns the copy of the columns, copying the mapped columns into
+   * memory if they have not been copied yet.
+   *
+   * @return the copy as a DoublePointColumns object.
+   */
+  private DoublePointColumns copy() {
+    if (copy == null) {
+      DoublePointColumns columns = new DoublePointColumns((int) Math.min(Integer.MAX_VALUE - 8,
+              size + 16L));
+      for (int i = 0; i < size; i++) {
+        if (weightSegments == null) {
+          columns.add(get(xSegments, i), get(ySegments, i));
+        } else {
+          columns.add(get(xSegments, i), get(ySegments, i), getWeight(i));
+        }
+      }
+      copy = columns;
+    }
+    return copy;
+  }
+
+  /**
+   * Private helper method that reads the value at the index given from a column.
+   *
+   * @param segments the segments of the column.
+   * @param index    the index of the value.
+   * @return the value as a double data type.
+   * @throws IndexOutOfBoundsException if the index is not between 0 and size() - 1.
+   */
+  private double get(ByteBuffer[] segments, int index) {
+    checkIndex(index);
+    ByteBuffer segment = segments[index >>> SEGMENT_SHIFT];
+    int offset = index & SEGMENT_MASK;
+    if (float32) {
+      return segment.getFloat(offset << 2);
+    }
+    return segment.getDouble(offset << 3);
+  }
+
+  /**
+   * Private helper method that checks if the index given is the index of a point.
+   *
+   * @param index the index that is being checked.
+   * @throws IndexOutOfBoundsException if the index is not between 0 and size() - 1.
+   */
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+}
@@ -0,0 +1,191 @@
+/**
+ * Import AbstractList, Arrays, List, and RandomAccess packages.
+ */
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * This abstract class represents the storage behind a DataSet. The coordinates are kept as
+ * columns (one for x and one for y) indexed by the position the point was added in, instead of as
+ * a list of Point2D objects. The analysis methods read the coordinates through getX and getY so
+ * no Point2D object has to be created, and getData can still hand out a List of Point2D objects
+ * through a lazy read-only view.
+ *
+ * <p>Every point has a weight of 1 unless it was added with another weight, in which case it
+ * counts as that many points to the analyses that support weights. The weights are kept in a
+ * third column that is only allocated once a point with a weight other than 1 is added, so
+ * columns of unweighted points take no extra memory.
+ */
+public abstract class PointColumns {
+
+  /**
+   * The weights of the first weightCount points, or null while every point has a weight of 1.
+   */
+  private double[] weights;
+
+  /**
+   * The number of points whose weight is stored. The points after them have a weight of 1.
+   */
+  private int weightCount;
+
+  /**
+   * Public method that appends a point with the x and y coordinates given as parameters to the
+   * end of the columns.
+   *
+   * @param x the x coordinate of the data point as a double data type.
+   * @param y the y coordinate of the data point as a double data type.
+   */
+  public abstract void add(double x, double y);
+
+  /**
+   * Public method that appends a point with the weight given to the end of the columns. A point
+   * with a weight of w counts as w points with the same coordinates.
+   *
+   * @param x      the x coordinate of the data point as a double data type.
+   * @param y      the y coordinate of the data point as a double data type.
+   * @param weight the weight of the data point as a double data type.
+   * @throws IllegalArgumentException if the weight is not a positive number.
+   */
+  public void add(double x, double y, double weight) throws IllegalArgumentException {
+    if (!(weight > 0) || Double.isInfinite(weight)) {
+      throw new IllegalArgumentException("weight must be a positive number.");
+    }
+    add(x, y);
+    if (weight == 1) {
+      return;
+    }
+    int index = size() - 1;
+    if (weights == null) {
+      weights = new double[Math.max(16, index + 1)];
+    } else if (index >= weights.length) {
+      weights = Arrays.copyOf(weights, Math.max(index + 1, weights.length * 2));
+    }
+    Arrays.fill(weights, weightCount, index, 1);
+    weights[index] = weight;
+    weightCount = index + 1;
+  }
+
+  /**
+   * Public method that returns the number of points stored in the columns.
+   *
+   * @return the number of points as an integer.
+   */
+  public abstract int size();
+
+  /**
+   * Public getter method that returns the x coordinate of the point at the index given.
+   *
+   * @param index the position of the point, from 0 to size() - 1.
+   * @return the x coordinate of the point as a double data type.
+   */
+  public abstract double getX(int index);
+
+  /**
+   * Public getter method that returns the y coordinate of the point at the index given.
+   *
+   * @param index the position of the point, from 0 to size() - 1.
+   * @return the y coordinate of the point as a double data type.
+   */
+  public abstract double getY(int index);
+
+  /**
+   * Public getter method that returns the weight of the point at the index given.
+   *
+   * @param index the position of the point, from 0 to size() - 1.
+   * @return the weight of the point as a double data type, which is 1 unless the point was added
+   *         with another weight.
+   */
+  public double getWeight(int index) {
+    return index < weightCount ? weights[index] : 1;
+  }
+
+  /**
+   * Public method that returns whether any point was added with a weight other than 1.
+   *
+   * @return true if the points have weights.
+   */
+  public boolean isWeighted() {
+    return weights != null;
+  }
+
+  /**
+   * Public getter method that returns the weight of every point.
+   *
+   * @return a new array with the weight of each point, or null if every point has a weight of 1.
+   */
+  public double[] getWeights() {
+    if (weights == null) {
+      return null;
+    }
+    double[] all = new double[size()];
+    System.arraycopy(weights, 0, all, 0, weightCount);
+    Arrays.fill(all, weightCount, all.length, 1);
+    return all;
+  }
+
+  /**
+   * Public method that returns the sum of the weights of the points, which is the number of
+   * points if none of them has a weight.
+   *
+   * @return the total weight as a double data type.
+   */
+  public double getTotalWeight() {
+    double total = size() - weightCount;
+    for (int i = 0; i < weightCount; i++) {
+      total += weights[i];
+    }
+    return total;
+  }
+
+  /**
+   * Public method that appends every point given by the two arrays to the end of the columns. The
+   * point at position i is (xs[i], ys[i]).
+   *
+   * @param xs the x coordinates of the points being added.
+   * @param ys the y coordinates of the points being added.
+   * @throws IllegalArgumentException if the two arrays are not the same length.
+   */
+  public void addAll(double[] xs, double[] ys) throws IllegalArgumentException {
+    if (xs.length != ys.length) {
+      throw new IllegalArgumentException("x and y arrays must be the same length.");
+    }
+    for (int i = 0; i < xs.length; i++) {
+      add(xs[i], ys[i]);
+    }
+  }
+
+  /**
+   * Public method that returns a read-only List view of the columns. The Point2D objects are only
+   * created when an element of the view is read, and the view always reflects the current
+   * contents of the columns.
+   *
+   * @return a read-only List of Point2D objects backed by the columns.
+   */
+  public List<Point2D> asList() {
+    return new PointListView();
+  }
+
+  /**
+   * This class is the lazy read-only List view returned by asList. Indexing is constant time, so
+   * it is marked as RandomAccess.
+   */
+  private class PointListView extends AbstractList<Point2D> implements RandomAccess {
+
+    @Override
+    public Point2D get(int index) {
+      if (index < 0 || index >= PointColumns.this.size()) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+                + PointColumns.this.size());
+      }
+      return new Point2D(getX(index), getY(index));
+    }
+
+    @Override
+    public int size() {
+      return PointColumns.this.size();
+    }
+  }
+}
@@ -0,0 +1,661 @@
+/**
+ * Import BufferedInputStream, BufferedOutputStream, EOFException, IOException, InputStream,
+ * OutputStream, ByteBuffer, ByteOrder, FileChannel, Files, Path, StandardOpenOption,
+ * DataFormatException, Deflater and Inflater packages.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * This class reads and writes point files, a binary format that stores the points of a DataSet
+ * as columns so they can be opened again without parsing text. A point file starts with a header
+ * of 128 bytes holding the number of points, their bounds and the least-squares statistics of the
+ * points, so the best-fit line is known without reading the points at all. The header is followed
+ * by the x column and then the y column, as little-endian doubles or float32 values. When any
+ * point has a weight other than 1, a weight column of little-endian doubles follows the y column.
+ * Uncompressed columns are memory-mapped and read in place; compressed columns are stored in
+ * blocks that are each compressed with Deflate and are read back into memory.
+ *
+ * <p>The header holds, in little-endian order: the magic number "PTSF", the version, the flags
+ * (1 for float32 values, 2 for compressed columns, 4 for a weight column), the number of points
+ * in a compressed block, the number of points as a long, then minX, maxX, minY, maxY, meanX,
+ * meanY, sxx, syy, sxy and the total weight of the points as doubles. The statistics are weighted
+ * when there is a weight column. The rest of the header is zero. Files of version 1, which have
+ * no weight column and no total weight, can still be read.
+ */
+public class PointFile {
+
+  /**
+   * The magic number at the start of every point file, the bytes "PTSF" read as a little-endian
+   * integer.
+   */
+  private static final int MAGIC = 0x46535450;
+
+  /**
+   * The version of the format written by this class.
+   */
+  private static final int VERSION = 2;
+
+  /**
+   * The flag that is set when the values are stored as float32.
+   */
+  private static final int FLAG_FLOAT32 = 1;
+
+  /**
+   * The flag that is set when the columns are compressed.
+   */
+  private static final int FLAG_COMPRESSED = 2;
+
+  /**
+   * The flag that is set when the file has a weight column.
+   */
+  private static final int FLAG_WEIGHTED = 4;
+
+  /**
+   * The number of the x column.
+   */
+  private static final int X_COLUMN = 0;
+
+  /**
+   * The number of the y column.
+   */
+  private static final int Y_COLUMN = 1;
+
+  /**
+   * The number of the weight column.
+   */
+  private static final int WEIGHT_COLUMN = 2;
+
+  /**
+   * The size of the header in bytes.
+   */
+  private static final int HEADER_SIZE = 128;
+
+  /**
+   * The number of points in each compressed block.
+   */
+  private static final int BLOCK_SIZE = 1 << 16;
+
+  /**
+   * The path of the file.
+   */
+  private final Path path;
+
+  /**
+   * Whether the values are stored as float32 instead of doubles.
+   */
+  private final boolean float32;
+
+  /**
+   * Whether the columns are compressed.
+   */
+  private final boolean compressed;
+
+  /**
+   * Whether the file has a weight column.
+   */
+  private final boolean weighted;
+
+  /**
+   * The number of points in each compressed block.
+   */
+  private final int blockSize;
+
+  /**
+   * The number of points in the file.
+   */
+  private final int count;
+
+  /**
+   * The smallest x coordinate of the points.
+   */
+  private final double minX;
+
+  /**
+   * The largest x coordinate of the points.
+   */
+  private final double maxX;
+
+  /**
+   * The smallest y coordinate of the points.
+   */
+  private final double minY;
+
+  /**
+   * The largest y coordinate of the points.
+   */
+  private final double maxY;
+
+  /**
+   * The least-squares statistics of the points, read from the header.
+   */
+  private final LineFitAccumulator statistics;
+
+  /**
+   * Private constructor used by open once the header has been read.
+   *
+   * @param path       the path of the file.
+   * @param flags      the flags of the header.
+   * @param blockSize  the number of points in each compressed block.
+   * @param count      the number of points in the file.
+   * @param bounds     minX, maxX, minY and maxY.
+   * @param statistics the least-squares statistics of the points.
+   */
+  private PointFile(Path path, int flags, int blockSize, int count, double[] bounds,
+                    LineFitAccumulator statistics) {
+    this.path = path;
+    this.float32 = (flags & FLAG_FLOAT32) != 0;
+    this.compressed = (flags & FLAG_COMPRESSED) != 0;
+    this.weighted = (flags & FLAG_WEIGHTED) != 0;
+    this.blockSize = blockSize;
+    this.count = count;
+    this.minX = bounds[0];
+    this.maxX = bounds[1];
+    this.minY = bounds[2];
+    this.maxY = bounds[3];
+    this.statistics = statistics;
+  }
+
+  /**
+   * Public static method that writes the points given to a point file at the path given. The
+   * statistics in the header are found from the values as they are stored, so with float32
+   * values the best-fit line of the header is the best-fit line of the rounded points. The
+   * weights of weighted points are written as doubles whether or not the coordinates are float32.
+   *
+   * @param path     the path of the file, which is replaced if it exists.
+   * @param data     the points that are written.
+   * @param float32  true to store the values as float32, which halves the size of the columns.
+   * @param compress true to compress the columns with Deflate.
+   * @throws IOException if the file cannot be written.
+   */
+  public static void write(Path path, PointColumns data, boolean float32, boolean compress)
+          throws IOException {
+    int n = data.size();
+    double[] bounds = {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                       Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+    boolean weighted = data.isWeighted();
+    LineFitAccumulator statistics = new LineFitAccumulator();
+    for (int i = 0; i < n; i++) {
+      double x = stored(data.getX(i), float32);
+      double y = stored(data.getY(i), float32);
+      bounds[0] = Math.min(bounds[0], x);
+      bounds[1] = Math.max(bounds[1], x);
+      bounds[2] = Math.min(bounds[2], y);
+      bounds[3] = Math.max(bounds[3], y);
+      statistics.add(x, y, data.getWeight(i));
+    }
+    int flags = (float32 ? FLAG_FLOAT32 : 0) | (compress ? FLAG_COMPRESSED : 0)
+            | (weighted ? FLAG_WEIGHTED : 0);
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(MAGIC).putInt(VERSION).putInt(flags).putInt(compress ? BLOCK_SIZE : 0);
+    header.putLong(n);
+    header.putDouble(bounds[0]).putDouble(bounds[1]).putDouble(bounds[2]).putDouble(bounds[3]);
+    header.putDouble(statistics.getMeanX()).putDouble(statistics.getMeanY());
+    header.putDouble(statistics.getSxx()).putDouble(statistics.getSyy());
+    header.putDouble(statistics.getSxy()).putDouble(statistics.getWeight());
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+      out.write(header.array());
+      if (compress) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+          writeCompressedColumn(out, data, X_COLUMN, float32, deflater);
+          writeCompressedColumn(out, data, Y_COLUMN, float32, deflater);
+          if (weighted) {
+            writeCompressedColumn(out, data, WEIGHT_COLUMN, false, deflater);
+          }
+        } finally {
+          deflater.end();
+        }
+      } else {
+        writeColumn(out, data, X_COLUMN, float32);
+        writeColumn(out, data, Y_COLUMN, float32);
+        if (weighted) {
+          writeColumn(out, data, WEIGHT_COLUMN, false);
+        }
+      }
+    }
+  }
+
+  /**
+   * Public static method that opens the point file at the path given. Only the header is read;
+   * the points are read when getColumns is called.
+   *
+   * @param path the path of the file.
+   * @return the opened file as a PointFile object.
+   * @throws IOException if the file cannot be read or is not a point file.
+   */
+  public static PointFile open(Path path) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      while (header.hasRemaining()) {
+        if (channel.read(header) < 0) {
+          throw new IOException("The file is too short to be a point file.");
+        }
+      }
+    }
+    header.flip();
+    if (header.getInt() != MAGIC) {
+      throw new IOException("The file is not a point file.");
+    }
+    int version = header.getInt();
+    if (version < 1 || version > VERSION) {
+      throw new IOException("Unsupported point file version: " + version);
+    }
+    int flags = header.getInt();
+    int blockSize = header.getInt();
+    long count = header.getLong();
+    if (count < 0 || count > Integer.MAX_VALUE) {
+      throw new IOException("Unsupported number of points: " + count);
+    }
+    if ((flags & FLAG_COMPRESSED) != 0 && blockSize <= 0) {
+      throw new IOException("Invalid block size: " + blockSize);
+    }
+    double[] bounds = {header.getDouble(), header.getDouble(), header.getDouble(),
+                       header.getDouble()};
+    double meanX = header.getDouble();
+    double meanY = header.getDouble();
+    double sxx = header.getDouble();
+    double syy = header.getDouble();
+    double sxy = header.getDouble();
+    double weight = (flags & FLAG_WEIGHTED) != 0 ? header.getDouble() : count;
+    LineFitAccumulator statistics;
+    try {
+      statistics = new LineFitAccumulator(count, weight, meanX, meanY, sxx, syy, sxy);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("The point file header is corrupt.", e);
+    }
+    return new PointFile(path, flags, blockSize, (int) count, bounds, statistics);
+  }
+
+  /**
+   * Public method that returns the points of the file. Uncompressed columns are memory-mapped
+   * and read in place, compressed columns are decompressed into memory. Points can be added to
+   * both; mapped columns are copied into memory when the first point is added, and the file is
+   * not changed.
+   *
+   * @return the points of the file as a PointColumns object.
+   * @throws IOException if the file cannot be read or is corrupt.
+   */
+  public PointColumns getColumns() throws IOException {
+    if (compressed) {
+      return readCompressedColumns();
+    }
+    int valueSize = float32 ? 4 : 8;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long columnBytes = (long) count * valueSize;
+      long weightBytes = weighted ? (long) count * 8 : 0;
+      if (channel.size() < HEADER_SIZE + 2 * columnBytes + weightBytes) {
+        throw new IOException("The point file is truncated.");
+      }
+      ByteBuffer[] xSegments = mapColumn(channel, HEADER_SIZE, valueSize);
+      ByteBuffer[] ySegments = mapColumn(channel, HEADER_SIZE + columnBytes, valueSize);
+      ByteBuffer[] weightSegments = weighted
+              ? mapColumn(channel, HEADER_SIZE + 2 * columnBytes, 8) : null;
+      return new MappedPointColumns(xSegments, ySegments, weightSegments, count, float32);
+    }
+  }
+
+  /**
+   * Public method that returns a DataAnalysis over the points of the file. The least-squares
+   * statistics come from the header, so fitLine answers without reading the points. Data points
+   * can be added to it like to any other DataAnalysis; the file is not changed.
+   *
+   * @return a DataAnalysis holding the points of the file.
+   * @throws IOException if the file cannot be read or is corrupt.
+   */
+  public DataAnalysis toDataAnalysis() throws IOException {
+    return new DataAnalysis(getColumns(), getStatistics());
+  }
+
+  /**
+   * Public method that returns the best-fit line of the points, found from the statistics in the
+   * header without reading the points.
+   *
+   * @return the best-fit line as a FittedLine object.
+   */
+  public FittedLine fitLineModel() {
+    return FittedLine.fromStatistics(statistics);
+  }
+
+  /**
+   * Public getter method that returns a copy of the least-squares statistics of the header.
+   *
+   * @return the statistics as a LineFitAccumulator object.
+   */
+  public LineFitAccumulator getStatistics() {
+    LineFitAccumulator copy = new LineFitAccumulator();
+    copy.merge(statistics);
+    return copy;
+  }
+
+  /**
+   * Public getter method that returns the number of points in the file.
+   *
+   * @return the number of points as an integer.
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Public getter method that returns the smallest x coordinate of the points.
+   *
+   * @return the smallest x coordinate as a double data type.
+   */
+  public double getMinX() {
+    return minX;
+  }
+
+  /**
+   * Public getter method that returns the largest x coordinate of the points.
+   *
+   * @return the largest x coordinate as a double data type.
+   */
+  public double getMaxX() {
+    return maxX;
+  }
+
+  /**
+   * Public getter method that returns the smallest y coordinate of the points.
+   *
+   * @return the smallest y coordinate as a double data type.
+   */
+  public double getMinY() {
+    return minY;
+  }
+
+  /**
+   * Public getter method that returns the largest y coordinate of the points.
+   *
+   * @return the largest y coordinate as a double data type.
+   */
+  public double getMaxY() {
+    return maxY;
+  }
+
+  /**
+   * Public getter method that returns if the values are stored as float32.
+   *
+   * @return true if the values are float32, false if they are doubles.
+   */
+  public boolean isFloat32() {
+    return float32;
+  }
+
+  /**
+   * Public getter method that returns if the columns are compressed.
+   *
+   * @return true if the columns are compressed.
+   */
+  public boolean isCompressed() {
+    return compressed;
+  }
+
+  /**
+   * Public getter method that returns if the file has a weight column.
+   *
+   * @return true if the points have weights.
+   */
+  public boolean isWeighted() {
+    return weighted;
+  }
+
+  /**
+   * Private helper method that returns the value as it is stored in the file.
+   *
+   * @param value   the value being stored.
+   * @param float32 true if the value is stored as float32.
+   * @return the stored value as a double data type.
+   */
+  private static double stored(double value, boolean float32) {
+    return float32 ? (double) (float) value : value;
+  }
+
+  /**
+   * Private helper method that returns the value of one column for the point at the index given.
+   *
+   * @param data   the points.
+   * @param column X_COLUMN, Y_COLUMN or WEIGHT_COLUMN.
+   * @param index  the index of the point.
+   * @return the value as a double data type.
+   */
+  private static double columnValue(PointColumns data, int column, int index) {
+    if (column == X_COLUMN) {
+      return data.getX(index);
+    }
+    return column == Y_COLUMN ? data.getY(index) : data.getWeight(index);
+  }
+
+  /**
+   * Private helper method that writes one column without compressing it.
+   *
+   * @param out     the stream the column is written to.
+   * @param data    the points whose column is written.
+   * @param column  X_COLUMN, Y_COLUMN or WEIGHT_COLUMN.
+   * @param float32 true to write the values as float32.
+   * @throws IOException if the column cannot be written.
+   */
+  private static void writeColumn(OutputStream out, PointColumns data, int column,
+                                  boolean float32) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 0; i < data.size(); i++) {
+      if (buffer.remaining() < 8) {
+        out.write(buffer.array(), 0, buffer.position());
+        buffer.clear();
+      }
+      putValue(buffer, columnValue(data, column, i), float32);
+    }
+    out.write(buffer.array(), 0, buffer.position());
+  }
+
+  /**
+   * Private helper method that writes one column as compressed blocks. Each block is written as
+   * its compressed length, as a little-endian integer, followed by the compressed bytes.
+   *
+   * @param out      the stream the column is written to.
+   * @param data     the points whose column is written.
+   * @param column   X_COLUMN, Y_COLUMN or WEIGHT_COLUMN.
+   * @param float32  true to write the values as float32.
+   * @param deflater the deflater used to compress the blocks.
+   * @throws IOException if the column cannot be written.
+   */
+  private static void writeCompressedColumn(OutputStream out, PointColumns data, int column,
+                                            boolean float32, Deflater deflater)
+          throws IOException {
+    int valueSize = float32 ? 4 : 8;
+    ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE * valueSize).order(ByteOrder.LITTLE_ENDIAN);
+    byte[] compressedBytes = new byte[block.capacity() + 1024];
+    ByteBuffer length = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+    int n = data.size();
+    for (int start = 0; start < n; start += BLOCK_SIZE) {
+      int end = Math.min(n, start + BLOCK_SIZE);
+      block.clear();
+      for (int i = start; i < end; i++) {
+        putValue(block, columnValue(data, column, i), float32);
+      }
+      deflater.reset();
+      deflater.setInput(block.array(), 0, block.position());
+      deflater.finish();
+      int compressedLength = 0;
+      while (!deflater.finished()) {
+        if (compressedLength == compressedBytes.length) {
+          byte[] larger = new byte[compressedBytes.length * 2];
+          System.arraycopy(compressedBytes, 0, larger, 0, compressedLength);
+          compressedBytes = larger;
+        }
+        compressedLength += deflater.deflate(compressedBytes, compressedLength,
+                compressedBytes.length - compressedLength);
+      }
+      length.clear();
+      length.putInt(compressedLength);
+      out.write(length.array());
+      out.write(compressedBytes, 0, compressedLength);
+    }
+  }
+
+  /**
+   * Private helper method that puts one value into the buffer given.
+   *
+   * @param buffer  the buffer the value is put into.
+   * @param value   the value being put.
+   * @param float32 true to put the value as float32.
+   */
+  private static void putValue(ByteBuffer buffer, double value, boolean float32) {
+    if (float32) {
+      buffer.putFloat((float) value);
+    } else {
+      buffer.putDouble(value);
+    }
+  }
+
+  /**
+   * Private helper method that memory-maps one column in segments of 2^27 values.
+   *
+   * @param channel   the channel of the file.
+   * @param position  the position of the column in the file.
+   * @param valueSize the size of one value in bytes.
+   * @return the segments of the column in little-endian order.
+   * @throws IOException if the column cannot be mapped.
+   */
+  private ByteBuffer[] mapColumn(FileChannel channel, long position, int valueSize)
+          throws IOException {
+    long segmentValues = 1L << MappedPointColumns.SEGMENT_SHIFT;
+    int numSegments = (int) ((count + segmentValues - 1) / segmentValues);
+    ByteBuffer[] segments = new ByteBuffer[numSegments];
+    for (int s = 0; s < numSegments; s++) {
+      long values = Math.min(segmentValues, count - s * segmentValues);
+      segments[s] = channel.map(FileChannel.MapMode.READ_ONLY,
+              position + s * segmentValues * valueSize, values * valueSize)
+              .order(ByteOrder.LITTLE_ENDIAN);
+    }
+    return segments;
+  }
+
+  /**
+   * Private helper method that reads and decompresses the columns into memory.
+   *
+   * @return the points of the file as a PointColumns object.
+   * @throws IOException if the file cannot be read or is corrupt.
+   */
+  private PointColumns readCompressedColumns() throws IOException {
+    double[] xs = new double[count];
+    double[] ys = new double[count];
+    double[] weights = weighted ? new double[count] : null;
+    Inflater inflater = new Inflater();
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+      readFully(in, new byte[HEADER_SIZE]);
+      readCompressedColumn(in, xs, float32, inflater);
+      readCompressedColumn(in, ys, float32, inflater);
+      if (weighted) {
+        readCompressedColumn(in, weights, false, inflater);
+      }
+    } finally {
+      inflater.end();
+    }
+    DoublePointColumns columns = new DoublePointColumns(count);
+    if (!weighted) {
+      columns.addAll(xs, ys);
+      return columns;
+    }
+    try {
+      for (int i = 0; i < count; i++) {
+        columns.add(xs[i], ys[i], weights[i]);
+      }
+    } catch (IllegalArgumentException e) {
+      throw new IOException("The point file is corrupt.", e);
+    }
+    return columns;
+  }
+
+  /**
+   * Private helper method that reads and decompresses the blocks of one column.
+   *
+   * @param in       the stream positioned at the start of the column.
+   * @param values   the array the values are read into.
+   * @param float32  true if the values are stored as float32.
+   * @param inflater the inflater used to decompress the blocks.
+   * @throws IOException if the column cannot be read or is corrupt.
+   */
+  private void readCompressedColumn(InputStream in, double[] values, boolean float32,
+                                    Inflater inflater) throws IOException {
+    int valueSize = float32 ? 4 : 8;
+    ByteBuffer block = ByteBuffer.allocate(blockSize * valueSize).order(ByteOrder.LITTLE_ENDIAN);
+    byte[] lengthBytes = new byte[4];
+    byte[] compressedBytes = new byte[0];
+    for (int start = 0; start < count; start += blockSize) {
+      int blockValues = Math.min(count - start, blockSize);
+      readFully(in, lengthBytes);
+      int compressedLength = ByteBuffer.wrap(lengthBytes).order(ByteOrder.LITTLE_ENDIAN).getInt();
+      if (compressedLength < 0) {
+        throw new IOException("The point file is corrupt.");
+      }
+      if (compressedBytes.length < compressedLength) {
+        compressedBytes = new byte[compressedLength];
+      }
+      readFully(in, compressedBytes, compressedLength);
+      inflater.reset();
+      inflater.setInput(compressedBytes, 0, compressedLength);
+      try {
+        int inflated = 0;
+        int expected = blockValues * valueSize;
+        while (inflated < expected) {
+          int read = inflater.inflate(block.array(), inflated, expected - inflated);
+          if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+            throw new IOException("The point file is corrupt.");
+          }
+          inflated += read;
+        }
+      } catch (DataFormatException e) {
+        throw new IOException("The point file is corrupt.", e);
+      }
+      block.clear();
+      for (int i = 0; i < blockValues; i++) {
+        values[start + i] = float32 ? block.getFloat() : block.getDouble();
+      }
+    }
+  }
+
+  /**
+   * Private helper method that reads exactly the length of the array from the stream.
+   *
+   * @param in    the stream being read.
+   * @param bytes the array the bytes are read into.
+   * @throws IOException if the stream ends first.
+   */
+  private static void readFully(InputStream in, byte[] bytes) throws IOException {
+    readFully(in, bytes, bytes.length);
+  }
+
+  /**
+   * Private helper method that reads exactly the number of bytes given from the stream.
+   *
+   * @param in     the stream being read.
+   * @param bytes  the array the bytes are read into.
+   * @param length the number of bytes to read.
+   * @throws IOException if the stream ends first.
+   */
+  private static void readFully(InputStream in, byte[] bytes, int length) throws IOException {
+    int read = 0;
+    while (read < length) {
+      int r = in.read(bytes, read, length - read);
+      if (r < 0) {
+        throw new EOFException("The point file is truncated.");
+      }
+      read += r;
+    }
+  }
+}
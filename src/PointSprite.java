@@ -0,0 +1,103 @@
+/**
+ * This class draws a filled ellipse of a fixed size, the sprite of one plotted point, straight
+ * into the pixels of an image stored as packed ARGB integers. The rows of the ellipse are found
+ * once when the sprite is created, so drawing a point only fills a few short spans of the pixel
+ * array, without the shape, transform and clipping work Graphics2D does for each oval. A pixel
+ * is part of the sprite if its center lies inside the ellipse, with the ellipse centered on the
+ * pixel that holds the position of the point.
+ */
+public class PointSprite {
+
+  /**
+   * The half height of the sprite in pixels.
+   */
+  private final int halfHeight;
+
+  /**
+   * The half width of each row of the sprite in pixels, from the top row to the bottom row.
+   */
+  private final int[] halfWidths;
+
+  /**
+   * Constructs the PointSprite object for an ellipse with the radii given.
+   *
+   * @param radiusX the horizontal radius of the ellipse in pixels.
+   * @param radiusY the vertical radius of the ellipse in pixels.
+   * @throws IllegalArgumentException if a radius is negative or not a number.
+   */
+  public PointSprite(double radiusX, double radiusY) throws IllegalArgumentException {
+    if (!(radiusX >= 0 && radiusY >= 0)) {
+      throw new IllegalArgumentException("The radii must not be negative.");
+    }
+    halfHeight = (int) Math.floor(radiusY);
+    halfWidths = new int[2 * halfHeight + 1];
+    for (int dy = -halfHeight; dy <= halfHeight; dy++) {
+      double row = radiusY == 0 ? 0 : (double) dy / radiusY;
+      halfWidths[dy + halfHeight] = (int) Math.floor(radiusX * Math.sqrt(1 - row * row));
+    }
+  }
+
+  /**
+   * Public method that draws the sprite centered on the position given, clipped to the image.
+   * Opaque colors replace the pixels, translucent colors are blended over them.
+   *
+   * @param pixels the pixels of the image as packed ARGB integers, row by row from the top.
+   * @param width  the width of the image in pixels.
+   * @param height the height of the image in pixels.
+   * @param x      the horizontal position of the center in pixels, from the left edge.
+   * @param y      the vertical position of the center in pixels, from the top edge.
+   * @param argb   the color of the sprite as a packed ARGB integer.
+   */
+  public void draw(int[] pixels, int width, int height, double x, double y, int argb) {
+    int maxHalfWidth = halfWidths[halfHeight];
+    if (!(x >= -maxHalfWidth - 1 && x < width + maxHalfWidth + 1
+            && y >= -halfHeight - 1 && y < height + halfHeight + 1)) {
+      return;
+    }
+    int cx = (int) Math.floor(x);
+    int cy = (int) Math.floor(y);
+    int rowStart = Math.max(-halfHeight, -cy);
+    int rowEnd = Math.min(halfHeight, height - 1 - cy);
+    boolean opaque = (argb >>> 24) == 0xFF;
+    for (int dy = rowStart; dy <= rowEnd; dy++) {
+      int halfWidth = halfWidths[dy + halfHeight];
+      int start = Math.max(0, cx - halfWidth);
+      int end = Math.min(width - 1, cx + halfWidth);
+      int offset = (cy + dy) * width;
+      if (opaque) {
+        for (int px = start; px <= end; px++) {
+          pixels[offset + px] = argb;
+        }
+      } else {
+        for (int px = start; px <= end; px++) {
+          pixels[offset + px] = blend(argb, pixels[offset + px]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Public static method that blends a translucent color over another color with the source
+   * over rule.
+   *
+   * @param source      the color drawn on top as a packed ARGB integer.
+   * @param destination the color underneath as a packed ARGB integer.
+   * @return the blended color as a packed ARGB integer.
+   */
+  public static int blend(int source, int destination) {
+    int sa = source >>> 24;
+    int da = destination >>> 24;
+    int outA = sa + da * (255 - sa) / 255;
+    if (outA == 0) {
+      return 0;
+    }
+    int color = outA << 24;
+    for (int shift = 0; shift <= 16; shift += 8) {
+      int sc = (source >>> shift) & 0xFF;
+      int dc = (destination >>> shift) & 0xFF;
+      int outC = (sc * sa + dc * da * (255 - sa) / 255) / outA;
+      color |= Math.min(255, outC) << shift;
+    }
+    return color;
+  }
+}
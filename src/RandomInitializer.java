@@ -0,0 +1,35 @@
+/**
+ * Import HashSet, Set and SplittableRandom packages.
+ */
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * This class chooses the starting centers of the k-means algorithm as k different data points
+ * picked uniformly at random. This is the strategy kmeans has always used. The indexes are picked
+ * with Floyd's sampling algorithm, so only k random numbers are drawn instead of shuffling the
+ * index of every data point.
+ */
+public class RandomInitializer implements KMeansInitializer {
+
+  @Override
+  public double[][] initialize(PointColumns data, int k, SplittableRandom random) {
+    int n = data.size();
+    Set<Integer> chosen = new HashSet<>();
+    double[][] centers = new double[2][k];
+    int count = 0;
+    for (int j = n - k; j < n; j++) {
+      int index = random.nextInt(j + 1);
+      if (!chosen.add(index)) {
+        index = j;
+        chosen.add(index);
+      }
+      centers[0][count] = data.getX(index);
+      centers[1][count] = data.getY(index);
+      count++;
+    }
+    return centers;
+  }
+}
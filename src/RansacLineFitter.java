@@ -0,0 +1,621 @@
+/**
+ * Import SplittableRandom, ForkJoinPool, ForkJoinTask and RecursiveAction packages.
+ */
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class fits a line to points that contain outliers with RANSAC, scoring the hypotheses with
+ * MSAC. Each hypothesis is the line through two points drawn at random, and its score is the sum
+ * over all points of the squared distance to the line, with each distance capped at the
+ * threshold, so points far from the line all cost the same and cannot pull the fit towards them.
+ * The best hypothesis is then refit to its inliers by least squares with a LineFitAccumulator,
+ * and refit again while that finds more inliers. Weighted points count as that many points: their
+ * capped distances and their least-squares terms are multiplied by their weights, and the pairs
+ * are drawn with probabilities in proportion to the weights.
+ *
+ * <p>The number of hypotheses adapts to the data: every time a better hypothesis is found, the
+ * fraction of inliers it has gives the number of hypotheses needed to draw an all-inlier pair with
+ * the confidence asked for, bounded by the largest number of iterations and an optional time
+ * budget. Hypotheses are drawn and scored in batches. The tasks that score a batch are allocated
+ * once per fit and stop scoring a hypothesis as soon as it is worse than the best of the earlier
+ * batches; when parallel work is asked for, the hypotheses of a batch are scored at the same time
+ * on a ForkJoinPool. The hypotheses are drawn on the calling thread and the best one is chosen in
+ * the order they were drawn, so a seeded fit gives the same line whether it runs in parallel or
+ * not.
+ */
+public class RansacLineFitter {
+
+  /**
+   * The default largest number of hypotheses that are scored.
+   */
+  public static final int DEFAULT_MAX_ITERATIONS = 1000;
+
+  /**
+   * The default probability that at least one hypothesis is drawn from two inliers.
+   */
+  public static final double DEFAULT_CONFIDENCE = 0.99;
+
+  /**
+   * The number of hypotheses that are drawn and scored together.
+   */
+  private static final int BATCH_SIZE = 32;
+
+  /**
+   * The largest number of times the line is refit to its inliers.
+   */
+  private static final int MAX_REFITS = 5;
+
+  /**
+   * The distance from the line within which a point is an inlier.
+   */
+  private double threshold;
+
+  /**
+   * The probability that at least one hypothesis is drawn from two inliers.
+   */
+  private double confidence;
+
+  /**
+   * The largest number of hypotheses that are scored.
+   */
+  private int maxIterations;
+
+  /**
+   * The time after which no more batches of hypotheses are started, in nanoseconds, or 0 for no
+   * limit.
+   */
+  private long timeBudgetNanos;
+
+  /**
+   * Whether the hypotheses of a batch are scored in parallel.
+   */
+  private boolean parallel;
+
+  /**
+   * The pool that the parallel work is run on, or null to use the common pool.
+   */
+  private ForkJoinPool pool;
+
+  /**
+   * Whether the hypotheses are drawn from a seeded random number generator.
+   */
+  private boolean seeded;
+
+  /**
+   * The seed of the random number generator, used when seeded is true.
+   */
+  private long seed;
+
+  /**
+   * Constructs the RansacLineFitter object with the inlier threshold given and the default
+   * confidence and largest number of iterations, without a time budget, on the calling thread.
+   *
+   * @param threshold the distance from the line within which a point is an inlier.
+   * @throws IllegalArgumentException if threshold is not positive.
+   */
+  public RansacLineFitter(double threshold) throws IllegalArgumentException {
+    setThreshold(threshold);
+    confidence = DEFAULT_CONFIDENCE;
+    maxIterations = DEFAULT_MAX_ITERATIONS;
+  }
+
+  /**
+   * Public method that fits a line to the points given.
+   *
+   * @param data the points the line is fit to.
+   * @return the line, its inliers and the number of hypotheses scored as a RansacResult object.
+   * @throws IllegalArgumentException if there are fewer than two points.
+   */
+  public RansacResult fit(PointColumns data) throws IllegalArgumentException {
+    int n = data.size();
+    if (n < 2) {
+      throw new IllegalArgumentException("At least two points are needed to fit a line.");
+    }
+    long start = System.nanoTime();
+    double squaredThreshold = threshold * threshold;
+    SplittableRandom random = seeded ? new SplittableRandom(seed) : new SplittableRandom();
+    double[] cumulativeWeights = null;
+    double totalWeight = n;
+    if (data.isWeighted()) {
+      cumulativeWeights = new double[n];
+      totalWeight = 0;
+      for (int i = 0; i < n; i++) {
+        totalWeight += data.getWeight(i);
+        cumulativeWeights[i] = totalWeight;
+      }
+    }
+    Scorer[] scorers = new Scorer[BATCH_SIZE];
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      scorers[i] = new Scorer(data, squaredThreshold);
+    }
+    BatchTask batchTask = new BatchTask(scorers);
+    ForkJoinPool workers = pool == null ? ForkJoinPool.commonPool() : pool;
+    double bestA = 0;
+    double bestB = 0;
+    double bestC = 0;
+    double bestScore = Double.POSITIVE_INFINITY;
+    int needed = maxIterations;
+    int iterations = 0;
+    while (iterations < needed) {
+      int batch = Math.min(BATCH_SIZE, needed - iterations);
+      for (int h = 0; h < batch; h++) {
+        scorers[h].draw(random, cumulativeWeights, bestScore);
+      }
+      if (parallel && batch > 1) {
+        for (int h = 0; h < batch; h++) {
+          scorers[h].reinitialize();
+        }
+        batchTask.count = batch;
+        batchTask.reinitialize();
+        if (ForkJoinTask.inForkJoinPool()) {
+          batchTask.invoke();
+        } else {
+          workers.invoke(batchTask);
+        }
+      } else {
+        for (int h = 0; h < batch; h++) {
+          scorers[h].score();
+        }
+      }
+      for (int h = 0; h < batch; h++) {
+        Scorer scorer = scorers[h];
+        if (scorer.result < bestScore) {
+          bestScore = scorer.result;
+          bestA = scorer.a;
+          bestB = scorer.b;
+          bestC = scorer.c;
+          needed = neededIterations(scorer.inlierWeight, totalWeight);
+        }
+      }
+      iterations += batch;
+      if (timeBudgetNanos > 0 && System.nanoTime() - start >= timeBudgetNanos) {
+        break;
+      }
+    }
+    boolean[] inliers = new boolean[n];
+    if (bestScore == Double.POSITIVE_INFINITY) {
+      LineFitAccumulator all = new LineFitAccumulator();
+      for (int i = 0; i < n; i++) {
+        all.add(data.getX(i), data.getY(i), data.getWeight(i));
+        inliers[i] = true;
+      }
+      return new RansacResult(FittedLine.fromStatistics(all), inliers, n, iterations, 0);
+    }
+    int inlierCount = markInliers(data, bestA, bestB, bestC, squaredThreshold, inliers);
+    FittedLine line = refit(data, inliers);
+    for (int r = 0; r < MAX_REFITS; r++) {
+      boolean[] refitInliers = new boolean[n];
+      int refitCount = markInliers(data, line.getA(), line.getB(), line.getC(), squaredThreshold,
+              refitInliers);
+      if (refitCount <= inlierCount) {
+        break;
+      }
+      inliers = refitInliers;
+      inlierCount = refitCount;
+      line = refit(data, inliers);
+    }
+    return new RansacResult(line, inliers, inlierCount, iterations, bestScore);
+  }
+
+  /**
+   * Private helper method that returns the number of hypotheses needed to draw two inliers at
+   * once with the confidence of the fitter, when the fraction of the weight of the points that
+   * is on inliers is known.
+   *
+   * @param inlierWeight the total weight of the inliers of the best hypothesis.
+   * @param totalWeight  the total weight of the points.
+   * @return the number of hypotheses, at most the largest number of iterations.
+   */
+  private int neededIterations(double inlierWeight, double totalWeight) {
+    double inlierRatio = inlierWeight / totalWeight;
+    double allInliers = inlierRatio * inlierRatio;
+    if (allInliers >= 1) {
+      return 1;
+    }
+    if (allInliers <= 0) {
+      return maxIterations;
+    }
+    double needed = Math.ceil(Math.log(1 - confidence) / Math.log(1 - allInliers));
+    return (int) Math.max(1, Math.min(maxIterations, needed));
+  }
+
+  /**
+   * Private helper method that marks the points within the threshold of a line.
+   *
+   * @param data             the points.
+   * @param a                the coefficient of x of the line, with (a, b) a unit vector.
+   * @param b                the coefficient of y of the line.
+   * @param c                the constant of the line.
+   * @param squaredThreshold the square of the inlier threshold.
+   * @param inliers          the array that is set to whether each point is an inlier.
+   * @return the number of inliers.
+   */
+  private static int markInliers(PointColumns data, double a, double b, double c,
+                                 double squaredThreshold, boolean[] inliers) {
+    int count = 0;
+    for (int i = 0; i < inliers.length; i++) {
+      double distance = a * data.getX(i) + b * data.getY(i) + c;
+      inliers[i] = distance * distance <= squaredThreshold;
+      if (inliers[i]) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Private helper method that fits a line by least squares to the marked points, with each point
+   * counted by its weight.
+   *
+   * @param data    the points.
+   * @param inliers whether each point is used.
+   * @return the best-fit line of the marked points as a FittedLine object.
+   */
+  private static FittedLine refit(PointColumns data, boolean[] inliers) {
+    LineFitAccumulator statistics = new LineFitAccumulator();
+    for (int i = 0; i < inliers.length; i++) {
+      if (inliers[i]) {
+        statistics.add(data.getX(i), data.getY(i), data.getWeight(i));
+      }
+    }
+    return FittedLine.fromStatistics(statistics);
+  }
+
+  /**
+   * Public getter method that returns the distance from the line within which a point is an
+   * inlier.
+   *
+   * @return the threshold as a double data type.
+   */
+  public double getThreshold() {
+    return threshold;
+  }
+
+  /**
+   * Public setter method that sets the distance from the line within which a point is an inlier.
+   *
+   * @param threshold the threshold, in the units of the data.
+   * @throws IllegalArgumentException if threshold is not positive.
+   */
+  public void setThreshold(double threshold) throws IllegalArgumentException {
+    if (!(threshold > 0) || Double.isInfinite(threshold)) {
+      throw new IllegalArgumentException("threshold must be positive.");
+    }
+    this.threshold = threshold;
+  }
+
+  /**
+   * Public getter method that returns the probability that at least one hypothesis is drawn from
+   * two inliers.
+   *
+   * @return the confidence as a double data type.
+   */
+  public double getConfidence() {
+    return confidence;
+  }
+
+  /**
+   * Public setter method that sets the probability that at least one hypothesis is drawn from
+   * two inliers, which sets how many hypotheses are scored.
+   *
+   * @param confidence the confidence, greater than 0 and less than 1.
+   * @throws IllegalArgumentException if confidence is not greater than 0 and less than 1.
+   */
+  public void setConfidence(double confidence) throws IllegalArgumentException {
+    if (!(confidence > 0 && confidence < 1)) {
+      throw new IllegalArgumentException("confidence must be greater than 0 and less than 1.");
+    }
+    this.confidence = confidence;
+  }
+
+  /**
+   * Public getter method that returns the largest number of hypotheses that are scored.
+   *
+   * @return the largest number of iterations as an integer.
+   */
+  public int getMaxIterations() {
+    return maxIterations;
+  }
+
+  /**
+   * Public setter method that sets the largest number of hypotheses that are scored.
+   *
+   * @param maxIterations the largest number of iterations.
+   * @throws IllegalArgumentException if maxIterations is not positive.
+   */
+  public void setMaxIterations(int maxIterations) throws IllegalArgumentException {
+    if (maxIterations <= 0) {
+      throw new IllegalArgumentException("maxIterations must be positive.");
+    }
+    this.maxIterations = maxIterations;
+  }
+
+  /**
+   * Public getter method that returns the time after which no more hypotheses are drawn.
+   *
+   * @return the time budget in nanoseconds, or 0 if there is no limit.
+   */
+  public long getTimeBudgetNanos() {
+    return timeBudgetNanos;
+  }
+
+  /**
+   * Public setter method that sets the time after which no more hypotheses are drawn. The batch
+   * in progress is finished and the best line so far is refit, so a fit can take a little longer
+   * than the budget, and at least one batch is always scored.
+   *
+   * @param timeBudgetNanos the time budget in nanoseconds, or 0 for no limit.
+   * @throws IllegalArgumentException if timeBudgetNanos is negative.
+   */
+  public void setTimeBudgetNanos(long timeBudgetNanos) throws IllegalArgumentException {
+    if (timeBudgetNanos < 0) {
+      throw new IllegalArgumentException("timeBudgetNanos cannot be negative.");
+    }
+    this.timeBudgetNanos = timeBudgetNanos;
+  }
+
+  /**
+   * Public method that returns whether the hypotheses of a batch are scored in parallel.
+   *
+   * @return true if the hypotheses are scored in parallel.
+   */
+  public boolean isParallel() {
+    return parallel;
+  }
+
+  /**
+   * Public setter method that sets whether the hypotheses of a batch are scored in parallel.
+   *
+   * @param parallel true to score the hypotheses in parallel.
+   */
+  public void setParallel(boolean parallel) {
+    this.parallel = parallel;
+  }
+
+  /**
+   * Public getter method that returns the pool that the parallel work is run on.
+   *
+   * @return the pool as a ForkJoinPool, or null if the common pool is used.
+   */
+  public ForkJoinPool getPool() {
+    return pool;
+  }
+
+  /**
+   * Public setter method that sets the pool that the parallel work is run on.
+   *
+   * @param pool the pool, or null to use the common pool.
+   */
+  public void setPool(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Public setter method that sets the seed of the random number generator, which makes the
+   * hypotheses, and so the line, the same on every fit.
+   *
+   * @param seed the seed as a long.
+   */
+  public void setSeed(long seed) {
+    this.seed = seed;
+    seeded = true;
+  }
+
+  /**
+   * Public method that removes the seed, so every fit draws different hypotheses.
+   */
+  public void clearSeed() {
+    seeded = false;
+  }
+
+  /**
+   * This class scores one hypothesis of a batch. The task is reinitialized and run again for
+   * every batch, with the line through a new pair of points.
+   */
+  private static final class Scorer extends RecursiveAction {
+
+    /**
+     * The points that are scored.
+     */
+    private final PointColumns data;
+
+    /**
+     * The square of the inlier threshold.
+     */
+    private final double squaredThreshold;
+
+    /**
+     * The coefficient of x of the hypothesis, with (a, b) a unit vector.
+     */
+    private double a;
+
+    /**
+     * The coefficient of y of the hypothesis.
+     */
+    private double b;
+
+    /**
+     * The constant of the hypothesis.
+     */
+    private double c;
+
+    /**
+     * Whether the two points drawn are the same point, so they do not give a line.
+     */
+    private boolean degenerate;
+
+    /**
+     * The score above which the hypothesis can no longer be the best.
+     */
+    private double bound;
+
+    /**
+     * The MSAC score of the hypothesis, or infinity if it was stopped early or is degenerate.
+     */
+    private double result;
+
+    /**
+     * The total weight of the points within the threshold of the hypothesis.
+     */
+    private double inlierWeight;
+
+    /**
+     * Constructs the Scorer object for the points given.
+     *
+     * @param data             the points that are scored.
+     * @param squaredThreshold the square of the inlier threshold.
+     */
+    Scorer(PointColumns data, double squaredThreshold) {
+      this.data = data;
+      this.squaredThreshold = squaredThreshold;
+    }
+
+    /**
+     * Draws two different points and sets the hypothesis to the line through them. With weights,
+     * each point is drawn with a probability in proportion to its weight; if the second draw keeps
+     * hitting the first point, the second point is drawn uniformly from the others.
+     *
+     * @param random            the random number generator the points are drawn with.
+     * @param cumulativeWeights the running sums of the weights of the points, or null if the
+     *                          points are not weighted.
+     * @param bound             the score of the best hypothesis so far.
+     */
+    void draw(SplittableRandom random, double[] cumulativeWeights, double bound) {
+      int n = data.size();
+      int first;
+      int second = -1;
+      if (cumulativeWeights == null) {
+        first = random.nextInt(n);
+      } else {
+        first = pick(random, cumulativeWeights);
+        for (int attempt = 0; attempt < 8 && (second < 0 || second == first); attempt++) {
+          second = pick(random, cumulativeWeights);
+        }
+      }
+      if (second < 0 || second == first) {
+        second = random.nextInt(n - 1);
+        if (second >= first) {
+          second++;
+        }
+      }
+      double x = data.getX(first);
+      double y = data.getY(first);
+      double dx = data.getX(second) - x;
+      double dy = data.getY(second) - y;
+      double length = Math.sqrt(dx * dx + dy * dy);
+      degenerate = length == 0;
+      if (!degenerate) {
+        a = -dy / length;
+        b = dx / length;
+        c = -a * x - b * y;
+      }
+      this.bound = bound;
+    }
+
+    /**
+     * Returns the index of a point drawn with a probability in proportion to its weight.
+     *
+     * @param random            the random number generator the point is drawn with.
+     * @param cumulativeWeights the running sums of the weights of the points.
+     * @return the index of the point.
+     */
+    private static int pick(SplittableRandom random, double[] cumulativeWeights) {
+      double target = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+      int low = 0;
+      int high = cumulativeWeights.length - 1;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (cumulativeWeights[middle] <= target) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * Scores the hypothesis, stopping as soon as its score passes the bound. The capped squared
+     * distance of each point is multiplied by its weight.
+     */
+    void score() {
+      result = Double.POSITIVE_INFINITY;
+      inlierWeight = 0;
+      if (degenerate) {
+        return;
+      }
+      boolean weighted = data.isWeighted();
+      double total = 0;
+      double inside = 0;
+      int n = data.size();
+      for (int i = 0; i < n; i++) {
+        double distance = a * data.getX(i) + b * data.getY(i) + c;
+        double squared = distance * distance;
+        double weight = weighted ? data.getWeight(i) : 1;
+        if (squared <= squaredThreshold) {
+          total += weight * squared;
+          inside += weight;
+        } else {
+          total += weight * squaredThreshold;
+        }
+        if (total >= bound) {
+          return;
+        }
+      }
+      result = total;
+      inlierWeight = inside;
+    }
+
+    /**
+     * Scores the hypothesis on a pool thread.
+     */
+    @Override
+    protected void compute() {
+      score();
+    }
+  }
+
+  /**
+   * This class scores the first hypotheses of a batch in parallel. The task is reinitialized and
+   * run again for every batch.
+   */
+  private static final class BatchTask extends RecursiveAction {
+
+    /**
+     * The scorers of the batch.
+     */
+    private final Scorer[] scorers;
+
+    /**
+     * The number of scorers that are run.
+     */
+    private int count;
+
+    /**
+     * Constructs the BatchTask object that runs the scorers given.
+     *
+     * @param scorers the scorers of the batch.
+     */
+    BatchTask(Scorer[] scorers) {
+      this.scorers = scorers;
+    }
+
+    /**
+     * Forks all but the first scorer, scores the first on this thread and waits for the others.
+     */
+    @Override
+    protected void compute() {
+      for (int h = 1; h < count; h++) {
+        scorers[h].fork();
+      }
+      scorers[0].score();
+      for (int h = count - 1; h >= 1; h--) {
+        scorers[h].join();
+      }
+    }
+  }
+}
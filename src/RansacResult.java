@@ -0,0 +1,97 @@
+/**
+ * This class represents the result of fitting a line with RANSAC. It contains the line refit to
+ * the inliers, which points are inliers, and how many hypotheses were scored to find them.
+ */
+public class RansacResult {
+
+  /**
+   * The least-squares line of the inliers.
+   */
+  private final FittedLine line;
+
+  /**
+   * Whether each data point is within the threshold of the line, in the order of the points.
+   */
+  private final boolean[] inliers;
+
+  /**
+   * The number of inliers.
+   */
+  private final int inlierCount;
+
+  /**
+   * The number of line hypotheses that were scored.
+   */
+  private final int iterations;
+
+  /**
+   * The MSAC score of the best hypothesis: the sum over the points of the squared distance to the
+   * line, with each distance capped at the threshold.
+   */
+  private final double score;
+
+  /**
+   * Constructs the RansacResult object with the values given as parameters. The array is kept,
+   * not copied.
+   *
+   * @param line        the least-squares line of the inliers.
+   * @param inliers     whether each data point is an inlier.
+   * @param inlierCount the number of inliers.
+   * @param iterations  the number of line hypotheses that were scored.
+   * @param score       the MSAC score of the best hypothesis.
+   */
+  public RansacResult(FittedLine line, boolean[] inliers, int inlierCount, int iterations,
+                      double score) {
+    this.line = line;
+    this.inliers = inliers;
+    this.inlierCount = inlierCount;
+    this.iterations = iterations;
+    this.score = score;
+  }
+
+  /**
+   * Public getter method that returns the least-squares line of the inliers.
+   *
+   * @return the line as a FittedLine object.
+   */
+  public FittedLine getLine() {
+    return line;
+  }
+
+  /**
+   * Public getter method that returns whether each data point is within the threshold of the
+   * line. The array is the one held by this result, not a copy.
+   *
+   * @return the inliers as an array of booleans, in the order of the points.
+   */
+  public boolean[] getInliers() {
+    return inliers;
+  }
+
+  /**
+   * Public getter method that returns the number of inliers.
+   *
+   * @return the number of inliers as an integer.
+   */
+  public int getInlierCount() {
+    return inlierCount;
+  }
+
+  /**
+   * Public getter method that returns the number of line hypotheses that were scored.
+   *
+   * @return the number of hypotheses as an integer.
+   */
+  public int getIterations() {
+    return iterations;
+  }
+
+  /**
+   * Public getter method that returns the MSAC score of the best hypothesis.
+   *
+   * @return the score as a double data type.
+   */
+  public double getScore() {
+    return score;
+  }
+}
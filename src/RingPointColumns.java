@@ -0,0 +1,211 @@
+/**
+ * Import Arrays package.
+ */
+
+import java.util.Arrays;
+
+/**
+ * This class stores the points of a SlidingWindowDataSet in fixed-size ring buffers, one for the x
+ * coordinates and one for the y coordinates. Points are appended at the end and dropped from the
+ * start, so the index of a point is its position from the oldest point still kept, and dropping
+ * the oldest point is constant time and moves nothing. The columns never grow: adding a point
+ * when they are full is an error, so the owner drops the oldest point first. The weights are kept
+ * in a third ring that is only allocated once a point with a weight other than 1 is added.
+ */
+public class RingPointColumns extends PointColumns {
+
+  /**
+   * Array containing the x coordinates of the points, starting at head and wrapping around.
+   */
+  private final double[] xs;
+
+  /**
+   * Array containing the y coordinates of the points, starting at head and wrapping around.
+   */
+  private final double[] ys;
+
+  /**
+   * Array containing the weights of the points in the same slots as the coordinates, or null
+   * while every point has a weight of 1.
+   */
+  private double[] weights;
+
+  /**
+   * The slot of the oldest point.
+   */
+  private int head;
+
+  /**
+   * The number of points that are stored in the rings.
+   */
+  private int size;
+
+  /**
+   * Constructs the RingPointColumns object with empty columns that hold at most the number of
+   * points given.
+   *
+   * @param capacity the largest number of points the columns hold.
+   * @throws IllegalArgumentException if the capacity is not positive.
+   */
+  public RingPointColumns(int capacity) throws IllegalArgumentException {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive.");
+    }
+    xs = new double[capacity];
+    ys = new double[capacity];
+    head = 0;
+    size = 0;
+  }
+
+  /**
+   * Public method that appends a point to the end of the columns.
+   *
+   * @param x the x coordinate of the data point as a double data type.
+   * @param y the y coordinate of the data point as a double data type.
+   * @throws IllegalStateException if the columns are full.
+   */
+  @Override
+  public void add(double x, double y) throws IllegalStateException {
+    if (size == xs.length) {
+      throw new IllegalStateException("The columns are full.");
+    }
+    int slot = slot(size);
+    xs[slot] = x;
+    ys[slot] = y;
+    if (weights != null) {
+      weights[slot] = 1;
+    }
+    size++;
+  }
+
+  /**
+   * Public method that appends a point with the weight given to the end of the columns.
+   *
+   * @param x      the x coordinate of the data point as a double data type.
+   * @param y      the y coordinate of the data point as a double data type.
+   * @param weight the weight of the data point as a double data type.
+   * @throws IllegalArgumentException if the weight is not a positive number.
+   * @throws IllegalStateException    if the columns are full.
+   */
+  @Override
+  public void add(double x, double y, double weight)
+          throws IllegalArgumentException, IllegalStateException {
+    if (!(weight > 0) || Double.isInfinite(weight)) {
+      throw new IllegalArgumentException("weight must be a positive number.");
+    }
+    add(x, y);
+    if (weight != 1) {
+      if (weights == null) {
+        weights = new double[xs.length];
+        Arrays.fill(weights, 1);
+      }
+      weights[slot(size - 1)] = weight;
+    }
+  }
+
+  /**
+   * Public method that drops the oldest point, so the point that was at index 1 is at index 0.
+   *
+   * @throws IllegalStateException if the columns are empty.
+   */
+  public void removeOldest() throws IllegalStateException {
+    if (size == 0) {
+      throw new IllegalStateException("There are no points to remove.");
+    }
+    head = slot(1);
+    size--;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Public getter method that returns the largest number of points the columns hold.
+   *
+   * @return the capacity as an integer.
+   */
+  public int getCapacity() {
+    return xs.length;
+  }
+
+  /**
+   * Public method that returns whether the columns hold as many points as they can.
+   *
+   * @return true if the columns are full.
+   */
+  public boolean isFull() {
+    return size == xs.length;
+  }
+
+  @Override
+  public double getX(int index) {
+    checkIndex(index);
+    return xs[slot(index)];
+  }
+
+  @Override
+  public double getY(int index) {
+    checkIndex(index);
+    return ys[slot(index)];
+  }
+
+  @Override
+  public double getWeight(int index) {
+    return weights == null ? 1 : weights[slot(index)];
+  }
+
+  @Override
+  public boolean isWeighted() {
+    return weights != null;
+  }
+
+  @Override
+  public double[] getWeights() {
+    if (weights == null) {
+      return null;
+    }
+    double[] all = new double[size];
+    for (int i = 0; i < size; i++) {
+      all[i] = weights[slot(i)];
+    }
+    return all;
+  }
+
+  @Override
+  public double getTotalWeight() {
+    if (weights == null) {
+      return size;
+    }
+    double total = 0;
+    for (int i = 0; i < size; i++) {
+      total += weights[slot(i)];
+    }
+    return total;
+  }
+
+  /**
+   * Private helper method that returns the slot of the rings that holds the point at the index
+   * given.
+   *
+   * @param index the index of the point, from the oldest point.
+   * @return the slot as an integer.
+   */
+  private int slot(int index) {
+    int slot = head + index;
+    return slot >= xs.length ? slot - xs.length : slot;
+  }
+
+  /**
+   * Private helper method that checks if the index given is the index of a stored point.
+   *
+   * @param index the index that is being checked.
+   * @throws IndexOutOfBoundsException if the index is not between 0 and size() - 1.
+   */
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+}
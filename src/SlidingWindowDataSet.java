@@ -0,0 +1,553 @@
+/**
+ * Import ArrayList and List packages.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents a DataSet that only keeps the most recent data points of a continuous
+ * feed: at most a fixed number of points, and optionally only the points added within a maximum
+ * age. The points are kept in RingPointColumns, so when the window is full the oldest point is
+ * dropped in constant time as a new one is added. The least-squares statistics are kept up to date
+ * by adding every new point to a LineFitAccumulator and removing every evicted one, so fitLine
+ * never reads the window, and the statistics are found again from the window after every
+ * window's worth of evictions so rounding does not build up.
+ *
+ * <p>The model made by cluster is kept up to date in the same way: a new point is assigned to its
+ * closest center, an evicted point is taken out of its cluster, and after every addition the
+ * centers are moved to the means of the points in the window. A refresh with a batch of b points
+ * therefore costs O(b k) no matter how large the window is, and the model can be reclustered over
+ * the whole window when the centers have drifted. The other analyses run on the points in the
+ * window when they are called. This class is not thread-safe.
+ */
+public class SlidingWindowDataSet implements DataSet {
+
+  /**
+   * The points in the window, from the oldest to the newest.
+   */
+  private final RingPointColumns data;
+
+  /**
+   * The time each point in the window was added, in milliseconds, in the same order as the points
+   * and starting at timeHead.
+   */
+  private final long[] times;
+
+  /**
+   * The position in times of the time of the oldest point.
+   */
+  private int timeHead;
+
+  /**
+   * The largest age of a point in milliseconds, or 0 if points are only evicted when the window is
+   * full.
+   */
+  private final long maxAge;
+
+  /**
+   * Running least-squares statistics of the points in the window.
+   */
+  private final LineFitAccumulator lineFit;
+
+  /**
+   * The number of points evicted since the least-squares statistics were last found from the
+   * window.
+   */
+  private int evictedSinceRefit;
+
+  /**
+   * The total number of points evicted from the window.
+   */
+  private long evicted;
+
+  /**
+   * The metrics the fits and clusterings are recorded in, or null if they are not recorded.
+   */
+  private AnalysisMetrics metrics;
+
+  /**
+   * The model of the last clustering made with cluster, which is kept up to date as points enter
+   * and leave the window, or null if there is none.
+   */
+  private ClusterModel clusterModel;
+
+  /**
+   * The grid index over the points in the window, or null if none was asked for since the last
+   * eviction.
+   */
+  private SpatialIndex spatialIndex;
+
+  /**
+   * Constructs the SlidingWindowDataSet object that keeps the last maxPoints data points.
+   *
+   * @param maxPoints the largest number of data points in the window.
+   * @throws IllegalArgumentException if maxPoints is not positive.
+   */
+  public SlidingWindowDataSet(int maxPoints) throws IllegalArgumentException {
+    this(maxPoints, 0);
+  }
+
+  /**
+   * Constructs the SlidingWindowDataSet object that keeps at most maxPoints data points, none of
+   * them older than maxAge milliseconds.
+   *
+   * @param maxPoints the largest number of data points in the window.
+   * @param maxAge    the largest age of a data point in milliseconds, or 0 for no limit.
+   * @throws IllegalArgumentException if maxPoints is not positive or maxAge is negative.
+   */
+  public SlidingWindowDataSet(int maxPoints, long maxAge) throws IllegalArgumentException {
+    if (maxAge < 0) {
+      throw new IllegalArgumentException("maxAge cannot be negative.");
+    }
+    data = new RingPointColumns(maxPoints);
+    times = new long[maxPoints];
+    this.maxAge = maxAge;
+    lineFit = new LineFitAccumulator();
+  }
+
+  /**
+   * Public method that adds a data point to the window at the current time, evicting the oldest
+   * point if the window is full and any point that is older than the largest age.
+   *
+   * @param x the x coordinate of the data point as a double data type.
+   * @param y the y coordinate of the data point as a double data type.
+   */
+  public void addData(double x, double y) {
+    addAt(now(), x, y, 1);
+  }
+
+  /**
+   * Public method that adds a data point with a weight to the window at the current time, evicting
+   * the oldest point if the window is full and any point that is older than the largest age.
+   *
+   * @param x      the x coordinate of the data point as a double data type.
+   * @param y      the y coordinate of the data point as a double data type.
+   * @param weight the weight of the data point as a double data type.
+   * @throws IllegalArgumentException if the weight is not a positive number.
+   */
+  public void addData(double x, double y, double weight) throws IllegalArgumentException {
+    addAt(now(), x, y, weight);
+  }
+
+  /**
+   * Public method that adds a data point with a weight to the window at the time given, such as
+   * the time the point was measured, evicting the oldest point if the window is full and any point
+   * that is older than the largest age at that time.
+   *
+   * @param time   the time of the data point in milliseconds.
+   * @param x      the x coordinate of the data point as a double data type.
+   * @param y      the y coordinate of the data point as a double data type.
+   * @param weight the weight of the data point as a double data type.
+   * @throws IllegalArgumentException if the weight is not a positive number or the time is before
+   *                                  the time of the newest point in the window.
+   */
+  public void addAt(long time, double x, double y, double weight)
+          throws IllegalArgumentException {
+    if (!(weight > 0) || Double.isInfinite(weight)) {
+      throw new IllegalArgumentException("weight must be a positive number.");
+    }
+    checkTime(time);
+    append(time, x, y, weight);
+    expire(time);
+    if (clusterModel != null) {
+      clusterModel.updateCenters();
+    }
+  }
+
+  /**
+   * Public method that adds every data point given by the two arrays to the window at the current
+   * time. The data point at position i is (xs[i], ys[i]). If there are more points than the window
+   * holds, only the last of them are kept, and the others are never read.
+   *
+   * @param xs the x coordinates of the data points as an array of doubles.
+   * @param ys the y coordinates of the data points as an array of doubles.
+   * @throws IllegalArgumentException if the two arrays are not the same length.
+   */
+  public void addAll(double[] xs, double[] ys) throws IllegalArgumentException {
+    if (xs.length != ys.length) {
+      throw new IllegalArgumentException("x and y arrays must be the same length.");
+    }
+    long time = now();
+    for (int i = Math.max(0, xs.length - data.getCapacity()); i < xs.length; i++) {
+      append(time, xs[i], ys[i], 1);
+    }
+    expire(time);
+    if (clusterModel != null) {
+      clusterModel.updateCenters();
+    }
+  }
+
+  /**
+   * Public method that evicts every data point that is older than the largest age at the time
+   * given, so a window that is not being added to still ages. The centers of the cluster model are
+   * not moved.
+   *
+   * @param now the current time in milliseconds.
+   * @return the number of data points evicted.
+   */
+  public int expire(long now) {
+    if (maxAge == 0) {
+      return 0;
+    }
+    int count = 0;
+    while (data.size() > 0 && times[timeHead] < now - maxAge) {
+      evictOldest();
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Private helper method that appends a data point to the window, evicting the oldest point
+   * first if the window is full.
+   *
+   * @param time   the time of the data point in milliseconds.
+   * @param x      the x coordinate of the data point as a double data type.
+   * @param y      the y coordinate of the data point as a double data type.
+   * @param weight the weight of the data point as a double data type.
+   */
+  private void append(long time, double x, double y, double weight) {
+    if (data.isFull()) {
+      evictOldest();
+    }
+    int slot = timeHead + data.size();
+    times[slot >= times.length ? slot - times.length : slot] = time;
+    data.add(x, y, weight);
+    lineFit.add(x, y, weight);
+    if (clusterModel != null) {
+      clusterModel.add(x, y, weight);
+    }
+    if (spatialIndex != null) {
+      spatialIndex.update();
+    }
+  }
+
+  /**
+   * Private helper method that evicts the oldest data point from the window, the statistics and
+   * the cluster model. The index is dropped, since the indexes of the points have all moved.
+   */
+  private void evictOldest() {
+    double x = data.getX(0);
+    double y = data.getY(0);
+    double weight = data.getWeight(0);
+    if (clusterModel != null) {
+      clusterModel.removeOldest();
+    }
+    data.removeOldest();
+    timeHead = timeHead + 1 == times.length ? 0 : timeHead + 1;
+    spatialIndex = null;
+    evicted++;
+    if (++evictedSinceRefit >= data.getCapacity()) {
+      refit();
+    } else {
+      lineFit.remove(x, y, weight);
+    }
+  }
+
+  /**
+   * Private helper method that finds the least-squares statistics again from the points in the
+   * window.
+   */
+  private void refit() {
+    lineFit.clear();
+    for (int i = 0; i < data.size(); i++) {
+      lineFit.add(data.getX(i), data.getY(i), data.getWeight(i));
+    }
+    evictedSinceRefit = 0;
+  }
+
+  /**
+   * Private helper method that checks that a time is not before the time of the newest point.
+   *
+   * @param time the time in milliseconds.
+   * @throws IllegalArgumentException if the time is before the time of the newest point.
+   */
+  private void checkTime(long time) throws IllegalArgumentException {
+    if (data.size() > 0 && time < newestTime()) {
+      throw new IllegalArgumentException("time cannot be before the newest point.");
+    }
+  }
+
+  /**
+   * Private helper method that returns the current time, or the time of the newest point if the
+   * clock has gone back since it was added.
+   *
+   * @return the time in milliseconds.
+   */
+  private long now() {
+    return Math.max(System.currentTimeMillis(), newestTime());
+  }
+
+  /**
+   * Private helper method that returns the time of the newest point in the window.
+   *
+   * @return the time in milliseconds, or Long.MIN_VALUE if the window is empty.
+   */
+  private long newestTime() {
+    if (data.size() == 0) {
+      return Long.MIN_VALUE;
+    }
+    int slot = timeHead + data.size() - 1;
+    return times[slot >= times.length ? slot - times.length : slot];
+  }
+
+  /**
+   * Public getter method that returns the data list. The list is a read-only view of the window
+   * from the oldest to the newest point, which changes as points are added and evicted.
+   *
+   * @return the data list as a List data type.
+   */
+  public List<Point2D> getData() {
+    return data.asList();
+  }
+
+  /**
+   * Public method that returns a best-fit line of the data points in the window in the string
+   * format: ax + by + c = 0.
+   *
+   * @return the best-fit line as a string.
+   */
+  public String fitLine() {
+    return fitLineModel().toString();
+  }
+
+  /**
+   * Public method that returns the best-fit line of the data points in the window as a FittedLine
+   * object. The statistics are kept up to date as points enter and leave the window, so the
+   * points are not read.
+   *
+   * @return the best-fit line as a FittedLine object.
+   */
+  public FittedLine fitLineModel() {
+    AnalysisMetrics.Timer timer = metrics == null ? null : metrics.start(AnalysisMetrics.FIT);
+    FittedLine line = FittedLine.fromStatistics(lineFit);
+    if (timer != null) {
+      timer.stop();
+    }
+    return line;
+  }
+
+  /**
+   * Public method that returns a best-fit line of the data points in the window that is not
+   * pulled away by outliers, found with a RansacLineFitter with its default settings that scores
+   * the hypotheses in parallel.
+   *
+   * @param threshold the distance from the line within which a point is an inlier.
+   * @return the best-fit line of the inliers as a FittedLine object.
+   * @throws IllegalArgumentException if threshold is not positive or there are fewer than two
+   *                                  data points.
+   */
+  public FittedLine fitLineRobust(double threshold) throws IllegalArgumentException {
+    RansacLineFitter fitter = new RansacLineFitter(threshold);
+    fitter.setParallel(true);
+    AnalysisMetrics.Timer timer = metrics == null ? null : metrics.start(AnalysisMetrics.FIT);
+    RansacResult result = fitter.fit(data);
+    if (timer != null) {
+      timer.stop();
+    }
+    return result.getLine();
+  }
+
+  /**
+   * Public method that performs k-means clustering on the data points in the window with the
+   * default settings and returns a list of integers of the assigned clusters of each point.
+   *
+   * @param k the number of clusters as a integer that will result when implementing kmeans.
+   * @return a list of integers of the clusters as a list data structure.
+   * @throws IllegalArgumentException if k given is not a positive integer or if k is greater than
+   *                                  the number of data points.
+   */
+  public List kmeans(int k) throws IllegalArgumentException {
+    return kmeans(k, new KMeansOptions());
+  }
+
+  /**
+   * Public method that performs k-means clustering on the data points in the window with the
+   * settings given and returns a list of integers of the assigned clusters of each point.
+   *
+   * @param k       the number of clusters as a integer that will result when implementing kmeans.
+   * @param options the settings of the k-means algorithm.
+   * @return a list of integers of the clusters as a list data structure.
+   * @throws IllegalArgumentException if k given is not a positive integer or if k is greater than
+   *                                  the number of data points.
+   */
+  public List<Integer> kmeans(int k, KMeansOptions options) throws IllegalArgumentException {
+    AnalysisMetrics.Timer timer = metrics == null ? null : metrics.start(AnalysisMetrics.CLUSTER);
+    KMeans kmeans = new KMeans(data, k, options);
+    kmeans.setMetrics(metrics);
+    KMeansResult result = kmeans.run();
+    if (timer != null) {
+      timer.stop();
+    }
+    return toList(result.getAssignments());
+  }
+
+  /**
+   * Public method that compresses the data points in the window into at most maxSize weighted
+   * representatives and returns a DataAnalysis over them with a copy of the least-squares
+   * statistics of the window.
+   *
+   * @param maxSize the largest number of representatives.
+   * @return the compressed data as a DataAnalysis object.
+   * @throws IllegalArgumentException if maxSize is not positive.
+   */
+  public DataAnalysis compress(int maxSize) throws IllegalArgumentException {
+    Coreset coreset = new Coreset(data, maxSize);
+    LineFitAccumulator statistics = new LineFitAccumulator();
+    statistics.merge(lineFit);
+    DataAnalysis summary = new DataAnalysis(coreset.getPoints(), statistics);
+    summary.setMetrics(metrics);
+    return summary;
+  }
+
+  /**
+   * Public method that clusters the data points in the window with k-means for every k from minK
+   * to maxK and scores each k.
+   *
+   * @param minK    the smallest number of clusters.
+   * @param maxK    the largest number of clusters.
+   * @param options the settings of the k-means algorithm.
+   * @return the clustering and scores of every k as a KMeansSweepResult object.
+   * @throws IllegalArgumentException if minK is not positive, maxK is less than minK or maxK is
+   *                                  greater than the number of data points.
+   */
+  public KMeansSweepResult kmeansSweep(int minK, int maxK, KMeansOptions options)
+          throws IllegalArgumentException {
+    KMeansSweep sweep = new KMeansSweep(data, minK, maxK, options);
+    sweep.setMetrics(metrics);
+    AnalysisMetrics.Timer timer = metrics == null ? null : metrics.start(AnalysisMetrics.CLUSTER);
+    KMeansSweepResult result = sweep.run();
+    if (timer != null) {
+      timer.stop();
+    }
+    return result;
+  }
+
+  /**
+   * Public method that clusters the data points in the window with DBSCAN and returns a list of
+   * integers of the assigned clusters of each point, with Dbscan.NOISE for points that are in no
+   * cluster.
+   *
+   * @param eps       the largest distance between two points that are neighbors.
+   * @param minPoints the number of points, the point itself included, within eps of a core point.
+   * @return a list of integers of the clusters as a list data structure.
+   * @throws IllegalArgumentException if eps or minPoints is not positive.
+   */
+  public List<Integer> dbscan(double eps, int minPoints) throws IllegalArgumentException {
+    Dbscan dbscan = new Dbscan(data, eps, minPoints);
+    dbscan.setParallel(true);
+    AnalysisMetrics.Timer timer = metrics == null ? null : metrics.start(AnalysisMetrics.CLUSTER);
+    int[] labels = dbscan.run();
+    if (timer != null) {
+      timer.stop();
+    }
+    return toList(labels);
+  }
+
+  /**
+   * Public method that clusters the data points in the window with k-means and keeps a model of
+   * the result that is kept up to date as points enter and leave the window. The model replaces
+   * the model of an earlier call.
+   *
+   * @param k       the number of clusters as a integer that will result when implementing kmeans.
+   * @param options the settings of the k-means algorithm.
+   * @return the model of the clusters as a ClusterModel object.
+   * @throws IllegalArgumentException if k given is not a positive integer or if k is greater than
+   *                                  the number of data points.
+   */
+  public ClusterModel cluster(int k, KMeansOptions options) throws IllegalArgumentException {
+    AnalysisMetrics.Timer timer = metrics == null ? null : metrics.start(AnalysisMetrics.CLUSTER);
+    clusterModel = ClusterModel.cluster(data, k, options, metrics);
+    if (timer != null) {
+      timer.stop();
+    }
+    return clusterModel;
+  }
+
+  /**
+   * Public getter method that returns the model of the last clustering made with cluster.
+   *
+   * @return the model as a ClusterModel object, or null if cluster was not called.
+   */
+  public ClusterModel getClusterModel() {
+    return clusterModel;
+  }
+
+  /**
+   * Public getter method that returns a grid index over the data points in the window. The index
+   * is kept up to date as points are added, but it is dropped when a point is evicted, since the
+   * index of every point moves; the next call then builds a new one.
+   *
+   * @return the index as a SpatialIndex object.
+   */
+  public SpatialIndex getSpatialIndex() {
+    if (spatialIndex == null) {
+      spatialIndex = new SpatialIndex(data);
+    }
+    return spatialIndex;
+  }
+
+  /**
+   * Public getter method that returns the largest number of data points in the window.
+   *
+   * @return the capacity of the window as an integer.
+   */
+  public int getMaxPoints() {
+    return data.getCapacity();
+  }
+
+  /**
+   * Public getter method that returns the largest age of a data point in the window.
+   *
+   * @return the largest age in milliseconds, or 0 if there is no limit.
+   */
+  public long getMaxAge() {
+    return maxAge;
+  }
+
+  /**
+   * Public getter method that returns the total number of data points evicted from the window.
+   *
+   * @return the number of evicted points as a long data type.
+   */
+  public long getEvicted() {
+    return evicted;
+  }
+
+  /**
+   * Public getter method that returns the metrics the fits and clusterings are recorded in.
+   *
+   * @return the metrics as an AnalysisMetrics object, or null if they are not recorded.
+   */
+  public AnalysisMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Public setter method that sets the metrics the fits and clusterings are recorded in. Adding
+   * and evicting points is never timed.
+   *
+   * @param metrics the metrics, or null to stop recording.
+   */
+  public void setMetrics(AnalysisMetrics metrics) {
+    this.metrics = metrics;
+    if (clusterModel != null) {
+      clusterModel.setMetrics(metrics);
+    }
+  }
+
+  /**
+   * Private helper method that turns an array of clusters into a list.
+   *
+   * @param clusters the cluster of each data point.
+   * @return the clusters as a list of integers.
+   */
+  private static List<Integer> toList(int[] clusters) {
+    List<Integer> list = new ArrayList<>(clusters.length);
+    for (int cluster : clusters) {
+      list.add(cluster);
+    }
+    return list;
+  }
+}
@@ -0,0 +1,603 @@
+/**
+ * Import Arrays package.
+ */
+
+import java.util.Arrays;
+
+/**
+ * This class is a uniform grid over the points of a PointColumns object that answers which points
+ * lie in a box, which points lie within a distance of a point, and which points are nearest to a
+ * point, without reading every point. The bounding box of the points is split into square cells,
+ * by default sized so a cell holds about two points, and the points are sorted by cell with a
+ * counting sort, keeping a copy of their coordinates in cell order so a query reads each cell it
+ * visits as one run of memory.
+ *
+ * <p>Points added to the columns after the grid was built are inserted by update in constant
+ * time: each is linked into a chain of the cell it falls in, or of the closest border cell if it
+ * lies outside the grid. Once as many points have been inserted as the grid was built with, the
+ * grid is built again over all the points, so inserting stays constant time on average and the
+ * chains never hold more than half of the points. Queries do not change the index, so any number
+ * of them can run at the same time as long as update is not running.
+ */
+public class SpatialIndex {
+
+  /**
+   * The number of points a cell holds on average when the cell size is chosen automatically.
+   */
+  private static final int TARGET_OCCUPANCY = 2;
+
+  /**
+   * The smallest number of inserted points that makes the grid be built again.
+   */
+  private static final int MIN_REBUILD = 64;
+
+  /**
+   * The points that are indexed.
+   */
+  private final PointColumns data;
+
+  /**
+   * The cell size that was asked for, or 0 to choose it from the number of points.
+   */
+  private final double requestedCellSize;
+
+  /**
+   * The smallest x coordinate covered by the grid.
+   */
+  private double minX;
+
+  /**
+   * The smallest y coordinate covered by the grid.
+   */
+  private double minY;
+
+  /**
+   * The width and height of a cell.
+   */
+  private double cellSize;
+
+  /**
+   * One over the cell size.
+   */
+  private double inverseCellSize;
+
+  /**
+   * The number of columns of cells.
+   */
+  private int columns;
+
+  /**
+   * The number of rows of cells.
+   */
+  private int rows;
+
+  /**
+   * The position in the cell-ordered arrays where each cell starts, with one more entry for the
+   * end of the last cell.
+   */
+  private int[] cellStart;
+
+  /**
+   * The x coordinates of the points the grid was built with, in cell order.
+   */
+  private double[] cellX;
+
+  /**
+   * The y coordinates of the points the grid was built with, in cell order.
+   */
+  private double[] cellY;
+
+  /**
+   * The index in the columns of the points the grid was built with, in cell order.
+   */
+  private int[] cellIndex;
+
+  /**
+   * The number of points the grid was built with, which are the first points of the columns.
+   */
+  private int built;
+
+  /**
+   * The first point inserted into each cell since the grid was built, as the number of points
+   * inserted before it, or -1 if none was.
+   */
+  private int[] chainHead;
+
+  /**
+   * The point inserted into the same cell before each inserted point, or -1 if there is none.
+   */
+  private int[] chainNext;
+
+  /**
+   * The number of points inserted since the grid was built.
+   */
+  private int inserted;
+
+  /**
+   * Constructs the SpatialIndex object over the points given, with the cell size chosen so a cell
+   * holds about two points.
+   *
+   * @param data the points that are indexed.
+   */
+  public SpatialIndex(PointColumns data) {
+    this(data, 0);
+  }
+
+  /**
+   * Constructs the SpatialIndex object over the points given with cells of the size given. If
+   * that size would make many more cells than points, larger cells are used instead.
+   *
+   * @param data     the points that are indexed.
+   * @param cellSize the width and height of a cell, or 0 to choose it from the number of points.
+   * @throws IllegalArgumentException if cellSize is negative or not a finite number.
+   */
+  public SpatialIndex(PointColumns data, double cellSize) throws IllegalArgumentException {
+    if (!(cellSize >= 0) || Double.isInfinite(cellSize)) {
+      throw new IllegalArgumentException("cellSize must be a finite number that is not negative.");
+    }
+    this.data = data;
+    requestedCellSize = cellSize;
+    build();
+  }
+
+  /**
+   * Public method that indexes the points that were added to the columns since the index was
+   * built or last updated.
+   */
+  public void update() {
+    int n = data.size();
+    int next = built + inserted;
+    if (n - built > Math.max(MIN_REBUILD, built)) {
+      build();
+      return;
+    }
+    if (chainNext.length < n - built) {
+      chainNext = Arrays.copyOf(chainNext, Math.max(16, Math.max(n - built, 2 * chainNext.length)));
+    }
+    for (int i = next; i < n; i++) {
+      int cell = row(data.getY(i)) * columns + column(data.getX(i));
+      chainNext[inserted] = chainHead[cell];
+      chainHead[cell] = inserted;
+      inserted++;
+    }
+  }
+
+  /**
+   * Public method that returns the points that lie in the box given, edges included.
+   *
+   * @param xmin the smallest x coordinate of the box.
+   * @param xmax the largest x coordinate of the box.
+   * @param ymin the smallest y coordinate of the box.
+   * @param ymax the largest y coordinate of the box.
+   * @return the indexes of the points in the columns, in increasing order.
+   */
+  public int[] rangeQuery(double xmin, double xmax, double ymin, double ymax) {
+    if (!(xmin <= xmax && ymin <= ymax)) {
+      return new int[0];
+    }
+    int[] found = new int[16];
+    int count = 0;
+    int column0 = column(xmin);
+    int column1 = column(xmax);
+    int row1 = row(ymax);
+    for (int row = row(ymin); row <= row1; row++) {
+      for (int column = column0; column <= column1; column++) {
+        int cell = row * columns + column;
+        for (int p = cellStart[cell]; p < cellStart[cell + 1]; p++) {
+          double x = cellX[p];
+          double y = cellY[p];
+          if (x >= xmin && x <= xmax && y >= ymin && y <= ymax) {
+            if (count == found.length) {
+              found = Arrays.copyOf(found, 2 * count);
+            }
+            found[count++] = cellIndex[p];
+          }
+        }
+        for (int j = chainHead[cell]; j >= 0; j = chainNext[j]) {
+          double x = data.getX(built + j);
+          double y = data.getY(built + j);
+          if (x >= xmin && x <= xmax && y >= ymin && y <= ymax) {
+            if (count == found.length) {
+              found = Arrays.copyOf(found, 2 * count);
+            }
+            found[count++] = built + j;
+          }
+        }
+      }
+    }
+    int[] result = Arrays.copyOf(found, count);
+    Arrays.sort(result);
+    return result;
+  }
+
+  /**
+   * Public method that returns the points within the distance given of a point, the distance
+   * itself included.
+   *
+   * @param x      the x coordinate of the point.
+   * @param y      the y coordinate of the point.
+   * @param radius the largest distance.
+   * @return the indexes of the points in the columns, in increasing order.
+   */
+  public int[] radiusQuery(double x, double y, double radius) {
+    int[] box = rangeQuery(x - radius, x + radius, y - radius, y + radius);
+    double squaredRadius = radius * radius;
+    int count = 0;
+    for (int index : box) {
+      double dx = data.getX(index) - x;
+      double dy = data.getY(index) - y;
+      if (dx * dx + dy * dy <= squaredRadius) {
+        box[count++] = index;
+      }
+    }
+    return Arrays.copyOf(box, count);
+  }
+
+  /**
+   * Public method that counts the points within the distance given of a point, stopping once the
+   * limit given is reached. This reads only the cells around the point and creates no arrays.
+   *
+   * @param x      the x coordinate of the point.
+   * @param y      the y coordinate of the point.
+   * @param radius the largest distance.
+   * @param limit  the count after which counting stops.
+   * @return the number of points within the distance, at most the limit.
+   */
+  public int countWithin(double x, double y, double radius, int limit) {
+    double squaredRadius = radius * radius;
+    int count = 0;
+    int column0 = column(x - radius);
+    int column1 = column(x + radius);
+    int row1 = row(y + radius);
+    for (int row = row(y - radius); row <= row1; row++) {
+      for (int column = column0; column <= column1; column++) {
+        int cell = row * columns + column;
+        for (int p = cellStart[cell]; p < cellStart[cell + 1]; p++) {
+          double dx = cellX[p] - x;
+          double dy = cellY[p] - y;
+          if (dx * dx + dy * dy <= squaredRadius && ++count >= limit) {
+            return count;
+          }
+        }
+        for (int j = chainHead[cell]; j >= 0; j = chainNext[j]) {
+          double dx = data.getX(built + j) - x;
+          double dy = data.getY(built + j) - y;
+          if (dx * dx + dy * dy <= squaredRadius && ++count >= limit) {
+            return count;
+          }
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Public method that returns the m points nearest to the point given. The cells are searched
+   * in rings around the cell of the point, and the search stops once no cell in the next ring can
+   * hold a point closer than the m-th closest found so far.
+   *
+   * @param x the x coordinate of the point.
+   * @param y the y coordinate of the point.
+   * @param m the number of points, which is reduced to the number of indexed points if it is
+   *          larger.
+   * @return the indexes of the points in the columns from nearest to farthest, with points at
+   *         the same distance in increasing order of index.
+   * @throws IllegalArgumentException if m is not positive.
+   */
+  public int[] nearest(double x, double y, int m) throws IllegalArgumentException {
+    if (m <= 0) {
+      throw new IllegalArgumentException("m must be positive.");
+    }
+    m = Math.min(m, built + inserted);
+    Neighbors heap = new Neighbors(m);
+    if (m == 0) {
+      return new int[0];
+    }
+    int centerColumn = column(x);
+    int centerRow = row(y);
+    int maxRing = Math.max(columns, rows);
+    for (int ring = 0; ring <= maxRing; ring++) {
+      if (heap.isFull() && ring > 0) {
+        double gap = (ring - 1) * cellSize;
+        if (gap * gap > heap.worstDistance()) {
+          break;
+        }
+      }
+      int column0 = centerColumn - ring;
+      int column1 = centerColumn + ring;
+      int row0 = centerRow - ring;
+      int row1 = centerRow + ring;
+      for (int column = Math.max(0, column0); column <= Math.min(columns - 1, column1);
+           column++) {
+        searchCell(x, y, row0, column, heap);
+        if (ring > 0) {
+          searchCell(x, y, row1, column, heap);
+        }
+      }
+      for (int row = Math.max(0, row0 + 1); row <= Math.min(rows - 1, row1 - 1); row++) {
+        searchCell(x, y, row, column0, heap);
+        searchCell(x, y, row, column1, heap);
+      }
+    }
+    return heap.sorted();
+  }
+
+  /**
+   * Public getter method that returns the width and height of a cell.
+   *
+   * @return the cell size as a double data type.
+   */
+  public double getCellSize() {
+    return cellSize;
+  }
+
+  /**
+   * Public getter method that returns the number of points that are indexed.
+   *
+   * @return the number of points as an integer.
+   */
+  public int size() {
+    return built + inserted;
+  }
+
+  /**
+   * Private helper method that offers every point of a cell to the nearest points found so far.
+   * Cells outside the grid are skipped.
+   *
+   * @param x      the x coordinate of the point searched from.
+   * @param y      the y coordinate of the point searched from.
+   * @param row    the row of the cell.
+   * @param column the column of the cell.
+   * @param heap   the nearest points found so far.
+   */
+  private void searchCell(double x, double y, int row, int column, Neighbors heap) {
+    if (row < 0 || row >= rows || column < 0 || column >= columns) {
+      return;
+    }
+    int cell = row * columns + column;
+    for (int p = cellStart[cell]; p < cellStart[cell + 1]; p++) {
+      double dx = cellX[p] - x;
+      double dy = cellY[p] - y;
+      heap.offer(dx * dx + dy * dy, cellIndex[p]);
+    }
+    for (int j = chainHead[cell]; j >= 0; j = chainNext[j]) {
+      double dx = data.getX(built + j) - x;
+      double dy = data.getY(built + j) - y;
+      heap.offer(dx * dx + dy * dy, built + j);
+    }
+  }
+
+  /**
+   * Private helper method that builds the grid over every point of the columns: it finds the
+   * bounding box and the cell size, counts the points of each cell and places the points in cell
+   * order.
+   */
+  private void build() {
+    int n = data.size();
+    double maxX = 0;
+    double maxY = 0;
+    minX = 0;
+    minY = 0;
+    if (n > 0) {
+      minX = Double.POSITIVE_INFINITY;
+      minY = Double.POSITIVE_INFINITY;
+      maxX = Double.NEGATIVE_INFINITY;
+      maxY = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < n; i++) {
+        double x = data.getX(i);
+        double y = data.getY(i);
+        minX = Math.min(minX, x);
+        maxX = Math.max(maxX, x);
+        minY = Math.min(minY, y);
+        maxY = Math.max(maxY, y);
+      }
+    }
+    double width = maxX - minX;
+    double height = maxY - minY;
+    long maxCells = 4L * n + 16;
+    double size = requestedCellSize;
+    if (size == 0) {
+      double cells = Math.max(1, (double) n / TARGET_OCCUPANCY);
+      size = Math.sqrt(width * height / cells);
+      if (!(size > 0)) {
+        size = Math.max(width, height) / cells;
+      }
+      if (!(size > 0)) {
+        size = 1;
+      }
+    }
+    while ((Math.floor(width / size) + 1) * (Math.floor(height / size) + 1) > maxCells) {
+      size *= 2;
+    }
+    cellSize = size;
+    inverseCellSize = 1 / size;
+    columns = (int) Math.floor(width / size) + 1;
+    rows = (int) Math.floor(height / size) + 1;
+    int cells = columns * rows;
+    cellStart = new int[cells + 1];
+    int[] cellOf = new int[n];
+    for (int i = 0; i < n; i++) {
+      int cell = row(data.getY(i)) * columns + column(data.getX(i));
+      cellOf[i] = cell;
+      cellStart[cell + 1]++;
+    }
+    for (int c = 0; c < cells; c++) {
+      cellStart[c + 1] += cellStart[c];
+    }
+    int[] fill = Arrays.copyOf(cellStart, cells);
+    cellX = new double[n];
+    cellY = new double[n];
+    cellIndex = new int[n];
+    for (int i = 0; i < n; i++) {
+      int p = fill[cellOf[i]]++;
+      cellX[p] = data.getX(i);
+      cellY[p] = data.getY(i);
+      cellIndex[p] = i;
+    }
+    built = n;
+    chainHead = new int[cells];
+    Arrays.fill(chainHead, -1);
+    chainNext = new int[0];
+    inserted = 0;
+  }
+
+  /**
+   * Private helper method that returns the column of cells an x coordinate falls in, or the
+   * closest column if it is outside the grid.
+   *
+   * @param x the x coordinate.
+   * @return the column as an integer.
+   */
+  private int column(double x) {
+    double column = Math.floor((x - minX) * inverseCellSize);
+    return column <= 0 ? 0 : column >= columns - 1 ? columns - 1 : (int) column;
+  }
+
+  /**
+   * Private helper method that returns the row of cells a y coordinate falls in, or the closest
+   * row if it is outside the grid.
+   *
+   * @param y the y coordinate.
+   * @return the row as an integer.
+   */
+  private int row(double y) {
+    double row = Math.floor((y - minY) * inverseCellSize);
+    return row <= 0 ? 0 : row >= rows - 1 ? rows - 1 : (int) row;
+  }
+
+  /**
+   * This class keeps the m nearest points found so far in a binary max-heap ordered by squared
+   * distance and then by index, so the farthest of them can be replaced in O(log m) time.
+   */
+  private static final class Neighbors {
+
+    /**
+     * The squared distances of the points in the heap.
+     */
+    private final double[] distances;
+
+    /**
+     * The indexes of the points in the heap.
+     */
+    private final int[] indexes;
+
+    /**
+     * The number of points in the heap.
+     */
+    private int count;
+
+    /**
+     * Constructs the Neighbors object that keeps at most m points.
+     *
+     * @param m the number of points kept.
+     */
+    Neighbors(int m) {
+      distances = new double[m];
+      indexes = new int[m];
+    }
+
+    /**
+     * Returns whether the heap holds m points.
+     *
+     * @return true if the heap is full.
+     */
+    boolean isFull() {
+      return count == distances.length;
+    }
+
+    /**
+     * Returns the squared distance of the farthest point in the heap.
+     *
+     * @return the largest squared distance.
+     */
+    double worstDistance() {
+      return distances[0];
+    }
+
+    /**
+     * Adds a point if the heap is not full or the point is nearer than the farthest point in it,
+     * which it then replaces.
+     *
+     * @param distance the squared distance of the point.
+     * @param index    the index of the point.
+     */
+    void offer(double distance, int index) {
+      if (count < distances.length) {
+        int i = count++;
+        while (i > 0) {
+          int parent = (i - 1) >> 1;
+          if (!after(distance, index, distances[parent], indexes[parent])) {
+            break;
+          }
+          distances[i] = distances[parent];
+          indexes[i] = indexes[parent];
+          i = parent;
+        }
+        distances[i] = distance;
+        indexes[i] = index;
+      } else if (after(distances[0], indexes[0], distance, index)) {
+        siftDown(distance, index, count);
+      }
+    }
+
+    /**
+     * Places a point at the top of the first size entries of the heap and moves it down to where
+     * it belongs.
+     *
+     * @param distance the squared distance of the point.
+     * @param index    the index of the point.
+     * @param size     the number of entries that form the heap.
+     */
+    private void siftDown(double distance, int index, int size) {
+      int i = 0;
+      while (true) {
+        int child = 2 * i + 1;
+        if (child >= size) {
+          break;
+        }
+        if (child + 1 < size && after(distances[child + 1], indexes[child + 1],
+                distances[child], indexes[child])) {
+          child++;
+        }
+        if (!after(distances[child], indexes[child], distance, index)) {
+          break;
+        }
+        distances[i] = distances[child];
+        indexes[i] = indexes[child];
+        i = child;
+      }
+      distances[i] = distance;
+      indexes[i] = index;
+    }
+
+    /**
+     * Returns the indexes of the points from nearest to farthest, emptying the heap.
+     *
+     * @return the indexes of the points.
+     */
+    int[] sorted() {
+      int[] result = new int[count];
+      for (int size = count; size > 0; size--) {
+        result[size - 1] = indexes[0];
+        siftDown(distances[size - 1], indexes[size - 1], size - 1);
+      }
+      count = 0;
+      return result;
+    }
+
+    /**
+     * Returns whether the first point comes after the second, farther first and then by larger
+     * index.
+     *
+     * @param distance      the squared distance of the first point.
+     * @param index         the index of the first point.
+     * @param otherDistance the squared distance of the second point.
+     * @param otherIndex    the index of the second point.
+     * @return true if the first point comes after the second.
+     */
+    private static boolean after(double distance, int index, double otherDistance,
+                                 int otherIndex) {
+      return distance > otherDistance || (distance == otherDistance && index > otherIndex);
+    }
+  }
+}
@@ -0,0 +1,357 @@
+/**
+ * Import BufferedReader, IOException, Reader, ReadableByteChannel, Arrays, and SplittableRandom
+ * packages.
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * This class is a k-means model that is trained one point or one mini-batch at a time, so it can
+ * follow a stream of points that never has to fit in memory. Each center keeps a count of the
+ * points that have moved it, and a new point moves its closest center towards it by a learning
+ * rate of 1 / count, which makes every center the running mean of the points assigned to it.
+ * A minimum learning rate can be set so the centers keep following a stream whose clusters drift.
+ * New points can be assigned to the current centers at any time without changing the model.
+ * This class is not thread-safe.
+ */
+public class StreamingKMeans {
+
+  /**
+   * The number of clusters.
+   */
+  private final int k;
+
+  /**
+   * The x coordinates of the centers.
+   */
+  private final double[] centersX;
+
+  /**
+   * The y coordinates of the centers.
+   */
+  private final double[] centersY;
+
+  /**
+   * The number of points that have moved each center.
+   */
+  private final long[] counts;
+
+  /**
+   * The number of centers that have been given a starting point.
+   */
+  private int seeded;
+
+  /**
+   * The smallest learning rate a center is moved with.
+   */
+  private double minLearningRate;
+
+  /**
+   * The cluster of each point of the mini-batch being processed, reused between batches.
+   */
+  private int[] batchClusters;
+
+  /**
+   * Constructs the StreamingKMeans object with k clusters and no centers yet. The first points
+   * that are added become the starting centers: the first k points given one at a time, or
+   * k points chosen with k-means++ from the first mini-batch.
+   *
+   * @param k the number of clusters as an integer.
+   * @throws IllegalArgumentException if k given is not a positive integer.
+   */
+  public StreamingKMeans(int k) throws IllegalArgumentException {
+    if (k <= 0) {
+      throw new IllegalArgumentException("k must be positive.");
+    }
+    this.k = k;
+    centersX = new double[k];
+    centersY = new double[k];
+    counts = new long[k];
+    seeded = 0;
+    minLearningRate = 0;
+    batchClusters = new int[0];
+  }
+
+  /**
+   * Constructs the StreamingKMeans object that starts from the centers given. Each starting
+   * center counts as one point that moved it. The arrays are copied.
+   *
+   * @param centersX the x coordinates of the starting centers.
+   * @param centersY the y coordinates of the starting centers.
+   * @throws IllegalArgumentException if there are no centers or the arrays are not the same
+   *                                  length.
+   */
+  public StreamingKMeans(double[] centersX, double[] centersY) throws IllegalArgumentException {
+    this(centersX.length);
+    if (centersY.length != centersX.length) {
+      throw new IllegalArgumentException("x and y arrays must be the same length.");
+    }
+    System.arraycopy(centersX, 0, this.centersX, 0, k);
+    System.arraycopy(centersY, 0, this.centersY, 0, k);
+    Arrays.fill(counts, 1);
+    seeded = k;
+  }
+
+  /**
+   * Public method that adds one point to the model. Until every center has a starting point the
+   * point becomes the next center, after that the closest center is moved towards the point.
+   *
+   * @param x the x coordinate of the data point as a double data type.
+   * @param y the y coordinate of the data point as a double data type.
+   */
+  public void update(double x, double y) {
+    if (seeded < k) {
+      centersX[seeded] = x;
+      centersY[seeded] = y;
+      counts[seeded] = 1;
+      seeded++;
+      return;
+    }
+    move(assign(x, y), x, y);
+  }
+
+  /**
+   * Public method that adds a mini-batch of points to the model. Every point of the batch is
+   * first assigned to its closest center, and the centers are then moved towards the points
+   * assigned to them, so the order of the points within the batch does not decide their
+   * clusters. If the model has no centers yet and the batch has at least k points, the starting
+   * centers are chosen from the batch with k-means++.
+   *
+   * @param xs     the x coordinates of the points of the batch.
+   * @param ys     the y coordinates of the points of the batch.
+   * @param count  the number of points of the batch, read from the start of the arrays.
+   * @param random the random number generator used to choose the starting centers.
+   * @throws IllegalArgumentException if the arrays hold fewer than count points.
+   */
+  public void update(double[] xs, double[] ys, int count, SplittableRandom random)
+          throws IllegalArgumentException {
+    if (count < 0 || count > xs.length || count > ys.length) {
+      throw new IllegalArgumentException("count must be between 0 and the array lengths.");
+    }
+    int start = 0;
+    if (seeded == 0 && count >= k) {
+      DoublePointColumns batch = new DoublePointColumns(count);
+      for (int i = 0; i < count; i++) {
+        batch.add(xs[i], ys[i]);
+      }
+      double[][] centers = KMeansPlusPlusInitializer.seed(batch, null, k, random);
+      System.arraycopy(centers[0], 0, centersX, 0, k);
+      System.arraycopy(centers[1], 0, centersY, 0, k);
+      Arrays.fill(counts, 1);
+      seeded = k;
+    }
+    while (seeded < k && start < count) {
+      update(xs[start], ys[start]);
+      start++;
+    }
+    if (batchClusters.length < count) {
+      batchClusters = new int[count];
+    }
+    for (int i = start; i < count; i++) {
+      batchClusters[i] = assign(xs[i], ys[i]);
+    }
+    for (int i = start; i < count; i++) {
+      move(batchClusters[i], xs[i], ys[i]);
+    }
+  }
+
+  /**
+   * Public method that reads points from the reader given and adds them to the model in
+   * mini-batches. Each line holds the x and y coordinates of one point separated by whitespace,
+   * which is the format of the data files. The reader is read to the end but not closed.
+   *
+   * @param reader    the reader the points are read from.
+   * @param batchSize the number of points in each mini-batch.
+   * @param random    the random number generator used to choose the starting centers.
+   * @return the number of points read as a long data type.
+   * @throws IOException if the reader cannot be read.
+   * @throws IllegalArgumentException if the batch size is not positive.
+   * @throws NumberFormatException if a line does not hold two numbers.
+   */
+  public long readFrom(Reader reader, int batchSize, SplittableRandom random)
+          throws IOException, IllegalArgumentException {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize must be positive.");
+    }
+    BufferedReader lines = reader instanceof BufferedReader
+            ? (BufferedReader) reader : new BufferedReader(reader);
+    double[] xs = new double[batchSize];
+    double[] ys = new double[batchSize];
+    int count = 0;
+    long total = 0;
+    String line;
+    while ((line = lines.readLine()) != null) {
+      String[] coordinates = line.trim().split("\\s+");
+      if (coordinates.length == 1 && coordinates[0].isEmpty()) {
+        continue;
+      }
+      if (coordinates.length != 2) {
+        throw new NumberFormatException("Expected two numbers but found: " + line);
+      }
+      xs[count] = Double.parseDouble(coordinates[0]);
+      ys[count] = Double.parseDouble(coordinates[1]);
+      count++;
+      total++;
+      if (count == batchSize) {
+        update(xs, ys, count, random);
+        count = 0;
+      }
+    }
+    if (count > 0) {
+      update(xs, ys, count, random);
+    }
+    return total;
+  }
+
+  /**
+   * Public method that reads points from the channel given with DataSetLoader and adds them to
+   * the model in mini-batches. The channel holds a data file, with the x and y coordinates of one
+   * point on each line. The channel is read to the end but not closed.
+   *
+   * @param channel   the channel the points are read from.
+   * @param batchSize the number of points in each mini-batch.
+   * @param random    the random number generator used to choose the starting centers.
+   * @return the number of points read as a long data type.
+   * @throws IOException if the channel cannot be read.
+   * @throws IllegalArgumentException if the batch size is not positive.
+   * @throws NumberFormatException if a line does not hold two numbers.
+   */
+  public long readFrom(ReadableByteChannel channel, int batchSize, SplittableRandom random)
+          throws IOException, IllegalArgumentException {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize must be positive.");
+    }
+    double[] xs = new double[batchSize];
+    double[] ys = new double[batchSize];
+    int[] count = new int[1];
+    long total = DataSetLoader.read(channel, (x, y) -> {
+      xs[count[0]] = x;
+      ys[count[0]] = y;
+      count[0]++;
+      if (count[0] == batchSize) {
+        update(xs, ys, batchSize, random);
+        count[0] = 0;
+      }
+    });
+    if (count[0] > 0) {
+      update(xs, ys, count[0], random);
+    }
+    return total;
+  }
+
+  /**
+   * Public method that returns the cluster of the center closest to the point given, without
+   * changing the model.
+   *
+   * @param x the x coordinate of the point as a double data type.
+   * @param y the y coordinate of the point as a double data type.
+   * @return the cluster of the closest center as an integer.
+   * @throws IllegalStateException if no point has been added to the model yet.
+   */
+  public int assign(double x, double y) throws IllegalStateException {
+    if (seeded == 0) {
+      throw new IllegalStateException("The model has no centers yet.");
+    }
+    double distance = Double.MAX_VALUE;
+    int index = 0;
+    for (int j = 0; j < seeded; j++) {
+      double dx = x - centersX[j];
+      double dy = y - centersY[j];
+      double tempDistance = dx * dx + dy * dy;
+      if (tempDistance < distance) {
+        distance = tempDistance;
+        index = j;
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Private helper method that moves a center towards the point given by the learning rate of
+   * the center.
+   *
+   * @param j the cluster of the center being moved.
+   * @param x the x coordinate of the point.
+   * @param y the y coordinate of the point.
+   */
+  private void move(int j, double x, double y) {
+    counts[j]++;
+    double rate = Math.max(1.0 / counts[j], minLearningRate);
+    centersX[j] += rate * (x - centersX[j]);
+    centersY[j] += rate * (y - centersY[j]);
+  }
+
+  /**
+   * Public getter method that returns the number of clusters.
+   *
+   * @return the number of clusters as an integer.
+   */
+  public int getK() {
+    return k;
+  }
+
+  /**
+   * Public getter method that returns if every center has been given a starting point.
+   *
+   * @return true if the model has all k centers.
+   */
+  public boolean isSeeded() {
+    return seeded == k;
+  }
+
+  /**
+   * Public getter method that returns a copy of the x coordinates of the centers.
+   *
+   * @return the x coordinates of the centers as an array of doubles.
+   */
+  public double[] getCentersX() {
+    return centersX.clone();
+  }
+
+  /**
+   * Public getter method that returns a copy of the y coordinates of the centers.
+   *
+   * @return the y coordinates of the centers as an array of doubles.
+   */
+  public double[] getCentersY() {
+    return centersY.clone();
+  }
+
+  /**
+   * Public getter method that returns a copy of the number of points that moved each center.
+   *
+   * @return the counts of the centers as an array of longs.
+   */
+  public long[] getCounts() {
+    return counts.clone();
+  }
+
+  /**
+   * Public getter method that returns the smallest learning rate a center is moved with.
+   *
+   * @return the minimum learning rate as a double data type.
+   */
+  public double getMinLearningRate() {
+    return minLearningRate;
+  }
+
+  /**
+   * Public setter method that sets the smallest learning rate a center is moved with. With a
+   * rate of 0 each center is the mean of every point that moved it, with a larger rate the
+   * centers forget old points and follow clusters that drift.
+   *
+   * @param minLearningRate the minimum learning rate, from 0 to 1.
+   * @throws IllegalArgumentException if the rate is not between 0 and 1.
+   */
+  public void setMinLearningRate(double minLearningRate) throws IllegalArgumentException {
+    if (!(minLearningRate >= 0 && minLearningRate <= 1)) {
+      throw new IllegalArgumentException("minLearningRate must be between 0 and 1.");
+    }
+    this.minLearningRate = minLearningRate;
+  }
+}
@@ -0,0 +1,698 @@
+/**
+ * Import Color, Graphics2D, AffineTransform, BufferedImage, DataBufferInt, IOException,
+ * UncheckedIOException, StandardCharsets, Files, Path, ArrayList, Arrays, Collections, HashMap,
+ * List, Map and ForkJoinTask packages.
+ */
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * This class exports the shapes of a plot as a pyramid of square PNG tiles, so a viewer only has
+ * to load the tiles on screen at the zoom level shown. At zoom level z the plotted region is
+ * split into 2^z by 2^z tiles, stored as z/x/y.png with x counted from the left and y from the
+ * top. Points keep the same size in pixels at every level and are drawn as sprites, or as a
+ * density heatmap in tiles holding many points.
+ *
+ * <p>At each level the points are bucketed by tile with a counting sort, and a tile is rendered
+ * from the points of its own bucket and the buckets around it. The tiles of a level are rendered
+ * in parallel. Tiles with nothing to draw are not written. A hash of what each tile is drawn from
+ * is kept in the file tiles.idx of the pyramid, so writing the pyramid again only renders the
+ * tiles whose points, lines or circles changed, and removes the tiles that became empty.
+ */
+public class TilePyramid {
+
+  /**
+   * The default width and height of a tile in pixels.
+   */
+  public static final int DEFAULT_TILE_SIZE = 256;
+
+  /**
+   * The largest zoom level that can be written.
+   */
+  public static final int MAX_ZOOM = 10;
+
+  /**
+   * The name of the file holding the hash of every tile of the pyramid.
+   */
+  private static final String INDEX_FILE = "tiles.idx";
+
+  /**
+   * The x coordinate of the left edge of the plotted region.
+   */
+  private final double xmin;
+
+  /**
+   * The x coordinate of the right edge of the plotted region.
+   */
+  private final double xmax;
+
+  /**
+   * The y coordinate of the bottom edge of the plotted region.
+   */
+  private final double ymin;
+
+  /**
+   * The y coordinate of the top edge of the plotted region.
+   */
+  private final double ymax;
+
+  /**
+   * The coordinates of the points, x and y of each point one after the other.
+   */
+  private int[] points;
+
+  /**
+   * The color of each point as a packed ARGB integer.
+   */
+  private int[] pointColors;
+
+  /**
+   * The number of points.
+   */
+  private int numPoints;
+
+  /**
+   * The end points of the lines, x1, y1, x2 and y2 of each line one after the other.
+   */
+  private int[] lines;
+
+  /**
+   * The color of each line as a packed ARGB integer.
+   */
+  private int[] lineColors;
+
+  /**
+   * The number of lines.
+   */
+  private int numLines;
+
+  /**
+   * The circles, x, y and radius of each circle one after the other.
+   */
+  private int[] circles;
+
+  /**
+   * The color of each circle as a packed ARGB integer.
+   */
+  private int[] circleColors;
+
+  /**
+   * The number of circles.
+   */
+  private int numCircles;
+
+  /**
+   * The width and height of a tile in pixels.
+   */
+  private int tileSize;
+
+  /**
+   * The radius of a point in pixels.
+   */
+  private double pointRadius;
+
+  /**
+   * The number of points in a tile from which on they are drawn as a density heatmap.
+   */
+  private int densityThreshold;
+
+  /**
+   * The encoder that writes the tiles as palette images when they have few colors.
+   */
+  private final ImageEncoder encoder;
+
+  /**
+   * Constructs the TilePyramid object over the region given, with no shapes.
+   *
+   * @param xmin the x coordinate of the left edge of the region.
+   * @param xmax the x coordinate of the right edge of the region.
+   * @param ymin the y coordinate of the bottom edge of the region.
+   * @param ymax the y coordinate of the top edge of the region.
+   * @throws IllegalArgumentException if the region is empty.
+   */
+  public TilePyramid(double xmin, double xmax, double ymin, double ymax)
+          throws IllegalArgumentException {
+    if (!(xmax > xmin && ymax > ymin)) {
+      throw new IllegalArgumentException("The region must not be empty.");
+    }
+    this.xmin = xmin;
+    this.xmax = xmax;
+    this.ymin = ymin;
+    this.ymax = ymax;
+    setPoints(new int[0], new int[0], 0);
+    setLines(new int[0], new int[0], 0);
+    setCircles(new int[0], new int[0], 0);
+    tileSize = DEFAULT_TILE_SIZE;
+    pointRadius = 2;
+    densityThreshold = ImagePlotter.DEFAULT_DENSITY_THRESHOLD;
+    encoder = new ImageEncoder();
+    encoder.setImageType(BufferedImage.TYPE_BYTE_INDEXED);
+  }
+
+  /**
+   * Public setter method that sets the points of the pyramid. The arrays are kept, not copied.
+   *
+   * @param points the coordinates of the points, x and y of each point one after the other.
+   * @param colors the color of each point as a packed ARGB integer.
+   * @param n      the number of points.
+   */
+  public void setPoints(int[] points, int[] colors, int n) {
+    this.points = points;
+    this.pointColors = colors;
+    this.numPoints = n;
+  }
+
+  /**
+   * Public setter method that sets the lines of the pyramid. The arrays are kept, not copied.
+   *
+   * @param lines  the end points of the lines, x1, y1, x2 and y2 of each line one after the
+   *               other.
+   * @param colors the color of each line as a packed ARGB integer.
+   * @param n      the number of lines.
+   */
+  public void setLines(int[] lines, int[] colors, int n) {
+    this.lines = lines;
+    this.lineColors = colors;
+    this.numLines = n;
+  }
+
+  /**
+   * Public setter method that sets the circles of the pyramid. The arrays are kept, not copied.
+   *
+   * @param circles the circles, x, y and radius of each circle one after the other.
+   * @param colors  the color of each circle as a packed ARGB integer.
+   * @param n       the number of circles.
+   */
+  public void setCircles(int[] circles, int[] colors, int n) {
+    this.circles = circles;
+    this.circleColors = colors;
+    this.numCircles = n;
+  }
+
+  /**
+   * Public setter method that sets the width and height of a tile.
+   *
+   * @param tileSize the size of a tile in pixels.
+   * @throws IllegalArgumentException if the size is not positive.
+   */
+  public void setTileSize(int tileSize) throws IllegalArgumentException {
+    if (tileSize <= 0) {
+      throw new IllegalArgumentException("tileSize must be positive.");
+    }
+    this.tileSize = tileSize;
+  }
+
+  /**
+   * Public setter method that sets the radius of a point, which is the same at every level.
+   *
+   * @param pointRadius the radius of a point in pixels, smaller than the tile size.
+   * @throws IllegalArgumentException if the radius is negative or not smaller than a tile.
+   */
+  public void setPointRadius(double pointRadius) throws IllegalArgumentException {
+    if (!(pointRadius >= 0 && pointRadius < tileSize)) {
+      throw new IllegalArgumentException("pointRadius must be from 0 to the tile size.");
+    }
+    this.pointRadius = pointRadius;
+  }
+
+  /**
+   * Public setter method that sets the number of points in a tile from which on they are drawn
+   * as a density heatmap.
+   *
+   * @param densityThreshold the number of points.
+   */
+  public void setDensityThreshold(int densityThreshold) {
+    this.densityThreshold = densityThreshold;
+  }
+
+  /**
+   * Public method that writes the tiles of every level from 0 to maxZoom to the directory
+   * given. Tiles whose hash in the index of the directory matches are not rendered again, and
+   * tiles that were written before but have nothing to draw now are removed.
+   *
+   * @param directory the directory of the pyramid, which is created if it does not exist.
+   * @param maxZoom   the deepest zoom level written, from 0 to MAX_ZOOM.
+   * @return the number of tiles that were rendered.
+   * @throws IOException if a tile or the index cannot be written.
+   * @throws IllegalArgumentException if maxZoom is out of range.
+   */
+  public int write(Path directory, int maxZoom) throws IOException, IllegalArgumentException {
+    if (maxZoom < 0 || maxZoom > MAX_ZOOM) {
+      throw new IllegalArgumentException("maxZoom must be from 0 to " + MAX_ZOOM + ".");
+    }
+    Files.createDirectories(directory);
+    Map<String, Long> oldIndex = readIndex(directory.resolve(INDEX_FILE));
+    Map<String, Long> newIndex = new HashMap<>();
+    long sharedHash = sharedHash();
+    int rendered = 0;
+    for (int zoom = 0; zoom <= maxZoom; zoom++) {
+      rendered += writeLevel(directory, zoom, sharedHash, oldIndex, newIndex);
+    }
+    for (String tile : oldIndex.keySet()) {
+      if (!newIndex.containsKey(tile)) {
+        Files.deleteIfExists(directory.resolve(tile + ".png"));
+      }
+    }
+    writeIndex(directory.resolve(INDEX_FILE), newIndex);
+    return rendered;
+  }
+
+  /**
+   * Private helper method that buckets the points by tile and renders the tiles of one level
+   * that changed, in parallel.
+   *
+   * @param directory  the directory of the pyramid.
+   * @param zoom       the zoom level.
+   * @param sharedHash the hash of everything but the points that the tiles are drawn from.
+   * @param oldIndex   the hashes of the tiles written before.
+   * @param newIndex   the map the hashes of the tiles of this level are put into.
+   * @return the number of tiles that were rendered.
+   * @throws IOException if a tile cannot be written.
+   */
+  private int writeLevel(Path directory, int zoom, long sharedHash, Map<String, Long> oldIndex,
+                         Map<String, Long> newIndex) throws IOException {
+    Level level = new Level(zoom);
+    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (int ty = 0; ty < level.tiles; ty++) {
+      for (int tx = 0; tx < level.tiles; tx++) {
+        int[] nearby = level.nearbyPoints(tx, ty);
+        if (nearby.length == 0 && !level.hasOutlines(tx, ty)) {
+          continue;
+        }
+        String name = zoom + "/" + tx + "/" + ty;
+        long hash = tileHash(sharedHash, zoom, nearby);
+        newIndex.put(name, hash);
+        Path file = directory.resolve(name + ".png");
+        Long oldHash = oldIndex.get(name);
+        if (oldHash != null && oldHash == hash && Files.exists(file)) {
+          continue;
+        }
+        int x = tx;
+        int y = ty;
+        tasks.add(ForkJoinTask.adapt(() -> {
+          try {
+            Files.createDirectories(file.getParent());
+            encoder.write(level.render(x, y, nearby), file);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }));
+      }
+    }
+    try {
+      ForkJoinTask.invokeAll(tasks);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    return tasks.size();
+  }
+
+  /**
+   * This class holds the points of one zoom level bucketed by tile.
+   */
+  private final class Level {
+
+    /**
+     * The number of tiles across and down.
+     */
+    private final int tiles;
+
+    /**
+     * The width of a tile in units of x.
+     */
+    private final double tileWidth;
+
+    /**
+     * The height of a tile in units of y.
+     */
+    private final double tileHeight;
+
+    /**
+     * How far the sprite of a point reaches past its center in units of x, with one pixel to
+     * spare.
+     */
+    private final double marginX;
+
+    /**
+     * How far the sprite of a point reaches past its center in units of y, with one pixel to
+     * spare.
+     */
+    private final double marginY;
+
+    /**
+     * The position in order of the first point of each bucket, with one more entry for the end.
+     */
+    private final int[] bucketStart;
+
+    /**
+     * The indices of the points sorted by bucket, keeping the order of the points in a bucket.
+     */
+    private final int[] order;
+
+    /**
+     * Constructs the Level object and buckets the points by tile. Points on the right and bottom
+     * edges of the region go in the last column and row, and points just outside the region whose
+     * sprites reach into it go in the closest tile, so every point the single image draws is in
+     * a bucket.
+     *
+     * @param zoom the zoom level.
+     */
+    Level(int zoom) {
+      tiles = 1 << zoom;
+      tileWidth = (xmax - xmin) / tiles;
+      tileHeight = (ymax - ymin) / tiles;
+      marginX = (pointRadius + 1) * tileWidth / tileSize;
+      marginY = (pointRadius + 1) * tileHeight / tileSize;
+      int[] bucketOf = new int[numPoints];
+      bucketStart = new int[tiles * tiles + 1];
+      int inside = 0;
+      for (int i = 0; i < numPoints; i++) {
+        double x = points[2 * i];
+        double y = points[2 * i + 1];
+        if (x >= xmin - marginX && x <= xmax + marginX
+                && y >= ymin - marginY && y <= ymax + marginY) {
+          int tx = Math.max(0, Math.min(tiles - 1, (int) Math.floor((x - xmin) / tileWidth)));
+          int ty = Math.max(0, Math.min(tiles - 1, (int) Math.floor((ymax - y) / tileHeight)));
+          bucketOf[i] = ty * tiles + tx;
+          bucketStart[bucketOf[i] + 1]++;
+          inside++;
+        } else {
+          bucketOf[i] = -1;
+        }
+      }
+      for (int b = 0; b < tiles * tiles; b++) {
+        bucketStart[b + 1] += bucketStart[b];
+      }
+      order = new int[inside];
+      int[] next = new int[tiles * tiles];
+      for (int i = 0; i < numPoints; i++) {
+        if (bucketOf[i] >= 0) {
+          order[bucketStart[bucketOf[i]] + next[bucketOf[i]]++] = i;
+        }
+      }
+    }
+
+    /**
+     * Returns the indices of the points whose sprites can reach into the tile given: the points
+     * of its own bucket and the points of the buckets around it that are within the radius of a
+     * point of its edges.
+     *
+     * @param tx the column of the tile.
+     * @param ty the row of the tile.
+     * @return the indices of the points, bucket by bucket.
+     */
+    int[] nearbyPoints(int tx, int ty) {
+      double left = xmin + tx * tileWidth - marginX;
+      double right = xmin + (tx + 1) * tileWidth + marginX;
+      double top = ymax - ty * tileHeight + marginY;
+      double bottom = ymax - (ty + 1) * tileHeight - marginY;
+      int[] nearby = new int[16];
+      int count = 0;
+      for (int y = Math.max(0, ty - 1); y <= Math.min(tiles - 1, ty + 1); y++) {
+        for (int x = Math.max(0, tx - 1); x <= Math.min(tiles - 1, tx + 1); x++) {
+          int bucket = y * tiles + x;
+          boolean own = x == tx && y == ty;
+          for (int j = bucketStart[bucket]; j < bucketStart[bucket + 1]; j++) {
+            int i = order[j];
+            if (own || (points[2 * i] >= left && points[2 * i] <= right
+                    && points[2 * i + 1] >= bottom && points[2 * i + 1] <= top)) {
+              if (count == nearby.length) {
+                nearby = Arrays.copyOf(nearby, 2 * count);
+              }
+              nearby[count++] = i;
+            }
+          }
+        }
+      }
+      return Arrays.copyOf(nearby, count);
+    }
+
+    /**
+     * Returns if a line or circle crosses the tile given.
+     *
+     * @param tx the column of the tile.
+     * @param ty the row of the tile.
+     * @return true if the tile has a line or circle to draw.
+     */
+    boolean hasOutlines(int tx, int ty) {
+      double left = xmin + tx * tileWidth;
+      double right = left + tileWidth;
+      double top = ymax - ty * tileHeight;
+      double bottom = top - tileHeight;
+      for (int i = 0; i < numLines; i++) {
+        if (segmentCrosses(lines[4 * i], lines[4 * i + 1], lines[4 * i + 2], lines[4 * i + 3],
+                left, bottom, right, top)) {
+          return true;
+        }
+      }
+      for (int i = 0; i < numCircles; i++) {
+        if (circleCrosses(circles[3 * i], circles[3 * i + 1], circles[3 * i + 2],
+                left, bottom, right, top)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Renders the tile given from the points given and the lines and circles.
+     *
+     * @param tx     the column of the tile.
+     * @param ty     the row of the tile.
+     * @param nearby the indices of the points of the tile and the tiles around it.
+     * @return the tile as an image.
+     */
+    BufferedImage render(int tx, int ty, int[] nearby) {
+      double left = xmin + tx * tileWidth;
+      double bottom = ymax - (ty + 1) * tileHeight;
+      double scaleX = tileSize / tileWidth;
+      double scaleY = tileSize / tileHeight;
+      BufferedImage image = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_ARGB);
+      int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+      Arrays.fill(pixels, 0xFFFFFFFF);
+      int own = bucketStart[ty * tiles + tx + 1] - bucketStart[ty * tiles + tx];
+      if (own >= densityThreshold) {
+        int[] xy = new int[2 * nearby.length];
+        int[] colors = new int[nearby.length];
+        for (int j = 0; j < nearby.length; j++) {
+          xy[2 * j] = points[2 * nearby[j]];
+          xy[2 * j + 1] = points[2 * nearby[j] + 1];
+          colors[j] = pointColors[nearby[j]];
+        }
+        DensityGrid.build(xy, colors, nearby.length, tileSize, tileSize, left, bottom,
+                scaleX, scaleY).paint(pixels);
+      } else {
+        PointSprite sprite = new PointSprite(pointRadius, pointRadius);
+        for (int i : nearby) {
+          double px = (points[2 * i] - left) * scaleX;
+          double py = tileSize - (points[2 * i + 1] - bottom) * scaleY;
+          sprite.draw(pixels, tileSize, tileSize, px, py, pointColors[i]);
+        }
+      }
+      if (numLines > 0 || numCircles > 0) {
+        Graphics2D g2d = image.createGraphics();
+        AffineTransform mat = new AffineTransform();
+        mat.concatenate(AffineTransform.getTranslateInstance(0, tileSize));
+        mat.concatenate(AffineTransform.getScaleInstance(1, -1));
+        mat.concatenate(AffineTransform.getScaleInstance(scaleX, scaleY));
+        mat.concatenate(AffineTransform.getTranslateInstance(-left, -bottom));
+        g2d.setTransform(mat);
+        for (int i = 0; i < numLines; i++) {
+          g2d.setColor(new Color(lineColors[i], true));
+          g2d.drawLine(lines[4 * i], lines[4 * i + 1], lines[4 * i + 2], lines[4 * i + 3]);
+        }
+        for (int i = 0; i < numCircles; i++) {
+          int size = circles[3 * i + 2];
+          g2d.setColor(new Color(circleColors[i], true));
+          g2d.drawOval(circles[3 * i] - size, circles[3 * i + 1] - size, 2 * size, 2 * size);
+        }
+        g2d.dispose();
+      }
+      return image;
+    }
+  }
+
+  /**
+   * Private helper method that returns if the segment given crosses the rectangle given, by
+   * clipping the segment to the rectangle with the Liang-Barsky method.
+   *
+   * @param x1     the x coordinate of the first end of the segment.
+   * @param y1     the y coordinate of the first end of the segment.
+   * @param x2     the x coordinate of the second end of the segment.
+   * @param y2     the y coordinate of the second end of the segment.
+   * @param left   the x coordinate of the left edge of the rectangle.
+   * @param bottom the y coordinate of the bottom edge of the rectangle.
+   * @param right  the x coordinate of the right edge of the rectangle.
+   * @param top    the y coordinate of the top edge of the rectangle.
+   * @return true if part of the segment is inside the rectangle.
+   */
+  private static boolean segmentCrosses(double x1, double y1, double x2, double y2,
+                                        double left, double bottom, double right, double top) {
+    double dx = x2 - x1;
+    double dy = y2 - y1;
+    double[] p = {-dx, dx, -dy, dy};
+    double[] q = {x1 - left, right - x1, y1 - bottom, top - y1};
+    double enter = 0;
+    double exit = 1;
+    for (int i = 0; i < 4; i++) {
+      if (p[i] == 0) {
+        if (q[i] < 0) {
+          return false;
+        }
+      } else {
+        double t = q[i] / p[i];
+        if (p[i] < 0) {
+          enter = Math.max(enter, t);
+        } else {
+          exit = Math.min(exit, t);
+        }
+      }
+    }
+    return enter <= exit;
+  }
+
+  /**
+   * Private helper method that returns if the outline of the circle given crosses the rectangle
+   * given, that is if the circle overlaps the rectangle without holding all of it.
+   *
+   * @param cx     the x coordinate of the center of the circle.
+   * @param cy     the y coordinate of the center of the circle.
+   * @param radius the radius of the circle.
+   * @param left   the x coordinate of the left edge of the rectangle.
+   * @param bottom the y coordinate of the bottom edge of the rectangle.
+   * @param right  the x coordinate of the right edge of the rectangle.
+   * @param top    the y coordinate of the top edge of the rectangle.
+   * @return true if the outline of the circle passes through the rectangle.
+   */
+  private static boolean circleCrosses(double cx, double cy, double radius, double left,
+                                       double bottom, double right, double top) {
+    double nearX = Math.max(left, Math.min(cx, right));
+    double nearY = Math.max(bottom, Math.min(cy, top));
+    double farX = Math.max(Math.abs(cx - left), Math.abs(cx - right));
+    double farY = Math.max(Math.abs(cy - bottom), Math.abs(cy - top));
+    double r2 = radius * radius;
+    double near2 = (cx - nearX) * (cx - nearX) + (cy - nearY) * (cy - nearY);
+    return near2 <= r2 && farX * farX + farY * farY >= r2;
+  }
+
+  /**
+   * Private helper method that returns the hash of everything but the points that every tile
+   * is drawn from: the region, the settings, and the lines and circles.
+   *
+   * @return the hash as a long data type.
+   */
+  private long sharedHash() {
+    long hash = mix(0, Double.doubleToLongBits(xmin));
+    hash = mix(hash, Double.doubleToLongBits(xmax));
+    hash = mix(hash, Double.doubleToLongBits(ymin));
+    hash = mix(hash, Double.doubleToLongBits(ymax));
+    hash = mix(hash, tileSize);
+    hash = mix(hash, Double.doubleToLongBits(pointRadius));
+    hash = mix(hash, densityThreshold);
+    hash = mix(hash, numLines);
+    for (int i = 0; i < numLines; i++) {
+      for (int j = 0; j < 4; j++) {
+        hash = mix(hash, lines[4 * i + j]);
+      }
+      hash = mix(hash, lineColors[i]);
+    }
+    hash = mix(hash, numCircles);
+    for (int i = 0; i < numCircles; i++) {
+      for (int j = 0; j < 3; j++) {
+        hash = mix(hash, circles[3 * i + j]);
+      }
+      hash = mix(hash, circleColors[i]);
+    }
+    return hash;
+  }
+
+  /**
+   * Private helper method that returns the hash of what a tile is drawn from.
+   *
+   * @param sharedHash the hash of everything but the points.
+   * @param zoom       the zoom level of the tile.
+   * @param nearby     the indices of the points the tile is drawn from.
+   * @return the hash as a long data type.
+   */
+  private long tileHash(long sharedHash, int zoom, int[] nearby) {
+    long hash = mix(sharedHash, zoom);
+    hash = mix(hash, nearby.length);
+    for (int i : nearby) {
+      hash = mix(hash, ((long) points[2 * i] << 32) ^ (points[2 * i + 1] & 0xFFFFFFFFL));
+      hash = mix(hash, pointColors[i]);
+    }
+    return hash;
+  }
+
+  /**
+   * Private helper method that mixes a value into a hash, with the finalizer of SplitMix64.
+   *
+   * @param hash  the hash so far.
+   * @param value the value mixed in.
+   * @return the new hash as a long data type.
+   */
+  private static long mix(long hash, long value) {
+    long z = hash * 31 + value + 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Private helper method that reads the index of a pyramid, which holds one tile per line as
+   * its name followed by its hash in hexadecimal.
+   *
+   * @param file the index file.
+   * @return the hash of each tile, empty if there is no index.
+   * @throws IOException if the index cannot be read.
+   */
+  private static Map<String, Long> readIndex(Path file) throws IOException {
+    Map<String, Long> index = new HashMap<>();
+    if (!Files.exists(file)) {
+      return index;
+    }
+    for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+      String[] fields = line.trim().split("\\s+");
+      if (fields.length == 2) {
+        try {
+          index.put(fields[0], Long.parseUnsignedLong(fields[1], 16));
+        } catch (NumberFormatException e) {
+          //A damaged entry only makes the tile render again
+        }
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Private helper method that writes the index of a pyramid.
+   *
+   * @param file  the index file.
+   * @param index the hash of each tile.
+   * @throws IOException if the index cannot be written.
+   */
+  private static void writeIndex(Path file, Map<String, Long> index) throws IOException {
+    List<String> lines = new ArrayList<>(index.size());
+    for (Map.Entry<String, Long> entry : index.entrySet()) {
+      lines.add(entry.getKey() + " " + Long.toHexString(entry.getValue()));
+    }
+    Collections.sort(lines);
+    Files.write(file, lines, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,155 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the AnalysisMetrics class and the classes that record into it.
+ */
+public class AnalysisMetricsTest {
+
+  /**
+   * The centers of two groups of points.
+   */
+  private static final double[][] TWO_GROUPS = {{13, 0}, {202, 0}};
+
+  @Test
+  public void testDisabledByDefault() {
+    DataAnalysis data = new DataAnalysis(PointFixtures.groups(TWO_GROUPS, 20, 30, 3));
+    assertNull(data.getMetrics());
+    data.fitLine();
+    data.kmeans(2);
+  }
+
+  @Test
+  public void testRecordsStagesAndRestarts() {
+    DataAnalysis data = new DataAnalysis(PointFixtures.groups(TWO_GROUPS, 20, 30, 3));
+    AnalysisMetrics metrics = new AnalysisMetrics();
+    data.setMetrics(metrics);
+    KMeansOptions options = new KMeansOptions();
+    options.setSeed(5);
+    options.setRestarts(3);
+
+    data.fitLine();
+    data.fitLineModel();
+    data.kmeans(2, options);
+
+    assertEquals(2, metrics.getCount(AnalysisMetrics.FIT));
+    assertEquals(1, metrics.getCount(AnalysisMetrics.CLUSTER));
+    assertTrue(metrics.getTotalNanos(AnalysisMetrics.CLUSTER) > 0);
+    List<AnalysisMetrics.KMeansRun> runs = metrics.getKMeansRuns();
+    assertEquals(1, runs.size());
+    AnalysisMetrics.KMeansRun run = runs.get(0);
+    assertEquals(40, run.getN());
+    assertEquals(3, run.getRestarts());
+    for (int a = 0; a < 3; a++) {
+      double[] trace = run.getTrace(a);
+      assertEquals(run.getIterations(a), trace.length);
+      assertEquals(run.getError(a), trace[trace.length - 1], 0);
+      assertTrue(run.getDistanceEvaluations(a) > 0);
+      assertFalse(run.hitIterationCap(a));
+    }
+  }
+
+  @Test
+  public void testMetricsDoNotChangeResult() {
+    KMeansOptions options = new KMeansOptions();
+    options.setSeed(11);
+    PointColumns points = new DoublePointColumns();
+    for (int i = 0; i < 60; i++) {
+      points.add((i * 37) % 100, (i * 53) % 100);
+    }
+    int[] plain = new KMeans(points, 3, options).run().getAssignments();
+    KMeans measured = new KMeans(points, 3, options);
+    measured.setMetrics(new AnalysisMetrics());
+
+    assertArrayEquals(plain, measured.run().getAssignments());
+  }
+
+  @Test
+  public void testIterationCapHits() {
+    DataAnalysis data = new DataAnalysis(PointFixtures.groups(TWO_GROUPS, 20, 30, 3));
+    AnalysisMetrics metrics = new AnalysisMetrics();
+    data.setMetrics(metrics);
+    KMeansOptions options = new KMeansOptions();
+    options.setRestarts(2);
+    options.setMaxIterations(1);
+
+    data.kmeans(2, options);
+
+    assertEquals(2, metrics.getIterationCapHits());
+  }
+
+  @Test
+  public void testRunHistoryIsBounded() {
+    DataAnalysis data = new DataAnalysis(PointFixtures.groups(TWO_GROUPS, 20, 30, 3));
+    AnalysisMetrics metrics = new AnalysisMetrics(2);
+    data.setMetrics(metrics);
+    for (int i = 0; i < 5; i++) {
+      data.kmeans(2);
+    }
+
+    assertEquals(5, metrics.getKMeansRunCount());
+    assertEquals(2, metrics.getKMeansRuns().size());
+  }
+
+  @Test
+  public void testExport() {
+    AnalysisMetrics metrics = new AnalysisMetrics();
+    metrics.recordTime(AnalysisMetrics.RENDER, 2500000, 1024);
+    metrics.recordTime(AnalysisMetrics.RENDER, 500000, -1);
+    metrics.recordKMeans(new AnalysisMetrics.KMeansRun(10, 2, 1000, 0, new int[]{2},
+            new long[]{40}, new double[]{1.5}, new boolean[]{false},
+            new double[][]{{Double.NaN, 1.5}}));
+
+    assertEquals("{\"stages\":{\"render\":{\"count\":2,\"totalNanos\":3000000,"
+            + "\"maxNanos\":2500000,\"allocatedBytes\":1024}},\"kmeans\":{\"runs\":1,"
+            + "\"restarts\":1,\"iterations\":2,\"distanceEvaluations\":40,\"iterationCapHits\":0,"
+            + "\"recent\":[{\"n\":10,\"k\":2,\"elapsedNanos\":1000,\"bestRestart\":0,"
+            + "\"restarts\":[{\"iterations\":2,\"distanceEvaluations\":40,\"error\":1.5,"
+            + "\"hitIterationCap\":false,\"trace\":[null,1.5]}]}]}}", metrics.toJson());
+    String text = metrics.toPrometheus();
+    assertTrue(text.contains("analysis_stage_seconds_count{stage=\"render\"} 2\n"));
+    assertTrue(text.contains("analysis_stage_seconds_sum{stage=\"render\"} 0.003000000\n"));
+    assertTrue(text.contains("analysis_kmeans_distance_evaluations_total 40\n"));
+
+    metrics.reset();
+    assertEquals(0, metrics.getCount(AnalysisMetrics.RENDER));
+  }
+
+  @Test
+  public void testBatchRunnerRecordsEveryStage() throws IOException, InterruptedException {
+    Path dir = Files.createTempDirectory("metrics");
+    Path data = dir.resolve("data.txt");
+    Path image = dir.resolve("data_Graph.png");
+    try {
+      StringBuilder text = new StringBuilder();
+      for (int i = 0; i < 30; i++) {
+        text.append(i * 10).append(' ').append(i % 3 * 50).append('\n');
+      }
+      Files.write(data, text.toString().getBytes(StandardCharsets.US_ASCII));
+      AnalysisMetrics metrics = new AnalysisMetrics();
+      try (BatchRunner runner = new BatchRunner(1, 1)) {
+        runner.setMetrics(metrics);
+        runner.run(List.of(BatchJob.parse(data + " kmeans 3")));
+      }
+
+      assertEquals(List.of(AnalysisMetrics.PARSE, AnalysisMetrics.CLUSTER,
+              AnalysisMetrics.RENDER, AnalysisMetrics.ENCODE), metrics.getStages());
+      assertEquals(1, metrics.getKMeansRunCount());
+    } finally {
+      Files.deleteIfExists(image);
+      Files.deleteIfExists(data);
+      Files.delete(dir);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the BatchRunner and BatchJob classes.
+ */
+public class BatchRunnerTest {
+
+  @Test
+  public void testParseEntries() {
+    BatchJob line = BatchJob.parse("data/linedata-1.txt line");
+    BatchJob kmeans = BatchJob.parse("  clusterdata-3.txt KMeans 3 out/c3.png ");
+
+    assertEquals(BatchJob.Analysis.LINE, line.getAnalysis());
+    assertEquals("data/linedata-1_Graph.png", line.getOutput());
+    assertEquals(BatchJob.Analysis.KMEANS, kmeans.getAnalysis());
+    assertEquals(3, kmeans.getK());
+    assertEquals("out/c3.png", kmeans.getOutput());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParseMissingK() {
+    BatchJob.parse("clusterdata-3.txt kmeans");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParseUnknownAnalysis() {
+    BatchJob.parse("clusterdata-3.txt dbscan 3");
+  }
+
+  @Test
+  public void testRunManifest() throws IOException, InterruptedException {
+    Path dir = Files.createTempDirectory("batch");
+    List<Path> created = new ArrayList<>();
+    try {
+      StringBuilder manifest = new StringBuilder("# test manifest\n\n");
+      for (int f = 0; f < 6; f++) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+          text.append(i * 5 + f).append(' ').append(i % 2 == 0 ? -100 + i : 100 - i).append('\n');
+        }
+        Path data = dir.resolve("data-" + f + ".txt");
+        Files.write(data, text.toString().getBytes(StandardCharsets.US_ASCII));
+        created.add(data);
+        created.add(dir.resolve("data-" + f + "_Graph.png"));
+        manifest.append(data).append(f % 2 == 0 ? " line\n" : " kmeans 2\n");
+      }
+      manifest.append(dir.resolve("missing.txt")).append(" line\n");
+      Path manifestFile = dir.resolve("manifest.txt");
+      Files.write(manifestFile, manifest.toString().getBytes(StandardCharsets.US_ASCII));
+      created.add(manifestFile);
+
+      List<BatchJob> jobs = BatchJob.readManifest(manifestFile);
+      List<BatchResult> results;
+      try (BatchRunner runner = new BatchRunner(2, 3)) {
+        results = runner.run(jobs);
+      }
+
+      assertEquals(7, results.size());
+      for (int f = 0; f < 6; f++) {
+        assertTrue(results.get(f).isSuccessful());
+        assertTrue(Files.size(dir.resolve("data-" + f + "_Graph.png")) > 0);
+      }
+      assertFalse(results.get(6).isSuccessful());
+      assertTrue(results.get(6).getError() instanceof IOException);
+    } finally {
+      for (Path path : created) {
+        Files.deleteIfExists(path);
+      }
+      Files.delete(dir);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalPoolSize() {
+    new BatchRunner(0, 1);
+  }
+}
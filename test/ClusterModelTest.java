@@ -0,0 +1,112 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the ClusterModel class.
+ */
+public class ClusterModelTest {
+
+  /**
+   * Creates options with a seed.
+   *
+   * @return the options.
+   */
+  private KMeansOptions seeded() {
+    KMeansOptions options = new KMeansOptions();
+    options.setSeed(13);
+    options.setInitializer(new KMeansPlusPlusInitializer());
+    return options;
+  }
+
+  @Test
+  public void testAddedPointsAreAssigned() {
+    DataAnalysis data = new DataAnalysis();
+    PointFixtures.addGroups(data, new double[][]{{-100, 0}, {100, 0}}, 50, 10, 2);
+    ClusterModel model = data.cluster(2, seeded());
+    int left = model.getCluster(0);
+    int right = model.getCluster(50);
+    assertNotEquals(left, right);
+
+    data.addData(-95, 3);
+    data.addData(102, -4);
+    data.addAll(new double[]{-99, 97}, new double[]{0, 0});
+
+    assertEquals(104, model.size());
+    assertEquals(4, model.getAddedSinceClustering());
+    assertEquals(left, model.getCluster(100));
+    assertEquals(right, model.getCluster(101));
+    assertEquals(left, model.getCluster(102));
+    assertEquals(right, model.getCluster(103));
+    assertEquals(52, model.getCount(left));
+  }
+
+  @Test
+  public void testAddedPointsUseStoredCoordinates() {
+    PointColumns points = new FloatPointColumns();
+    DataAnalysis data = new DataAnalysis(points);
+    PointFixtures.addGroups(data, new double[][]{{0.1, 0.3}}, 20, 10, 4);
+    ClusterModel model = data.cluster(1, seeded());
+    PointFixtures.addGroups(data, new double[][]{{0.1, 0.3}}, 5, 10, 5);
+    data.addData(0.7, 0.9, 3);
+    data.addAll(new double[]{0.1, 0.2}, new double[]{0.3, 0.4});
+    model.updateCenters();
+
+    double sumX = 0;
+    double sumY = 0;
+    for (int i = 0; i < points.size(); i++) {
+      sumX += points.getWeight(i) * points.getX(i);
+      sumY += points.getWeight(i) * points.getY(i);
+    }
+    assertEquals(sumX / points.getTotalWeight(), model.getCentersX()[0], 0);
+    assertEquals(sumY / points.getTotalWeight(), model.getCentersY()[0], 0);
+  }
+
+  @Test
+  public void testReclusterFollowsNewPoints() {
+    DataAnalysis data = new DataAnalysis();
+    PointFixtures.addGroups(data, new double[][]{{-100, 0}, {100, 0}}, 50, 10, 5);
+    ClusterModel model = data.cluster(2, seeded());
+    PointFixtures.addGroups(data, new double[][]{{100, 300}}, 200, 10, 6);
+
+    KMeansResult result = model.recluster();
+
+    assertEquals(0, model.getAddedSinceClustering());
+    double topY = Math.max(model.getCentersY()[0], model.getCentersY()[1]);
+    assertTrue(topY > 150);
+    assertArrayEquals(result.getAssignments(), model.getAssignments());
+    assertTrue(result.getIterations() < new KMeansOptions().getMaxIterations());
+  }
+
+  @Test
+  public void testWarmStartAtFixedPointTakesOneIteration() {
+    DataAnalysis data = new DataAnalysis();
+    PointFixtures.addGroups(data, new double[][]{{-100, -100}, {100, 100}, {100, -100}}, 40, 10, 9);
+    KMeansOptions options = seeded();
+    options.setTolerance(0);
+    ClusterModel model = data.cluster(3, options);
+    int[] before = model.getAssignments();
+
+    KMeansResult result = model.recluster();
+
+    assertArrayEquals(before, result.getAssignments());
+    assertEquals(2, result.getIterations());
+  }
+
+  @Test
+  public void testUpdateCentersMovesToMeans() {
+    DataAnalysis data = new DataAnalysis();
+    data.addData(0, 0);
+    data.addData(10, 0);
+    ClusterModel model = data.cluster(1, new KMeansOptions());
+    data.addData(20, 30);
+
+    model.updateCenters();
+
+    assertEquals(10, model.getCentersX()[0], 0.0001);
+    assertEquals(10, model.getCentersY()[0], 0.0001);
+  }
+}
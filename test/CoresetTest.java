@@ -0,0 +1,102 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the Coreset class.
+ */
+public class CoresetTest {
+
+  /**
+   * The centers of three groups of points.
+   */
+  private static final double[][] CENTERS = {{0, 0}, {400, 50}, {150, 300}};
+
+  /**
+   * Returns the weighted sum of the squared distances from the points to one center.
+   *
+   * @param points the points.
+   * @param x      the x coordinate of the center.
+   * @param y      the y coordinate of the center.
+   * @return the cost as a double data type.
+   */
+  private double cost(PointColumns points, double x, double y) {
+    double total = 0;
+    for (int i = 0; i < points.size(); i++) {
+      double dx = points.getX(i) - x;
+      double dy = points.getY(i) - y;
+      total += points.getWeight(i) * (dx * dx + dy * dy);
+    }
+    return total;
+  }
+
+  @Test
+  public void testCompressesWithinSize() {
+    PointColumns points = PointFixtures.rounded(
+            PointFixtures.gaussianGroups(CENTERS, 10000, 20, 5), 1);
+    Coreset coreset = new Coreset(points, 500);
+
+    assertTrue(coreset.size() <= 500);
+    assertTrue(coreset.size() > 100);
+    assertEquals(points.size(), coreset.getPoints().getTotalWeight(), 1e-6);
+    double[][] centers = {{0, 0}, {250, -40}, {1000, 1000}};
+    for (double[] center : centers) {
+      double expected = cost(points, center[0], center[1]);
+      double actual = cost(coreset.getPoints(), center[0], center[1]) + coreset.getError();
+      assertEquals(expected, actual, expected * 1e-9);
+    }
+  }
+
+  @Test
+  public void testDuplicatesMergeWithoutError() {
+    PointColumns points = new DoublePointColumns();
+    for (int i = 0; i < 1000; i++) {
+      points.add((i % 10) * 10, 5, 2);
+    }
+    Coreset coreset = new Coreset(points, 100);
+
+    assertEquals(10, coreset.size());
+    assertEquals(0, coreset.getError(), 0);
+    for (int i = 0; i < coreset.size(); i++) {
+      assertEquals(200, coreset.getPoints().getWeight(i), 0);
+    }
+  }
+
+  @Test
+  public void testCompressedAnalysisKeepsLineAndClusters() {
+    PointColumns points = PointFixtures.rounded(
+            PointFixtures.gaussianGroups(CENTERS, 10000, 20, 5), 1);
+    DataAnalysis analysis = new DataAnalysis(points);
+    DataAnalysis summary = analysis.compress(1000);
+    KMeansOptions options = new KMeansOptions();
+    options.setSeed(9);
+
+    assertTrue(summary.getData().size() <= 1000);
+    assertEquals(analysis.fitLine(), summary.fitLine());
+    double[] full = analysis.cluster(3, options).getCentersX();
+    double[] compressed = summary.cluster(3, options).getCentersX();
+    Arrays.sort(full);
+    Arrays.sort(compressed);
+    assertArrayEquals(full, compressed, 0.5);
+  }
+
+  @Test
+  public void testSinglePoint() {
+    PointColumns points = new DoublePointColumns();
+    points.add(3, 4);
+    Coreset coreset = new Coreset(points, 1);
+
+    assertEquals(1, coreset.size());
+    assertEquals(3, coreset.getPoints().getX(0), 0);
+    assertEquals(4, coreset.getPoints().getY(0), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsZeroSize() {
+    new Coreset(new DoublePointColumns(), 0);
+  }
+}
@@ -51,6 +51,43 @@ public class DataAnalysisTest {
     assertEquals(-4, testDataList.getData().get(2).getY(), 0.01);
   }
 
+  @Test
+  public void testAddAllData() {
+    DataAnalysis testDataList = new DataAnalysis();
+    testDataList.addData(1, 2);
+    testDataList.addAll(new double[]{3, 5, 7}, new double[]{4, 6, 8});
+
+    assertEquals(4, testDataList.getData().size());
+    assertEquals(1, testDataList.getData().get(0).getX(), 0.01);
+    assertEquals(5, testDataList.getData().get(2).getX(), 0.01);
+    assertEquals(8, testDataList.getData().get(3).getY(), 0.01);
+  }
+
+  @Test
+  public void testManyAddData() {
+    DataAnalysis testDataList = new DataAnalysis();
+    for (int i = 0; i < 1000; i++) {
+      testDataList.addData(i, -i);
+    }
+
+    assertEquals(1000, testDataList.getData().size());
+    assertEquals(999, testDataList.getData().get(999).getX(), 0.01);
+    assertEquals(-500, testDataList.getData().get(500).getY(), 0.01);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddAllDifferentLengths() {
+    DataAnalysis testDataList = new DataAnalysis();
+    testDataList.addAll(new double[]{3, 5}, new double[]{4});
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testGetDataReadOnly() {
+    DataAnalysis testDataList = new DataAnalysis();
+    testDataList.addData(1, 2);
+    testDataList.getData().add(new Point2D(3, 4));
+  }
+
   @Test
   public void testPositiveSlopeRegressionLine() {
     DataAnalysis zeroTest = new DataAnalysis();
@@ -132,6 +169,40 @@ public class DataAnalysisTest {
     assertEquals("0.03x + 1.0y + 0.06 = 0", infinityTest.fitLine());
   }
 
+  @Test
+  public void testFitLineModel() {
+    DataAnalysis lineTest = new DataAnalysis();
+    lineTest.addData(-6, -10);
+    lineTest.addData(-1, -3);
+    lineTest.addData(-4, -7);
+    lineTest.addData(3, 2);
+    lineTest.addData(7, 8);
+    lineTest.addData(11, 10);
+
+    FittedLine line = lineTest.fitLineModel();
+    assertEquals(lineTest.fitLine(), line.toString());
+    assertEquals(1, line.getA() * line.getA() + line.getB() * line.getB(), 0.000001);
+    assertEquals(10.0 / 6, line.getCentroidX(), 0.000001);
+    assertEquals(0, line.getCentroidY(), 0.000001);
+    assertEquals(0, line.distanceTo(line.getCentroidX(), line.getCentroidY()), 0.000001);
+    assertEquals(6, line.getCount());
+    assertEquals(line.getYAt(4), -(line.getA() * 4 + line.getC()) / line.getB(), 0.000001);
+    assertTrue(line.getRmsResidual() > 0 && line.getRmsResidual() < 1.5);
+  }
+
+  @Test
+  public void testFitLineModelExactLine() {
+    DataAnalysis lineTest = new DataAnalysis();
+    for (int i = 0; i < 10; i++) {
+      lineTest.addData(i, 3 * i - 2);
+    }
+
+    FittedLine line = lineTest.fitLineModel();
+    assertEquals(13, line.getYAt(5), 0.000001);
+    assertEquals(5, line.getXAt(13), 0.000001);
+    assertEquals(0, line.getSumSquaredResiduals(), 0.000001);
+  }
+
   @Test
   public void testOneParameterKmeans() {
     DataAnalysis oneClusterKmeans = new DataAnalysis();
@@ -233,6 +304,34 @@ public class DataAnalysisTest {
     }
   }
 
+  @Test
+  public void testParallelKmeans() {
+    DataAnalysis parallelKmeans = new DataAnalysis();
+    for (int i = 0; i < 200; i++) {
+      parallelKmeans.addData(-100 + (i % 10), -100 + (i / 10) * 0.5);
+      parallelKmeans.addData(100 + (i % 10), 100 + (i / 10) * 0.5);
+    }
+    KMeansOptions options = new KMeansOptions();
+    options.setParallel(true);
+    options.setRestarts(4);
+    options.setChunkSize(16);
+
+    List<Integer> clusters = parallelKmeans.kmeans(2, options);
+
+    assertEquals(400, clusters.size());
+    for (int i = 0; i < clusters.size(); i += 2) {
+      assertEquals(clusters.get(0), clusters.get(i));
+      assertEquals(clusters.get(1), clusters.get(i + 1));
+    }
+    assertTrue(!clusters.get(0).equals(clusters.get(1)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalRestartsKmeans() {
+    KMeansOptions options = new KMeansOptions();
+    options.setRestarts(0);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testIllegalNegativeParameterKmeans() {
     DataAnalysis illegalDataKmeans = new DataAnalysis();
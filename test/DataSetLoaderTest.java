@@ -0,0 +1,138 @@
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A JUnit test class for the DataSetLoader class.
+ */
+public class DataSetLoaderTest {
+
+  /**
+   * Parses the text given with DataSetLoader.parseDouble.
+   *
+   * @param text the number as a String.
+   * @return the number as a double.
+   */
+  private double parse(String text) {
+    byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+    return DataSetLoader.parseDouble(bytes, bytes.length);
+  }
+
+  /**
+   * Creates a channel that hands out the text given a few bytes at a time, so numbers and lines
+   * are split between reads.
+   *
+   * @param text     the text of the channel.
+   * @param readSize the largest number of bytes returned by one read.
+   * @return the channel.
+   */
+  private ReadableByteChannel slowChannel(String text, int readSize) {
+    ReadableByteChannel source = Channels.newChannel(
+            new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+    return new ReadableByteChannel() {
+      @Override
+      public int read(ByteBuffer dst) throws IOException {
+        ByteBuffer small = ByteBuffer.allocate(Math.min(readSize, dst.remaining()));
+        int read = source.read(small);
+        small.flip();
+        dst.put(small);
+        return read;
+      }
+
+      @Override
+      public boolean isOpen() {
+        return source.isOpen();
+      }
+
+      @Override
+      public void close() throws IOException {
+        source.close();
+      }
+    };
+  }
+
+  @Test
+  public void testParseDouble() {
+    String[] numbers = {"384.74", "-397.27", "0", "-0.0", "+12", "1e3", "2.5E-4", "0.05",
+                        "123456789012345678901234", "3.141592653589793238", ".5", "7.",
+                        "1e-300", "NaN", "-Infinity", "0.1", "9007199254740993"};
+    for (String number : numbers) {
+      assertEquals(number, Double.parseDouble(number), parse(number), 0);
+    }
+    assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(parse("-0.00")));
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testParseNotANumber() {
+    parse("12a");
+  }
+
+  @Test
+  public void testLoadFile() throws IOException {
+    Path file = Files.createTempFile("points", ".txt");
+    try {
+      Files.write(file, "-400.00 -264.84\n-397.49 -260.71\r\n\n  1.5\t2.5  \n3 4".getBytes(
+              StandardCharsets.US_ASCII));
+      DataAnalysis data = new DataAnalysis();
+
+      long read = DataSetLoader.loadInto(file, data);
+
+      assertEquals(4, read);
+      assertEquals(-400, data.getData().get(0).getX(), 0);
+      assertEquals(-260.71, data.getData().get(1).getY(), 0);
+      assertEquals(1.5, data.getData().get(2).getX(), 0);
+      assertEquals(4, data.getData().get(3).getY(), 0);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testNumbersSplitBetweenReads() throws IOException {
+    DataAnalysis data = new DataAnalysis();
+
+    DataSetLoader.read(slowChannel("10.25 -3.5\n-7.125 8\n", 3), data::addData);
+
+    assertEquals(2, data.getData().size());
+    assertEquals(10.25, data.getData().get(0).getX(), 0);
+    assertEquals(-3.5, data.getData().get(0).getY(), 0);
+    assertEquals(-7.125, data.getData().get(1).getX(), 0);
+    assertEquals(8, data.getData().get(1).getY(), 0);
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testOneNumberOnLine() throws IOException {
+    DataSetLoader.read(slowChannel("1 2\n3\n4 5\n", 100), (x, y) -> { });
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testThreeNumbersOnLine() throws IOException {
+    DataSetLoader.read(slowChannel("1 2 3\n", 100), (x, y) -> { });
+  }
+
+  @Test
+  public void testStreamingKMeansFromChannel() throws IOException {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      text.append(i % 2 == 0 ? "-20.5 -20.5\n" : "20.5 20.5\n");
+    }
+    StreamingKMeans model = new StreamingKMeans(2);
+
+    long read = model.readFrom(slowChannel(text.toString(), 7), 10, new SplittableRandom(1));
+
+    assertEquals(100, read);
+    assertEquals(20.5, Math.abs(model.getCentersX()[0]), 0.000001);
+    assertEquals(-model.getCentersX()[0], model.getCentersX()[1], 0.000001);
+  }
+
+}
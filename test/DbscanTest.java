@@ -0,0 +1,92 @@
+import org.junit.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * A JUnit test class for the Dbscan class.
+ */
+public class DbscanTest {
+
+  /**
+   * Creates points in three dense groups of 200 followed by 20 points far from every group and
+   * from each other.
+   *
+   * @return the points as a PointColumns object.
+   */
+  private PointColumns groupsAndNoise() {
+    PointColumns points = PointFixtures.groups(new double[][]{{0, 0}, {300, 0}, {150, 250}},
+            200, 20, 21);
+    for (int i = 0; i < 20; i++) {
+      points.add(-500 - i * 50, 500 + i * 50);
+    }
+    return points;
+  }
+
+  @Test
+  public void testFindsGroupsAndNoise() {
+    Dbscan dbscan = new Dbscan(groupsAndNoise(), 10, 4);
+    int[] labels = dbscan.run();
+
+    assertEquals(3, dbscan.getClusterCount());
+    for (int group = 0; group < 3; group++) {
+      for (int i = group * 200; i < (group + 1) * 200; i++) {
+        assertEquals(group, labels[i]);
+      }
+    }
+    for (int i = 600; i < 620; i++) {
+      assertEquals(Dbscan.NOISE, labels[i]);
+    }
+  }
+
+  @Test
+  public void testBorderPointJoinsCluster() {
+    PointColumns points = new DoublePointColumns();
+    points.add(0, 0);
+    points.add(1, 0);
+    points.add(0, 1);
+    points.add(1, 1);
+    points.add(2.5, 1);
+    points.add(5, 5);
+    int[] labels = new Dbscan(points, 1.5, 4).run();
+
+    assertArrayEquals(new int[]{0, 0, 0, 0, 0, Dbscan.NOISE}, labels);
+  }
+
+  @Test
+  public void testParallelSameAsSequential() {
+    PointColumns points = new DoublePointColumns();
+    SplittableRandom random = new SplittableRandom(3);
+    for (int i = 0; i < 20000; i++) {
+      points.add(random.nextDouble() * 1000, random.nextDouble() * 1000);
+    }
+    int[] sequential = new Dbscan(points, 8, 5).run();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    Dbscan parallel = new Dbscan(points, 8, 5);
+    parallel.setParallel(true);
+    parallel.setPool(pool);
+
+    assertArrayEquals(sequential, parallel.run());
+    pool.shutdown();
+  }
+
+  @Test
+  public void testDataAnalysisDbscan() {
+    DataAnalysis data = new DataAnalysis(groupsAndNoise());
+    List<Integer> clusters = data.dbscan(10, 4);
+
+    assertEquals(620, clusters.size());
+    assertNotEquals(clusters.get(0), clusters.get(200));
+    assertEquals(Dbscan.NOISE, (int) clusters.get(619));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEpsMustBePositive() {
+    new Dbscan(new DoublePointColumns(), 0, 3);
+  }
+}
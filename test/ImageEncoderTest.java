@@ -0,0 +1,131 @@
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the ImageEncoder class and the output methods of ImagePlotter.
+ */
+public class ImageEncoderTest {
+
+  /**
+   * Creates a plotter with points of three colors and a line.
+   *
+   * @return the plotter.
+   */
+  private ImagePlotter plotter() {
+    ImagePlotter plotter = new ImagePlotter();
+    plotter.setDimensions(-100, 100, -100, 100);
+    Color[] colors = {Color.RED, Color.BLUE, Color.GREEN};
+    for (int i = 0; i < 60; i++) {
+      plotter.addPoint(i * 3 - 90, (i * 37) % 180 - 90, colors[i % 3]);
+    }
+    plotter.addLine(-100, -50, 100, 50);
+    return plotter;
+  }
+
+  /**
+   * Decodes the bytes of the buffer given and checks that the image has the same pixels as the
+   * image given.
+   *
+   * @param expected the image the decoded image should match.
+   * @param encoded  the encoded image.
+   * @throws IOException if the image cannot be decoded.
+   */
+  private void assertSamePixels(BufferedImage expected, ByteBuffer encoded) throws IOException {
+    byte[] bytes = new byte[encoded.remaining()];
+    encoded.get(bytes);
+    BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(bytes));
+    assertEquals(expected.getWidth(), decoded.getWidth());
+    for (int x = 0; x < expected.getWidth(); x++) {
+      for (int y = 0; y < expected.getHeight(); y++) {
+        assertEquals(expected.getRGB(x, y), decoded.getRGB(x, y));
+      }
+    }
+  }
+
+  @Test
+  public void testImageTypesKeepPixels() throws IOException {
+    BufferedImage image = plotter().render();
+    int[] types = {BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_RGB,
+                   BufferedImage.TYPE_BYTE_INDEXED};
+    int[] sizes = new int[types.length];
+    for (int t = 0; t < types.length; t++) {
+      ImageEncoder encoder = new ImageEncoder();
+      encoder.setImageType(types[t]);
+      ByteBuffer encoded = encoder.encode(image, "png");
+      sizes[t] = encoded.remaining();
+      assertSamePixels(image, encoded);
+    }
+    assertTrue(sizes[2] < sizes[0]);
+  }
+
+  @Test
+  public void testManyColorsFallBackToRgb() {
+    BufferedImage image = new BufferedImage(20, 20, BufferedImage.TYPE_INT_ARGB);
+    for (int i = 0; i < 400; i++) {
+      image.setRGB(i % 20, i / 20, 0xFF000000 | i * 97);
+    }
+    ImageEncoder encoder = new ImageEncoder();
+    encoder.setImageType(BufferedImage.TYPE_BYTE_INDEXED);
+
+    assertEquals(BufferedImage.TYPE_INT_RGB, encoder.convert(image).getType());
+  }
+
+  @Test
+  public void testCompressionLevel() throws IOException {
+    BufferedImage image = plotter().render();
+    ImageEncoder fast = new ImageEncoder();
+    fast.setCompressionLevel(0);
+    ImageEncoder small = new ImageEncoder();
+    small.setCompressionLevel(9);
+
+    ByteBuffer stored = fast.encode(image, "png");
+    ByteBuffer compressed = small.encode(image, "png");
+
+    assertTrue(compressed.remaining() < stored.remaining());
+    assertSamePixels(image, stored);
+  }
+
+  @Test
+  public void testPlotterStreamAndFileOutput() throws IOException {
+    ImagePlotter plotter = plotter();
+    plotter.setImageType(BufferedImage.TYPE_BYTE_INDEXED);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    plotter.write(out, "png");
+    assertSamePixels(plotter.render(), ByteBuffer.wrap(out.toByteArray()));
+
+    Path directory = Files.createTempDirectory("plots.v1");
+    Path file = directory.resolve("plot.png");
+    try {
+      plotter.write(file.toString());
+      assertEquals(out.size(), Files.size(file));
+    } finally {
+      Files.deleteIfExists(file);
+      Files.delete(directory);
+    }
+  }
+
+  @Test
+  public void testFormatOf() {
+    assertEquals("png", ImageEncoder.formatOf("out.v2/plot.png"));
+    assertEquals("jpg", ImageEncoder.formatOf("plot.JPG"));
+    assertEquals("png", ImageEncoder.formatOf("out.v2/plot"));
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnknownFormat() throws IOException {
+    new ImageEncoder().encode(plotter().render(), "nope");
+  }
+}
@@ -0,0 +1,151 @@
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the ImagePlotter and PointSprite classes.
+ */
+public class ImagePlotterTest {
+
+  /**
+   * Creates a plotter of 600 by 600 pixels over -450 to 450 with a grid of red points.
+   *
+   * @param spriteThreshold the number of points from which on sprites are drawn.
+   * @return the plotter.
+   */
+  private ImagePlotter gridPlotter(int spriteThreshold) {
+    ImagePlotter plotter = new ImagePlotter();
+    plotter.setWidth(600);
+    plotter.setHeight(600);
+    plotter.setDimensions(-450, 450, -450, 450);
+    plotter.setSpriteThreshold(spriteThreshold);
+    for (int x = -400; x <= 400; x += 40) {
+      for (int y = -400; y <= 400; y += 40) {
+        plotter.addPoint(x, y, Color.RED);
+      }
+    }
+    plotter.addLine(-450, -450, 450, 450, Color.BLUE);
+    return plotter;
+  }
+
+  /**
+   * Counts the pixels of the image with the color given.
+   *
+   * @param image the image.
+   * @param rgb   the color as a packed ARGB integer.
+   * @return the number of pixels with the color.
+   */
+  private int count(BufferedImage image, int rgb) {
+    int count = 0;
+    for (int x = 0; x < image.getWidth(); x++) {
+      for (int y = 0; y < image.getHeight(); y++) {
+        if (image.getRGB(x, y) == rgb) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  @Test
+  public void testSpritesMatchOvals() {
+    BufferedImage ovals = gridPlotter(Integer.MAX_VALUE).render();
+    BufferedImage sprites = gridPlotter(0).render();
+
+    int ovalPixels = count(ovals, Color.RED.getRGB());
+    int spritePixels = count(sprites, Color.RED.getRGB());
+    assertTrue(ovalPixels > 0);
+    assertTrue(Math.abs(ovalPixels - spritePixels) < ovalPixels / 5);
+    assertEquals(count(ovals, Color.BLUE.getRGB()), count(sprites, Color.BLUE.getRGB()));
+    assertEquals(Color.RED.getRGB(), sprites.getRGB(326, 300));
+    assertEquals(Color.RED.getRGB(), sprites.getRGB(33, 33));
+  }
+
+  @Test
+  public void testSpriteShapeAndClipping() {
+    int[] pixels = new int[10 * 10];
+    PointSprite sprite = new PointSprite(2, 2);
+
+    sprite.draw(pixels, 10, 10, 5.5, 5.5, 0xFF000000);
+    sprite.draw(pixels, 10, 10, 0, 9.9, 0xFF000000);
+    sprite.draw(pixels, 10, 10, -100, 5, 0xFF000000);
+
+    int filled = 0;
+    for (int pixel : pixels) {
+      if (pixel != 0) {
+        filled++;
+      }
+    }
+    assertEquals(13 + 6, filled);
+    assertEquals(0xFF000000, pixels[3 * 10 + 5]);
+    assertEquals(0, pixels[3 * 10 + 4]);
+  }
+
+  @Test
+  public void testDensityCountsAndMajority() {
+    DensityGrid grid = new DensityGrid(4, 3);
+    grid.add(1, 2, 0xFFFF0000);
+    grid.add(1, 2, 0xFF0000FF);
+    grid.add(1, 2, 0xFFFF0000);
+    grid.add(3, 0, 0xFF0000FF);
+    grid.add(4, 0, 0xFF0000FF);
+
+    assertEquals(3, grid.getCount(1, 2));
+    assertEquals(0xFFFF0000, grid.getMajorityColor(1, 2));
+    assertEquals(0, grid.getMajorityColor(0, 0));
+    assertEquals(3, grid.getMaxCount());
+    assertEquals(4, grid.getTotal());
+  }
+
+  @Test
+  public void testDensityParallelBuildSameAsSequential() {
+    int n = 600000;
+    int[] xy = new int[2 * n];
+    int[] colors = new int[n];
+    SplittableRandom random = new SplittableRandom(6);
+    DensityGrid expected = new DensityGrid(90, 60);
+    for (int i = 0; i < n; i++) {
+      xy[2 * i] = random.nextInt(-10, 100);
+      xy[2 * i + 1] = random.nextInt(-10, 70);
+      colors[i] = random.nextInt(10) < 9 ? 0xFFFF0000 : 0xFF00FF00;
+      expected.add(xy[2 * i], 59 - xy[2 * i + 1], colors[i]);
+    }
+
+    DensityGrid grid = DensityGrid.build(xy, colors, n, 90, 60, 0, -1, 1, 1);
+
+    assertEquals(expected.getTotal(), grid.getTotal());
+    for (int x = 0; x < 90; x++) {
+      for (int y = 0; y < 60; y++) {
+        assertEquals(expected.getCount(x, y), grid.getCount(x, y));
+        assertEquals(0xFFFF0000, grid.getMajorityColor(x, y));
+      }
+    }
+  }
+
+  @Test
+  public void testDensityMode() {
+    ImagePlotter plotter = gridPlotter(Integer.MAX_VALUE);
+    plotter.setDensityThreshold(0);
+    plotter.addPoint(0, 40);
+    plotter.addPoint(0, 40, Color.BLACK);
+
+    BufferedImage image = plotter.render();
+
+    assertEquals(Color.WHITE.getRGB(), image.getRGB(200, 300));
+    assertTrue(image.getRGB(300, 273) != Color.WHITE.getRGB());
+    assertTrue(image.getRGB(326, 300) != Color.WHITE.getRGB());
+  }
+
+  @Test
+  public void testBlend() {
+    assertEquals(0xFFFF0000, PointSprite.blend(0xFFFF0000, 0xFFFFFFFF));
+    int half = PointSprite.blend(0x80000000, 0xFFFFFFFF);
+    assertEquals(0xFF, half >>> 24);
+    assertEquals(0x7F, half & 0xFF, 1);
+  }
+}
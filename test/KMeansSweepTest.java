@@ -0,0 +1,115 @@
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the KMeansSweep class.
+ */
+public class KMeansSweepTest {
+
+  /**
+   * The centers of four tight groups at the corners of a square.
+   */
+  private static final double[][] SQUARE = {{0, 0}, {200, 0}, {0, 200}, {200, 200}};
+
+  /**
+   * Creates seeded options for the sweep.
+   *
+   * @return the options as a KMeansOptions object.
+   */
+  private KMeansOptions seeded() {
+    KMeansOptions options = new KMeansOptions();
+    options.setSeed(7);
+    return options;
+  }
+
+  @Test
+  public void testEveryScoreFindsFourGroups() {
+    PointColumns points = PointFixtures.gaussianGroups(SQUARE, 150, 8, 23);
+    KMeansSweep sweep = new KMeansSweep(points, 1, 8, seeded());
+    sweep.setSampleSize(300);
+    KMeansSweepResult result = sweep.run();
+
+    assertEquals(1, result.getMinK());
+    assertEquals(8, result.getMaxK());
+    assertEquals(4, result.getElbowK());
+    assertEquals(4, result.getSilhouetteK());
+    assertEquals(4, result.getGapK());
+    assertEquals(4, result.getBestK());
+    assertTrue(Double.isNaN(result.getSilhouette(1)));
+    assertTrue(result.getSilhouette(4) > 0.8);
+    for (int k = 2; k <= 8; k++) {
+      assertTrue(result.getInertia(k) <= result.getInertia(k - 1) + 1e-6);
+      assertEquals(k, result.getResult(k).getK());
+    }
+  }
+
+  @Test
+  public void testParallelMatchesSequential() {
+    PointColumns points = PointFixtures.gaussianGroups(SQUARE, 150, 8, 23);
+    KMeansSweepResult sequential = new KMeansSweep(points, 2, 6, seeded()).run();
+    KMeansOptions options = seeded();
+    options.setParallel(true);
+    options.setPool(new ForkJoinPool(4));
+    KMeansSweepResult parallel = new KMeansSweep(points, 2, 6, options).run();
+
+    for (int k = 2; k <= 6; k++) {
+      assertArrayEquals(sequential.getResult(k).getAssignments(),
+              parallel.getResult(k).getAssignments());
+      assertEquals(sequential.getSilhouette(k), parallel.getSilhouette(k), 0);
+      assertEquals(sequential.getGap(k), parallel.getGap(k), 0);
+    }
+  }
+
+  @Test
+  public void testWithoutReferencesUsesSilhouette() {
+    PointColumns points = PointFixtures.gaussianGroups(SQUARE, 150, 8, 23);
+    KMeansSweep sweep = new KMeansSweep(points, 2, 6, seeded());
+    sweep.setReferences(0);
+    KMeansSweepResult result = sweep.run();
+
+    assertEquals(-1, result.getGapK());
+    assertTrue(Double.isNaN(result.getGap(3)));
+    assertEquals(4, result.getBestK());
+  }
+
+  @Test
+  public void testDataAnalysisRecordsSweep() {
+    DataAnalysis analysis = new DataAnalysis();
+    PointColumns points = PointFixtures.gaussianGroups(SQUARE, 150, 8, 23);
+    for (int i = 0; i < points.size(); i++) {
+      analysis.addData(points.getX(i), points.getY(i));
+    }
+    AnalysisMetrics metrics = new AnalysisMetrics();
+    analysis.setMetrics(metrics);
+    KMeansSweepResult result = analysis.kmeansSweep(3, 5, seeded());
+
+    assertEquals(4, result.getSilhouetteK());
+    assertEquals(1, metrics.getCount(AnalysisMetrics.CLUSTER));
+    assertEquals(3, metrics.getKMeansRunCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsEmptyRange() {
+    PointColumns points = PointFixtures.gaussianGroups(SQUARE, 150, 8, 23);
+    new KMeansSweep(points, 5, 4, seeded());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsTooManyClusters() {
+    PointColumns points = PointFixtures.gaussianGroups(SQUARE, 150, 8, 23);
+    new KMeansSweep(points, 1, 601, seeded());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsKOutsideSweep() {
+    PointColumns points = PointFixtures.gaussianGroups(SQUARE, 150, 8, 23);
+    KMeansSweep sweep = new KMeansSweep(points, 2, 3, seeded());
+    sweep.setReferences(0);
+    sweep.run().getInertia(4);
+  }
+}
@@ -0,0 +1,251 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the KMeans class and the strategies that choose its starting centers.
+ */
+public class KMeansTest {
+
+  /**
+   * The centers of four groups at the corners of a square.
+   */
+  private static final double[][] CORNERS = {{-100, -100}, {-100, 100}, {100, -100}, {100, 100}};
+
+  @Test
+  public void testSeededRunsAreRepeatable() {
+    PointColumns points = PointFixtures.groups(CORNERS, 50, 10, 7);
+    KMeansOptions options = new KMeansOptions();
+    options.setSeed(42);
+
+    int[] first = new KMeans(points, 4, options).run().getAssignments();
+    int[] second = new KMeans(points, 4, options).run().getAssignments();
+
+    assertArrayEquals(first, second);
+  }
+
+  @Test
+  public void testSeededParallelSameAsSequential() {
+    PointColumns points = PointFixtures.groups(CORNERS, 50, 10, 7);
+    KMeansOptions options = new KMeansOptions();
+    options.setSeed(3);
+    options.setInitializer(new KMeansPlusPlusInitializer());
+    int[] sequential = new KMeans(points, 4, options).run().getAssignments();
+
+    options.setParallel(true);
+    options.setChunkSize(32);
+    int[] parallel = new KMeans(points, 4, options).run().getAssignments();
+
+    assertArrayEquals(sequential, parallel);
+  }
+
+  @Test
+  public void testKMeansPlusPlusFindsGroups() {
+    PointColumns points = PointFixtures.groups(CORNERS, 50, 10, 7);
+    KMeansOptions options = new KMeansOptions();
+    options.setSeed(11);
+    options.setRestarts(1);
+    options.setInitializer(new KMeansPlusPlusInitializer());
+
+    assertSameGroups(new KMeans(points, 4, options).run().getAssignments());
+  }
+
+  @Test
+  public void testKMeansParallelFindsGroups() {
+    PointColumns points = PointFixtures.groups(CORNERS, 50, 10, 7);
+    KMeansOptions options = new KMeansOptions();
+    options.setSeed(5);
+    options.setRestarts(1);
+    options.setInitializer(new KMeansParallelInitializer());
+
+    assertSameGroups(new KMeans(points, 4, options).run().getAssignments());
+  }
+
+  @Test
+  public void testAcceleratedSameAsPlain() {
+    PointColumns points = new DoublePointColumns();
+    SplittableRandom random = new SplittableRandom(21);
+    for (int i = 0; i < 5000; i++) {
+      double angle = random.nextDouble() * 2 * Math.PI;
+      double radius = random.nextDouble() * 40;
+      int group = i % 16;
+      points.add(100 * (group % 4) + radius * Math.cos(angle),
+              100 * (group / 4) + radius * Math.sin(angle));
+    }
+    for (int k : new int[]{1, 6, 16, 40}) {
+      KMeansOptions options = new KMeansOptions();
+      options.setSeed(k);
+      options.setRestarts(2);
+      options.setTolerance(0.0001);
+      KMeansResult plain = new KMeans(points, k, options).run();
+      options.setAccelerated(true);
+      KMeansResult accelerated = new KMeans(points, k, options).run();
+
+      assertArrayEquals(plain.getAssignments(), accelerated.getAssignments());
+      assertEquals(plain.getIterations(), accelerated.getIterations());
+      assertEquals(plain.getError(), accelerated.getError(), 0);
+      if (k >= 16) {
+        assertTrue(accelerated.getDistanceEvaluations() * 3 < plain.getDistanceEvaluations());
+      }
+    }
+  }
+
+  @Test
+  public void testAcceleratedParallelSameAsPlain() {
+    PointColumns points = PointFixtures.groups(CORNERS, 50, 10, 7);
+    KMeansOptions options = new KMeansOptions();
+    options.setSeed(8);
+    int[] plain = new KMeans(points, 5, options).run().getAssignments();
+    options.setAccelerated(true);
+    options.setParallel(true);
+    options.setChunkSize(25);
+    int[] accelerated = new KMeans(points, 5, options).run().getAssignments();
+
+    assertArrayEquals(plain, accelerated);
+  }
+
+  @Test
+  public void testMiniBatchFindsGroups() {
+    PointColumns points = PointFixtures.groups(CORNERS, 50, 10, 7);
+    KMeansOptions options = new KMeansOptions();
+    options.setSeed(2);
+    options.setRestarts(3);
+    options.setBatchSize(20);
+    options.setMaxIterations(30);
+    options.setInitializer(new KMeansPlusPlusInitializer());
+
+    KMeansResult result = new KMeans(points, 4, options).run();
+
+    assertSameGroups(result.getAssignments());
+    assertTrue(result.getError() < 10);
+  }
+
+  @Test
+  public void testStreamingFromReader() throws IOException {
+    StringBuilder text = new StringBuilder();
+    SplittableRandom random = new SplittableRandom(9);
+    for (int i = 0; i < 300; i++) {
+      double center = i % 2 == 0 ? -50 : 50;
+      text.append(center + random.nextDouble() * 4 - 2).append(' ')
+              .append(center + random.nextDouble() * 4 - 2).append('\n');
+    }
+    StreamingKMeans model = new StreamingKMeans(2);
+
+    long read = model.readFrom(new StringReader(text.toString()), 32, new SplittableRandom(1));
+
+    assertEquals(300, read);
+    assertTrue(model.isSeeded());
+    assertTrue(model.assign(-50, -50) != model.assign(50, 50));
+    int low = model.assign(-50, -50);
+    assertEquals(-50, model.getCentersX()[low], 1);
+    assertEquals(50, model.getCentersY()[1 - low], 1);
+  }
+
+  @Test
+  public void testStreamingOnePointAtATime() {
+    StreamingKMeans model = new StreamingKMeans(2);
+    model.update(0, 0);
+    model.update(10, 10);
+    model.update(2, 0);
+    model.update(12, 10);
+
+    assertEquals(1, model.getCentersX()[0], 0.000001);
+    assertEquals(11, model.getCentersX()[1], 0.000001);
+    assertEquals(2, model.getCounts()[0]);
+    assertEquals(0, model.assign(-3, 1));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testStreamingAssignWithoutCenters() {
+    new StreamingKMeans(3).assign(1, 1);
+  }
+
+  @Test
+  public void testInitializersChooseDataPoints() {
+    PointColumns points = PointFixtures.groups(CORNERS, 50, 10, 7);
+    KMeansInitializer[] initializers = {new RandomInitializer(), new KMeansPlusPlusInitializer(),
+                                        new KMeansParallelInitializer()};
+    for (KMeansInitializer initializer : initializers) {
+      double[][] centers = initializer.initialize(points, 6, new SplittableRandom(1));
+      assertEquals(6, centers[0].length);
+      for (int c = 0; c < 6; c++) {
+        boolean found = false;
+        for (int i = 0; i < points.size(); i++) {
+          if (points.getX(i) == centers[0][c] && points.getY(i) == centers[1][c]) {
+            found = true;
+          }
+        }
+        assertTrue(found);
+      }
+    }
+  }
+
+  @Test
+  public void testInitializersWithDuplicatePoints() {
+    PointColumns points = new DoublePointColumns();
+    for (int i = 0; i < 10; i++) {
+      points.add(1, 1);
+    }
+    KMeansInitializer[] initializers = {new RandomInitializer(), new KMeansPlusPlusInitializer(),
+                                        new KMeansParallelInitializer()};
+    for (KMeansInitializer initializer : initializers) {
+      double[][] centers = initializer.initialize(points, 3, new SplittableRandom(1));
+      assertEquals(3, centers[0].length);
+      assertEquals(1, centers[0][2], 0);
+    }
+  }
+
+  /**
+   * Checks that the points of each group of 50 are in the same cluster and that every group has
+   * its own cluster.
+   *
+   * @param assignments the cluster of each point.
+   */
+  private void assertSameGroups(int[] assignments) {
+    boolean[] used = new boolean[4];
+    for (int group = 0; group < 4; group++) {
+      int cluster = assignments[group * 50];
+      assertTrue(!used[cluster]);
+      used[cluster] = true;
+      for (int i = 0; i < 50; i++) {
+        assertEquals(cluster, assignments[group * 50 + i]);
+      }
+    }
+  }
+
+  @Test
+  public void testWeightedPointsSameAsRepeatedPoints() {
+    PointColumns repeated = new DoublePointColumns();
+    PointColumns weighted = new DoublePointColumns();
+    SplittableRandom random = new SplittableRandom(12);
+    for (int i = 0; i < 120; i++) {
+      double x = (i % 3) * 80 + random.nextDouble() * 10;
+      double y = random.nextDouble() * 10;
+      int times = 1 + i % 4;
+      for (int r = 0; r < times; r++) {
+        repeated.add(x, y);
+      }
+      weighted.add(x, y, times);
+    }
+    KMeansOptions options = new KMeansOptions();
+    options.setSeed(4);
+    options.setTolerance(0);
+    options.setInitializer(new KMeansPlusPlusInitializer());
+    KMeansResult expected = new KMeans(repeated, 3, options).run();
+    KMeansResult result = new KMeans(weighted, 3, options).run();
+
+    double[] expectedX = expected.getCentersX().clone();
+    double[] resultX = result.getCentersX().clone();
+    Arrays.sort(expectedX);
+    Arrays.sort(resultX);
+    assertArrayEquals(expectedX, resultX, 1e-9);
+    assertEquals(expected.getError(), result.getError(), 1e-9);
+  }
+}
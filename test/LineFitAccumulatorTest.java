@@ -0,0 +1,117 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A JUnit test class for the LineFitAccumulator class.
+ */
+public class LineFitAccumulatorTest {
+
+  @Test
+  public void testAddStatistics() {
+    LineFitAccumulator accumulator = new LineFitAccumulator();
+    accumulator.add(1, 2);
+    accumulator.add(2, 4);
+    accumulator.add(3, 9);
+
+    assertEquals(3, accumulator.getCount());
+    assertEquals(2, accumulator.getMeanX(), 0.0001);
+    assertEquals(5, accumulator.getMeanY(), 0.0001);
+    assertEquals(2, accumulator.getSxx(), 0.0001);
+    assertEquals(26, accumulator.getSyy(), 0.0001);
+    assertEquals(7, accumulator.getSxy(), 0.0001);
+  }
+
+  @Test
+  public void testMergeSameAsAdd() {
+    LineFitAccumulator all = new LineFitAccumulator();
+    LineFitAccumulator first = new LineFitAccumulator();
+    LineFitAccumulator second = new LineFitAccumulator();
+    for (int i = 0; i < 20; i++) {
+      double x = i * 1.5 - 7;
+      double y = Math.sin(i) * 10 + x;
+      all.add(x, y);
+      if (i < 8) {
+        first.add(x, y);
+      } else {
+        second.add(x, y);
+      }
+    }
+    first.merge(second);
+
+    assertEquals(all.getCount(), first.getCount());
+    assertEquals(all.getMeanX(), first.getMeanX(), 0.000001);
+    assertEquals(all.getMeanY(), first.getMeanY(), 0.000001);
+    assertEquals(all.getSxx(), first.getSxx(), 0.000001);
+    assertEquals(all.getSyy(), first.getSyy(), 0.000001);
+    assertEquals(all.getSxy(), first.getSxy(), 0.000001);
+  }
+
+  @Test
+  public void testRemoveSameAsNeverAdded() {
+    LineFitAccumulator window = new LineFitAccumulator();
+    LineFitAccumulator expected = new LineFitAccumulator();
+    window.add(100, -40);
+    window.add(-3, 22);
+    for (int i = 0; i < 10; i++) {
+      window.add(i, 2 * i + 1);
+      expected.add(i, 2 * i + 1);
+    }
+    window.remove(100, -40);
+    window.remove(-3, 22);
+
+    assertEquals(expected.getCount(), window.getCount());
+    assertEquals(expected.getMeanX(), window.getMeanX(), 0.000001);
+    assertEquals(expected.getMeanY(), window.getMeanY(), 0.000001);
+    assertEquals(expected.getSxx(), window.getSxx(), 0.000001);
+    assertEquals(expected.getSyy(), window.getSyy(), 0.000001);
+    assertEquals(expected.getSxy(), window.getSxy(), 0.000001);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRemoveFromEmpty() {
+    LineFitAccumulator accumulator = new LineFitAccumulator();
+    accumulator.remove(1, 1);
+  }
+
+  @Test
+  public void testWeightSameAsRepeatedPoints() {
+    LineFitAccumulator repeated = new LineFitAccumulator();
+    LineFitAccumulator weighted = new LineFitAccumulator();
+    for (int i = 0; i < 10; i++) {
+      double x = i * 0.7;
+      double y = Math.cos(i) * 4 - x;
+      for (int r = 0; r <= i % 3; r++) {
+        repeated.add(x, y);
+      }
+      weighted.add(x, y, i % 3 + 1);
+    }
+
+    assertEquals(10, weighted.getCount());
+    assertEquals(repeated.getCount(), weighted.getWeight(), 0);
+    assertEquals(repeated.getMeanX(), weighted.getMeanX(), 1e-12);
+    assertEquals(repeated.getMeanY(), weighted.getMeanY(), 1e-12);
+    assertEquals(repeated.getSxx(), weighted.getSxx(), 1e-9);
+    assertEquals(repeated.getSyy(), weighted.getSyy(), 1e-9);
+    assertEquals(repeated.getSxy(), weighted.getSxy(), 1e-9);
+  }
+
+  @Test
+  public void testRemoveWeightedPoint() {
+    LineFitAccumulator expected = new LineFitAccumulator();
+    LineFitAccumulator accumulator = new LineFitAccumulator();
+    expected.add(1, 2, 2);
+    expected.add(4, 3, 0.5);
+    accumulator.add(1, 2, 2);
+    accumulator.add(7, -1, 3);
+    accumulator.add(4, 3, 0.5);
+    accumulator.remove(7, -1, 3);
+
+    assertEquals(2, accumulator.getCount());
+    assertEquals(expected.getWeight(), accumulator.getWeight(), 1e-12);
+    assertEquals(expected.getMeanX(), accumulator.getMeanX(), 1e-12);
+    assertEquals(expected.getMeanY(), accumulator.getMeanY(), 1e-12);
+    assertEquals(expected.getSxx(), accumulator.getSxx(), 1e-9);
+    assertEquals(expected.getSxy(), accumulator.getSxy(), 1e-9);
+  }
+}
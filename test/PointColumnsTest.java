@@ -0,0 +1,103 @@
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the FloatPointColumns and FixedPointColumns classes and the weights
+ * of PointColumns.
+ */
+public class PointColumnsTest {
+
+  @Test
+  public void testFixedPointKeepsTwoDecimalsExactly() {
+    PointColumns columns = new FixedPointColumns(2);
+    columns.add(384.74, -397.27);
+    columns.addAll(new double[]{0.01, -1234567.89}, new double[]{-0.006, 1e6});
+
+    assertEquals(3, columns.size());
+    assertEquals(384.74, columns.getX(0), 0);
+    assertEquals(-397.27, columns.getY(0), 0);
+    assertEquals(0.01, columns.getX(1), 0);
+    assertEquals(-0.01, columns.getY(1), 0);
+    assertEquals(-1234567.89, columns.getX(2), 0);
+  }
+
+  @Test
+  public void testFloatRoundsToFloat() {
+    PointColumns columns = new FloatPointColumns(0);
+    for (int i = 0; i < 40; i++) {
+      columns.add(i + 0.1, -i);
+    }
+
+    assertEquals(40, columns.size());
+    assertEquals((float) 17.1, columns.getX(17), 0);
+    assertEquals(-39, columns.getY(39), 0);
+  }
+
+  @Test
+  public void testCompactDataAnalysisMatchesDouble() {
+    DataAnalysis doubles = new DataAnalysis();
+    DataAnalysis floats = new DataAnalysis(new FloatPointColumns());
+    DataAnalysis fixed = new DataAnalysis(new FixedPointColumns(2));
+    for (int i = 0; i < 100; i++) {
+      double x = Math.round((i * 4.37) % 300 * 100) / 100.0;
+      double y = Math.round((i % 2 == 0 ? 100 + i * 0.13 : -100 - i * 0.29) * 100) / 100.0;
+      doubles.addData(x, y);
+      floats.addData(x, y);
+      fixed.addData(x, y);
+    }
+    KMeansOptions options = new KMeansOptions();
+    options.setSeed(6);
+
+    assertEquals(doubles.fitLine(), fixed.fitLine());
+    assertEquals(doubles.fitLine(), floats.fitLine());
+    List<Integer> clusters = doubles.kmeans(2, options);
+    assertEquals(clusters, fixed.kmeans(2, options));
+    assertEquals(clusters, floats.kmeans(2, options));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFixedPointOverflow() {
+    new FixedPointColumns(4).add(1e6, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFixedPointPrecisionRange() {
+    new FixedPointColumns(10);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testIndexOutOfRange() {
+    new FloatPointColumns().getX(0);
+  }
+
+  @Test
+  public void testWeightsAreKeptOnlyWhenGiven() {
+    PointColumns points = new FloatPointColumns();
+    points.add(1, 1);
+    points.add(2, 2, 1);
+
+    assertFalse(points.isWeighted());
+    assertNull(points.getWeights());
+    assertEquals(2, points.getTotalWeight(), 0);
+
+    points.add(3, 3, 2.5);
+    points.add(4, 4);
+
+    assertTrue(points.isWeighted());
+    assertArrayEquals(new double[] {1, 1, 2.5, 1}, points.getWeights(), 0);
+    assertEquals(1, points.getWeight(3), 0);
+    assertEquals(5.5, points.getTotalWeight(), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsZeroWeight() {
+    new DoublePointColumns().add(0, 0, 0);
+  }
+}
@@ -0,0 +1,194 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the PointFile class.
+ */
+public class PointFileTest {
+
+  /**
+   * Creates points scattered around the line y = 2x + 3.
+   *
+   * @param n the number of points.
+   * @return the points as a PointColumns object.
+   */
+  private PointColumns linePoints(int n) {
+    PointColumns points = new DoublePointColumns();
+    SplittableRandom random = new SplittableRandom(4);
+    for (int i = 0; i < n; i++) {
+      double x = random.nextDouble() * 800 - 400;
+      points.add(x, 2 * x + 3 + random.nextDouble() * 10 - 5);
+    }
+    return points;
+  }
+
+  /**
+   * Creates points scattered around the line y = 2x + 3, every third of them with a weight.
+   *
+   * @param n the number of points.
+   * @return the points as a PointColumns object.
+   */
+  private PointColumns weightedPoints(int n) {
+    PointColumns points = new DoublePointColumns();
+    SplittableRandom random = new SplittableRandom(6);
+    for (int i = 0; i < n; i++) {
+      double x = random.nextDouble() * 800 - 400;
+      double weight = i % 3 == 0 ? 1 + random.nextDouble() * 9 : 1;
+      points.add(x, 2 * x + 3 + random.nextDouble() * 10 - 5, weight);
+    }
+    return points;
+  }
+
+  /**
+   * Writes the points to a temporary point file, opens it again and checks that the points read
+   * back are the points written.
+   *
+   * @param points   the points being written.
+   * @param float32  true to store the values as float32.
+   * @param compress true to compress the columns.
+   * @throws IOException if the file cannot be written or read.
+   */
+  private void assertRoundTrip(PointColumns points, boolean float32, boolean compress)
+          throws IOException {
+    Path file = Files.createTempFile("points", ".ptsf");
+    try {
+      PointFile.write(file, points, float32, compress);
+      PointFile pointFile = PointFile.open(file);
+      PointColumns read = pointFile.getColumns();
+
+      assertEquals(points.size(), pointFile.getCount());
+      assertEquals(float32, pointFile.isFloat32());
+      assertEquals(compress, pointFile.isCompressed());
+      assertEquals(points.isWeighted(), pointFile.isWeighted());
+      assertEquals(points.isWeighted(), read.isWeighted());
+      assertEquals(points.size(), read.size());
+      for (int i = 0; i < points.size(); i++) {
+        double x = float32 ? (float) points.getX(i) : points.getX(i);
+        double y = float32 ? (float) points.getY(i) : points.getY(i);
+        assertEquals(x, read.getX(i), 0);
+        assertEquals(y, read.getY(i), 0);
+        assertEquals(points.getWeight(i), read.getWeight(i), 0);
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    assertRoundTrip(linePoints(1000), false, false);
+  }
+
+  @Test
+  public void testRoundTripFloat32() throws IOException {
+    assertRoundTrip(linePoints(1000), true, false);
+  }
+
+  @Test
+  public void testRoundTripCompressed() throws IOException {
+    assertRoundTrip(linePoints(150000), false, true);
+    assertRoundTrip(linePoints(3), true, true);
+  }
+
+  @Test
+  public void testRoundTripEmpty() throws IOException {
+    assertRoundTrip(new DoublePointColumns(), false, false);
+    assertRoundTrip(new DoublePointColumns(), false, true);
+  }
+
+  @Test
+  public void testRoundTripWeighted() throws IOException {
+    assertRoundTrip(weightedPoints(1000), false, false);
+    assertRoundTrip(weightedPoints(1000), true, false);
+    assertRoundTrip(weightedPoints(150000), false, true);
+    assertRoundTrip(weightedPoints(3), true, true);
+  }
+
+  @Test
+  public void testHeaderFitMatchesWeightedPoints() throws IOException {
+    PointColumns points = weightedPoints(500);
+    DataAnalysis expected = new DataAnalysis(points);
+    Path file = Files.createTempFile("points", ".ptsf");
+    try {
+      PointFile.write(file, points, false, false);
+      PointFile pointFile = PointFile.open(file);
+      PointColumns read = pointFile.getColumns();
+
+      assertEquals(expected.fitLine(), pointFile.fitLineModel().toString());
+      assertEquals(expected.fitLine(), new DataAnalysis(read).fitLine());
+      assertEquals(points.getTotalWeight(), pointFile.getStatistics().getWeight(), 1e-9);
+      assertEquals(points.getTotalWeight(), read.getTotalWeight(), 1e-9);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testHeaderFitMatchesPoints() throws IOException {
+    PointColumns points = linePoints(500);
+    DataAnalysis expected = new DataAnalysis(points);
+    Path file = Files.createTempFile("points", ".ptsf");
+    try {
+      PointFile.write(file, points, false, false);
+      PointFile pointFile = PointFile.open(file);
+
+      assertEquals(expected.fitLine(), pointFile.fitLineModel().toString());
+      assertEquals(expected.fitLine(), pointFile.toDataAnalysis().fitLine());
+      assertTrue(pointFile.getMinX() >= -400);
+      assertTrue(pointFile.getMaxX() <= 400);
+      assertTrue(pointFile.getMinY() < pointFile.getMaxY());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testMappedColumnsCopyOnFirstAdd() throws IOException {
+    PointColumns points = weightedPoints(10);
+    Path file = Files.createTempFile("points", ".ptsf");
+    try {
+      PointFile.write(file, points, false, false);
+      PointFile pointFile = PointFile.open(file);
+      MappedPointColumns read = (MappedPointColumns) pointFile.getColumns();
+      assertTrue(read.isMapped());
+
+      read.add(1, 1, 2);
+      assertFalse(read.isMapped());
+      assertEquals(11, read.size());
+      assertEquals(points.getX(9), read.getX(9), 0);
+      assertEquals(points.getWeight(0), read.getWeight(0), 0);
+      assertEquals(2, read.getWeight(10), 0);
+      assertEquals(10, PointFile.open(file).getColumns().size());
+
+      DataAnalysis analysis = pointFile.toDataAnalysis();
+      analysis.addData(5, 13);
+      analysis.addAll(new double[]{6, 7}, new double[]{15, 17});
+      DataAnalysis expected = new DataAnalysis(weightedPoints(10));
+      expected.addData(5, 13);
+      expected.addAll(new double[]{6, 7}, new double[]{15, 17});
+      assertEquals(13, analysis.getData().size());
+      assertEquals(expected.fitLine(), analysis.fitLine());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testOpenTextFile() throws IOException {
+    Path file = Files.createTempFile("points", ".txt");
+    try {
+      Files.write(file, new byte[200]);
+      PointFile.open(file);
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+import java.util.SplittableRandom;
+
+/**
+ * This class builds the grouped points that the clustering tests run on. The points of each group
+ * are added one group after the other, so the points of group g are at indices g * perGroup to
+ * (g + 1) * perGroup - 1, and a seed always gives the same points.
+ */
+public final class PointFixtures {
+
+  /**
+   * Private constructor since this class only has static methods.
+   */
+  private PointFixtures() {
+  }
+
+  /**
+   * Public static method that creates points spread uniformly in a square around each center.
+   *
+   * @param centers  the center of each group as {x, y}.
+   * @param perGroup the number of points in each group.
+   * @param spread   half the side of the square around each center.
+   * @param seed     the seed of the random number generator.
+   * @return the points as a PointColumns object.
+   */
+  public static PointColumns groups(double[][] centers, int perGroup, double spread, long seed) {
+    PointColumns points = new DoublePointColumns(centers.length * perGroup);
+    SplittableRandom random = new SplittableRandom(seed);
+    for (double[] center : centers) {
+      for (int i = 0; i < perGroup; i++) {
+        points.add(center[0] + random.nextDouble() * 2 * spread - spread,
+                center[1] + random.nextDouble() * 2 * spread - spread);
+      }
+    }
+    return points;
+  }
+
+  /**
+   * Public static method that creates points with a normal distribution around each center.
+   *
+   * @param centers  the center of each group as {x, y}.
+   * @param perGroup the number of points in each group.
+   * @param sigma    the standard deviation of each coordinate.
+   * @param seed     the seed of the random number generator.
+   * @return the points as a PointColumns object.
+   */
+  public static PointColumns gaussianGroups(double[][] centers, int perGroup, double sigma,
+                                            long seed) {
+    PointColumns points = new DoublePointColumns(centers.length * perGroup);
+    SplittableRandom random = new SplittableRandom(seed);
+    for (double[] center : centers) {
+      for (int i = 0; i < perGroup; i++) {
+        points.add(center[0] + random.nextGaussian() * sigma,
+                center[1] + random.nextGaussian() * sigma);
+      }
+    }
+    return points;
+  }
+
+  /**
+   * Public static method that adds the points of groups to a DataSet, spread uniformly in a
+   * square around each center as by groups.
+   *
+   * @param data     the DataSet the points are added to.
+   * @param centers  the center of each group as {x, y}.
+   * @param perGroup the number of points in each group.
+   * @param spread   half the side of the square around each center.
+   * @param seed     the seed of the random number generator.
+   */
+  public static void addGroups(DataSet data, double[][] centers, int perGroup, double spread,
+                               long seed) {
+    PointColumns points = groups(centers, perGroup, spread, seed);
+    for (int i = 0; i < points.size(); i++) {
+      data.addData(points.getX(i), points.getY(i));
+    }
+  }
+
+  /**
+   * Public static method that returns a copy of the points with each coordinate rounded to the
+   * number of decimals given, like data written with a few decimals.
+   *
+   * @param points   the points that are rounded.
+   * @param decimals the number of decimals that are kept.
+   * @return the rounded points as a PointColumns object.
+   */
+  public static PointColumns rounded(PointColumns points, int decimals) {
+    double scale = Math.pow(10, decimals);
+    PointColumns copy = new DoublePointColumns(points.size());
+    for (int i = 0; i < points.size(); i++) {
+      copy.add(Math.round(points.getX(i) * scale) / scale,
+              Math.round(points.getY(i) * scale) / scale);
+    }
+    return copy;
+  }
+}
@@ -0,0 +1,136 @@
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the RansacLineFitter class.
+ */
+public class RansacLineFitterTest {
+
+  /**
+   * Creates 300 points near the line y = 2x + 5, followed by 100 outliers far below it.
+   *
+   * @return the points as a PointColumns object.
+   */
+  private PointColumns noisyLine() {
+    PointColumns points = new DoublePointColumns();
+    SplittableRandom random = new SplittableRandom(19);
+    for (int i = 0; i < 300; i++) {
+      double x = random.nextDouble() * 200 - 100;
+      points.add(x, 2 * x + 5 + random.nextDouble() - 0.5);
+    }
+    for (int i = 0; i < 100; i++) {
+      points.add(random.nextDouble() * 200 - 100, -300 - random.nextDouble() * 100);
+    }
+    return points;
+  }
+
+  @Test
+  public void testIgnoresOutliers() {
+    PointColumns points = noisyLine();
+    RansacLineFitter fitter = new RansacLineFitter(2);
+    fitter.setSeed(4);
+
+    RansacResult result = fitter.fit(points);
+    FittedLine line = result.getLine();
+
+    assertEquals(300, result.getInlierCount());
+    assertEquals(5, line.getYAt(0), 0.2);
+    assertEquals(205, line.getYAt(100), 0.5);
+    assertTrue(result.getIterations() < RansacLineFitter.DEFAULT_MAX_ITERATIONS);
+    for (int i = 0; i < 400; i++) {
+      assertEquals(i < 300, result.getInliers()[i]);
+    }
+
+    FittedLine plain = new DataAnalysis(points).fitLineModel();
+    assertTrue(Math.abs(plain.getYAt(100) - 205) > 20);
+  }
+
+  @Test
+  public void testCoresetGivesSameRobustLine() {
+    DataAnalysis points = new DataAnalysis();
+    SplittableRandom random = new SplittableRandom(23);
+    for (int i = 0; i < 60000; i++) {
+      double x = random.nextDouble() * 200 - 100;
+      points.addData(x, 2 * x + 5 + random.nextDouble() - 0.5);
+    }
+    for (int i = 0; i < 40000; i++) {
+      points.addData(random.nextDouble() * 400 - 200, random.nextDouble() * 800 - 400);
+    }
+    DataAnalysis summary = points.compress(4000);
+    RansacLineFitter fitter = new RansacLineFitter(2);
+    fitter.setSeed(6);
+    FittedLine full = points.fitLineRobust(fitter).getLine();
+    FittedLine compressed = summary.fitLineRobust(fitter).getLine();
+
+    assertEquals(5, full.getYAt(0), 0.2);
+    assertEquals(full.getYAt(-100), compressed.getYAt(-100), 0.5);
+    assertEquals(full.getYAt(100), compressed.getYAt(100), 0.5);
+  }
+
+  @Test
+  public void testParallelSameAsSequential() {
+    PointColumns points = noisyLine();
+    RansacLineFitter fitter = new RansacLineFitter(2);
+    fitter.setSeed(8);
+    fitter.setConfidence(0.9999);
+    RansacResult sequential = fitter.fit(points);
+
+    ForkJoinPool pool = new ForkJoinPool(3);
+    fitter.setParallel(true);
+    fitter.setPool(pool);
+    RansacResult parallel = fitter.fit(points);
+    pool.shutdown();
+
+    assertEquals(sequential.getIterations(), parallel.getIterations());
+    assertEquals(sequential.getScore(), parallel.getScore(), 0);
+    assertArrayEquals(sequential.getInliers(), parallel.getInliers());
+  }
+
+  @Test
+  public void testIterationLimit() {
+    RansacLineFitter fitter = new RansacLineFitter(0.001);
+    fitter.setSeed(1);
+    fitter.setMaxIterations(10);
+    PointColumns points = new DoublePointColumns();
+    for (int i = 0; i < 50; i++) {
+      points.add(i, (i * 7919) % 101);
+    }
+
+    assertEquals(10, fitter.fit(points).getIterations());
+  }
+
+  @Test
+  public void testSamePointsFallBackToLeastSquares() {
+    PointColumns points = new DoublePointColumns();
+    for (int i = 0; i < 5; i++) {
+      points.add(3, 4);
+    }
+
+    assertEquals(5, new RansacLineFitter(1).fit(points).getInlierCount());
+  }
+
+  @Test
+  public void testDataAnalysisRobustFit() {
+    DataAnalysis data = new DataAnalysis(noisyLine());
+
+    assertEquals(205, data.fitLineRobust(2).getYAt(100), 0.5);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooFewPoints() {
+    PointColumns points = new DoublePointColumns();
+    points.add(1, 1);
+    new RansacLineFitter(1).fit(points);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testThresholdMustBePositive() {
+    new RansacLineFitter(0);
+  }
+}
@@ -0,0 +1,122 @@
+import org.junit.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the SlidingWindowDataSet and RingPointColumns classes.
+ */
+public class SlidingWindowDataSetTest {
+
+  @Test
+  public void testKeepsLastPointsAndTheirLine() {
+    SlidingWindowDataSet window = new SlidingWindowDataSet(100);
+    DataAnalysis last = new DataAnalysis();
+    SplittableRandom random = new SplittableRandom(3);
+    for (int i = 0; i < 1050; i++) {
+      double x = i * 0.5;
+      double y = (i < 900 ? -3 * x : 2 * x) + random.nextDouble();
+      window.addData(x, y);
+      if (i >= 950) {
+        last.addData(x, y);
+      }
+    }
+    FittedLine expected = last.fitLineModel();
+    FittedLine line = window.fitLineModel();
+
+    assertEquals(100, window.getData().size());
+    assertEquals(950, window.getEvicted());
+    assertEquals(last.getData().get(0).getX(), window.getData().get(0).getX(), 0);
+    assertEquals(100, line.getCount());
+    assertEquals(expected.getA(), line.getA(), 1e-9);
+    assertEquals(expected.getB(), line.getB(), 1e-9);
+    assertEquals(expected.getC(), line.getC(), 1e-6);
+  }
+
+  @Test
+  public void testEvictsPointsOlderThanMaxAge() {
+    SlidingWindowDataSet window = new SlidingWindowDataSet(1000, 500);
+    for (int i = 0; i < 10; i++) {
+      window.addAt(i * 100, i, i, 1);
+    }
+
+    assertEquals(6, window.getData().size());
+    assertEquals(4, window.getData().get(0).getX(), 0);
+    assertEquals(3, window.expire(1200));
+    assertEquals(7, window.getData().get(0).getX(), 0);
+    assertEquals(3, window.fitLineModel().getCount());
+  }
+
+  @Test
+  public void testClusterModelFollowsWindow() {
+    SlidingWindowDataSet window = new SlidingWindowDataSet(400);
+    SplittableRandom random = new SplittableRandom(8);
+    for (int i = 0; i < 400; i++) {
+      window.addData((i % 2) * 100 + random.nextDouble(), random.nextDouble());
+    }
+    KMeansOptions options = new KMeansOptions();
+    options.setSeed(2);
+    ClusterModel model = window.cluster(2, options);
+    for (int i = 0; i < 400; i++) {
+      window.addData((i % 2) * 100 + random.nextDouble(), 50 + random.nextDouble());
+    }
+
+    assertEquals(400, model.size());
+    assertEquals(400, model.getCount(0) + model.getCount(1));
+    double[] centersY = model.getCentersY();
+    assertEquals(50.5, centersY[0], 0.1);
+    assertEquals(50.5, centersY[1], 0.1);
+    int[] before = model.getAssignments();
+    model.recluster();
+    assertArrayEquals(before, model.getAssignments());
+  }
+
+  @Test
+  public void testAddAllKeepsOnlyWhatFits() {
+    SlidingWindowDataSet window = new SlidingWindowDataSet(3);
+    window.addData(-1, -1);
+    window.addAll(new double[] {1, 2, 3, 4, 5}, new double[] {1, 2, 3, 4, 5});
+    List<Point2D> points = window.getData();
+
+    assertEquals(3, points.size());
+    assertEquals(3, points.get(0).getX(), 0);
+    assertEquals(5, points.get(2).getX(), 0);
+    assertEquals(3, window.fitLineModel().getCount());
+  }
+
+  @Test
+  public void testRingKeepsWeightsAcrossWrap() {
+    RingPointColumns columns = new RingPointColumns(3);
+    columns.add(1, 1);
+    columns.add(2, 2, 4);
+    columns.add(3, 3);
+    columns.removeOldest();
+    columns.add(4, 4, 0.5);
+    columns.removeOldest();
+    columns.add(5, 5);
+
+    assertTrue(columns.isFull());
+    assertEquals(3, columns.getX(0), 0);
+    assertEquals(5, columns.getY(2), 0);
+    assertArrayEquals(new double[] {1, 0.5, 1}, columns.getWeights(), 0);
+    assertEquals(2.5, columns.getTotalWeight(), 0);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRingRejectsAddWhenFull() {
+    RingPointColumns columns = new RingPointColumns(1);
+    columns.add(0, 0);
+    columns.add(1, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsTimeGoingBack() {
+    SlidingWindowDataSet window = new SlidingWindowDataSet(10, 1000);
+    window.addAt(500, 0, 0, 1);
+    window.addAt(400, 1, 1, 1);
+  }
+}
@@ -0,0 +1,144 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A JUnit test class for the SpatialIndex class.
+ */
+public class SpatialIndexTest {
+
+  /**
+   * Returns the points in the box given by reading every point.
+   *
+   * @param data the points.
+   * @param xmin the smallest x coordinate of the box.
+   * @param xmax the largest x coordinate of the box.
+   * @param ymin the smallest y coordinate of the box.
+   * @param ymax the largest y coordinate of the box.
+   * @return the indexes of the points in increasing order.
+   */
+  private int[] scanRange(PointColumns data, double xmin, double xmax, double ymin, double ymax) {
+    List<Integer> found = new ArrayList<>();
+    for (int i = 0; i < data.size(); i++) {
+      if (data.getX(i) >= xmin && data.getX(i) <= xmax && data.getY(i) >= ymin
+              && data.getY(i) <= ymax) {
+        found.add(i);
+      }
+    }
+    return found.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * Returns the m points nearest to a point by sorting every point by distance.
+   *
+   * @param data the points.
+   * @param x    the x coordinate of the point.
+   * @param y    the y coordinate of the point.
+   * @param m    the number of points.
+   * @return the indexes of the points from nearest to farthest.
+   */
+  private int[] scanNearest(PointColumns data, double x, double y, int m) {
+    List<Integer> all = new ArrayList<>();
+    for (int i = 0; i < data.size(); i++) {
+      all.add(i);
+    }
+    all.sort((p, q) -> {
+      double dp = Math.pow(data.getX(p) - x, 2) + Math.pow(data.getY(p) - y, 2);
+      double dq = Math.pow(data.getX(q) - x, 2) + Math.pow(data.getY(q) - y, 2);
+      return dp != dq ? Double.compare(dp, dq) : Integer.compare(p, q);
+    });
+    return all.subList(0, Math.min(m, all.size())).stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  @Test
+  public void testQueriesMatchScan() {
+    SplittableRandom random = new SplittableRandom(12);
+    DataAnalysis data = new DataAnalysis();
+    for (int i = 0; i < 2000; i++) {
+      data.addData(Math.round(random.nextDouble() * 900 - 450),
+              Math.round(random.nextGaussian() * 100));
+    }
+    PointColumns columns = new DoublePointColumns();
+    for (Point2D point : data.getData()) {
+      columns.add(point.getX(), point.getY());
+    }
+    SpatialIndex index = data.getSpatialIndex();
+
+    for (int q = 0; q < 50; q++) {
+      double x = random.nextDouble() * 1200 - 600;
+      double y = random.nextDouble() * 600 - 300;
+      double size = random.nextDouble() * 200;
+      assertArrayEquals(scanRange(columns, x, x + size, y, y + size / 2),
+              index.rangeQuery(x, x + size, y, y + size / 2));
+      assertArrayEquals(scanNearest(columns, x, y, 7), index.nearest(x, y, 7));
+    }
+  }
+
+  @Test
+  public void testInsertedPointsAreFound() {
+    DataAnalysis data = new DataAnalysis();
+    for (int i = 0; i < 100; i++) {
+      data.addData(i % 10, i / 10);
+    }
+    SpatialIndex index = data.getSpatialIndex();
+    data.addData(5.5, 5.5);
+    data.addData(1000, -1000);
+
+    assertEquals(102, index.size());
+    assertArrayEquals(new int[]{100}, index.nearest(5.4, 5.6, 1));
+    assertArrayEquals(new int[]{101}, index.nearest(900, -900, 1));
+    assertArrayEquals(new int[]{55, 56, 65, 66, 100}, index.rangeQuery(5, 6, 5, 6));
+    assertArrayEquals(new int[]{101}, index.rangeQuery(999, 1001, -1001, -999));
+    assertEquals(5, index.countWithin(5.5, 5.5, 1, 100));
+    assertEquals(3, index.countWithin(5.5, 5.5, 1, 3));
+  }
+
+  @Test
+  public void testGrowthRebuildsGrid() {
+    DataAnalysis data = new DataAnalysis();
+    SpatialIndex index = data.getSpatialIndex();
+    PointColumns columns = new DoublePointColumns();
+    SplittableRandom random = new SplittableRandom(4);
+    for (int i = 0; i < 5000; i++) {
+      double x = random.nextDouble() * i;
+      double y = random.nextDouble() * 50;
+      data.addData(x, y);
+      columns.add(x, y);
+    }
+
+    assertEquals(5000, index.size());
+    assertArrayEquals(scanRange(columns, 100, 300, 10, 20), index.rangeQuery(100, 300, 10, 20));
+    assertArrayEquals(scanNearest(columns, 2500, 25, 20), index.nearest(2500, 25, 20));
+  }
+
+  @Test
+  public void testRadiusQuery() {
+    PointColumns columns = new DoublePointColumns();
+    columns.add(0, 0);
+    columns.add(3, 4);
+    columns.add(3, 4.01);
+    columns.add(-5, 0);
+    SpatialIndex index = new SpatialIndex(columns, 1);
+
+    assertArrayEquals(new int[]{0, 1, 3}, index.radiusQuery(0, 0, 5));
+    assertArrayEquals(new int[]{0, 1, 3, 2}, index.nearest(0, 0, 10));
+  }
+
+  @Test
+  public void testEmptyIndex() {
+    SpatialIndex index = new SpatialIndex(new DoublePointColumns());
+
+    assertEquals(0, index.rangeQuery(-1, 1, -1, 1).length);
+    assertEquals(0, index.nearest(0, 0, 3).length);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeCellSize() {
+    new SpatialIndex(new DoublePointColumns(), -1);
+  }
+}
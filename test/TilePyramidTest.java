@@ -0,0 +1,120 @@
+import org.junit.Test;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the TilePyramid class.
+ */
+public class TilePyramidTest {
+
+  /**
+   * Deletes the directory given and everything in it.
+   *
+   * @param directory the directory.
+   * @throws IOException if a file cannot be deleted.
+   */
+  private void deleteTree(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Test
+  public void testWriteOnlyChangedTiles() throws IOException {
+    Path directory = Files.createTempDirectory("tiles");
+    try {
+      TilePyramid pyramid = new TilePyramid(0, 1024, 0, 1024);
+      int[] points = {100, 100, 900, 900, 900, 100};
+      int[] colors = {0xFFFF0000, 0xFF0000FF, 0xFF00FF00};
+      pyramid.setPoints(points, colors, 3);
+
+      int first = pyramid.write(directory, 2);
+
+      assertEquals(1 + 3 + 3, first);
+      assertTrue(Files.exists(directory.resolve("0/0/0.png")));
+      assertTrue(Files.exists(directory.resolve("2/0/3.png")));
+      assertFalse(Files.exists(directory.resolve("2/0/0.png")));
+      assertEquals(0, pyramid.write(directory, 2));
+
+      points[2] = 880;
+      assertEquals(3, pyramid.write(directory, 2));
+
+      pyramid.setPoints(points, colors, 2);
+      assertEquals(1, pyramid.write(directory, 2));
+      assertFalse(Files.exists(directory.resolve("2/3/3.png")));
+      assertFalse(Files.exists(directory.resolve("1/1/1.png")));
+    } finally {
+      deleteTree(directory);
+    }
+  }
+
+  @Test
+  public void testLinesReachTiles() throws IOException {
+    Path directory = Files.createTempDirectory("tiles");
+    try {
+      TilePyramid pyramid = new TilePyramid(0, 1024, 0, 1024);
+      pyramid.setLines(new int[]{0, 0, 1024, 1024}, new int[]{0xFFFF0000}, 1);
+
+      pyramid.write(directory, 2);
+
+      assertTrue(Files.exists(directory.resolve("2/0/3.png")));
+      assertTrue(Files.exists(directory.resolve("2/3/0.png")));
+      assertFalse(Files.exists(directory.resolve("2/0/0.png")));
+    } finally {
+      deleteTree(directory);
+    }
+  }
+
+  @Test
+  public void testEdgePointsReachTiles() throws IOException {
+    Path directory = Files.createTempDirectory("tiles");
+    try {
+      TilePyramid pyramid = new TilePyramid(-450, 450, -450, 450);
+      pyramid.setPoints(new int[]{450, -450}, new int[]{0xFFFF0000}, 1);
+
+      assertEquals(2, pyramid.write(directory, 1));
+      assertTrue(Files.exists(directory.resolve("0/0/0.png")));
+      assertTrue(Files.exists(directory.resolve("1/1/1.png")));
+
+      pyramid.setPoints(new int[]{452, 200, 600, 0}, new int[]{0xFFFF0000, 0xFF0000FF}, 2);
+      pyramid.write(directory, 1);
+      assertTrue(Files.exists(directory.resolve("0/0/0.png")));
+      assertTrue(Files.exists(directory.resolve("1/1/0.png")));
+      assertFalse(Files.exists(directory.resolve("1/1/1.png")));
+    } finally {
+      deleteTree(directory);
+    }
+  }
+
+  @Test
+  public void testPlotterWritesTiles() throws IOException {
+    Path directory = Files.createTempDirectory("tiles");
+    try {
+      ImagePlotter plotter = new ImagePlotter();
+      plotter.setDimensions(-450, 450, -450, 450);
+      plotter.addPoint(10, 10, Color.BLUE);
+
+      assertEquals(2, plotter.writeTiles(directory.toString(), 1));
+      assertTrue(Files.exists(directory.resolve("1/1/0.png")));
+    } finally {
+      deleteTree(directory);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZoomOutOfRange() throws IOException {
+    new TilePyramid(0, 1, 0, 1).write(Paths.get("tiles"), TilePyramid.MAX_ZOOM + 1);
+  }
+}